@@ -29,8 +29,8 @@ import SearchIcon from '@mui/icons-material/Search'
 import TrendingUpIcon from '@mui/icons-material/TrendingUp'
 import TrendingDownIcon from '@mui/icons-material/TrendingDown'
 import ReceiptIcon from '@mui/icons-material/Receipt'
-import { User, TransactionHistory } from '../types'
-import { getAllTransactions } from '../services/api'
+import { User, TransactionHistory, SystemStats } from '../types'
+import { getAllTransactions, getStats, subscribeToAllTransactions } from '../services/api'
 
 interface AdminDashboardProps {
   user: User
@@ -42,12 +42,14 @@ function AdminDashboard({ user, onLogout }: AdminDashboardProps) {
   const [filteredTransactions, setFilteredTransactions] = useState<TransactionHistory[]>([])
   const [loading, setLoading] = useState(true)
   const [searchTerm, setSearchTerm] = useState('')
+  const [systemStats, setSystemStats] = useState<SystemStats | null>(null)
 
   const fetchData = useCallback(async () => {
     setLoading(true)
-    const allTx = await getAllTransactions()
+    const [allTx, rollups] = await Promise.all([getAllTransactions(), getStats()])
     setTransactions(allTx)
     setFilteredTransactions(allTx)
+    setSystemStats(rollups)
     setLoading(false)
   }, [])
 
@@ -55,6 +57,21 @@ function AdminDashboard({ user, onLogout }: AdminDashboardProps) {
     fetchData()
   }, [fetchData])
 
+  // New transactions of all cards are pushed by the core instead of re-fetched
+  useEffect(() => {
+    return subscribeToAllTransactions(
+      (transaction) =>
+        setTransactions((all) => (all.some((tx) => tx.id === transaction.id) ? all : [transaction, ...all])),
+      fetchData
+    )
+  }, [fetchData])
+
+  // The totals come from the core's rollups, which answer in constant time
+  useEffect(() => {
+    const timer = setInterval(async () => setSystemStats(await getStats()), 10000)
+    return () => clearInterval(timer)
+  }, [])
+
   useEffect(() => {
     if (searchTerm) {
       const filtered = transactions.filter(
@@ -75,20 +92,31 @@ function AdminDashboard({ user, onLogout }: AdminDashboardProps) {
     return new Date(timestamp).toLocaleString()
   }
 
-  // Calculate statistics
-  const stats = {
-    total: transactions.length,
-    successful: transactions.filter((tx) => tx.status === 'SUCCESS').length,
-    failed: transactions.filter((tx) => tx.status === 'FAILED').length,
-    topups: transactions.filter((tx) => tx.type === 'topup' && tx.status === 'SUCCESS').length,
-    withdrawals: transactions.filter((tx) => tx.type === 'withdraw' && tx.status === 'SUCCESS').length,
-    totalTopupAmount: transactions
-      .filter((tx) => tx.type === 'topup' && tx.status === 'SUCCESS')
-      .reduce((sum, tx) => sum + tx.amount, 0),
-    totalWithdrawalAmount: transactions
-      .filter((tx) => tx.type === 'withdraw' && tx.status === 'SUCCESS')
-      .reduce((sum, tx) => sum + tx.amount, 0),
-  }
+  // Statistics from the core's rollups (last days); computed from the loaded transactions if unavailable
+  const rollup = systemStats?.enabled ? systemStats.days.total : null
+  const stats = rollup
+    ? {
+        total: rollup.transactions,
+        successful: rollup.successful,
+        failed: rollup.failed,
+        topups: rollup.topups,
+        withdrawals: rollup.withdrawals,
+        totalTopupAmount: rollup.toppedUpAmount,
+        totalWithdrawalAmount: rollup.withdrawnAmount,
+      }
+    : {
+        total: transactions.length,
+        successful: transactions.filter((tx) => tx.status === 'SUCCESS').length,
+        failed: transactions.filter((tx) => tx.status === 'FAILED').length,
+        topups: transactions.filter((tx) => tx.type === 'topup' && tx.status === 'SUCCESS').length,
+        withdrawals: transactions.filter((tx) => tx.type === 'withdraw' && tx.status === 'SUCCESS').length,
+        totalTopupAmount: transactions
+          .filter((tx) => tx.type === 'topup' && tx.status === 'SUCCESS')
+          .reduce((sum, tx) => sum + tx.amount, 0),
+        totalWithdrawalAmount: transactions
+          .filter((tx) => tx.type === 'withdraw' && tx.status === 'SUCCESS')
+          .reduce((sum, tx) => sum + tx.amount, 0),
+      }
 
   if (loading) {
     return (
@@ -38,7 +38,7 @@ import AddIcon from '@mui/icons-material/Add'
 import HistoryIcon from '@mui/icons-material/History'
 import CreditCardIcon from '@mui/icons-material/CreditCard'
 import { User, CardInfo, TransactionHistory } from '../types'
-import { getCardByUsername, getTransactionHistory, processTransaction } from '../services/api'
+import { getCardByUsername, getTransactionHistory, processTransaction, subscribeToCard } from '../services/api'
 
 interface CustomerDashboardProps {
   user: User
@@ -75,6 +75,21 @@ function CustomerDashboard({ user, onLogout }: CustomerDashboardProps) {
     fetchData()
   }, [fetchData])
 
+  // Balance and history updates are pushed by the core instead of re-fetched
+  const cardNumber = cardInfo?.cardNumber
+  useEffect(() => {
+    if (!cardNumber) return
+    return subscribeToCard(
+      cardNumber,
+      (update) => setCardInfo((card) => (card ? { ...card, balance: update.balance } : card)),
+      (transaction) =>
+        setTransactions((history) =>
+          history.some((tx) => tx.id === transaction.id) ? history : [transaction, ...history]
+        ),
+      fetchData
+    )
+  }, [cardNumber, fetchData])
+
   const handleTransaction = async () => {
     if (!cardInfo || !amount || !pin) return
 
@@ -95,7 +110,7 @@ function CustomerDashboard({ user, onLogout }: CustomerDashboardProps) {
       setTopUpDialogOpen(false)
       setAmount('')
       setPin('')
-      fetchData() // Refresh data
+      // The new balance and history row arrive on the card's event stream
     } else {
       setSnackbar({
         open: true,
@@ -1,5 +1,5 @@
 import axios from 'axios'
-import { TransactionRequest, TransactionResponse, CardInfo, TransactionHistory } from '../types'
+import { TransactionRequest, TransactionResponse, CardInfo, TransactionHistory, BalanceUpdate, SystemStats } from '../types'
 
 // Helper function to ensure URL has https:// prefix
 function ensureHttps(url: string | undefined): string {
@@ -106,6 +106,63 @@ export async function getAllTransactions(): Promise<TransactionHistory[]> {
   }
 }
 
+/**
+ * Get system-wide transaction totals of the last minutes, hours and days (for admin - from Core Banking - System 2)
+ */
+export async function getStats(): Promise<SystemStats | null> {
+  try {
+    const response = await coreApi.get<SystemStats>('/stats')
+    return response.data
+  } catch (error) {
+    console.error('Failed to fetch stats:', error)
+    return null
+  }
+}
+
+/**
+ * Subscribe to a card's balance changes and new transactions (server-sent events from Core Banking - System 2).
+ * The browser reconnects on its own; onReconnect is called after each reconnect so missed updates can be re-fetched.
+ * Returns a function that closes the subscription.
+ */
+export function subscribeToCard(
+  cardNumber: string,
+  onBalance: (update: BalanceUpdate) => void,
+  onTransaction: (transaction: TransactionHistory) => void,
+  onReconnect?: () => void
+): () => void {
+  const source = openEventStream(`/events/cards/${encodeURIComponent(cardNumber)}`, onReconnect)
+  source.addEventListener('balance', (event) => onBalance(JSON.parse((event as MessageEvent).data)))
+  source.addEventListener('transaction', (event) => onTransaction(JSON.parse((event as MessageEvent).data)))
+  return () => source.close()
+}
+
+/**
+ * Subscribe to the new transactions of all cards (for admin - server-sent events from Core Banking - System 2).
+ * Returns a function that closes the subscription.
+ */
+export function subscribeToAllTransactions(
+  onTransaction: (transaction: TransactionHistory) => void,
+  onReconnect?: () => void
+): () => void {
+  const source = openEventStream('/events/transactions', onReconnect)
+  source.addEventListener('transaction', (event) => onTransaction(JSON.parse((event as MessageEvent).data)))
+  return () => source.close()
+}
+
+function openEventStream(path: string, onReconnect?: () => void): EventSource {
+  const source = new EventSource(`${CORE_URL}${path}`)
+  let connected = false
+  source.onopen = () => {
+    // Events published while disconnected (e.g. after a slow-client eviction) are not replayed
+    if (connected) {
+      onReconnect?.()
+    }
+    connected = true
+  }
+  source.onerror = () => console.warn(`Event stream ${path} interrupted, reconnecting`)
+  return source
+}
+
 /**
  * Check Gateway health
  */
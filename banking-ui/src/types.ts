@@ -49,3 +49,39 @@ export const USERS: Record<string, { password: string; role: 'CUSTOMER' | 'ADMIN
   cust2: { password: 'pass', role: 'CUSTOMER', cardNumber: '4987654321098765' },
   admin: { password: 'admin', role: 'ADMIN' },
 }
+
+// Pushed on a card's event stream after each successful transaction
+export interface BalanceUpdate {
+  cardNumber: string
+  balance: number
+  transactionId: number
+}
+
+// Totals of a minute, hour or day (or a whole window of them) from GET /stats
+export interface RollupSnapshot {
+  start: string
+  transactions: number
+  successful: number
+  failed: number
+  withdrawals: number
+  withdrawnAmount: number
+  topups: number
+  toppedUpAmount: number
+  failureReasons: Record<string, number>
+  topCards: { cardNumber: string; maskedCardNumber: string; amount: number }[]
+}
+
+export interface StatsWindow {
+  size: number
+  total: RollupSnapshot
+  buckets: RollupSnapshot[]
+}
+
+// System-wide rollups maintained by Core Banking
+export interface SystemStats {
+  enabled: boolean
+  instance: string
+  minutes: StatsWindow
+  hours: StatsWindow
+  days: StatsWindow
+}
@@ -0,0 +1,53 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.core.util.CryptoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number encryption, decryption and masking.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CryptoBenchmark {
+
+    private static final String CARD_NUMBER = "4123456789012345";
+
+    private CryptoUtil cryptoUtil;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        cryptoUtil = new CryptoUtil();
+        encrypted = cryptoUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return cryptoUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cryptoUtil.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String maskCardNumber() {
+        return CryptoUtil.maskCardNumber(CARD_NUMBER);
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.gateway.service.TransactionValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway input validation, run on every POST /transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GatewayValidationBenchmark {
+
+    private final TransactionRequest valid = new TransactionRequest("4123456789012345", "1234", 100, "TopUp");
+    private final TransactionRequest badFormat = new TransactionRequest("41234567890123x5", "1234", 100, "topup");
+    private final TransactionRequest badType = new TransactionRequest("4123456789012345", "1234", 100, "transfer");
+
+    @Benchmark
+    public String validRequest() {
+        return TransactionValidator.validate(valid);
+    }
+
+    @Benchmark
+    public String invalidCardFormat() {
+        return TransactionValidator.validate(badFormat);
+    }
+
+    @Benchmark
+    public String invalidType() {
+        return TransactionValidator.validate(badType);
+    }
+}
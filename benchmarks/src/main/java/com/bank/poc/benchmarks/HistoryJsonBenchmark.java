@@ -0,0 +1,92 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.core.dto.TransactionHistoryResponse;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.history.TransactionHistoryWriter;
+import com.bank.poc.core.history.TransactionRow;
+import com.bank.poc.core.util.CryptoUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction history JSON in System 2: entities mapped to TransactionHistoryResponse and
+ * serialised by the ObjectMapper (the previous path), against TransactionHistoryWriter writing
+ * the projected rows. Both write into a 16 KB-initial buffer standing in for the response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoryJsonBenchmark {
+
+    private static final String CARD = "4123456789012345";
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private TransactionHistoryWriter writer;
+    private List<Transaction> entities;
+    private List<TransactionRow> projected;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = new TransactionHistoryWriter(objectMapper);
+        entities = new ArrayList<>(rows);
+        projected = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 9, 0);
+        for (int i = 0; i < rows; i++) {
+            boolean failed = i % 10 == 0;
+            Transaction tx = new Transaction((long) i, CARD, i % 2 == 0 ? "withdraw" : "topup", 25.50 + i,
+                start.plusNanos(i * 1_234_567_000L), failed ? "FAILED" : "SUCCESS",
+                failed ? "Insufficient balance" : "Transaction completed successfully");
+            entities.add(tx);
+            projected.add(new TransactionRow(tx.getId(), tx.getCardNumber(), tx.getType(), tx.getAmount(),
+                tx.getTimestamp(), tx.getStatus(), tx.getReason()));
+        }
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws IOException {
+        List<TransactionHistoryResponse> responses = new ArrayList<>(entities.size());
+        for (Transaction tx : entities) {
+            responses.add(new TransactionHistoryResponse(tx.getId(), tx.getCardNumber(),
+                CryptoUtil.maskCardNumber(tx.getCardNumber()), tx.getType(), tx.getAmount(), tx.getTimestamp(),
+                tx.getStatus(), tx.getReason()));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        objectMapper.writeValue(out, responses);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] streamingWriter() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        writer.write(projected.stream(), out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialisation of the transaction DTOs, as done on both sides of
+ * every gateway-to-core call on the JSON transport.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectReader coreResponseReader;
+
+    private TransactionRequest request;
+    private com.bank.poc.common.dto.TransactionResponse coreResponse;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        requestWriter = objectMapper.writerFor(TransactionRequest.class);
+        requestReader = objectMapper.readerFor(com.bank.poc.common.dto.TransactionRequest.class);
+        responseWriter = objectMapper.writerFor(com.bank.poc.common.dto.TransactionResponse.class);
+        coreResponseReader = objectMapper.readerFor(TransactionResponse.class);
+
+        request = new TransactionRequest("4123456789012345", "1234", 100, "topup");
+        coreResponse = com.bank.poc.common.dto.TransactionResponse.success("Top-up successful", 1100.0, 42L);
+        requestJson = requestWriter.writeValueAsBytes(request);
+        responseJson = responseWriter.writeValueAsBytes(coreResponse);
+    }
+
+    /** Gateway: serialise the forwarded request. */
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    /** Core: deserialise the incoming request. */
+    @Benchmark
+    public Object deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    /** Core: serialise the response. */
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(coreResponse);
+    }
+
+    /** Gateway: deserialise the response. */
+    @Benchmark
+    public Object deserializeResponse() throws IOException {
+        return coreResponseReader.readValue(responseJson);
+    }
+}
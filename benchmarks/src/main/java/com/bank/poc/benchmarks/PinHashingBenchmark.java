@@ -0,0 +1,46 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.core.util.CryptoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PIN hashing and verification (SHA-256), run once per transaction in System 2.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PinHashingBenchmark {
+
+    private String pin;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        pin = "1234";
+        storedHash = CryptoUtil.hashPin(pin);
+    }
+
+    @Benchmark
+    public String hashPin() {
+        return CryptoUtil.hashPin(pin);
+    }
+
+    @Benchmark
+    public boolean verifyPin() {
+        return CryptoUtil.verifyPin(pin, storedHash);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.CoreBankApplication;
+import com.bank.poc.core.service.CardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end CardService.processTransaction against in-memory H2:
+ * card lookup, PIN check, balance update and audit row insert.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessTransactionBenchmark {
+
+    private static final String CARD_NUMBER = "4123456789012345";  // seeded by DataInitializer
+    private static final String PIN = "1234";
+
+    private ConfigurableApplicationContext context;
+    private CardService cardService;
+    private TransactionRequest topUp;
+    private TransactionRequest withdraw;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CoreBankApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.main.banner-mode=off",
+                "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                "logging.level.com.bank.poc=WARN",
+                "logging.level.org.hibernate=WARN",
+                "corebank.card-filter.rebuild-interval-ms=3600000")
+            .run();
+        cardService = context.getBean(CardService.class);
+        topUp = new TransactionRequest(CARD_NUMBER, PIN, 1.00, "topup");
+        withdraw = new TransactionRequest(CARD_NUMBER, PIN, 1.00, "withdraw");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** A top-up followed by a withdrawal, keeping the balance stable across iterations. */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public TransactionResponse topUpThenWithdraw() {
+        cardService.processTransaction(topUp);
+        return cardService.processTransaction(withdraw);
+    }
+
+    @Benchmark
+    public TransactionResponse invalidPin() {
+        return cardService.processTransaction(new TransactionRequest(CARD_NUMBER, "0000", 1.00, "withdraw"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.transport.BinaryCodec;
+import com.bank.poc.core.CoreBankApplication;
+import com.bank.poc.core.transport.BinaryTransportServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One top-up against an in-process core, sent as JSON over HTTP/1.1 (POST /process) and
+ * over the binary transport. Both run the same CardService path, so the difference is
+ * serialisation and protocol overhead; sample mode reports the latency percentiles.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private static final String CARD_NUMBER = "4123456789012345";  // seeded by DataInitializer
+    private static final String PIN = "1234";
+
+    private ConfigurableApplicationContext context;
+    private RestTemplate restTemplate;
+    private String processUrl;
+    private SocketChannel channel;
+    private TransactionRequest topUp;
+    private long correlationId;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(CoreBankApplication.class)
+            .web(WebApplicationType.SERVLET)
+            .properties(
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:jmh-transport;DB_CLOSE_DELAY=-1",
+                "logging.level.com.bank.poc=WARN",
+                "logging.level.org.hibernate=WARN",
+                "corebank.card-filter.rebuild-interval-ms=3600000",
+                "corebank.binary.enabled=true",
+                "corebank.binary.port=0")
+            .run();
+        restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        processUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/process";
+        topUp = new TransactionRequest(CARD_NUMBER, PIN, 1.00, "topup");
+
+        channel = SocketChannel.open(
+            new InetSocketAddress("localhost", context.getBean(BinaryTransportServer.class).getLocalPort()));
+        channel.socket().setTcpNoDelay(true);
+        write(BinaryCodec.encodeHello(0, BinaryCodec.HELLO));
+        BinaryCodec.Frame ack = BinaryCodec.readFrame(channel);
+        if (ack == null || ack.type() != BinaryCodec.HELLO_ACK) {
+            throw new IllegalStateException("Binary handshake failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        channel.close();
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse json() {
+        return restTemplate.postForObject(processUrl, topUp, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse binary() throws IOException {
+        long id = ++correlationId;
+        write(BinaryCodec.encodeRequest(id, topUp, null));
+        BinaryCodec.Frame reply = BinaryCodec.readFrame(channel);
+        if (reply == null || reply.correlationId() != id || reply.type() != BinaryCodec.PROCESS_RESPONSE) {
+            throw new IllegalStateException("Unexpected binary reply");
+        }
+        return BinaryCodec.decodeResponse(reply.payload());
+    }
+
+    private void write(ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+}
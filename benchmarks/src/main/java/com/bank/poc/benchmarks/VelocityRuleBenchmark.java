@@ -0,0 +1,70 @@
+package com.bank.poc.benchmarks;
+
+import com.bank.poc.core.velocity.VelocityRule;
+import com.bank.poc.core.velocity.VelocityRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Velocity rule evaluation in System 2, run under the card's row lock on every withdrawal,
+ * top-up and hold; should stay well under a microsecond. Three rules apply to withdrawals,
+ * with limits high enough that none is hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VelocityRuleBenchmark {
+
+    private static final String CARD = "4123456789012345";
+    private static final String UNKNOWN_CARD = "4999999999999999";
+
+    private VelocityRuleEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new VelocityRuleEngine(new SimpleMeterRegistry(), true,
+            "withdraw:count:1000000000:1m,withdraw:amount:1000000000:1h,*:count:1000000000:1h", 16, 16, 100_000);
+        for (int i = 0; i < 1_000; i++) {
+            engine.record(CARD, "withdraw", 25.00);
+        }
+    }
+
+    @Benchmark
+    public VelocityRule checkActiveCard() {
+        return engine.check(CARD, "withdraw", 25.00);
+    }
+
+    @Benchmark
+    public VelocityRule checkUnseenCard() {
+        return engine.check(UNKNOWN_CARD, "withdraw", 25.00);
+    }
+
+    @Benchmark
+    public void record() {
+        engine.record(CARD, "withdraw", 25.00);
+    }
+
+    /**
+     * Four threads counting withdrawals on the same card: CAS contention on its buckets.
+     */
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        engine.record(CARD, "withdraw", 25.00);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.poc.common.controller;
+
+import com.bank.poc.common.jfr.JfrRecordingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Admin endpoint for on-demand JDK Flight Recorder recordings (see JfrRecordingService).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class JfrController {
+
+    private final JfrRecordingService jfrRecordingService;
+
+    /**
+     * Get the state of the current recording.
+     * GET /admin/jfr
+     */
+    @GetMapping("/admin/jfr")
+    public ResponseEntity<Map<String, Object>> status() {
+        if (!jfrRecordingService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(jfrRecordingService.status());
+    }
+
+    /**
+     * Start a bounded recording.
+     * POST /admin/jfr/start?settings=profile&durationSeconds=60
+     */
+    @PostMapping("/admin/jfr/start")
+    public ResponseEntity<Map<String, Object>> start(
+            @RequestParam(defaultValue = "default") String settings,
+            @RequestParam(defaultValue = "60") long durationSeconds) throws IOException {
+        if (!jfrRecordingService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(jfrRecordingService.start(settings, durationSeconds));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stop the running recording.
+     * POST /admin/jfr/stop
+     */
+    @PostMapping("/admin/jfr/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        if (!jfrRecordingService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(jfrRecordingService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Download the running or last stopped recording (open it with JDK Mission Control or `jfr print`).
+     * GET /admin/jfr/download
+     */
+    @GetMapping("/admin/jfr/download")
+    public ResponseEntity<StreamingResponseBody> download() throws IOException {
+        if (!jfrRecordingService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file;
+        try {
+            file = jfrRecordingService.dump();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .contentLength(Files.size(file))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + jfrRecordingService.getRecordingName() + ".jfr\"")
+            .body(body);
+    }
+}
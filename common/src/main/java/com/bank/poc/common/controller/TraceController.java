@@ -0,0 +1,46 @@
+package com.bank.poc.common.controller;
+
+import com.bank.poc.common.tracing.TraceRecord;
+import com.bank.poc.common.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Recently finished traces from the in-process ring buffer (see Tracer).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class TraceController {
+
+    private final Tracer tracer;
+
+    /**
+     * List recent traces with their spans, newest first.
+     * GET /traces?minDurationMs=100&limit=20
+     */
+    @GetMapping("/traces")
+    public ResponseEntity<List<TraceRecord>> getTraces(
+            @RequestParam(defaultValue = "0") double minDurationMs,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(tracer.getTraces(minDurationMs, Math.max(0, limit)));
+    }
+
+    /**
+     * Get one trace by its W3C trace id.
+     * GET /traces/{traceId}
+     */
+    @GetMapping("/traces/{traceId}")
+    public ResponseEntity<TraceRecord> getTrace(@PathVariable String traceId) {
+        return tracer.getTrace(traceId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
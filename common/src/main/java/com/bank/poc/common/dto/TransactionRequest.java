@@ -1,4 +1,4 @@
-package com.bank.poc.core.dto;
+package com.bank.poc.common.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
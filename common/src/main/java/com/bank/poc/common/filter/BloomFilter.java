@@ -0,0 +1,102 @@
+package com.bank.poc.common.filter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact Bloom filter over card numbers.
+ *
+ * System 2 builds snapshots with this class and the gateway queries them with it, so
+ * the bit layout and hash function cannot drift apart. Changing them changes what an
+ * older gateway reads from a newer System 2's snapshot.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(long[] bits, int numBits, int numHashes) {
+        this.bits = bits;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Create an empty filter sized for the expected number of entries
+     * and the target false-positive rate.
+     */
+    public static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int numBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, m));
+        int numHashes = (int) Math.max(1, Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(new long[(numBits + 63) / 64], numBits, numHashes);
+    }
+
+    /**
+     * Rebuild a filter from its serialized bits.
+     */
+    public static BloomFilter fromBytes(byte[] data, int numBits, int numHashes) {
+        long[] bits = new long[(numBits + 63) / 64];
+        ByteBuffer.wrap(data).asLongBuffer().get(bits);
+        return new BloomFilter(bits, numBits, numHashes);
+    }
+
+    public void put(String key) {
+        long hash = hash64(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * False means the key was definitely never added; true means it probably was.
+     */
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES);
+        buffer.asLongBuffer().put(bits);
+        return buffer.array();
+    }
+
+    public int getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 fmix64 mixer.
+     */
+    static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
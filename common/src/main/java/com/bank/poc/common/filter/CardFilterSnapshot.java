@@ -0,0 +1,31 @@
+package com.bank.poc.common.filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bloom filter snapshot of card numbers, published by System 2 (GET /cards/filter) so the
+ * gateway can reject definitely-unknown cards without calling it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardFilterSnapshot {
+
+    private String version;             // Content digest; identical card sets give identical versions
+
+    private LocalDateTime generatedAt;
+
+    private long cardCount;
+
+    private double falsePositiveRate;
+
+    private int numBits;
+
+    private int numHashes;
+
+    private String bits;                // Base64 of the big-endian long[] bit array
+}
@@ -0,0 +1,12 @@
+package com.bank.poc.common.jfr;
+
+import jdk.jfr.Event;
+
+import java.util.List;
+
+/**
+ * A service's own JFR event types, enabled in every /admin/jfr recording next to SpanEvent.
+ * Each service declares one as a bean.
+ */
+public record JfrEvents(List<Class<? extends Event>> types) {
+}
@@ -0,0 +1,163 @@
+package com.bank.poc.common.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-demand JDK Flight Recorder recording for the /admin/jfr endpoint.
+ *
+ * - One recording at a time, using the JDK's "default" or "profile" settings plus this
+ *   the custom events: com.bank.poc.Span and the service's own (JfrEvents).
+ * - Bounded: it stops by itself after the requested duration (capped at
+ *   admin.jfr.max-duration-seconds) and keeps at most admin.jfr.max-size-mb on disk.
+ * - A stopped recording stays downloadable until the next one is started.
+ */
+@Service
+@Slf4j
+public class JfrRecordingService {
+
+    private final String recordingName;
+    private final List<Class<? extends Event>> eventTypes;
+    private final boolean enabled;
+    private final long maxDurationSeconds;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private String settings;
+
+    @Autowired
+    public JfrRecordingService(@Value("${admin.jfr.enabled:true}") boolean enabled,
+                               @Value("${admin.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+                               @Value("${admin.jfr.max-size-mb:100}") long maxSizeMb,
+                               @Value("${spring.application.name:banking}") String applicationName,
+                               ObjectProvider<JfrEvents> serviceEvents) {
+        this(enabled, maxDurationSeconds, maxSizeMb, applicationName,
+            serviceEvents.orderedStream().flatMap(events -> events.types().stream()).toList());
+    }
+
+    public JfrRecordingService(boolean enabled, long maxDurationSeconds, long maxSizeMb, String recordingName,
+                               List<Class<? extends Event>> serviceEventTypes) {
+        this.recordingName = recordingName;
+        this.eventTypes = serviceEventTypes;
+        this.enabled = enabled;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The recording's name (the application name), also the stem of downloaded files.
+     */
+    public String getRecordingName() {
+        return recordingName;
+    }
+
+    /**
+     * Start a new recording, discarding the previous (stopped) one.
+     *
+     * @param settingsName    "default" (low overhead) or "profile" (adds method sampling, lock and I/O detail)
+     * @param durationSeconds recording length, capped at admin.jfr.max-duration-seconds
+     * @throws IllegalStateException    if a recording is already running
+     * @throws IllegalArgumentException if the settings name is unknown
+     */
+    public synchronized Map<String, Object> start(String settingsName, long durationSeconds) throws IOException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (ParseException | IOException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settingsName);
+        }
+        closeRecording();
+
+        Recording started = new Recording(configuration);
+        started.setName(recordingName);
+        started.setToDisk(true);
+        started.setMaxSize(maxSizeBytes);
+        started.setDuration(Duration.ofSeconds(Math.max(1, Math.min(durationSeconds, maxDurationSeconds))));
+        started.enable(SpanEvent.class);
+        eventTypes.forEach(started::enable);
+        started.start();
+        recording = started;
+        settings = settingsName;
+        log.info("Started JFR recording ({} settings, {} s)", settingsName, started.getDuration().toSeconds());
+        return status();
+    }
+
+    /**
+     * Stop the running recording; its data stays available for download.
+     *
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        log.info("Stopped JFR recording");
+        return status();
+    }
+
+    /**
+     * Write the current (running or stopped) recording to a temporary .jfr file.
+     * The caller deletes the file.
+     *
+     * @throws IllegalStateException if there is nothing to download
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null || (recording.getState() != RecordingState.RUNNING
+                && recording.getState() != RecordingState.STOPPED)) {
+            throw new IllegalStateException("No recording to download");
+        }
+        Path file = Files.createTempFile(recordingName + "-", ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("settings", settings);
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("durationSeconds", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bank.poc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one trace span (see Tracer), so a stage's thread and time window can be
+ * lined up with GC, lock contention and socket/JDBC wait events in the same recording.
+ */
+@Name("com.bank.poc.Span")
+@Label("Trace Span")
+@Category({"Banking", "Tracing"})
+@Description("One stage of a traced request")
+@StackTrace(false)
+public class SpanEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(SpanEvent.class);
+
+    @Label("Trace Id")
+    public String traceId;
+
+    @Label("Span Id")
+    public String spanId;
+
+    @Label("Parent Span Id")
+    public String parentSpanId;
+
+    @Label("Name")
+    public String name;
+
+    /**
+     * A begun event if any recording has this event enabled, otherwise null
+     * (so spans allocate nothing extra when no recording is running).
+     */
+    public static SpanEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        SpanEvent event = new SpanEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bank.poc.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback AsyncAppender (a bounded queue drained by one worker thread) with an
+ * explicit overflow policy and counters for every line it gives up on:
+ *
+ * - queue below the discarding threshold: INFO and below are discarded (counted)
+ * - queue full: INFO and below are dropped (counted); WARN and ERROR block the
+ *   caller until there is room (counted as blocked), so failures are never lost
+ *
+ * Request threads therefore only pay for an enqueue; formatting and I/O happen on
+ * the worker. The counters are static so they can be exported as metrics even
+ * though logback, not Spring, creates the appender.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder BLOCKED = new LongAdder();
+
+    private static volatile CountingAsyncAppender active;
+
+    @Override
+    public void start() {
+        // Blocking is decided per event in append(); the queue itself must block
+        setNeverBlock(false);
+        super.start();
+        if (isStarted()) {
+            active = this;
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isStarted() && getRemainingCapacity() == 0) {
+            if (!event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                DROPPED.increment();
+                return;
+            }
+            BLOCKED.increment();
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            DISCARDED.increment();
+        }
+        return discardable;
+    }
+
+    /**
+     * INFO/DEBUG/TRACE lines discarded because the queue was nearly full.
+     */
+    public static long getDiscarded() {
+        return DISCARDED.sum();
+    }
+
+    /**
+     * INFO/DEBUG/TRACE lines dropped because the queue was full.
+     */
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * WARN/ERROR lines whose caller had to wait for room in a full queue.
+     */
+    public static long getBlocked() {
+        return BLOCKED.sum();
+    }
+
+    /**
+     * Lines waiting in the active appender's queue (0 if none is running).
+     */
+    public static int getQueueDepth() {
+        CountingAsyncAppender appender = active;
+        return appender == null ? 0 : appender.getNumberOfElementsInQueue();
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.poc.common.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Markers understood by the logging setup in logback-spring.xml.
+ */
+public final class LogMarkers {
+
+    /**
+     * Success-path lines logged on every transaction. SamplingTurboFilter keeps only
+     * one in N of them per level (logging.sampling.info-every / debug-every);
+     * WARN and ERROR lines are never sampled.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.poc.common.logging;
+
+/**
+ * Log argument that masks a card number only when the line is actually written,
+ * so sampled-out or disabled lines never pay for the masking.
+ *
+ *   log.warn("Invalid PIN attempt for card: {}", MaskedCard.of(cardNumber));  // ****2345
+ */
+public final class MaskedCard {
+
+    private final String cardNumber;
+
+    private MaskedCard(String cardNumber) {
+        this.cardNumber = cardNumber;
+    }
+
+    public static MaskedCard of(String cardNumber) {
+        return new MaskedCard(cardNumber);
+    }
+
+    @Override
+    public String toString() {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return "****";
+        }
+        return "****" + cardNumber.substring(cardNumber.length() - 4);
+    }
+}
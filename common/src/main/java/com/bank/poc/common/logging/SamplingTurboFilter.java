@@ -0,0 +1,75 @@
+package com.bank.poc.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback turbo filter that keeps one in N SAMPLED-marked lines per level and
+ * denies the rest before any event is built or any argument is formatted.
+ *
+ * Lines without the marker, lines at WARN or above, and lines the logger would not
+ * log anyway are left alone. Configured in logback-spring.xml from
+ * logging.sampling.info-every / logging.sampling.debug-every (1 keeps every line).
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    private int infoEvery = 1;
+    private int debugEvery = 1;
+    private final AtomicLong infoSeen = new AtomicLong();
+    private final AtomicLong debugSeen = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || level == null || !marker.contains(LogMarkers.SAMPLED)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        int every;
+        AtomicLong seen;
+        if (level == Level.INFO) {
+            every = infoEvery;
+            seen = infoSeen;
+        } else if (level == Level.DEBUG || level == Level.TRACE) {
+            every = debugEvery;
+            seen = debugSeen;
+        } else {
+            return FilterReply.NEUTRAL;
+        }
+        if (every <= 1 || seen.getAndIncrement() % every == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        SAMPLED_OUT.increment();
+        return FilterReply.DENY;
+    }
+
+    public void setInfoEvery(int infoEvery) {
+        this.infoEvery = Math.max(1, infoEvery);
+    }
+
+    public void setDebugEvery(int debugEvery) {
+        this.debugEvery = Math.max(1, debugEvery);
+    }
+
+    public int getInfoEvery() {
+        return infoEvery;
+    }
+
+    public int getDebugEvery() {
+        return debugEvery;
+    }
+
+    /**
+     * SAMPLED lines denied since startup, across all filter instances.
+     */
+    public static long getSampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+}
@@ -0,0 +1,177 @@
+package com.bank.poc.common.tracing;
+
+import com.bank.poc.common.jfr.SpanEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * One timed stage of a trace. Close it (try-with-resources) to end it.
+ *
+ * Spans started through Tracer become the thread's current span until closed;
+ * child() creates a span that is not made current, for work on another thread.
+ * A disabled tracer (or a span started outside any trace) returns Span.NOOP,
+ * which records nothing. While a JFR recording is running, every span is also
+ * committed as a SpanEvent.
+ */
+public final class Span implements AutoCloseable {
+
+    public static final Span NOOP = new Span();
+
+    private final Tracer tracer;
+    private final Collector collector;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final long startNanos;
+    private final boolean root;
+    private final boolean current;
+    private final Span previous;
+    private final SpanEvent event;
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private boolean ended;
+
+    /**
+     * Shared by all spans of one trace in this process.
+     */
+    static final class Collector {
+        final String traceId;
+        final long startEpochMs = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        final Queue<TraceRecord.SpanRecord> finished = new ConcurrentLinkedQueue<>();
+
+        Collector(String traceId) {
+            this.traceId = traceId;
+        }
+    }
+
+    private Span() {
+        this(null, null, null, null, false, false, null);
+    }
+
+    Span(Tracer tracer, Collector collector, String parentSpanId, String name,
+         boolean root, boolean current, Span previous) {
+        this.tracer = tracer;
+        this.collector = collector;
+        this.spanId = tracer == null ? null : Tracer.randomSpanId();
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.root = root;
+        this.current = current;
+        this.previous = previous;
+        this.event = tracer == null ? null : SpanEvent.beginIfEnabled();
+    }
+
+    /**
+     * Start a child span that is not made current (e.g. for work handed to another thread).
+     */
+    public Span child(String childName) {
+        if (this == NOOP) {
+            return NOOP;
+        }
+        return new Span(tracer, collector, spanId, childName, false, false, null);
+    }
+
+    /**
+     * Attach a tag (e.g. outcome, node) to this span.
+     */
+    public Span tag(String key, Object value) {
+        if (this != NOOP) {
+            synchronized (tags) {
+                tags.put(key, String.valueOf(value));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * W3C traceparent header value naming this span as the parent, or null for NOOP.
+     */
+    public String traceparent() {
+        return this == NOOP ? null : "00-" + collector.traceId + "-" + spanId + "-01";
+    }
+
+    public String getTraceId() {
+        return this == NOOP ? null : collector.traceId;
+    }
+
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    /**
+     * Total duration of the already finished spans of this trace with the given name
+     * (e.g. every "card.lookup"), in nanoseconds; 0 for NOOP.
+     */
+    public long stageNanos(String stageName) {
+        if (this == NOOP) {
+            return 0;
+        }
+        double totalMs = 0;
+        for (TraceRecord.SpanRecord span : collector.finished) {
+            if (span.name().equals(stageName)) {
+                totalMs += span.durationMs();
+            }
+        }
+        return (long) (totalMs * 1_000_000);
+    }
+
+    String getSpanId() {
+        return spanId;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isRoot() {
+        return root;
+    }
+
+    boolean isCurrent() {
+        return current;
+    }
+
+    Span getPrevious() {
+        return previous;
+    }
+
+    Collector getCollector() {
+        return collector;
+    }
+
+    @Override
+    public void close() {
+        if (this == NOOP) {
+            return;
+        }
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+        }
+        double durationMs = (System.nanoTime() - startNanos) / 1_000_000.0;
+        Map<String, String> tagsCopy;
+        synchronized (tags) {
+            tagsCopy = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        }
+        collector.finished.add(new TraceRecord.SpanRecord(spanId, parentSpanId, name,
+            (startNanos - collector.startNanos) / 1_000_000.0, durationMs, tagsCopy));
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.traceId = collector.traceId;
+                event.spanId = spanId;
+                event.parentSpanId = parentSpanId;
+                event.name = name;
+                event.commit();
+            }
+        }
+        tracer.ended(this, durationMs);
+    }
+}
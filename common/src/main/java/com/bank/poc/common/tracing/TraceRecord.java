@@ -0,0 +1,26 @@
+package com.bank.poc.common.tracing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finished trace as kept in the Tracer's ring buffer and returned by GET /traces.
+ * Span offsets and durations are in milliseconds relative to the start of the trace
+ * in this process.
+ */
+public record TraceRecord(
+        String traceId,
+        String name,
+        long startEpochMs,
+        double durationMs,
+        List<SpanRecord> spans) {
+
+    public record SpanRecord(
+            String spanId,
+            String parentSpanId,
+            String name,
+            double offsetMs,
+            double durationMs,
+            Map<String, String> tags) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.bank.poc.common.tracing;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Minimal in-process tracer using W3C trace context (the traceparent header).
+ *
+ * - startTrace() opens the root span of a request, continuing the caller's trace when a
+ *   valid traceparent is supplied, so gateway and core spans share one trace id.
+ * - startSpan() opens a child of the thread's current span around one stage.
+ * - When the root span ends, the trace is stored in a fixed-size ring buffer that
+ *   GET /traces reads, so slow requests can be inspected without an external collector.
+ * - While a root span is open its trace id is in the logging MDC under "traceId", so
+ *   log lines (fields of the prod JSON output) can be joined to the trace.
+ *
+ * Shared by the gateway and System 2, so both record and propagate traces the same way.
+ */
+@Component
+public class Tracer {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+
+    private final boolean enabled;
+    private final AtomicReferenceArray<TraceRecord> buffer;
+    private final AtomicLong written = new AtomicLong();
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    public Tracer(@Value("${tracing.enabled:true}") boolean enabled,
+                  @Value("${tracing.buffer-size:1000}") int bufferSize) {
+        this.enabled = enabled;
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+    }
+
+    /**
+     * Start the root span of a request and make it current.
+     *
+     * @param traceparent the caller's W3C traceparent header (may be null or invalid,
+     *                    in which case a new trace is started)
+     */
+    public Span startTrace(String name, String traceparent) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        String traceId;
+        String parentSpanId = null;
+        if (isValidTraceparent(traceparent)) {
+            traceId = traceparent.substring(3, 35);
+            parentSpanId = traceparent.substring(36, 52);
+        } else {
+            traceId = randomSpanId() + randomSpanId();
+        }
+        Span span = new Span(this, new Span.Collector(traceId), parentSpanId, name, true, true, current.get());
+        current.set(span);
+        MDC.put(TRACE_ID_MDC_KEY, traceId);
+        return span;
+    }
+
+    /**
+     * Start a child of the current span and make it current; NOOP outside a trace.
+     */
+    public Span startSpan(String name) {
+        Span parent = current.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent.getCollector(), parent.getSpanId(), name, false, true, parent);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * The thread's current span, or NOOP outside a trace.
+     */
+    public Span currentSpan() {
+        Span span = current.get();
+        return span == null ? Span.NOOP : span;
+    }
+
+    void ended(Span span, double durationMs) {
+        if (span.isCurrent() && current.get() == span) {
+            if (span.getPrevious() == null) {
+                current.remove();
+            } else {
+                current.set(span.getPrevious());
+            }
+        }
+        if (span.isRoot()) {
+            Span previous = span.getPrevious();
+            if (previous == null) {
+                MDC.remove(TRACE_ID_MDC_KEY);
+            } else {
+                MDC.put(TRACE_ID_MDC_KEY, previous.getTraceId());
+            }
+            Span.Collector collector = span.getCollector();
+            List<TraceRecord.SpanRecord> spans = new ArrayList<>(collector.finished);
+            spans.sort(Comparator.comparingDouble(TraceRecord.SpanRecord::offsetMs));
+            TraceRecord trace = new TraceRecord(collector.traceId, span.getName(),
+                collector.startEpochMs, durationMs, List.copyOf(spans));
+            buffer.set((int) (written.getAndIncrement() % buffer.length()), trace);
+        }
+    }
+
+    /**
+     * Finished traces, newest first.
+     *
+     * @param minDurationMs only traces at least this slow
+     * @param limit         maximum number of traces returned
+     */
+    public List<TraceRecord> getTraces(double minDurationMs, int limit) {
+        List<TraceRecord> traces = new ArrayList<>();
+        long end = written.get();
+        long start = Math.max(0, end - buffer.length());
+        for (long i = end - 1; i >= start && traces.size() < limit; i--) {
+            TraceRecord trace = buffer.get((int) (i % buffer.length()));
+            if (trace != null && trace.durationMs() >= minDurationMs) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * The most recent finished trace with this id, if still buffered.
+     */
+    public Optional<TraceRecord> getTrace(String traceId) {
+        return getTraces(0, buffer.length()).stream()
+            .filter(trace -> trace.traceId().equals(traceId))
+            .findFirst();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTraceCount() {
+        return written.get();
+    }
+
+    static String randomSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return String.format("%016x", id);
+    }
+
+    /**
+     * Accepts version-00 style headers: 2 hex version, 32 hex trace id, 16 hex span id,
+     * 2 hex flags, dash-separated, with non-zero ids.
+     */
+    static boolean isValidTraceparent(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-'
+                || traceparent.startsWith("ff")) {
+            return false;
+        }
+        for (int i = 0; i < 55; i++) {
+            if (i != 2 && i != 35 && i != 52 && Character.digit(traceparent.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return !traceparent.substring(3, 35).matches("0+") && !traceparent.substring(36, 52).matches("0+");
+    }
+}
@@ -0,0 +1,267 @@
+package com.bank.poc.common.transport;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of gateway-to-core transaction traffic.
+ *
+ * Frame:  int32 length | int64 correlationId | int8 frameType | payload
+ *         (length counts everything after the length field)
+ *
+ * PROCESS_REQUEST payload:
+ *   int64 card number (16 digits) | int8 type | float64 amount
+ *   | str8 PIN | str16 idempotency key (empty = none)
+ *   | str8 W3C traceparent (empty = none; since version 2)
+ *
+ * PROCESS_RESPONSE payload:
+ *   int8 flags (1 = success, 2 = has balance, 4 = has transaction id)
+ *   | [float64 balance] | [int64 transaction id] | str16 message
+ *
+ * The gateway encodes requests and System 2 decodes them with this one class;
+ * PROTOCOL_VERSION must be bumped whenever the encoding changes, as the two services
+ * may be deployed at different versions.
+ */
+public final class BinaryCodec {
+
+    public static final short PROTOCOL_VERSION = 2;
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    public static final byte HELLO = 1;
+    public static final byte HELLO_ACK = 2;
+    public static final byte PROCESS_REQUEST = 3;
+    public static final byte PROCESS_RESPONSE = 4;
+    public static final byte ERROR = 5;
+
+    private static final byte TYPE_OTHER = 0;
+    private static final byte TYPE_WITHDRAW = 1;
+    private static final byte TYPE_TOPUP = 2;
+
+    private static final byte FLAG_SUCCESS = 1;
+    private static final byte FLAG_BALANCE = 2;
+    private static final byte FLAG_TRANSACTION_ID = 4;
+
+    private static final int HEADER_LENGTH = Long.BYTES + 1;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * One decoded frame; payload is positioned at the start of the frame body.
+     */
+    public record Frame(long correlationId, byte type, ByteBuffer payload) {
+    }
+
+    /**
+     * A decoded process request plus its optional idempotency key and trace context.
+     */
+    public record ProcessRequest(TransactionRequest request, String idempotencyKey, String traceparent) {
+    }
+
+    // ==================== Frames ====================
+
+    public static ByteBuffer encodeHello(long correlationId, byte type) {
+        ByteBuffer frame = allocate(Short.BYTES);
+        putHeader(frame, correlationId, type);
+        frame.putShort(PROTOCOL_VERSION);
+        return finish(frame);
+    }
+
+    public static ByteBuffer encodeError(long correlationId, String message) {
+        byte[] text = utf8(message);
+        ByteBuffer frame = allocate(Short.BYTES + text.length);
+        putHeader(frame, correlationId, ERROR);
+        putStr16(frame, text);
+        return finish(frame);
+    }
+
+    public static ByteBuffer encodeRequest(long correlationId, TransactionRequest request, String idempotencyKey) {
+        return encodeRequest(correlationId, request, idempotencyKey, null);
+    }
+
+    public static ByteBuffer encodeRequest(long correlationId, TransactionRequest request, String idempotencyKey,
+                                           String traceparent) {
+        byte[] pin = request.getPin() == null ? new byte[0] : request.getPin().getBytes(StandardCharsets.US_ASCII);
+        byte[] key = idempotencyKey == null ? new byte[0] : utf8(idempotencyKey);
+        byte[] trace = traceparent == null ? new byte[0] : traceparent.getBytes(StandardCharsets.US_ASCII);
+        if (pin.length > 255 || trace.length > 255) {
+            throw new IllegalArgumentException("PIN or traceparent too long for binary encoding");
+        }
+
+        ByteBuffer frame = allocate(Long.BYTES + 1 + Double.BYTES + 1 + pin.length + Short.BYTES + key.length
+            + 1 + trace.length);
+        putHeader(frame, correlationId, PROCESS_REQUEST);
+        frame.putLong(encodeCardNumber(request.getCardNumber()));
+        frame.put(encodeType(request.getType()));
+        frame.putDouble(request.getAmount());
+        frame.put((byte) pin.length).put(pin);
+        putStr16(frame, key);
+        frame.put((byte) trace.length).put(trace);
+        return finish(frame);
+    }
+
+    public static ProcessRequest decodeRequest(ByteBuffer payload) {
+        TransactionRequest request = new TransactionRequest();
+        request.setCardNumber(String.format("%016d", payload.getLong()));
+        request.setType(decodeType(payload.get()));
+        request.setAmount(payload.getDouble());
+        byte[] pin = new byte[payload.get() & 0xFF];
+        payload.get(pin);
+        request.setPin(new String(pin, StandardCharsets.US_ASCII));
+        String key = getStr16(payload);
+        byte[] trace = new byte[payload.get() & 0xFF];
+        payload.get(trace);
+        return new ProcessRequest(request, key.isEmpty() ? null : key,
+            trace.length == 0 ? null : new String(trace, StandardCharsets.US_ASCII));
+    }
+
+    public static ByteBuffer encodeResponse(long correlationId, TransactionResponse response) {
+        byte[] message = utf8(response.getMessage() == null ? "" : response.getMessage());
+        byte flags = 0;
+        int size = 1 + Short.BYTES + message.length;
+        if (response.isSuccess()) {
+            flags |= FLAG_SUCCESS;
+        }
+        if (response.getNewBalance() != null) {
+            flags |= FLAG_BALANCE;
+            size += Double.BYTES;
+        }
+        if (response.getTransactionId() != null) {
+            flags |= FLAG_TRANSACTION_ID;
+            size += Long.BYTES;
+        }
+
+        ByteBuffer frame = allocate(size);
+        putHeader(frame, correlationId, PROCESS_RESPONSE);
+        frame.put(flags);
+        if (response.getNewBalance() != null) {
+            frame.putDouble(response.getNewBalance());
+        }
+        if (response.getTransactionId() != null) {
+            frame.putLong(response.getTransactionId());
+        }
+        putStr16(frame, message);
+        return finish(frame);
+    }
+
+    public static TransactionResponse decodeResponse(ByteBuffer payload) {
+        byte flags = payload.get();
+        Double balance = (flags & FLAG_BALANCE) != 0 ? payload.getDouble() : null;
+        Long transactionId = (flags & FLAG_TRANSACTION_ID) != 0 ? payload.getLong() : null;
+        String message = getStr16(payload);
+        return new TransactionResponse((flags & FLAG_SUCCESS) != 0, message, balance, transactionId);
+    }
+
+    public static short decodeVersion(ByteBuffer payload) {
+        return payload.getShort();
+    }
+
+    public static String decodeError(ByteBuffer payload) {
+        return getStr16(payload);
+    }
+
+    /**
+     * Read one complete frame (blocking), or return null at end of stream.
+     */
+    public static Frame readFrame(ReadableByteChannel channel) throws IOException {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        if (!readFully(channel, lengthBuffer, true)) {
+            return null;
+        }
+        int length = lengthBuffer.flip().getInt();
+        if (length < HEADER_LENGTH || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body, false);
+        body.flip();
+        long correlationId = body.getLong();
+        byte type = body.get();
+        return new Frame(correlationId, type, body.slice());
+    }
+
+    // ==================== Field encodings ====================
+
+    static long encodeCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() != 16) {
+            throw new IllegalArgumentException("Binary transport requires a 16-digit card number");
+        }
+        long value = 0;
+        for (int i = 0; i < 16; i++) {
+            char c = cardNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Binary transport requires a 16-digit card number");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static byte encodeType(String type) {
+        if ("withdraw".equalsIgnoreCase(type)) {
+            return TYPE_WITHDRAW;
+        }
+        if ("topup".equalsIgnoreCase(type)) {
+            return TYPE_TOPUP;
+        }
+        return TYPE_OTHER;
+    }
+
+    private static String decodeType(byte type) {
+        return switch (type) {
+            case TYPE_WITHDRAW -> "withdraw";
+            case TYPE_TOPUP -> "topup";
+            default -> "unknown";
+        };
+    }
+
+    private static ByteBuffer allocate(int payloadLength) {
+        return ByteBuffer.allocate(Integer.BYTES + HEADER_LENGTH + payloadLength);
+    }
+
+    private static void putHeader(ByteBuffer frame, long correlationId, byte type) {
+        frame.putInt(frame.capacity() - Integer.BYTES);
+        frame.putLong(correlationId);
+        frame.put(type);
+    }
+
+    private static ByteBuffer finish(ByteBuffer frame) {
+        return frame.flip();
+    }
+
+    private static void putStr16(ByteBuffer buffer, byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for binary encoding");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getStr16(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean eofAllowed)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (eofAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed mid-frame");
+            }
+        }
+        return true;
+    }
+}
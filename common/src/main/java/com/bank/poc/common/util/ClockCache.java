@@ -0,0 +1,172 @@
+package com.bank.poc.common.util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Bounded per-card state (rate-limit buckets, velocity counters, failed-PIN counters) with
+ * clock (second-chance) eviction.
+ *
+ * - Entries live in N independent stripes (hash of the key) of at most maxEntries / stripes
+ *   entries each, so threads working on different keys never contend.
+ * - Reading an entry is lock-free and marks it referenced. Only creating one takes its stripe's
+ *   lock, which keeps the size check and the eviction atomic.
+ * - A full stripe walks its entries in creation order: entries referenced since they were
+ *   created or last passed over are kept once more, the first one that was not is evicted.
+ *   A flood of new keys therefore evicts its own one-off entries first, in amortised O(1) per
+ *   new key.
+ *
+ * The evicted callback receives the number of entries dropped by the clock or by removeIf;
+ * remove() is not counted.
+ */
+public final class ClockCache<V> {
+
+    private final Stripe<V>[] stripes;
+    private final int stripeMask;
+    private final int maxEntriesPerStripe;
+    private final IntConsumer evicted;
+
+    /**
+     * A value and its second-chance flag.
+     */
+    private static final class Entry<V> {
+        final String key;
+        final V value;
+        volatile boolean referenced;
+
+        Entry(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * One stripe: its entries, and the same entries in creation order for the eviction clock
+     * (guarded by the stripe's lock). The clock may still hold entries removed from the map;
+     * they are skipped and dropped when reached.
+     */
+    private static final class Stripe<V> {
+        final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+        final ArrayDeque<Entry<V>> clock = new ArrayDeque<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public ClockCache(int stripes, int maxEntries, IntConsumer evicted) {
+        int stripeCount = 1;
+        while (stripeCount < stripes) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / stripeCount);
+        this.evicted = evicted;
+    }
+
+    /**
+     * @return the key's value, or null if it has none
+     */
+    public V get(String key) {
+        Entry<V> entry = stripe(key).entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * The key's value, created by the factory if it has none (evicting from a full stripe).
+     */
+    public V computeIfAbsent(String key, Function<String, V> factory) {
+        V value = get(key);
+        return value != null ? value : create(stripe(key), key, factory);
+    }
+
+    public void remove(String key) {
+        stripe(key).entries.remove(key);
+    }
+
+    /**
+     * Drop the entries whose value matches, e.g. idle ones.
+     *
+     * @return the number of entries dropped
+     */
+    public int removeIf(Predicate<V> filter) {
+        int removed = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Entry<V>> it = stripe.clock.iterator();
+                while (it.hasNext()) {
+                    Entry<V> entry = it.next();
+                    if (stripe.entries.get(entry.key) != entry) {
+                        it.remove();
+                    } else if (filter.test(entry.value)) {
+                        it.remove();
+                        stripe.entries.remove(entry.key, entry);
+                        removed++;
+                    }
+                }
+            }
+        }
+        if (removed > 0) {
+            evicted.accept(removed);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe<V> stripe : stripes) {
+            total += stripe.entries.size();
+        }
+        return total;
+    }
+
+    private V create(Stripe<V> stripe, String key, Function<String, V> factory) {
+        synchronized (stripe) {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry != null) {
+                return entry.value;
+            }
+            while (stripe.entries.size() >= maxEntriesPerStripe && evictOne(stripe)) {
+                // Each pass either evicts or clears a referenced flag, so this ends
+            }
+            entry = new Entry<>(key, factory.apply(key));
+            stripe.entries.put(key, entry);
+            stripe.clock.addLast(entry);
+            return entry.value;
+        }
+    }
+
+    private boolean evictOne(Stripe<V> stripe) {
+        while (!stripe.clock.isEmpty()) {
+            Entry<V> entry = stripe.clock.pollFirst();
+            if (stripe.entries.get(entry.key) != entry) {
+                continue;
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                stripe.clock.addLast(entry);
+                continue;
+            }
+            stripe.entries.remove(entry.key, entry);
+            evicted.accept(1);
+            return true;
+        }
+        return false;
+    }
+
+    private Stripe<V> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+}
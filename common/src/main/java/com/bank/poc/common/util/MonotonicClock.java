@@ -0,0 +1,21 @@
+package com.bank.poc.common.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Millisecond clocks for measuring elapsed time (rate limits, decay, idle eviction), unaffected
+ * by wall-clock adjustments.
+ */
+public final class MonotonicClock {
+
+    private MonotonicClock() {
+    }
+
+    /**
+     * A clock reading the milliseconds elapsed since it was created, from System.nanoTime().
+     */
+    public static LongSupplier millis() {
+        long origin = System.nanoTime();
+        return () -> (System.nanoTime() - origin) / 1_000_000;
+    }
+}
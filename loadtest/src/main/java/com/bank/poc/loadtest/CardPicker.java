@@ -0,0 +1,44 @@
+package com.bank.poc.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks cards with Zipf-distributed popularity: the card at rank k is chosen with
+ * probability proportional to 1 / k^s. s = 0 is uniform; s around 1 gives a few hot cards.
+ */
+public class CardPicker {
+
+    private final List<String> cards;
+    private final double[] cumulative;
+
+    public CardPicker(List<String> cards, double exponent) {
+        this.cards = List.copyOf(cards);
+        this.cumulative = new double[cards.size()];
+        double total = 0;
+        for (int rank = 1; rank <= cards.size(); rank++) {
+            total += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    public String next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int index = Arrays.binarySearch(cumulative, u);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return cards.get(Math.min(index, cards.size() - 1));
+    }
+
+    /**
+     * Share of picks that go to the most popular card.
+     */
+    public double hottestShare() {
+        return cumulative[0];
+    }
+}
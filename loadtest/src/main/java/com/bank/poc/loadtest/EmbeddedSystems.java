@@ -0,0 +1,100 @@
+package com.bank.poc.loadtest;
+
+import com.bank.poc.core.CoreBankApplication;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.service.CardFilterService;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import com.bank.poc.gateway.GatewayApplication;
+import com.bank.poc.gateway.filter.KnownCardFilter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * System 2 (core, in-memory H2) and System 1 (gateway) booted in this JVM on random ports.
+ *
+ * Both modules ship an application.properties at the classpath root and only one of them
+ * is visible here, so every setting that matters is passed explicitly as an argument;
+ * arguments take precedence over either file.
+ */
+public class EmbeddedSystems implements AutoCloseable {
+
+    static final String PIN = "1234";
+
+    private final ConfigurableApplicationContext core;
+    private final ConfigurableApplicationContext gateway;
+    private final List<String> cardNumbers;
+
+    public EmbeddedSystems(LoadTestConfig config) {
+        List<String> coreArgs = new ArrayList<>(List.of(
+            "--spring.application.name=system2-corebank",
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.com.bank.poc=WARN",
+            "--spring.main.banner-mode=off"));
+        coreArgs.addAll(config.coreArgs());
+        core = new SpringApplicationBuilder(CoreBankApplication.class).run(coreArgs.toArray(String[]::new));
+        int corePort = ((WebServerApplicationContext) core).getWebServer().getPort();
+
+        cardNumbers = seedCards(config.cards());
+        core.getBean(CardFilterService.class).rebuild();
+
+        List<String> gatewayArgs = new ArrayList<>(List.of(
+            "--spring.application.name=system1-gateway",
+            "--server.port=0",
+            "--system2.url=http://localhost:" + corePort,
+            "--system2.urls=http://localhost:" + corePort,
+            // Measure the pipeline, not the per-card limiter (enable explicitly to test it)
+            "--gateway.rate-limit.enabled=false",
+            "--logging.level.com.bank.poc=WARN",
+            "--spring.main.banner-mode=off"));
+        gatewayArgs.addAll(config.gatewayArgs());
+        gateway = new SpringApplicationBuilder(GatewayApplication.class).run(gatewayArgs.toArray(String[]::new));
+        gateway.getBean(KnownCardFilter.class).refresh();
+    }
+
+    public String getGatewayUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) gateway).getWebServer().getPort();
+    }
+
+    public List<String> getCardNumbers() {
+        return cardNumbers;
+    }
+
+    @Override
+    public void close() {
+        gateway.close();
+        core.close();
+    }
+
+    private List<String> seedCards(int count) {
+        CardRepository cardRepository = core.getBean(CardRepository.class);
+        CardService cardService = core.getBean(CardService.class);
+        CryptoUtil cryptoUtil = core.getBean(CryptoUtil.class);
+        String pinHash = cardService.hashPin(PIN);
+
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String cardNumber = String.format("49%014d", i);
+            Card card = new Card();
+            card.setCardNumber(cardNumber);
+            card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+            card.setPinHash(pinHash);
+            // Large enough that withdrawals never run out during a run
+            card.setBalance(1_000_000_000.00);
+            card.setCustomerName("Load Test " + i);
+            card.setUsername("loadtest" + i);
+            card.setActive(true);
+            cards.add(card);
+        }
+        cardRepository.saveAll(cards);
+        return cards.stream().map(Card::getCardNumber).toList();
+    }
+}
@@ -0,0 +1,180 @@
+package com.bank.poc.loadtest;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for POST /transaction.
+ *
+ * Requests are sent on an arrival schedule that does not wait for responses, and each
+ * latency is measured from the request's scheduled send time, so a stalled system shows
+ * up as queueing delay instead of silently lowering the offered load (no coordinated
+ * omission). Requests that would exceed max-in-flight are counted as dropped.
+ */
+public class LoadGenerator {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final LoadTestConfig config;
+    private final CardPicker cardPicker;
+    private final URI transactionUri;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService clientExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpClient httpClient;
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    public LoadGenerator(LoadTestConfig config, CardPicker cardPicker, String gatewayUrl) {
+        this.config = config;
+        this.cardPicker = cardPicker;
+        this.transactionUri = URI.create(gatewayUrl + "/transaction");
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(clientExecutor)
+            .build();
+    }
+
+    public LoadTestResult run() throws InterruptedException {
+        System.out.printf("Warming up for %d s at %.0f req/s...%n", config.warmup().toSeconds(), config.rate());
+        drive(config.warmup().toNanos(), false);
+        awaitDrained();
+
+        System.out.printf("Measuring for %d s at %.0f req/s...%n", config.duration().toSeconds(), config.rate());
+        long start = System.nanoTime();
+        long sent = drive(config.duration().toNanos(), true);
+        awaitDrained();
+        long elapsedNanos = System.nanoTime() - start;
+
+        clientExecutor.shutdownNow();
+        Map<String, Long> breakdown = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> breakdown.put(outcome, count.sum()));
+        return new LoadTestResult(config, sent, completed.sum(), succeeded.sum(),
+            config.duration().toNanos(), elapsedNanos, latencyMicros.copy(), breakdown);
+    }
+
+    /**
+     * Send requests on the arrival schedule for the given time.
+     *
+     * @return number of requests scheduled (sent or dropped)
+     */
+    private long drive(long durationNanos, boolean record) {
+        double meanIntervalNanos = 1_000_000_000.0 / config.rate();
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        double nextSend = start;
+        long scheduled = 0;
+
+        while (nextSend < end) {
+            long intended = (long) nextSend;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            scheduled++;
+            if (inFlight.get() >= config.maxInFlight()) {
+                if (record) {
+                    count("dropped: max in flight");
+                }
+            } else {
+                send(intended, record);
+            }
+            nextSend += config.poisson()
+                ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos
+                : meanIntervalNanos;
+        }
+        return scheduled;
+    }
+
+    private void send(long intendedNanos, boolean record) {
+        boolean withdraw = ThreadLocalRandom.current().nextDouble() < config.withdrawRatio();
+        TransactionRequest body = new TransactionRequest(
+            cardPicker.next(), EmbeddedSystems.PIN, config.amount(), withdraw ? "withdraw" : "topup");
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(transactionUri)
+                .timeout(config.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                if (!record) {
+                    return;
+                }
+                latencyMicros.recordValue(Math.min(MAX_TRACKABLE_MICROS, (System.nanoTime() - intendedNanos) / 1_000));
+                completed.increment();
+                String outcome = classify(response, error);
+                if (outcome == null) {
+                    succeeded.increment();
+                } else {
+                    count(outcome);
+                }
+            });
+    }
+
+    /**
+     * @return null for a successful transaction, otherwise an error category
+     */
+    private String classify(HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return "exception: " + cause.getClass().getSimpleName();
+        }
+        TransactionResponse body;
+        try {
+            body = objectMapper.readValue(response.body(), TransactionResponse.class);
+        } catch (IOException e) {
+            return "http " + response.statusCode() + ": unparseable body";
+        }
+        if (response.statusCode() != 200) {
+            return "http " + response.statusCode() + ": " + body.getMessage();
+        }
+        return body.isSuccess() ? null : "declined: " + body.getMessage();
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        long deadline = System.nanoTime() + config.requestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
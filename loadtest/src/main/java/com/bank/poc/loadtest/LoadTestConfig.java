@@ -0,0 +1,100 @@
+package com.bank.poc.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, parsed from --name=value arguments.
+ *
+ * Unknown arguments starting with "--gateway." / "--system2." are passed to the embedded
+ * gateway, and "--corebank." / "--spring." ones to the embedded core, so service settings
+ * can be varied between runs (e.g. --system2.transport=binary).
+ */
+public record LoadTestConfig(
+        String target,            // gateway base URL; empty = boot gateway and core in-process
+        double rate,              // requests per second (open model)
+        boolean poisson,          // exponential inter-arrival times instead of a fixed interval
+        Duration duration,
+        Duration warmup,
+        int cards,
+        double zipfExponent,      // 0 = uniform card popularity
+        double withdrawRatio,
+        double amount,
+        int maxInFlight,
+        Duration requestTimeout,
+        String out,
+        List<String> gatewayArgs,
+        List<String> coreArgs) {
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> gatewayArgs = new ArrayList<>();
+        List<String> coreArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("gateway.") || name.startsWith("system2.")) {
+                gatewayArgs.add(arg);
+            } else if (name.startsWith("corebank.") || name.startsWith("spring.")) {
+                coreArgs.add(arg);
+            } else {
+                options.put(name, value);
+            }
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+            options.getOrDefault("target", ""),
+            Double.parseDouble(options.getOrDefault("rate", "200")),
+            "poisson".equalsIgnoreCase(options.getOrDefault("arrival", "poisson")),
+            parseDuration(options.getOrDefault("duration", "30s")),
+            parseDuration(options.getOrDefault("warmup", "5s")),
+            Integer.parseInt(options.getOrDefault("cards", "1000")),
+            Double.parseDouble(options.getOrDefault("zipf", "1.0")),
+            Double.parseDouble(options.getOrDefault("withdraw-ratio", "0.5")),
+            Double.parseDouble(options.getOrDefault("amount", "1.00")),
+            Integer.parseInt(options.getOrDefault("max-in-flight", "2000")),
+            parseDuration(options.getOrDefault("timeout", "10s")),
+            options.getOrDefault("out", "loadtest-results/run-" + System.currentTimeMillis() + ".json"),
+            List.copyOf(gatewayArgs),
+            List.copyOf(coreArgs));
+
+        for (String known : List.of("target", "rate", "arrival", "duration", "warmup", "cards", "zipf",
+                "withdraw-ratio", "amount", "max-in-flight", "timeout", "out")) {
+            options.remove(known);
+        }
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + options.keySet());
+        }
+        if (config.rate() <= 0 || config.cards() <= 0 || config.withdrawRatio() < 0 || config.withdrawRatio() > 1) {
+            throw new IllegalArgumentException("rate and cards must be positive, withdraw-ratio within [0, 1]");
+        }
+        return config;
+    }
+
+    public boolean embedded() {
+        return target.isBlank();
+    }
+
+    /**
+     * Accepts 500ms, 30s, 2m or a plain number of seconds.
+     */
+    static Duration parseDuration(String value) {
+        String text = value.trim().toLowerCase();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(text));
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.poc.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test of the gateway + core pair.
+ *
+ * By default both services are booted in-process on in-memory H2 with freshly seeded
+ * cards; pass --target=http://host:8081 to load an already running gateway instead
+ * (which then uses the sample card 4123456789012345 only).
+ *
+ * Options (all --name=value):
+ *   rate=200           requests per second
+ *   arrival=poisson    poisson | uniform
+ *   duration=30s       measured run length
+ *   warmup=5s          unmeasured warm-up
+ *   cards=1000         seeded cards (embedded only)
+ *   zipf=1.0           card popularity skew, 0 = uniform
+ *   withdraw-ratio=0.5 share of withdrawals (rest are top-ups)
+ *   amount=1.00        amount per transaction
+ *   max-in-flight=2000 requests beyond this are counted as dropped
+ *   timeout=10s        per-request timeout
+ *   out=loadtest-results/run-{millis}.json
+ *
+ * Run with: mvn -pl loadtest exec:java -Dloadtest.args="--rate=500 --duration=60s"
+ */
+public class LoadTestMain {
+
+    private static final String SAMPLE_CARD = "4123456789012345";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        LoadTestResult result;
+        if (config.embedded()) {
+            try (EmbeddedSystems systems = new EmbeddedSystems(config)) {
+                result = run(config, systems.getGatewayUrl(), systems.getCardNumbers());
+            }
+        } else {
+            result = run(config, config.target(), List.of(SAMPLE_CARD));
+        }
+        print(result);
+        write(result, Path.of(config.out()));
+        System.exit(0);
+    }
+
+    private static LoadTestResult run(LoadTestConfig config, String gatewayUrl, List<String> cards)
+            throws InterruptedException {
+        CardPicker picker = new CardPicker(cards, config.zipfExponent());
+        System.out.printf("Target %s, %d cards, hottest card gets %.1f%% of requests%n",
+            gatewayUrl, cards.size(), picker.hottestShare() * 100);
+        return new LoadGenerator(config, picker, gatewayUrl).run();
+    }
+
+    private static void print(LoadTestResult result) {
+        System.out.println();
+        System.out.printf("Offered      %10.1f req/s (%d scheduled)%n", result.offeredRate(), result.scheduled());
+        System.out.printf("Throughput   %10.1f tx/s  (%d succeeded of %d completed)%n",
+            result.throughput(), result.succeeded(), result.completed());
+        System.out.println("Latency (ms, from scheduled send time)");
+        System.out.printf("  p50    %10.2f%n", result.percentileMillis(50));
+        System.out.printf("  p99    %10.2f%n", result.percentileMillis(99));
+        System.out.printf("  p99.9  %10.2f%n", result.percentileMillis(99.9));
+        System.out.printf("  max    %10.2f%n", result.percentileMillis(100));
+        if (result.errors().isEmpty()) {
+            System.out.println("Errors: none");
+        } else {
+            System.out.println("Errors");
+            for (Map.Entry<String, Long> error : result.errors().entrySet()) {
+                System.out.printf("  %8d  %s%n", error.getValue(), error.getKey());
+            }
+        }
+    }
+
+    private static void write(LoadTestResult result, Path out) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), result.toMap());
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.poc.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of one measured run.
+ */
+public record LoadTestResult(
+        LoadTestConfig config,
+        long scheduled,
+        long completed,
+        long succeeded,
+        long scheduleNanos,
+        long elapsedNanos,
+        Histogram latencyMicros,
+        Map<String, Long> errors) {
+
+    public double offeredRate() {
+        return scheduled / (scheduleNanos / 1e9);
+    }
+
+    public double throughput() {
+        return succeeded / (elapsedNanos / 1e9);
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    /**
+     * Flat, JSON-friendly view for comparing runs.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("target", config.embedded() ? "embedded" : config.target());
+        settings.put("rate", config.rate());
+        settings.put("arrival", config.poisson() ? "poisson" : "uniform");
+        settings.put("durationSeconds", config.duration().toSeconds());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        settings.put("cards", config.cards());
+        settings.put("zipf", config.zipfExponent());
+        settings.put("withdrawRatio", config.withdrawRatio());
+        settings.put("amount", config.amount());
+        settings.put("maxInFlight", config.maxInFlight());
+        settings.put("gatewayArgs", config.gatewayArgs());
+        settings.put("coreArgs", config.coreArgs());
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentileMillis(50));
+        latency.put("p90", percentileMillis(90));
+        latency.put("p99", percentileMillis(99));
+        latency.put("p99.9", percentileMillis(99.9));
+        latency.put("max", latencyMicros.getMaxValue() / 1_000.0);
+        latency.put("mean", latencyMicros.getMean() / 1_000.0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", Instant.now().toString());
+        result.put("settings", settings);
+        result.put("scheduled", scheduled);
+        result.put("completed", completed);
+        result.put("succeeded", succeeded);
+        result.put("offeredRate", offeredRate());
+        result.put("throughput", throughput());
+        result.put("latencyMillis", latency);
+        result.put("errors", errors);
+        return result;
+    }
+}
@@ -2,8 +2,11 @@ package com.bank.poc.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Also picks up the shared tracing, JFR and trace endpoints in banking-common
+@SpringBootApplication(scanBasePackages = {"com.bank.poc.gateway", "com.bank.poc.common"})
+@EnableScheduling
 public class GatewayApplication {
 
     public static void main(String[] args) {
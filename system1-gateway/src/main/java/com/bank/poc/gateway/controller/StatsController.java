@@ -0,0 +1,114 @@
+package com.bank.poc.gateway.controller;
+
+import com.bank.poc.gateway.filter.KnownCardFilter;
+import com.bank.poc.gateway.ratelimit.CardRateLimiter;
+import com.bank.poc.gateway.routing.CoreNode;
+import com.bank.poc.gateway.routing.HealthProber;
+import com.bank.poc.gateway.routing.NodeHealth;
+import com.bank.poc.gateway.service.CoreBankClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operational counters for the gateway's local protections.
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class StatsController {
+
+    private final CardRateLimiter cardRateLimiter;
+    private final KnownCardFilter knownCardFilter;
+    private final CoreBankClient coreBankClient;
+    private final HealthProber healthProber;
+
+    /**
+     * Per-card rate limiter counters.
+     * GET /stats/rate-limit
+     */
+    @GetMapping("/stats/rate-limit")
+    public ResponseEntity<Map<String, Object>> rateLimitStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cardRateLimiter.isEnabled());
+        stats.put("buckets", cardRateLimiter.getBucketCount());
+        stats.put("evictions", cardRateLimiter.getEvictions());
+        for (String type : cardRateLimiter.getTypes()) {
+            stats.put(type, Map.of(
+                "allowed", cardRateLimiter.getAllowed(type),
+                "rejected", cardRateLimiter.getRejected(type)));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Card filter pre-check counters.
+     * GET /stats/card-filter
+     */
+    @GetMapping("/stats/card-filter")
+    public ResponseEntity<Map<String, Object>> cardFilterStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", knownCardFilter.isEnabled());
+        stats.put("version", knownCardFilter.getVersion());
+        stats.put("cardCount", knownCardFilter.getCardCount());
+        stats.put("snapshotAgeMs", knownCardFilter.getSnapshotAgeMs());
+        stats.put("shortCircuited", knownCardFilter.getShortCircuited());
+        stats.put("passed", knownCardFilter.getPassed());
+        stats.put("unavailable", knownCardFilter.getUnavailable());
+        stats.put("refreshFailures", knownCardFilter.getRefreshFailures());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Gateway-to-core transport counters.
+     * GET /stats/transport
+     */
+    @GetMapping("/stats/transport")
+    public ResponseEntity<Map<String, Object>> transportStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("transport", coreBankClient.isBinaryTransport() ? "binary" : "json");
+        stats.put("binaryCalls", coreBankClient.getBinaryCalls());
+        stats.put("jsonFallbacks", coreBankClient.getJsonFallbacks());
+        stats.put("hedgedCalls", coreBankClient.getHedgedCalls());
+        stats.put("retriedCalls", coreBankClient.getRetriedCalls());
+        stats.put("unhedgedCalls", coreBankClient.getUnhedgedCalls());
+        Map<String, Object> connections = new LinkedHashMap<>();
+        coreBankClient.getBinaryConnections().forEach((node, connection) ->
+            connections.put(node.getUrl(), connection.isConnected() ? "connected" : "disconnected"));
+        stats.put("binaryConnections", connections);
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Per-replica health as seen by the background prober.
+     * GET /stats/nodes
+     */
+    @GetMapping("/stats/nodes")
+    public ResponseEntity<Map<String, Object>> nodeStats() {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (CoreNode node : healthProber.getNodes()) {
+            NodeHealth health = node.getHealth();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("url", node.getUrl());
+            entry.put("healthy", health.isHealthy());
+            entry.put("ewmaLatencyMs", health.getEwmaLatencyMs());
+            entry.put("consecutiveFailures", health.getConsecutiveFailures());
+            entry.put("lastProbeAtMs", health.getLastProbeAtMs());
+            entry.put("outstanding", node.getOutstanding());
+            nodes.add(entry);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("probing", healthProber.isEnabled());
+        stats.put("probes", healthProber.getProbes());
+        stats.put("probeFailures", healthProber.getProbeFailures());
+        stats.put("nodes", nodes);
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -1,116 +1,177 @@
 package com.bank.poc.gateway.controller;
 
-import com.bank.poc.gateway.dto.TransactionRequest;
-import com.bank.poc.gateway.dto.TransactionResponse;
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.logging.LogMarkers;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.Tracer;
+import com.bank.poc.gateway.filter.KnownCardFilter;
+import com.bank.poc.gateway.jfr.TransactionEvent;
+import com.bank.poc.gateway.metrics.GatewayMetrics;
+import com.bank.poc.gateway.ratelimit.CardRateLimiter;
+import com.bank.poc.gateway.routing.CoreNode;
+import com.bank.poc.gateway.routing.HealthProber;
+import com.bank.poc.gateway.routing.NodeHealth;
+import com.bank.poc.gateway.service.CoreBankClient;
+import com.bank.poc.gateway.service.TransactionValidator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+
+import java.util.UUID;
 
 /**
  * Gateway controller for handling incoming transactions.
  * Validates card range (must start with '4') and forwards to System 2.
  */
 @RestController
+@RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*")  // Allow CORS for React frontend
 public class TransactionController {
 
-    private final RestTemplate restTemplate;
-    
-    @Value("${system2.url:http://localhost:8082}")
-    private String system2Url;
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
 
-    public TransactionController() {
-        this.restTemplate = new RestTemplate();
-    }
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+
+    private final CoreBankClient coreBankClient;
+    private final CardRateLimiter cardRateLimiter;
+    private final KnownCardFilter knownCardFilter;
+    private final HealthProber healthProber;
+    private final GatewayMetrics gatewayMetrics;
+    private final Tracer tracer;
+
+    @Value("${system2.idempotency.generate-keys:false}")
+    private boolean generateIdempotencyKeys;
 
     /**
      * Main transaction endpoint.
      * POST /transaction
      * 
-     * Validates:
-     * - Card number is not empty
-     * - Card number starts with '4' (card range check)
-     * - PIN is not empty
-     * - Amount is positive
-     * - Type is 'withdraw' or 'topup'
-     * 
-     * Then forwards to System 2 for processing.
+     * Validates the request (see TransactionValidator), then forwards to System 2 for processing.
+     *
+     * An optional Idempotency-Key header is propagated to System 2 so client
+     * retries are not processed twice, and makes the gateway's own hedged/retried
+     * forwards safe. Requests without one are forwarded once and not hedged, unless
+     * system2.idempotency.generate-keys makes the gateway generate a key for them.
+     *
+     * Each request is traced (continuing the caller's W3C traceparent, if any); the trace id
+     * is returned in the X-Trace-Id header and can be looked up at GET /traces/{traceId}
+     * on both the gateway and System 2. During a JFR recording each request is also
+     * committed as a TransactionEvent.
      */
     @PostMapping("/transaction")
     public ResponseEntity<TransactionResponse> handleTransaction(
-            @RequestBody TransactionRequest request) {
-        
-        log.info("Received transaction request: {}", request);
+            @RequestBody TransactionRequest request,
+            @RequestHeader(value = CoreBankClient.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = Tracer.TRACEPARENT_HEADER, required = false) String traceparent) {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try (Span span = tracer.startTrace("POST /transaction", traceparent)) {
+            ResponseEntity<TransactionResponse> response = process(request, idempotencyKey);
+            TransactionResponse body = response.getBody();
+            String outcome = body != null && body.isSuccess() ? "success" : "failed";
+            span.tag("status", response.getStatusCode().value()).tag("outcome", outcome);
 
-        // Validation 1: Card number is required
-        if (request.getCardNumber() == null || request.getCardNumber().isBlank()) {
-            log.warn("Transaction rejected: Card number is required");
-            return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Card number is required"));
+            event.end();
+            if (event.shouldCommit()) {
+                event.traceId = span.getTraceId();
+                event.cardSuffix = TransactionEvent.suffixOf(request.getCardNumber());
+                event.type = request.getType();
+                event.outcome = outcome;
+                event.status = response.getStatusCode().value();
+                event.message = body != null ? body.getMessage() : null;
+                event.validation = span.stageNanos("validate");
+                event.cardFilter = span.stageNanos("card-filter");
+                event.rateLimit = span.stageNanos("rate-limit");
+                event.system2 = span.stageNanos("system2.process");
+                event.commit();
+            }
+            if (!span.isRecording()) {
+                return response;
+            }
+            return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(TRACE_ID_HEADER, span.getTraceId())
+                .body(body);
         }
+    }
 
-        // Validation 2: Card must start with '4' (card range routing)
-        if (!request.getCardNumber().startsWith("4")) {
-            log.warn("Transaction rejected: Card range not supported (must start with 4)");
-            return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Card range not supported. Only cards starting with '4' are accepted."));
-        }
+    private ResponseEntity<TransactionResponse> process(TransactionRequest request, String idempotencyKey) {
+        log.info(LogMarkers.SAMPLED, "Received transaction request: {}", request);
 
-        // Validation 3: Card number must be 16 digits
-        if (request.getCardNumber().length() != 16 || 
-            !request.getCardNumber().matches("\\d{16}")) {
-            log.warn("Transaction rejected: Invalid card number format");
+        // Validation 0: Idempotency key (optional) must be reasonably short
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            log.warn("Transaction rejected: Idempotency key too long");
+            gatewayMetrics.recordOutcome("rejected", "Idempotency key too long");
             return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Card number must be exactly 16 digits"));
+                .body(TransactionResponse.error("Idempotency key must be at most "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
         }
 
-        // Validation 4: PIN is required
-        if (request.getPin() == null || request.getPin().isBlank()) {
-            log.warn("Transaction rejected: PIN is required");
-            return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("PIN is required"));
+        // Validations 1-7: card number, card range, format, PIN, amount, type
+        long validationStart = System.nanoTime();
+        String validationError;
+        try (Span span = tracer.startSpan("validate")) {
+            validationError = TransactionValidator.validate(request);
         }
-
-        // Validation 5: Amount must be positive
-        if (request.getAmount() <= 0) {
-            log.warn("Transaction rejected: Amount must be positive");
+        gatewayMetrics.recordValidation(System.nanoTime() - validationStart, validationError);
+        if (validationError != null) {
+            log.warn("Transaction rejected: {}", validationError);
+            gatewayMetrics.recordOutcome("rejected", validationError);
             return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Amount must be greater than 0"));
+                .body(TransactionResponse.error(validationError));
         }
+        String type = request.getType().toLowerCase();
 
-        // Validation 6: Transaction type is required
-        if (request.getType() == null || request.getType().isBlank()) {
-            log.warn("Transaction rejected: Transaction type is required");
-            return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Transaction type is required"));
+        // Card filter: reject cards System 2's Bloom filter says are definitely unknown
+        boolean unknownCard;
+        try (Span span = tracer.startSpan("card-filter")) {
+            unknownCard = knownCardFilter.isDefinitelyUnknown(request.getCardNumber());
+        }
+        if (unknownCard) {
+            log.warn("Transaction rejected: Card not found in card filter");
+            gatewayMetrics.recordOutcome("unknown_card", "Invalid card");
+            return ResponseEntity.ok(TransactionResponse.error("Invalid card"));
         }
 
-        // Validation 7: Transaction type must be 'withdraw' or 'topup'
-        String type = request.getType().toLowerCase();
-        if (!type.equals("withdraw") && !type.equals("topup")) {
-            log.warn("Transaction rejected: Invalid transaction type");
-            return ResponseEntity.badRequest()
-                .body(TransactionResponse.error("Invalid transaction type. Use 'withdraw' or 'topup'."));
+        // Rate limit: per-card token bucket, checked before any System 2 round trip
+        long retryAfterMs;
+        try (Span span = tracer.startSpan("rate-limit")) {
+            retryAfterMs = cardRateLimiter.tryAcquire(request.getCardNumber(), type);
+        }
+        if (retryAfterMs > 0) {
+            log.warn("Transaction rejected: Rate limit exceeded for card");
+            gatewayMetrics.recordOutcome("rate_limited", type);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)))
+                .body(TransactionResponse.error("Too many transactions for this card. Please try again later."));
         }
 
         // Forward to System 2 for processing
         try {
-            log.info("Forwarding transaction to System 2: {}", system2Url + "/process");
-            TransactionResponse response = restTemplate.postForObject(
-                system2Url + "/process",
-                request,
-                TransactionResponse.class
-            );
+            log.info(LogMarkers.SAMPLED, "Forwarding transaction to System 2");
+            String forwardedKey = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? idempotencyKey
+                : (generateIdempotencyKeys ? UUID.randomUUID().toString() : null);
+            TransactionResponse response = coreBankClient.process(request, forwardedKey, tracer.currentSpan());
             
-            log.info("Response from System 2: success={}", response != null && response.isSuccess());
+            log.info(LogMarkers.SAMPLED, "Response from System 2: success={}", response != null && response.isSuccess());
+            if (response != null && response.isSuccess()) {
+                gatewayMetrics.recordOutcome("success", null);
+            } else {
+                gatewayMetrics.recordOutcome("declined", response != null ? response.getMessage() : null);
+            }
             return ResponseEntity.ok(response);
             
         } catch (RestClientException e) {
             log.error("Failed to connect to System 2: {}", e.getMessage());
+            gatewayMetrics.recordOutcome("unavailable", e.getClass().getSimpleName());
             return ResponseEntity.internalServerError()
                 .body(TransactionResponse.error("Unable to process transaction. Core banking system unavailable."));
         }
@@ -128,16 +189,34 @@ public class TransactionController {
     /**
      * Check if System 2 is available.
      * GET /health/system2
+     *
+     * Answered from the background prober's cached state; System 2 is only called
+     * directly before the first probe round has completed (or if probing is disabled).
+     * A 200 carries the last successful probe's status only: probe errors (which a healthy
+     * replica can have below the unhealthy threshold) appear only in the 500 body.
      */
     @GetMapping("/health/system2")
     public ResponseEntity<String> checkSystem2() {
-        try {
-            String response = restTemplate.getForObject(
-                system2Url + "/health", String.class);
-            return ResponseEntity.ok("System 2 Status: " + response);
-        } catch (RestClientException e) {
-            return ResponseEntity.internalServerError()
-                .body("System 2 is unavailable: " + e.getMessage());
+        if (!healthProber.isEnabled() || !healthProber.isWarmedUp()) {
+            try {
+                String response = coreBankClient.health();
+                return ResponseEntity.ok("System 2 Status: " + response);
+            } catch (RestClientException e) {
+                return ResponseEntity.internalServerError()
+                    .body("System 2 is unavailable: " + e.getMessage());
+            }
+        }
+
+        String lastError = null;
+        for (CoreNode node : healthProber.getNodes()) {
+            NodeHealth health = node.getHealth();
+            if (health.isHealthy()) {
+                String status = health.getLastStatus();
+                return ResponseEntity.ok("System 2 Status: healthy" + (status != null ? " - " + status : ""));
+            }
+            lastError = health.getLastError();
         }
+        return ResponseEntity.internalServerError()
+            .body("System 2 is unavailable: " + lastError);
     }
 }
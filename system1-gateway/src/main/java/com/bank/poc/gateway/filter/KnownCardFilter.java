@@ -0,0 +1,165 @@
+package com.bank.poc.gateway.filter;
+
+import com.bank.poc.common.filter.BloomFilter;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.gateway.service.CoreBankClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local pre-check for unknown cards, backed by the Bloom filter snapshot System 2 publishes.
+ *
+ * - Refreshed on a schedule; an unchanged snapshot costs a 304.
+ * - Fails open: with no snapshot, or one older than max-staleness-ms, every card passes
+ *   through to System 2 as before. A Bloom filter has no false negatives, and System 2
+ *   publishes every card (inactive and locked ones too), so only cards that do not exist
+ *   are ever rejected here.
+ * - A card missing from the snapshot may have been issued since it was fetched, so before
+ *   rejecting one the snapshot is re-fetched (a 304 if unchanged), at most once per
+ *   recheck-interval-ms; cards rejected in between wait for that refresh.
+ */
+@Component
+@Slf4j
+public class KnownCardFilter {
+
+    private final CoreBankClient coreBankClient;
+    private final boolean enabled;
+    private final long maxStalenessMs;
+    private final long recheckIntervalMs;
+    private final AtomicLong lastRecheckMs = new AtomicLong(Long.MIN_VALUE / 2);
+
+    private volatile Loaded current;
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public KnownCardFilter(CoreBankClient coreBankClient,
+                           @Value("${gateway.card-filter.enabled:true}") boolean enabled,
+                           @Value("${gateway.card-filter.max-staleness-ms:300000}") long maxStalenessMs,
+                           @Value("${gateway.card-filter.recheck-interval-ms:1000}") long recheckIntervalMs) {
+        this.coreBankClient = coreBankClient;
+        this.enabled = enabled;
+        this.maxStalenessMs = maxStalenessMs;
+        this.recheckIntervalMs = recheckIntervalMs;
+    }
+
+    /**
+     * Fetch a new snapshot from System 2 if it changed.
+     */
+    @Scheduled(fixedDelayString = "${gateway.card-filter.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Loaded loaded = current;
+        try {
+            CardFilterSnapshot snapshot = coreBankClient.fetchCardFilter(loaded == null ? null : loaded.version());
+            long now = System.currentTimeMillis();
+            if (snapshot == null) {
+                if (loaded != null) {
+                    current = new Loaded(loaded.filter(), loaded.version(), loaded.cardCount(), now);
+                }
+                return;
+            }
+            load(snapshot, now);
+            log.info("Card filter updated: version={}, cards={}", snapshot.getVersion(), snapshot.getCardCount());
+        } catch (RestClientException | IllegalArgumentException e) {
+            refreshFailures.increment();
+            log.debug("Card filter refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Install a snapshot directly (also used by the refresh).
+     */
+    public void load(CardFilterSnapshot snapshot, long loadedAtMs) {
+        BloomFilter filter = BloomFilter.fromBytes(
+            Base64.getDecoder().decode(snapshot.getBits()), snapshot.getNumBits(), snapshot.getNumHashes());
+        current = new Loaded(filter, snapshot.getVersion(), snapshot.getCardCount(), loadedAtMs);
+    }
+
+    /**
+     * True only if the current snapshot proves the card does not exist.
+     */
+    public boolean isDefinitelyUnknown(String cardNumber) {
+        if (!enabled) {
+            return false;
+        }
+        Loaded loaded = current;
+        if (loaded == null || System.currentTimeMillis() - loaded.loadedAtMs() > maxStalenessMs) {
+            unavailable.increment();
+            return false;
+        }
+        if (loaded.filter().mightContain(cardNumber) || (recheck() && current.filter().mightContain(cardNumber))) {
+            passed.increment();
+            return false;
+        }
+        shortCircuited.increment();
+        return true;
+    }
+
+    /**
+     * Refresh the snapshot now unless that was done within recheck-interval-ms.
+     *
+     * @return whether it was refreshed
+     */
+    private boolean recheck() {
+        if (recheckIntervalMs <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastRecheckMs.get();
+        if (now - last < recheckIntervalMs || !lastRecheckMs.compareAndSet(last, now)) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getVersion() {
+        Loaded loaded = current;
+        return loaded == null ? null : loaded.version();
+    }
+
+    public long getCardCount() {
+        Loaded loaded = current;
+        return loaded == null ? 0 : loaded.cardCount();
+    }
+
+    public long getSnapshotAgeMs() {
+        Loaded loaded = current;
+        return loaded == null ? -1 : System.currentTimeMillis() - loaded.loadedAtMs();
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    public long getUnavailable() {
+        return unavailable.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    private record Loaded(BloomFilter filter, String version, long cardCount, long loadedAtMs) {
+    }
+}
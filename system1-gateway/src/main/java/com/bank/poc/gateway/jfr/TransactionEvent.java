@@ -0,0 +1,66 @@
+package com.bank.poc.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one POST /transaction handled by the gateway.
+ *
+ * Stage durations are taken from the request's trace spans, so they are zero
+ * when tracing is disabled.
+ */
+@Name("com.bank.poc.gateway.Transaction")
+@Label("Gateway Transaction")
+@Category({"Banking", "System 1"})
+@Description("A transaction request handled by the gateway with per-stage durations")
+@StackTrace(false)
+public class TransactionEvent extends Event {
+
+    @Label("Trace Id")
+    public String traceId;
+
+    @Label("Card Suffix")
+    @Description("Last 4 digits of the card number")
+    public String cardSuffix;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("HTTP Status")
+    public int status;
+
+    @Label("Message")
+    public String message;
+
+    @Label("Validation")
+    @Timespan(Timespan.NANOSECONDS)
+    public long validation;
+
+    @Label("Card Filter")
+    @Timespan(Timespan.NANOSECONDS)
+    public long cardFilter;
+
+    @Label("Rate Limit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long rateLimit;
+
+    @Label("System 2 Calls")
+    @Description("All attempts to System 2, including hedged and retried ones")
+    @Timespan(Timespan.NANOSECONDS)
+    public long system2;
+
+    /**
+     * Last 4 digits of a card number (never the full number).
+     */
+    public static String suffixOf(String cardNumber) {
+        return cardNumber == null || cardNumber.length() < 4 ? "" : cardNumber.substring(cardNumber.length() - 4);
+    }
+}
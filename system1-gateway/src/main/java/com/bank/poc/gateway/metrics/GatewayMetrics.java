@@ -0,0 +1,164 @@
+package com.bank.poc.gateway.metrics;
+
+import com.bank.poc.common.logging.CountingAsyncAppender;
+import com.bank.poc.common.logging.SamplingTurboFilter;
+import com.bank.poc.gateway.filter.KnownCardFilter;
+import com.bank.poc.gateway.ratelimit.CardRateLimiter;
+import com.bank.poc.gateway.routing.CoreNode;
+import com.bank.poc.gateway.routing.HealthProber;
+import com.bank.poc.gateway.service.CoreBankClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the gateway, exported at /actuator/prometheus.
+ *
+ * - gateway.validation: timer per validation outcome (accepted, or the rejection reason)
+ * - gateway.transactions: counter per final outcome and failure reason
+ * - gateway.rate-limit.*, gateway.card-filter.*, gateway.transport.*, gateway.health.*:
+ *   the counters already kept by those components (same numbers as /stats/*)
+ * - logging.async.*, logging.sampled-out: lines the async log appender gave up on and
+ *   success-path lines skipped by sampling (see logback-spring.xml)
+ *
+ * Per-endpoint latency is http.server.requests (Spring MVC); per-replica System 2
+ * call latency is gateway.system2.requests (CoreBankClient).
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String VALIDATION_TIMER = "gateway.validation";
+    public static final String TRANSACTION_COUNTER = "gateway.transactions";
+
+    private static final int MAX_REASON_LENGTH = 48;
+
+    private final MeterRegistry meterRegistry;
+
+    // Reasons come from a fixed set of messages, so these stay small
+    private final Map<String, Timer> validationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outcomeCounters = new ConcurrentHashMap<>();
+
+    public GatewayMetrics(MeterRegistry meterRegistry,
+                          CardRateLimiter cardRateLimiter,
+                          KnownCardFilter knownCardFilter,
+                          CoreBankClient coreBankClient,
+                          HealthProber healthProber) {
+        this.meterRegistry = meterRegistry;
+
+        for (String type : cardRateLimiter.getTypes()) {
+            FunctionCounter.builder("gateway.rate-limit.allowed", cardRateLimiter, limiter -> limiter.getAllowed(type))
+                .tag("type", type).register(meterRegistry);
+            FunctionCounter.builder("gateway.rate-limit.rejected", cardRateLimiter, limiter -> limiter.getRejected(type))
+                .tag("type", type).register(meterRegistry);
+        }
+        Gauge.builder("gateway.rate-limit.buckets", cardRateLimiter, CardRateLimiter::getBucketCount)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.rate-limit.evictions", cardRateLimiter, CardRateLimiter::getEvictions)
+            .register(meterRegistry);
+
+        FunctionCounter.builder("gateway.card-filter.short-circuited", knownCardFilter, KnownCardFilter::getShortCircuited)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.card-filter.passed", knownCardFilter, KnownCardFilter::getPassed)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.card-filter.unavailable", knownCardFilter, KnownCardFilter::getUnavailable)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.card-filter.refresh-failures", knownCardFilter, KnownCardFilter::getRefreshFailures)
+            .register(meterRegistry);
+        Gauge.builder("gateway.card-filter.snapshot-age", knownCardFilter, KnownCardFilter::getSnapshotAgeMs)
+            .baseUnit("milliseconds").register(meterRegistry);
+
+        FunctionCounter.builder("gateway.transport.binary-calls", coreBankClient, CoreBankClient::getBinaryCalls)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.transport.json-fallbacks", coreBankClient, CoreBankClient::getJsonFallbacks)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.transport.hedged-calls", coreBankClient, CoreBankClient::getHedgedCalls)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.transport.retried-calls", coreBankClient, CoreBankClient::getRetriedCalls)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.transport.unhedged-calls", coreBankClient, CoreBankClient::getUnhedgedCalls)
+            .register(meterRegistry);
+
+        FunctionCounter.builder("gateway.health.probes", healthProber, HealthProber::getProbes)
+            .register(meterRegistry);
+        FunctionCounter.builder("gateway.health.probe-failures", healthProber, HealthProber::getProbeFailures)
+            .register(meterRegistry);
+        for (CoreNode node : coreBankClient.getNodes()) {
+            Gauge.builder("gateway.node.healthy", node, n -> n.getHealth().isHealthy() ? 1 : 0)
+                .tag("node", node.getUrl()).register(meterRegistry);
+            Gauge.builder("gateway.node.outstanding", node, CoreNode::getOutstanding)
+                .tag("node", node.getUrl()).register(meterRegistry);
+            Gauge.builder("gateway.node.ewma-latency", node, n -> n.getHealth().getEwmaLatencyMs())
+                .tag("node", node.getUrl()).baseUnit("milliseconds").register(meterRegistry);
+        }
+
+        FunctionCounter.builder("logging.async.dropped", this, m -> CountingAsyncAppender.getDropped())
+            .description("Log lines dropped because the async queue was full").register(meterRegistry);
+        FunctionCounter.builder("logging.async.discarded", this, m -> CountingAsyncAppender.getDiscarded())
+            .description("INFO and lower lines discarded because the async queue was nearly full").register(meterRegistry);
+        FunctionCounter.builder("logging.async.blocked", this, m -> CountingAsyncAppender.getBlocked())
+            .description("WARN and ERROR lines that waited for room in the async queue").register(meterRegistry);
+        Gauge.builder("logging.async.queue-depth", this, m -> CountingAsyncAppender.getQueueDepth())
+            .register(meterRegistry);
+        FunctionCounter.builder("logging.sampled-out", this, m -> SamplingTurboFilter.getSampledOut())
+            .description("Success-path log lines skipped by sampling").register(meterRegistry);
+    }
+
+    /**
+     * Record how long validation took.
+     *
+     * @param error the validation error, or null if the request was accepted
+     */
+    public void recordValidation(long elapsedNanos, String error) {
+        String reason = error == null ? "accepted" : reasonTag(error);
+        validationTimers.computeIfAbsent(reason, key -> Timer.builder(VALIDATION_TIMER)
+                .description("Gateway request validation")
+                .tag("outcome", error == null ? "accepted" : "rejected")
+                .tag("reason", key)
+                .register(meterRegistry))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a finished transaction request.
+     *
+     * @param outcome success, declined (by System 2), rejected, unknown_card, rate_limited or unavailable
+     * @param reason  the failure message, or null on success
+     */
+    public void recordOutcome(String outcome, String reason) {
+        String reasonTag = reason == null ? "none" : reasonTag(reason);
+        outcomeCounters.computeIfAbsent(outcome + '|' + reasonTag, key -> Counter.builder(TRANSACTION_COUNTER)
+                .description("Gateway transaction requests by outcome")
+                .tag("outcome", outcome)
+                .tag("reason", reasonTag)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * Turn a failure message into a tag value, e.g. "Invalid PIN" -> "invalid_pin".
+     */
+    static String reasonTag(String message) {
+        StringBuilder tag = new StringBuilder(Math.min(message.length(), MAX_REASON_LENGTH));
+        boolean separator = false;
+        for (int i = 0; i < message.length() && tag.length() < MAX_REASON_LENGTH; i++) {
+            char c = Character.toLowerCase(message.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (separator && tag.length() > 0) {
+                    tag.append('_');
+                }
+                tag.append(c);
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return tag.length() == 0 ? "unknown" : tag.toString();
+    }
+}
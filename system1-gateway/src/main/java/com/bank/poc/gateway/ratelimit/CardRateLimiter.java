@@ -0,0 +1,144 @@
+package com.bank.poc.gateway.ratelimit;
+
+import com.bank.poc.common.util.ClockCache;
+import com.bank.poc.common.util.MonotonicClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-card token-bucket rate limiter, evaluated before a transaction is forwarded to System 2.
+ *
+ * - One bucket per (card, transaction type); withdraw and topup have their own rates.
+ * - Buckets are held in a ClockCache of N stripes (hash of the card number), so threads
+ *   working on different cards never contend, and each bucket is updated with a single CAS.
+ * - Memory is bounded: each stripe holds at most maxBuckets / stripes entries. Idle buckets
+ *   are swept periodically; a full stripe evicts with the clock (second-chance) algorithm, so
+ *   a flood of new card numbers evicts its own one-off buckets first.
+ * - Admitting a card that already has a bucket is lock-free.
+ */
+@Component
+@Slf4j
+public class CardRateLimiter {
+
+    private final boolean enabled;
+    private final Map<String, BucketConfig> configs;
+    private final ClockCache<TokenBucket> buckets;
+    private final long idleEvictionMs;
+    private final LongSupplier clockMs;
+
+    private final Map<String, LongAdder> allowed = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public CardRateLimiter(
+            @Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+            @Value("${gateway.rate-limit.withdraw.capacity:5}") double withdrawCapacity,
+            @Value("${gateway.rate-limit.withdraw.refill-per-second:1}") double withdrawRefillPerSecond,
+            @Value("${gateway.rate-limit.topup.capacity:10}") double topupCapacity,
+            @Value("${gateway.rate-limit.topup.refill-per-second:2}") double topupRefillPerSecond,
+            @Value("${gateway.rate-limit.stripes:16}") int stripes,
+            @Value("${gateway.rate-limit.max-buckets:100000}") int maxBuckets,
+            @Value("${gateway.rate-limit.idle-eviction-seconds:300}") long idleEvictionSeconds) {
+        this(enabled,
+            Map.of("withdraw", new BucketConfig(withdrawCapacity, withdrawRefillPerSecond),
+                   "topup", new BucketConfig(topupCapacity, topupRefillPerSecond)),
+            stripes, maxBuckets, idleEvictionSeconds * 1_000, MonotonicClock.millis());
+    }
+
+    CardRateLimiter(boolean enabled, Map<String, BucketConfig> configs, int stripes,
+                    int maxBuckets, long idleEvictionMs, LongSupplier clockMs) {
+        this.enabled = enabled;
+        this.configs = Map.copyOf(configs);
+        this.buckets = new ClockCache<>(stripes, maxBuckets, evictions::add);
+        this.idleEvictionMs = idleEvictionMs;
+        this.clockMs = clockMs;
+
+        this.configs.forEach((type, config) -> {
+            if (config.capacityMilli() > TokenBucket.MAX_CAPACITY_MILLI || config.capacityMilli() < 1_000) {
+                throw new IllegalArgumentException("Rate limit capacity for '" + type
+                    + "' must be between 1 and " + TokenBucket.MAX_CAPACITY_MILLI / 1_000);
+            }
+            allowed.put(type, new LongAdder());
+            rejected.put(type, new LongAdder());
+        });
+    }
+
+    /**
+     * Try to admit one transaction for the card.
+     *
+     * @param type lower-case transaction type ("withdraw" or "topup")
+     * @return 0 if admitted, otherwise the milliseconds until the card may try again
+     */
+    public long tryAcquire(String cardNumber, String type) {
+        BucketConfig config = configs.get(type);
+        if (!enabled || config == null) {
+            return 0;
+        }
+
+        long now = clockMs.getAsLong();
+        TokenBucket bucket = buckets.computeIfAbsent(type + ':' + cardNumber,
+            k -> new TokenBucket(config.capacityMilli(), config.refillPerSecond(), now));
+
+        long waitMs = bucket.tryAcquire(now);
+        (waitMs == 0 ? allowed : rejected).get(type).increment();
+        return waitMs;
+    }
+
+    /**
+     * Drop buckets that have not been used for the idle eviction period.
+     * An idle bucket has refilled to capacity, so forgetting it changes nothing.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = clockMs.getAsLong() - idleEvictionMs;
+        int removed = buckets.removeIf(bucket -> bucket.lastSeenMs() < cutoff);
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate-limit buckets", removed);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    public long getAllowed(String type) {
+        LongAdder counter = allowed.get(type);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getRejected(String type) {
+        LongAdder counter = rejected.get(type);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public Iterable<String> getTypes() {
+        return configs.keySet();
+    }
+
+    /**
+     * Bucket size and refill rate for one transaction type.
+     */
+    record BucketConfig(double capacity, double refillPerSecond) {
+
+        long capacityMilli() {
+            return Math.round(capacity * 1_000);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.poc.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * The whole state lives in one AtomicLong so acquire is a single CAS loop:
+ * - high 40 bits: time of the last refill (milliseconds since the limiter started)
+ * - low 24 bits:  available tokens in milli-tokens (max ~16,000 tokens)
+ *
+ * Refills are counted against the limiter's clock (floor(t * rate) milli-tokens have been
+ * earned by time t), so the fraction of a milli-token earned between two calls is carried to
+ * the next one instead of being truncated away.
+ */
+class TokenBucket {
+
+    static final int TOKEN_BITS = 24;
+    static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    static final long MAX_CAPACITY_MILLI = TOKEN_MASK;
+
+    private static final long ONE_TOKEN = 1_000;
+
+    private final AtomicLong state;
+    private final long capacityMilli;
+    private final double refillMilliPerMs;   // tokens/second == milli-tokens/millisecond
+
+    private volatile long lastSeenMs;
+
+    TokenBucket(long capacityMilli, double refillPerSecond, long nowMs) {
+        this.capacityMilli = capacityMilli;
+        this.refillMilliPerMs = refillPerSecond;
+        this.state = new AtomicLong(pack(nowMs, capacityMilli));
+        this.lastSeenMs = nowMs;
+    }
+
+    /**
+     * Try to take one token.
+     *
+     * @return 0 if a token was taken, otherwise the milliseconds until one is available
+     */
+    long tryAcquire(long nowMs) {
+        lastSeenMs = nowMs;
+        while (true) {
+            long current = state.get();
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            long refillTime = Math.max(last, nowMs);
+            long added = earned(refillTime) - earned(last);
+            long available = Math.min(capacityMilli, tokens + added);
+
+            if (available < ONE_TOKEN) {
+                if (refillMilliPerMs <= 0) {
+                    return Long.MAX_VALUE;
+                }
+                return Math.max(1, (long) Math.ceil((ONE_TOKEN - available) / refillMilliPerMs));
+            }
+            if (state.compareAndSet(current, pack(refillTime, available - ONE_TOKEN))) {
+                return 0;
+            }
+        }
+    }
+
+    long lastSeenMs() {
+        return lastSeenMs;
+    }
+
+    /**
+     * Whole milli-tokens earned from time 0 to the given time.
+     */
+    private long earned(long timeMs) {
+        return (long) Math.floor(timeMs * refillMilliPerMs);
+    }
+
+    private static long pack(long timeMs, long tokensMilli) {
+        return (timeMs << TOKEN_BITS) | (tokensMilli & TOKEN_MASK);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.poc.gateway.routing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One System 2 (Core Banking) replica the gateway can forward to.
+ * Tracks in-flight requests for least-outstanding-requests balancing
+ * and recent latencies for deriving the hedge delay.
+ * Health is maintained by the background HealthProber.
+ */
+public class CoreNode {
+
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LatencyTracker latency;
+    private final NodeHealth health = new NodeHealth();
+
+    public CoreNode(String url, int latencyWindow) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.latency = new LatencyTracker(latencyWindow);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public LatencyTracker getLatency() {
+        return latency;
+    }
+
+    public NodeHealth getHealth() {
+        return health;
+    }
+
+    /**
+     * Mark a request as started against this node.
+     */
+    public void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Mark a request as finished and record how long it took.
+     */
+    public void release(long latencyNanos, boolean succeeded) {
+        outstanding.decrementAndGet();
+        if (succeeded) {
+            latency.record(latencyNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.poc.gateway.routing;
+
+import com.bank.poc.gateway.service.CoreBankClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background liveness prober for System 2 replicas.
+ *
+ * Every probe-interval-ms each replica's /health is called in parallel with a short
+ * timeout, and the result is folded into the replica's NodeHealth. CoreBankClient
+ * skips unhealthy replicas when routing, and /health/system2 answers from this cached
+ * state instead of calling System 2 on every request.
+ */
+@Component
+@Slf4j
+public class HealthProber {
+
+    private final List<CoreNode> nodes;
+    private final RestTemplate restTemplate;
+    private final ExecutorService probeExecutor;
+
+    private final boolean enabled;
+    private final double ewmaAlpha;
+    private final int healthyThreshold;
+    private final int unhealthyThreshold;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder probeFailures = new LongAdder();
+
+    public HealthProber(CoreBankClient coreBankClient,
+                        @Value("${system2.health.enabled:true}") boolean enabled,
+                        @Value("${system2.health.probe-timeout-ms:1000}") int probeTimeoutMs,
+                        @Value("${system2.health.ewma-alpha:0.3}") double ewmaAlpha,
+                        @Value("${system2.health.healthy-threshold:2}") int healthyThreshold,
+                        @Value("${system2.health.unhealthy-threshold:2}") int unhealthyThreshold) {
+        this.nodes = coreBankClient.getNodes();
+        this.enabled = enabled;
+        this.ewmaAlpha = ewmaAlpha;
+        this.healthyThreshold = healthyThreshold;
+        this.unhealthyThreshold = unhealthyThreshold;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(probeTimeoutMs);
+        requestFactory.setReadTimeout(probeTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.probeExecutor = Executors.newFixedThreadPool(Math.min(nodes.size(), 8), runnable -> {
+            Thread thread = new Thread(runnable, "health-prober-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+
+    /**
+     * Probe every replica once and wait for all probes to finish.
+     */
+    @Scheduled(fixedDelayString = "${system2.health.probe-interval-ms:2000}")
+    public void probeAll() {
+        if (!enabled) {
+            return;
+        }
+        CompletableFuture.allOf(nodes.stream()
+                .map(node -> CompletableFuture.runAsync(() -> probe(node), probeExecutor))
+                .toArray(CompletableFuture[]::new))
+            .join();
+    }
+
+    private void probe(CoreNode node) {
+        probes.increment();
+        long start = System.nanoTime();
+        try {
+            String status = restTemplate.getForObject(node.getUrl() + "/health", String.class);
+            if (node.getHealth().recordSuccess(System.nanoTime() - start, status,
+                    System.currentTimeMillis(), ewmaAlpha, healthyThreshold)) {
+                log.info("System 2 replica {} is healthy again, returning it to rotation", node);
+            }
+        } catch (RestClientException e) {
+            probeFailures.increment();
+            if (node.getHealth().recordFailure(e.getMessage(), System.currentTimeMillis(), unhealthyThreshold)) {
+                log.warn("System 2 replica {} failed {} health probes, taking it out of rotation: {}",
+                    node, unhealthyThreshold, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<CoreNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * True once every replica has been probed at least once.
+     */
+    public boolean isWarmedUp() {
+        return nodes.stream().allMatch(node -> node.getHealth().isProbed());
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getProbeFailures() {
+        return probeFailures.sum();
+    }
+}
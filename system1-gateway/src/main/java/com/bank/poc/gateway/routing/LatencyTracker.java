@@ -0,0 +1,53 @@
+package com.bank.poc.gateway.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window of recent call latencies for one System 2 node.
+ * Keeps the last N samples in a ring buffer; percentiles are computed
+ * from a snapshot of the buffer, so recording stays cheap on the hot path.
+ */
+public class LatencyTracker {
+
+    private final long[] samplesMicros;
+    private final AtomicLong count = new AtomicLong();
+
+    public LatencyTracker(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive");
+        }
+        this.samplesMicros = new long[windowSize];
+    }
+
+    /**
+     * Record one observed latency.
+     */
+    public void record(long latencyNanos) {
+        long slot = count.getAndIncrement();
+        samplesMicros[(int) (slot % samplesMicros.length)] = latencyNanos / 1_000;
+    }
+
+    /**
+     * Number of samples currently held in the window.
+     */
+    public int size() {
+        return (int) Math.min(count.get(), samplesMicros.length);
+    }
+
+    /**
+     * Latency at the given quantile (0.0 - 1.0) in milliseconds,
+     * or -1 if no samples have been recorded yet.
+     */
+    public long percentileMillis(double quantile) {
+        int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        long[] snapshot = Arrays.copyOf(samplesMicros, size);
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(quantile * size) - 1;
+        index = Math.max(0, Math.min(size - 1, index));
+        return snapshot[index] / 1_000;
+    }
+}
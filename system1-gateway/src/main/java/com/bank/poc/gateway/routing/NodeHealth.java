@@ -0,0 +1,98 @@
+package com.bank.poc.gateway.routing;
+
+/**
+ * Health of one System 2 replica as seen by the background prober.
+ *
+ * - A node starts healthy and unprobed.
+ * - It is marked unhealthy after a run of failed probes and healthy again after a
+ *   run of successful probes (thresholds are the prober's), so a single slow or
+ *   dropped probe does not flap it in and out of rotation.
+ * - Probe latency is smoothed with an exponentially weighted moving average.
+ */
+public class NodeHealth {
+
+    private volatile boolean healthy = true;
+    private boolean probed;
+    private double ewmaLatencyMs = -1;
+    private int consecutiveSuccesses;
+    private int consecutiveFailures;
+    private long lastProbeAtMs;
+    private String lastStatus;
+    private String lastError;
+
+    /**
+     * Record a successful probe.
+     *
+     * @return true if this probe brought the node back into rotation
+     */
+    public synchronized boolean recordSuccess(long latencyNanos, String status, long nowMs,
+                                              double ewmaAlpha, int healthyThreshold) {
+        double latencyMs = latencyNanos / 1_000_000.0;
+        ewmaLatencyMs = ewmaLatencyMs < 0 ? latencyMs : ewmaAlpha * latencyMs + (1 - ewmaAlpha) * ewmaLatencyMs;
+        probed = true;
+        lastProbeAtMs = nowMs;
+        lastStatus = status;
+        consecutiveFailures = 0;
+        consecutiveSuccesses++;
+        if (!healthy && consecutiveSuccesses >= healthyThreshold) {
+            healthy = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a failed probe.
+     *
+     * @return true if this probe took the node out of rotation
+     */
+    public synchronized boolean recordFailure(String error, long nowMs, int unhealthyThreshold) {
+        probed = true;
+        lastProbeAtMs = nowMs;
+        lastError = error;
+        consecutiveSuccesses = 0;
+        consecutiveFailures++;
+        if (healthy && consecutiveFailures >= unhealthyThreshold) {
+            healthy = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lock-free; read on every routing decision.
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public synchronized boolean isProbed() {
+        return probed;
+    }
+
+    public synchronized double getEwmaLatencyMs() {
+        return ewmaLatencyMs;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getLastProbeAtMs() {
+        return lastProbeAtMs;
+    }
+
+    /**
+     * Response body of the last successful probe (null if none has succeeded yet).
+     */
+    public synchronized String getLastStatus() {
+        return lastStatus;
+    }
+
+    /**
+     * Error of the last failed probe (null if none has failed yet).
+     */
+    public synchronized String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,491 @@
+package com.bank.poc.gateway.service;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.Tracer;
+import com.bank.poc.gateway.routing.CoreNode;
+import com.bank.poc.gateway.transport.BinaryConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Client for System 2 (Core Banking) replicas.
+ *
+ * Routing:
+ * - Every call goes to the healthy replica with the fewest outstanding requests
+ *   (ties are broken round-robin); replicas the HealthProber has marked unhealthy
+ *   are skipped while any healthy replica remains.
+ * - Idempotent calls (reads, or transactions carrying an idempotency key) are hedged:
+ *   if the first replica has not answered within its p95-derived delay, a second
+ *   request is sent to another replica and the first successful answer wins.
+ *   A fast I/O error, timeout or 5xx answer from the first replica is retried once on
+ *   another replica; a 4xx answer is returned as it is.
+ *   Attempts run on a bounded pool (system2.hedging.max-threads); when it is full the
+ *   call is made on the caller's thread, or the hedge is skipped, instead of queueing.
+ * - Non-idempotent calls are sent exactly once.
+ *
+ * Transport (system2.transport):
+ * - json (default): transactions are POSTed to /process over HTTP/1.1.
+ * - binary: transactions use a persistent multiplexed binary connection per replica
+ *   (see BinaryCodec). A replica whose binary endpoint cannot be reached or negotiated
+ *   is served over JSON until the retry backoff expires. Reads always use HTTP.
+ *
+ * Every attempt (including hedges and retries) is timed as gateway.system2.requests,
+ * tagged with the replica, operation and outcome. Transaction attempts are also recorded
+ * as child spans of the caller's trace, and their span is propagated to System 2 as the
+ * W3C traceparent (HTTP header, or the binary request's trace field).
+ */
+@Service
+@Slf4j
+public class CoreBankClient {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String REQUEST_TIMER = "gateway.system2.requests";
+
+    private static final int MIN_SAMPLES_FOR_HEDGE_DELAY = 20;
+
+    private static final int DEFAULT_HEDGE_MAX_THREADS = 64;
+
+    private final RestTemplate restTemplate;
+    private final List<CoreNode> nodes;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final ExecutorService hedgeExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMs;
+    private final long hedgeMaxDelayMs;
+
+    private final boolean binaryTransport;
+    private final Map<CoreNode, BinaryConnection> binaryConnections;
+
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder retriedCalls = new LongAdder();
+    private final LongAdder unhedgedCalls = new LongAdder();
+    private final LongAdder binaryCalls = new LongAdder();
+    private final LongAdder jsonFallbacks = new LongAdder();
+
+    public CoreBankClient(String system2Urls,
+                          int connectTimeoutMs,
+                          int readTimeoutMs,
+                          boolean hedgingEnabled,
+                          double hedgePercentile,
+                          long hedgeMinDelayMs,
+                          long hedgeMaxDelayMs,
+                          int latencyWindow) {
+        this(system2Urls, connectTimeoutMs, readTimeoutMs, hedgingEnabled, hedgePercentile,
+            hedgeMinDelayMs, hedgeMaxDelayMs, latencyWindow, "json", 9082, "", 30_000);
+    }
+
+    public CoreBankClient(String system2Urls,
+                          int connectTimeoutMs,
+                          int readTimeoutMs,
+                          boolean hedgingEnabled,
+                          double hedgePercentile,
+                          long hedgeMinDelayMs,
+                          long hedgeMaxDelayMs,
+                          int latencyWindow,
+                          String transport,
+                          int binaryPort,
+                          String binarySocketPath,
+                          long binaryRetryBackoffMs) {
+        this(system2Urls, connectTimeoutMs, readTimeoutMs, hedgingEnabled, hedgePercentile,
+            hedgeMinDelayMs, hedgeMaxDelayMs, latencyWindow, transport, binaryPort, binarySocketPath,
+            binaryRetryBackoffMs, new SimpleMeterRegistry());
+    }
+
+    public CoreBankClient(String system2Urls,
+                          int connectTimeoutMs,
+                          int readTimeoutMs,
+                          boolean hedgingEnabled,
+                          double hedgePercentile,
+                          long hedgeMinDelayMs,
+                          long hedgeMaxDelayMs,
+                          int latencyWindow,
+                          String transport,
+                          int binaryPort,
+                          String binarySocketPath,
+                          long binaryRetryBackoffMs,
+                          MeterRegistry meterRegistry) {
+        this(system2Urls, connectTimeoutMs, readTimeoutMs, hedgingEnabled, hedgePercentile,
+            hedgeMinDelayMs, hedgeMaxDelayMs, latencyWindow, DEFAULT_HEDGE_MAX_THREADS, transport, binaryPort,
+            binarySocketPath, binaryRetryBackoffMs, meterRegistry);
+    }
+
+    @Autowired
+    public CoreBankClient(
+            @Value("${system2.urls:${system2.url:http://localhost:8082}}") String system2Urls,
+            @Value("${system2.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${system2.read-timeout-ms:10000}") int readTimeoutMs,
+            @Value("${system2.hedging.enabled:true}") boolean hedgingEnabled,
+            @Value("${system2.hedging.percentile:0.95}") double hedgePercentile,
+            @Value("${system2.hedging.min-delay-ms:10}") long hedgeMinDelayMs,
+            @Value("${system2.hedging.max-delay-ms:500}") long hedgeMaxDelayMs,
+            @Value("${system2.hedging.latency-window:512}") int latencyWindow,
+            @Value("${system2.hedging.max-threads:" + DEFAULT_HEDGE_MAX_THREADS + "}") int hedgeMaxThreads,
+            @Value("${system2.transport:json}") String transport,
+            @Value("${system2.binary.port:9082}") int binaryPort,
+            @Value("${system2.binary.socket-path:}") String binarySocketPath,
+            @Value("${system2.binary.retry-backoff-ms:30000}") long binaryRetryBackoffMs,
+            MeterRegistry meterRegistry) {
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.meterRegistry = meterRegistry;
+
+        List<CoreNode> configured = new ArrayList<>();
+        Arrays.stream(system2Urls.split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .distinct()
+            .forEach(url -> configured.add(new CoreNode(url, latencyWindow)));
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("At least one System 2 URL must be configured");
+        }
+        this.nodes = Collections.unmodifiableList(configured);
+
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+        this.hedgeMaxDelayMs = hedgeMaxDelayMs;
+
+        this.binaryTransport = "binary".equalsIgnoreCase(transport.trim());
+        Map<CoreNode, BinaryConnection> connections = new IdentityHashMap<>();
+        if (binaryTransport) {
+            if (!binarySocketPath.isBlank() && nodes.size() > 1) {
+                throw new IllegalStateException("system2.binary.socket-path requires a single System 2 replica");
+            }
+            for (CoreNode node : nodes) {
+                connections.put(node, new BinaryConnection(
+                    BinaryConnection.addressFor(node.getUrl(), binaryPort, binarySocketPath),
+                    connectTimeoutMs, readTimeoutMs, binaryRetryBackoffMs));
+            }
+        }
+        this.binaryConnections = Collections.unmodifiableMap(connections);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // No queue: a task either gets an idle or new thread, or is rejected (see execute)
+        this.hedgeExecutor = new ThreadPoolExecutor(0, hedgeMaxThreads, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "core-client-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        log.info("System 2 replicas: {} (hedging {}, {} transport)",
+            nodes, hedgingEnabled ? "enabled" : "disabled", binaryTransport ? "binary" : "json");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+        binaryConnections.values().forEach(BinaryConnection::close);
+    }
+
+    /**
+     * Forward a transaction to System 2 outside any trace.
+     */
+    public TransactionResponse process(TransactionRequest request, String idempotencyKey) {
+        return process(request, idempotencyKey, Span.NOOP);
+    }
+
+    /**
+     * Forward a transaction to System 2.
+     *
+     * @param idempotencyKey propagated as the Idempotency-Key header; System 2 deduplicates
+     *                       on it, so only keyed requests are hedged/retried (may be null)
+     * @param parent         span each attempt is recorded under (Span.NOOP for none)
+     */
+    public TransactionResponse process(TransactionRequest request, String idempotencyKey, Span parent) {
+        return execute("process", idempotencyKey != null, node -> {
+            try (Span span = parent.child("system2.process").tag("node", node.getUrl())) {
+                BinaryConnection binary = binaryConnections.get(node);
+                if (binary != null) {
+                    try {
+                        TransactionResponse response = binary.process(request, idempotencyKey, span.traceparent());
+                        binaryCalls.increment();
+                        span.tag("transport", "binary");
+                        return response;
+                    } catch (BinaryConnection.UnavailableException e) {
+                        // Nothing was sent, so falling back is safe even for non-idempotent calls
+                        jsonFallbacks.increment();
+                    } catch (RuntimeException e) {
+                        span.tag("transport", "binary").tag("error", e.getClass().getSimpleName());
+                        throw e;
+                    }
+                }
+                span.tag("transport", "json");
+                HttpHeaders headers = new HttpHeaders();
+                if (idempotencyKey != null) {
+                    headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+                }
+                if (span.isRecording()) {
+                    headers.set(Tracer.TRACEPARENT_HEADER, span.traceparent());
+                }
+                try {
+                    return restTemplate.postForObject(node.getUrl() + "/process",
+                        new HttpEntity<>(request, headers), TransactionResponse.class);
+                } catch (RuntimeException e) {
+                    span.tag("error", e.getClass().getSimpleName());
+                    throw e;
+                }
+            }
+        });
+    }
+
+    /**
+     * Read the health status of System 2 (hedged, since it is a read).
+     */
+    public String health() {
+        return execute("health", true, node -> restTemplate.getForObject(node.getUrl() + "/health", String.class));
+    }
+
+    /**
+     * Fetch the card filter snapshot (hedged read).
+     *
+     * @param knownVersion version the caller already holds, sent as If-None-Match (may be null)
+     * @return the new snapshot, or null if the caller's version is still current (304)
+     */
+    public CardFilterSnapshot fetchCardFilter(String knownVersion) {
+        HttpHeaders headers = new HttpHeaders();
+        if (knownVersion != null) {
+            headers.setIfNoneMatch("\"" + knownVersion + "\"");
+        }
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+        ResponseEntity<CardFilterSnapshot> response = execute("card-filter", true, node -> restTemplate.exchange(
+            node.getUrl() + "/cards/filter", HttpMethod.GET, entity, CardFilterSnapshot.class));
+        return response.getStatusCode().value() == 304 ? null : response.getBody();
+    }
+
+    public List<CoreNode> getNodes() {
+        return nodes;
+    }
+
+    public long getHedgedCalls() {
+        return hedgedCalls.sum();
+    }
+
+    public long getRetriedCalls() {
+        return retriedCalls.sum();
+    }
+
+    /**
+     * Calls made without a hedge or retry because the hedge pool was full.
+     */
+    public long getUnhedgedCalls() {
+        return unhedgedCalls.sum();
+    }
+
+    public boolean isBinaryTransport() {
+        return binaryTransport;
+    }
+
+    public Map<CoreNode, BinaryConnection> getBinaryConnections() {
+        return binaryConnections;
+    }
+
+    public long getBinaryCalls() {
+        return binaryCalls.sum();
+    }
+
+    public long getJsonFallbacks() {
+        return jsonFallbacks.sum();
+    }
+
+    private <T> T execute(String operation, boolean idempotent, Function<CoreNode, T> call) {
+        CoreNode first = selectNode(null);
+        if (!idempotent || !hedgingEnabled || nodes.size() < 2) {
+            return invoke(first, operation, call);
+        }
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(() -> invoke(first, operation, call), hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            unhedgedCalls.increment();
+            return invoke(first, operation, call);
+        }
+        boolean hedge;
+        try {
+            return primary.get(hedgeDelayMillis(first), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            hedge = true;
+        } catch (ExecutionException e) {
+            if (!isRetryable(e.getCause())) {
+                throw unwrap(e.getCause());
+            }
+            hedge = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for System 2");
+        }
+
+        CoreNode second = selectNode(first);
+        CompletableFuture<T> backup;
+        try {
+            backup = CompletableFuture.supplyAsync(() -> invoke(second, operation, call), hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            unhedgedCalls.increment();
+            return await(primary);
+        }
+        if (hedge) {
+            hedgedCalls.increment();
+            log.debug("No answer from {} within hedge delay, hedged to {}", first, second);
+        } else {
+            retriedCalls.increment();
+            log.debug("Call to {} failed, retrying on {}", first, second);
+        }
+        return firstSuccessful(primary, backup);
+    }
+
+    private <T> T invoke(CoreNode node, String operation, Function<CoreNode, T> call) {
+        node.acquire();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = call.apply(node);
+            succeeded = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            node.release(elapsed, succeeded);
+            Timer.builder(REQUEST_TIMER)
+                .description("Calls from the gateway to System 2 replicas")
+                .tag("node", node.getUrl())
+                .tag("operation", operation)
+                .tag("outcome", succeeded ? "success" : "error")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Pick the healthy replica with the fewest outstanding requests, optionally excluding one.
+     * Unhealthy replicas (per HealthProber) are only used when no healthy one is left,
+     * and the excluded node only if it is the only one.
+     */
+    private CoreNode selectNode(CoreNode exclude) {
+        int size = nodes.size();
+        int start = Math.floorMod(roundRobin.getAndIncrement(), size);
+        CoreNode best = null;
+        CoreNode bestUnhealthy = null;
+        for (int i = 0; i < size; i++) {
+            CoreNode candidate = nodes.get((start + i) % size);
+            if (candidate == exclude) {
+                continue;
+            }
+            if (candidate.getHealth().isHealthy()) {
+                if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                    best = candidate;
+                }
+            } else if (bestUnhealthy == null || candidate.getOutstanding() < bestUnhealthy.getOutstanding()) {
+                bestUnhealthy = candidate;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        if (exclude != null && exclude.getHealth().isHealthy()) {
+            return exclude;
+        }
+        return bestUnhealthy != null ? bestUnhealthy : exclude;
+    }
+
+    private long hedgeDelayMillis(CoreNode node) {
+        if (node.getLatency().size() < MIN_SAMPLES_FOR_HEDGE_DELAY) {
+            return hedgeMaxDelayMs;
+        }
+        long percentile = node.getLatency().percentileMillis(hedgePercentile);
+        return Math.max(hedgeMinDelayMs, Math.min(hedgeMaxDelayMs, percentile));
+    }
+
+    /**
+     * Wait for the first attempt that completes successfully;
+     * fails only if every attempt fails.
+     */
+    private <T> T firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        for (CompletableFuture<T> attempt : List.of(first, second)) {
+            attempt.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(result);
+                } else if (remaining.decrementAndGet() == 0) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return await(winner);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for System 2");
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Whether another replica may succeed: I/O errors and timeouts (ResourceAccessException) and
+     * 5xx answers. Anything else, such as a 4xx, would be answered the same way there.
+     */
+    private static boolean isRetryable(Throwable error) {
+        RuntimeException cause = unwrap(error);
+        return cause instanceof ResourceAccessException || cause instanceof HttpServerErrorException;
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RestClientException("System 2 call failed", cause);
+    }
+}
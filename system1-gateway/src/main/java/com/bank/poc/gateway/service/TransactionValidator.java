@@ -0,0 +1,68 @@
+package com.bank.poc.gateway.service;
+
+import com.bank.poc.common.dto.TransactionRequest;
+
+/**
+ * Gateway-side validation of incoming transactions.
+ *
+ * Validates:
+ * - Card number is not empty
+ * - Card number starts with '4' (card range check)
+ * - Card number is exactly 16 digits
+ * - PIN is not empty
+ * - Amount is positive
+ * - Type is 'withdraw' or 'topup' (case-insensitive)
+ *
+ * Runs on every request, so the accept path does not allocate
+ * (no regex, no lower-casing).
+ */
+public final class TransactionValidator {
+
+    private TransactionValidator() {
+    }
+
+    /**
+     * Validate a transaction request.
+     *
+     * @return the error message for the first failed check, or null if the request is valid
+     */
+    public static String validate(TransactionRequest request) {
+        String cardNumber = request.getCardNumber();
+        if (cardNumber == null || cardNumber.isBlank()) {
+            return "Card number is required";
+        }
+        if (!cardNumber.startsWith("4")) {
+            return "Card range not supported. Only cards starting with '4' are accepted.";
+        }
+        if (!isSixteenDigits(cardNumber)) {
+            return "Card number must be exactly 16 digits";
+        }
+        if (request.getPin() == null || request.getPin().isBlank()) {
+            return "PIN is required";
+        }
+        if (request.getAmount() <= 0) {
+            return "Amount must be greater than 0";
+        }
+        String type = request.getType();
+        if (type == null || type.isBlank()) {
+            return "Transaction type is required";
+        }
+        if (!type.equalsIgnoreCase("withdraw") && !type.equalsIgnoreCase("topup")) {
+            return "Invalid transaction type. Use 'withdraw' or 'topup'.";
+        }
+        return null;
+    }
+
+    private static boolean isSixteenDigits(String cardNumber) {
+        if (cardNumber.length() != 16) {
+            return false;
+        }
+        for (int i = 0; i < 16; i++) {
+            char c = cardNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
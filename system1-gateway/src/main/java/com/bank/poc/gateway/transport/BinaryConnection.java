@@ -0,0 +1,226 @@
+package com.bank.poc.gateway.transport;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.transport.BinaryCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One persistent, multiplexed binary connection to a System 2 replica.
+ *
+ * - Connects lazily and negotiates the protocol version with a HELLO frame.
+ * - Any number of requests may be in flight; a single reader thread completes them
+ *   by correlation id, so callers only block on their own response.
+ * - If the connection or negotiation fails, calls throw UnavailableException for
+ *   retry-backoff-ms. Nothing was sent in that case, so callers can safely fall back
+ *   to JSON over HTTP.
+ * - I/O failures surface as ResourceAccessException, like RestTemplate's, so hedging and
+ *   retries in CoreBankClient behave the same on either transport.
+ */
+@Slf4j
+public class BinaryConnection {
+
+    private final SocketAddress address;
+    private final long connectTimeoutMs;
+    private final long readTimeoutMs;
+    private final long retryBackoffMs;
+
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final Map<Long, CompletableFuture<BinaryCodec.Frame>> pending = new ConcurrentHashMap<>();
+
+    private volatile SocketChannel channel;
+    private volatile long unavailableUntilMs;
+
+    public BinaryConnection(SocketAddress address, long connectTimeoutMs, long readTimeoutMs, long retryBackoffMs) {
+        this.address = address;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public boolean isConnected() {
+        SocketChannel current = channel;
+        return current != null && current.isOpen();
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Send a transaction and wait for its response.
+     */
+    public TransactionResponse process(TransactionRequest request, String idempotencyKey) {
+        return process(request, idempotencyKey, null);
+    }
+
+    /**
+     * Send a transaction carrying a W3C traceparent (may be null) and wait for its response.
+     */
+    public TransactionResponse process(TransactionRequest request, String idempotencyKey, String traceparent) {
+        SocketChannel current = connect();
+        long correlationId = correlationIds.incrementAndGet();
+        BinaryCodec.Frame reply = call(current, correlationId,
+            BinaryCodec.encodeRequest(correlationId, request, idempotencyKey, traceparent), readTimeoutMs);
+        if (reply.type() == BinaryCodec.ERROR) {
+            throw new RestClientException("System 2 binary error: " + BinaryCodec.decodeError(reply.payload()));
+        }
+        return BinaryCodec.decodeResponse(reply.payload());
+    }
+
+    public synchronized void close() {
+        SocketChannel current = channel;
+        channel = null;
+        if (current != null) {
+            closeQuietly(current);
+        }
+    }
+
+    private SocketChannel connect() {
+        SocketChannel current = channel;
+        if (current != null && current.isOpen()) {
+            return current;
+        }
+        synchronized (this) {
+            current = channel;
+            if (current != null && current.isOpen()) {
+                return current;
+            }
+            if (System.currentTimeMillis() < unavailableUntilMs) {
+                throw new UnavailableException("Binary transport to " + address + " unavailable");
+            }
+            try {
+                current = open();
+                Thread reader = new Thread(readLoop(current), "binary-client-" + address);
+                reader.setDaemon(true);
+                reader.start();
+
+                long correlationId = correlationIds.incrementAndGet();
+                BinaryCodec.Frame ack = call(current, correlationId,
+                    BinaryCodec.encodeHello(correlationId, BinaryCodec.HELLO), connectTimeoutMs);
+                if (ack.type() != BinaryCodec.HELLO_ACK) {
+                    throw new IOException("Binary protocol rejected: " + BinaryCodec.decodeError(ack.payload()));
+                }
+                channel = current;
+                log.info("Binary transport connected to {}", address);
+                return current;
+            } catch (IOException | RuntimeException e) {
+                if (current != null) {
+                    closeQuietly(current);
+                }
+                unavailableUntilMs = System.currentTimeMillis() + retryBackoffMs;
+                log.warn("Binary transport to {} unavailable for {} ms: {}", address, retryBackoffMs, e.getMessage());
+                throw new UnavailableException("Binary transport to " + address + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private SocketChannel open() throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            SocketChannel unix = SocketChannel.open(StandardProtocolFamily.UNIX);
+            unix.connect(address);
+            return unix;
+        }
+        // Resolve on every connect so a replica that moved is found again
+        InetSocketAddress inet = (InetSocketAddress) address;
+        SocketChannel tcp = SocketChannel.open();
+        tcp.socket().connect(new InetSocketAddress(inet.getHostString(), inet.getPort()), (int) connectTimeoutMs);
+        tcp.socket().setTcpNoDelay(true);
+        tcp.socket().setKeepAlive(true);
+        return tcp;
+    }
+
+    private BinaryCodec.Frame call(SocketChannel current, long correlationId, ByteBuffer frame, long timeoutMs) {
+        CompletableFuture<BinaryCodec.Frame> response = new CompletableFuture<>();
+        pending.put(correlationId, response);
+        try {
+            synchronized (current) {
+                while (frame.hasRemaining()) {
+                    current.write(frame);
+                }
+            }
+            return response.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            closeQuietly(current);
+            throw new ResourceAccessException("Binary write to " + address + " failed: " + e.getMessage());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Binary call to " + address + " timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw new ResourceAccessException("Binary call to " + address + " failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for System 2");
+        } finally {
+            pending.remove(correlationId);
+        }
+    }
+
+    private Runnable readLoop(SocketChannel current) {
+        return () -> {
+            IOException failure = null;
+            try {
+                BinaryCodec.Frame frame;
+                while ((frame = BinaryCodec.readFrame(current)) != null) {
+                    CompletableFuture<BinaryCodec.Frame> response = pending.remove(frame.correlationId());
+                    if (response != null) {
+                        response.complete(frame);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            closeQuietly(current);
+            IOException cause = failure != null ? failure : new IOException("Connection closed by System 2");
+            log.debug("Binary connection to {} closed: {}", address, cause.getMessage());
+            pending.values().forEach(response -> response.completeExceptionally(cause));
+        };
+    }
+
+    private static void closeQuietly(SocketChannel current) {
+        try {
+            current.close();
+        } catch (IOException ignored) {
+            // already closing
+        }
+    }
+
+    /**
+     * Resolve the binary endpoint for a replica: the replica's host on the given port,
+     * or a Unix domain socket when a path is configured.
+     */
+    public static SocketAddress addressFor(String nodeUrl, int port, String socketPath) {
+        if (socketPath != null && !socketPath.isBlank()) {
+            return UnixDomainSocketAddress.of(socketPath);
+        }
+        String host = URI.create(nodeUrl).getHost();
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    /**
+     * The connection could not be established or negotiated; the request was not sent.
+     */
+    public static class UnavailableException extends ResourceAccessException {
+
+        public UnavailableException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.bank.poc.gateway;
 
-import com.bank.poc.gateway.controller.TransactionController;
-import com.bank.poc.gateway.dto.TransactionRequest;
-import com.bank.poc.gateway.dto.TransactionResponse;
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,10 +27,26 @@ import static org.junit.jupiter.api.Assertions.*;
  * 3. Unsupported card range decline
  */
 @SpringBootTest
+@AutoConfigureMockMvc
 class GatewayApplicationTests {
 
     @Autowired
-    private TransactionController transactionController;
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * POST /transaction through the MVC stack.
+     */
+    private ResponseEntity<TransactionResponse> handleTransaction(TransactionRequest request) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andReturn().getResponse();
+        return ResponseEntity.status(response.getStatus())
+            .body(objectMapper.readValue(response.getContentAsByteArray(), TransactionResponse.class));
+    }
 
     @Nested
     @DisplayName("Card Range Routing Tests")
@@ -32,7 +54,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-001: Accept card starting with '4' (Visa simulation)")
-        void testAcceptCardStartingWith4() {
+        void testAcceptCardStartingWith4() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -41,7 +63,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert - Should not return a card range error
             // Note: This test may fail to connect to System 2, but should pass validation
@@ -57,7 +79,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-002: Decline card starting with '5' (Mastercard simulation)")
-        void testDeclineCardStartingWith5() {
+        void testDeclineCardStartingWith5() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("5123456789012345");
@@ -66,7 +88,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             assertNotNull(response);
@@ -80,7 +102,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-003: Decline card starting with '3' (Amex simulation)")
-        void testDeclineCardStartingWith3() {
+        void testDeclineCardStartingWith3() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("3782822463100050");
@@ -89,7 +111,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             assertNotNull(response);
@@ -101,7 +123,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-004: Decline card starting with '6'")
-        void testDeclineCardStartingWith6() {
+        void testDeclineCardStartingWith6() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("6011111111111117");
@@ -110,7 +132,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -126,7 +148,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-005: Decline when card number is missing")
-        void testMissingCardNumber() {
+        void testMissingCardNumber() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber(null);
@@ -135,7 +157,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -146,7 +168,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-006: Decline when card number is empty")
-        void testEmptyCardNumber() {
+        void testEmptyCardNumber() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("");
@@ -155,7 +177,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -166,7 +188,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-007: Decline when PIN is missing")
-        void testMissingPin() {
+        void testMissingPin() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -175,7 +197,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -186,7 +208,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-008: Decline when amount is zero")
-        void testZeroAmount() {
+        void testZeroAmount() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -195,7 +217,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -206,7 +228,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-009: Decline when amount is negative")
-        void testNegativeAmount() {
+        void testNegativeAmount() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -215,7 +237,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -226,7 +248,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-010: Decline when transaction type is missing")
-        void testMissingType() {
+        void testMissingType() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -235,7 +257,7 @@ class GatewayApplicationTests {
             request.setType(null);
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -246,7 +268,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-011: Decline when transaction type is invalid")
-        void testInvalidType() {
+        void testInvalidType() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -255,7 +277,7 @@ class GatewayApplicationTests {
             request.setType("transfer"); // Invalid type
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -266,7 +288,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-012: Accept valid withdraw type")
-        void testValidWithdrawType() {
+        void testValidWithdrawType() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -275,7 +297,7 @@ class GatewayApplicationTests {
             request.setType("withdraw");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert - Should not fail due to type validation
             TransactionResponse body = response.getBody();
@@ -289,7 +311,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-013: Accept valid topup type")
-        void testValidTopupType() {
+        void testValidTopupType() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -298,7 +320,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert - Should not fail due to type validation
             TransactionResponse body = response.getBody();
@@ -312,7 +334,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-014: Decline invalid card number format (not 16 digits)")
-        void testInvalidCardNumberFormat() {
+        void testInvalidCardNumberFormat() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("412345678901"); // Only 12 digits
@@ -321,7 +343,7 @@ class GatewayApplicationTests {
             request.setType("topup");
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert
             TransactionResponse body = response.getBody();
@@ -333,7 +355,7 @@ class GatewayApplicationTests {
 
         @Test
         @DisplayName("TC-GW-015: Accept case-insensitive transaction type")
-        void testCaseInsensitiveType() {
+        void testCaseInsensitiveType() throws Exception {
             // Arrange
             TransactionRequest request = new TransactionRequest();
             request.setCardNumber("4123456789012345");
@@ -342,7 +364,7 @@ class GatewayApplicationTests {
             request.setType("TOPUP"); // Uppercase
 
             // Act
-            ResponseEntity<TransactionResponse> response = transactionController.handleTransaction(request);
+            ResponseEntity<TransactionResponse> response = handleTransaction(request);
 
             // Assert - Should not fail due to type validation
             TransactionResponse body = response.getBody();
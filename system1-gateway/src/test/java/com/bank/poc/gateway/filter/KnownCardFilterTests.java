@@ -0,0 +1,107 @@
+package com.bank.poc.gateway.filter;
+
+import com.bank.poc.common.filter.BloomFilter;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.gateway.service.CoreBankClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the Bloom filter pre-check of unknown cards.
+ */
+class KnownCardFilterTests {
+
+    @Test
+    @DisplayName("TC-GW-CF-001: Bloom filter has no false negatives and respects its false-positive rate")
+    void testBloomFilterAccuracy() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(String.format("4%015d", i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(String.format("4%015d", i)), "Added cards must always match");
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(String.format("4%015d", i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False-positive rate should stay near 1%, was " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("TC-GW-CF-002: Unknown cards are short-circuited once a snapshot is loaded")
+    void testShortCircuitUnknownCard() {
+        BloomFilter bloom = BloomFilter.create(1_000, 0.001);
+        bloom.put("4123456789012345");
+        CardFilterSnapshot snapshot = new CardFilterSnapshot("v1", LocalDateTime.now(), 1, 0.001,
+            bloom.getNumBits(), bloom.getNumHashes(), Base64.getEncoder().encodeToString(bloom.toBytes()));
+
+        KnownCardFilter filter = new KnownCardFilter(null, true, 60_000, 0);
+        assertFalse(filter.isDefinitelyUnknown("4999999999999999"), "No snapshot yet: fail open");
+
+        filter.load(snapshot, System.currentTimeMillis());
+
+        assertFalse(filter.isDefinitelyUnknown("4123456789012345"));
+        assertTrue(filter.isDefinitelyUnknown("4999999999999999"));
+        assertEquals(1, filter.getShortCircuited());
+        assertEquals("v1", filter.getVersion());
+    }
+
+    @Test
+    @DisplayName("TC-GW-CF-003: Stale snapshots are ignored")
+    void testStaleSnapshotFailsOpen() {
+        BloomFilter bloom = BloomFilter.create(1_000, 0.001);
+        CardFilterSnapshot snapshot = new CardFilterSnapshot("v1", LocalDateTime.now(), 0, 0.001,
+            bloom.getNumBits(), bloom.getNumHashes(), Base64.getEncoder().encodeToString(bloom.toBytes()));
+
+        KnownCardFilter filter = new KnownCardFilter(null, true, 60_000, 0);
+        filter.load(snapshot, System.currentTimeMillis() - 120_000);
+
+        assertFalse(filter.isDefinitelyUnknown("4999999999999999"));
+        assertEquals(1, filter.getUnavailable());
+    }
+
+    @Test
+    @DisplayName("TC-GW-CF-004: A card missing from the snapshot is re-checked against a fresh one, at most once per interval")
+    void testRecheckBeforeRejecting() {
+        BloomFilter before = BloomFilter.create(1_000, 0.001);
+        before.put("4123456789012345");
+        BloomFilter after = BloomFilter.fromBytes(before.toBytes(), before.getNumBits(), before.getNumHashes());
+        after.put("4123456789010000");
+        AtomicInteger fetches = new AtomicInteger();
+        CoreBankClient client = new CoreBankClient("http://localhost:1", 200, 200, false, 0.95, 10, 100, 64,
+            "json", 9082, "", 30_000, new SimpleMeterRegistry()) {
+            @Override
+            public CardFilterSnapshot fetchCardFilter(String knownVersion) {
+                fetches.incrementAndGet();
+                return snapshot("v2", after);
+            }
+        };
+
+        KnownCardFilter filter = new KnownCardFilter(client, true, 60_000, 60_000);
+        filter.load(snapshot("v1", before), System.currentTimeMillis());
+
+        // Issued after the snapshot was fetched: passed on after one re-fetch
+        assertFalse(filter.isDefinitelyUnknown("4123456789010000"));
+        assertEquals("v2", filter.getVersion());
+        // Unknown cards within the interval are rejected without another fetch
+        assertTrue(filter.isDefinitelyUnknown("4999999999999999"));
+        assertTrue(filter.isDefinitelyUnknown("4999999999999998"));
+        assertEquals(1, fetches.get());
+    }
+
+    private static CardFilterSnapshot snapshot(String version, BloomFilter bloom) {
+        return new CardFilterSnapshot(version, LocalDateTime.now(), 1, 0.001,
+            bloom.getNumBits(), bloom.getNumHashes(), Base64.getEncoder().encodeToString(bloom.toBytes()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.bank.poc.gateway.jfr;
+
+import com.bank.poc.common.jfr.JfrRecordingService;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.Tracer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for on-demand JFR recordings and the gateway's custom events.
+ */
+class JfrRecordingServiceTests {
+
+    private final JfrRecordingService service = new JfrRecordingService(
+        true, 60, 10, "system1-gateway", List.of(TransactionEvent.class));
+
+    @AfterEach
+    void tearDown() {
+        service.closeRecording();
+    }
+
+    @Test
+    @DisplayName("TC-GW-JFR-001: Bounded recording captures span and transaction events")
+    void testRecordingCapturesCustomEvents() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> service.start("no-such-settings", 10));
+        assertEquals("RUNNING", service.start("default", 3_600).get("state"));
+        assertEquals(60L, service.status().get("durationSeconds"), "Duration must be capped");
+        assertThrows(IllegalStateException.class, () -> service.start("default", 10));
+
+        Tracer tracer = new Tracer(true, 10);
+        String traceId;
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try (Span root = tracer.startTrace("POST /transaction", null)) {
+            try (Span validate = tracer.startSpan("validate")) {
+                Thread.sleep(2);
+            }
+            traceId = root.getTraceId();
+            event.traceId = traceId;
+            event.cardSuffix = TransactionEvent.suffixOf("4123456789012345");
+            event.validation = root.stageNanos("validate");
+            event.commit();
+        }
+        assertEquals("STOPPED", service.stop().get("state"));
+        assertThrows(IllegalStateException.class, service::stop);
+
+        Path file = service.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent transaction = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.bank.poc.gateway.Transaction"))
+                .findFirst().orElseThrow();
+            assertEquals("2345", transaction.getString("cardSuffix"));
+            assertTrue(transaction.getDuration("validation").toNanos() >= 2_000_000);
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.bank.poc.Span")
+                && "validate".equals(e.getString("name")) && traceId.equals(e.getString("traceId"))));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.poc.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import com.bank.poc.common.logging.CountingAsyncAppender;
+import com.bank.poc.common.logging.LogMarkers;
+import com.bank.poc.common.logging.MaskedCard;
+import com.bank.poc.common.logging.SamplingTurboFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for success-path log sampling and the async appender's overflow policy.
+ * Each test builds its own logback context, so the application's configuration is untouched.
+ */
+class AsyncLoggingTests {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.stop();
+    }
+
+    @Test
+    @DisplayName("TC-GW-LG-001: Only SAMPLED INFO lines are sampled; card numbers are masked when written")
+    void testSuccessPathSampling() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setInfoEvery(3);
+        filter.start();
+        context.addTurboFilter(filter);
+        ListAppender<ILoggingEvent> captured = new ListAppender<>();
+        captured.setContext(context);
+        captured.start();
+        Logger logger = context.getLogger("com.bank.poc.gateway.controller");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(captured);
+        long sampledOutBefore = SamplingTurboFilter.getSampledOut();
+
+        for (int i = 0; i < 9; i++) {
+            logger.info(LogMarkers.SAMPLED, "Received transaction request {}", i);
+        }
+        logger.debug(LogMarkers.SAMPLED, "disabled by level, not counted");
+        logger.info("Unmarked line");
+        logger.warn(LogMarkers.SAMPLED, "Transaction rejected for card {}", MaskedCard.of("4123456789012345"));
+
+        List<String> messages = captured.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(List.of("Received transaction request 0", "Received transaction request 3",
+            "Received transaction request 6", "Unmarked line", "Transaction rejected for card ****2345"), messages);
+        assertEquals(6, SamplingTurboFilter.getSampledOut() - sampledOutBefore);
+        assertEquals("****", MaskedCard.of(null).toString());
+    }
+
+    @Test
+    @DisplayName("TC-GW-LG-002: Full queue drops INFO lines and makes WARN lines wait")
+    void testOverflowPolicy() throws Exception {
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> slowConsole = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                workerBusy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event.getFormattedMessage());
+            }
+        };
+        slowConsole.setContext(context);
+        slowConsole.start();
+        CountingAsyncAppender async = new CountingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(2);
+        async.setDiscardingThreshold(0);
+        async.addAppender(slowConsole);
+        async.start();
+        Logger logger = context.getLogger("com.bank.poc.gateway");
+        logger.addAppender(async);
+        long droppedBefore = CountingAsyncAppender.getDropped();
+        long blockedBefore = CountingAsyncAppender.getBlocked();
+
+        // The worker takes the first line and is stuck writing it; two more fill the queue
+        logger.info("line 1");
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        logger.info("line 2");
+        logger.info("line 3");
+        logger.info("line 4");
+        logger.info("line 5");
+        assertEquals(2, CountingAsyncAppender.getDropped() - droppedBefore);
+
+        Thread warner = new Thread(() -> logger.warn("failure"));
+        warner.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (CountingAsyncAppender.getBlocked() == blockedBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, CountingAsyncAppender.getBlocked() - blockedBefore);
+        assertTrue(warner.isAlive(), "WARN must wait for room rather than be dropped");
+
+        release.countDown();
+        warner.join(5_000);
+        async.stop();
+        assertEquals(List.of("line 1", "line 2", "line 3", "failure"), written);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.poc.gateway.metrics;
+
+import com.bank.poc.gateway.filter.KnownCardFilter;
+import com.bank.poc.gateway.ratelimit.CardRateLimiter;
+import com.bank.poc.gateway.routing.HealthProber;
+import com.bank.poc.gateway.service.CoreBankClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the gateway's Micrometer meters.
+ */
+class GatewayMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CoreBankClient client;
+    private HealthProber prober;
+
+    @AfterEach
+    void tearDown() {
+        if (prober != null) {
+            prober.shutdown();
+        }
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("TC-GW-MT-001: Failure messages become short, stable tag values")
+    void testReasonTag() {
+        assertEquals("invalid_pin", GatewayMetrics.reasonTag("Invalid PIN"));
+        assertEquals("card_number_must_be_exactly_16_digits",
+            GatewayMetrics.reasonTag("Card number must be exactly 16 digits"));
+        assertEquals("invalid_transaction_type_use_withdraw_or_topup",
+            GatewayMetrics.reasonTag("Invalid transaction type. Use 'withdraw' or 'topup'."));
+        assertTrue(GatewayMetrics.reasonTag("Card range not supported. Only cards starting with '4' are accepted.")
+            .length() <= 48);
+        assertEquals("unknown", GatewayMetrics.reasonTag("..."));
+    }
+
+    @Test
+    @DisplayName("TC-GW-MT-002: Validation, outcomes, downstream calls and existing counters are exported")
+    void testMetersAreRecorded() {
+        client = new CoreBankClient("http://localhost:1", 200, 200, false, 0.95, 10, 100, 64,
+            "json", 9082, "", 30_000, registry);
+        CardRateLimiter rateLimiter = new CardRateLimiter(true, 1, 1, 1, 1, 1, 100, 300);
+        prober = new HealthProber(client, false, 200, 0.3, 2, 2);
+        GatewayMetrics metrics = new GatewayMetrics(registry, rateLimiter,
+            new KnownCardFilter(client, false, 300_000, 0), client, prober);
+
+        metrics.recordValidation(1_000, null);
+        metrics.recordValidation(2_000, "Invalid PIN");
+        metrics.recordOutcome("declined", "Insufficient balance");
+        metrics.recordOutcome("declined", "Insufficient balance");
+        rateLimiter.tryAcquire("4123456789012345", "withdraw");
+        rateLimiter.tryAcquire("4123456789012345", "withdraw");
+        assertThrows(RestClientException.class, () -> client.health());
+
+        assertEquals(1, registry.get(GatewayMetrics.VALIDATION_TIMER).tag("outcome", "accepted").timer().count());
+        assertEquals(1, registry.get(GatewayMetrics.VALIDATION_TIMER).tag("reason", "invalid_pin").timer().count());
+        assertEquals(2, registry.get(GatewayMetrics.TRANSACTION_COUNTER)
+            .tags("outcome", "declined", "reason", "insufficient_balance").counter().count());
+        assertEquals(1, registry.get("gateway.rate-limit.allowed").tag("type", "withdraw").functionCounter().count());
+        assertEquals(1, registry.get("gateway.rate-limit.rejected").tag("type", "withdraw").functionCounter().count());
+        assertEquals(1, registry.get(CoreBankClient.REQUEST_TIMER)
+            .tags("node", "http://localhost:1", "operation", "health", "outcome", "error").timer().count());
+    }
+}
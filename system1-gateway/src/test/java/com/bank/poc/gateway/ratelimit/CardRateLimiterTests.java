@@ -0,0 +1,155 @@
+package com.bank.poc.gateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the per-card token-bucket rate limiter.
+ * Uses a manual clock so refill behaviour is deterministic.
+ */
+class CardRateLimiterTests {
+
+    private static final String CARD = "4123456789012345";
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private CardRateLimiter newLimiter(int maxBuckets) {
+        return new CardRateLimiter(true,
+            Map.of("withdraw", new CardRateLimiter.BucketConfig(3, 1),
+                   "topup", new CardRateLimiter.BucketConfig(5, 10)),
+            4, maxBuckets, 60_000, clock::get);
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-001: Burst up to capacity is admitted, then rejected")
+    void testBurstUpToCapacity() {
+        CardRateLimiter limiter = newLimiter(1_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(CARD, "withdraw"));
+        }
+        long retryAfter = limiter.tryAcquire(CARD, "withdraw");
+
+        assertTrue(retryAfter > 0 && retryAfter <= 1_000, "Should wait about one refill interval");
+        assertEquals(3, limiter.getAllowed("withdraw"));
+        assertEquals(1, limiter.getRejected("withdraw"));
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-002: Tokens refill over time")
+    void testRefill() {
+        CardRateLimiter limiter = newLimiter(1_000);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(CARD, "withdraw");
+        }
+        assertTrue(limiter.tryAcquire(CARD, "withdraw") > 0);
+
+        clock.addAndGet(500);
+        assertTrue(limiter.tryAcquire(CARD, "withdraw") > 0, "Half a token is not enough");
+
+        clock.addAndGet(500);
+        assertEquals(0, limiter.tryAcquire(CARD, "withdraw"), "One full token after one second");
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-003: Transaction types and cards have independent buckets")
+    void testIndependentBuckets() {
+        CardRateLimiter limiter = newLimiter(1_000);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(CARD, "withdraw");
+        }
+
+        assertTrue(limiter.tryAcquire(CARD, "withdraw") > 0);
+        assertEquals(0, limiter.tryAcquire(CARD, "topup"));
+        assertEquals(0, limiter.tryAcquire("4987654321098765", "withdraw"));
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-004: Bucket count stays bounded and idle buckets are evicted")
+    void testBoundedMemory() {
+        CardRateLimiter limiter = newLimiter(40);
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire(String.format("4%015d", i), "topup");
+        }
+        assertTrue(limiter.getBucketCount() <= 40, "Bucket count must respect max-buckets");
+
+        clock.addAndGet(120_000);
+        limiter.evictIdleBuckets();
+        assertEquals(0, limiter.getBucketCount());
+        assertTrue(limiter.getEvictions() >= 1_000 - 40);
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-005: Concurrent callers never exceed the bucket capacity")
+    void testConcurrentAcquire() throws InterruptedException {
+        CardRateLimiter limiter = newLimiter(1_000);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (limiter.tryAcquire(CARD, "topup") == 0) {
+                    admitted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(5, admitted.get());
+        assertEquals(195, limiter.getRejected("topup"));
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-006: Fractional refill is carried between calls")
+    void testFractionalRefill() {
+        CardRateLimiter limiter = new CardRateLimiter(true,
+            Map.of("withdraw", new CardRateLimiter.BucketConfig(2, 1.5)),
+            4, 1_000, 60_000, clock::get);
+        assertEquals(0, limiter.tryAcquire(CARD, "withdraw"));
+        assertEquals(0, limiter.tryAcquire(CARD, "withdraw"));
+
+        int admitted = 0;
+        for (int ms = 0; ms < 2_000; ms++) {
+            clock.incrementAndGet();
+            if (limiter.tryAcquire(CARD, "withdraw") == 0) {
+                admitted++;
+            }
+        }
+
+        assertEquals(3, admitted, "1.5 tokens/s polled every millisecond for 2 s earns 3 tokens");
+    }
+
+    @Test
+    @DisplayName("TC-GW-RL-007: A flood of new cards evicts its own buckets before a card in use")
+    void testSecondChanceEviction() {
+        CardRateLimiter limiter = new CardRateLimiter(true,
+            Map.of("withdraw", new CardRateLimiter.BucketConfig(3, 1)),
+            1, 4, 60_000, clock::get);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(CARD, "withdraw"));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(String.format("4%015d", i), "withdraw");
+            limiter.tryAcquire(CARD, "withdraw");
+        }
+
+        assertTrue(limiter.getBucketCount() <= 4);
+        assertTrue(limiter.tryAcquire(CARD, "withdraw") > 0,
+            "The drained bucket must survive the flood instead of being recreated full");
+    }
+}
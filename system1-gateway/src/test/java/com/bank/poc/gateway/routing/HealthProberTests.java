@@ -0,0 +1,118 @@
+package com.bank.poc.gateway.routing;
+
+import com.bank.poc.gateway.service.CoreBankClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for background health probing of System 2 replicas.
+ */
+class HealthProberTests {
+
+    private HttpServer server;
+    private CoreBankClient client;
+    private HealthProber prober;
+
+    @AfterEach
+    void tearDown() {
+        if (prober != null) {
+            prober.shutdown();
+        }
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("TC-GW-HP-001: Node flips only after consecutive probe results; latency is smoothed")
+    void testThresholdsAndEwma() {
+        NodeHealth health = new NodeHealth();
+
+        assertFalse(health.recordFailure("down", 1, 2));
+        assertTrue(health.isHealthy(), "One failed probe should not take the node out");
+        assertTrue(health.recordFailure("down", 2, 2));
+        assertFalse(health.isHealthy());
+
+        assertFalse(health.recordSuccess(10_000_000, "up", 3, 0.5, 2));
+        assertFalse(health.isHealthy(), "One good probe should not bring the node back");
+        assertTrue(health.recordSuccess(20_000_000, "up", 4, 0.5, 2));
+        assertTrue(health.isHealthy());
+
+        assertEquals(15.0, health.getEwmaLatencyMs(), 0.001);
+        assertEquals("up", health.getLastStatus());
+    }
+
+    @Test
+    @DisplayName("TC-GW-HP-002: Dead replica is taken out of rotation and returns once healthy")
+    void testUnhealthyReplicaIsSkipped() throws IOException {
+        AtomicBoolean up = new AtomicBoolean(false);
+        AtomicInteger calls = new AtomicInteger();
+        String flaky = startReplica(up, calls);
+        String dead = "http://localhost:1";
+        client = new CoreBankClient(dead + "," + flaky, 500, 5_000, false, 0.95, 10, 100, 64);
+        prober = new HealthProber(client, true, 500, 0.3, 2, 2);
+        CoreNode deadNode = client.getNodes().get(0);
+        CoreNode flakyNode = client.getNodes().get(1);
+
+        prober.probeAll();
+        prober.probeAll();
+        assertFalse(deadNode.getHealth().isHealthy());
+        assertFalse(flakyNode.getHealth().isHealthy());
+
+        up.set(true);
+        prober.probeAll();
+        prober.probeAll();
+        assertTrue(flakyNode.getHealth().isHealthy());
+        assertFalse(deadNode.getHealth().isHealthy());
+
+        // Without hedging a call to the dead replica would fail; all calls must avoid it
+        int probeCalls = calls.get();
+        for (int i = 0; i < 6; i++) {
+            assertEquals("up", client.health());
+        }
+        assertEquals(probeCalls + 6, calls.get());
+        assertTrue(prober.isWarmedUp());
+    }
+
+    @Test
+    @DisplayName("TC-GW-HP-003: A failed probe below the threshold keeps the last successful status")
+    void testFailureKeepsLastStatus() {
+        NodeHealth health = new NodeHealth();
+        assertNull(health.getLastStatus());
+
+        health.recordSuccess(10_000_000, "up", 1, 0.5, 2);
+        assertFalse(health.recordFailure("I/O error on GET request: Connection refused", 2, 2));
+
+        assertTrue(health.isHealthy());
+        assertEquals("up", health.getLastStatus(), "The error must not replace the healthy status");
+        assertEquals("I/O error on GET request: Connection refused", health.getLastError());
+    }
+
+    private String startReplica(AtomicBoolean up, AtomicInteger calls) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/health", exchange -> {
+            calls.incrementAndGet();
+            byte[] bytes = (up.get() ? "up" : "down").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(up.get() ? 200 : 503, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+}
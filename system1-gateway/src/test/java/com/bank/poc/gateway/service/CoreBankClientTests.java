@@ -0,0 +1,161 @@
+package com.bank.poc.gateway.service;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.gateway.routing.LatencyTracker;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for replica routing and hedging in the System 2 client.
+ * Uses small in-process HTTP servers as stand-in System 2 replicas.
+ */
+class CoreBankClientTests {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private CoreBankClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-001: Latency percentile is computed over the sliding window")
+    void testLatencyPercentile() {
+        LatencyTracker tracker = new LatencyTracker(100);
+        assertEquals(-1, tracker.percentileMillis(0.95));
+
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i * 1_000_000L);
+        }
+
+        assertEquals(95, tracker.percentileMillis(0.95));
+        assertEquals(50, tracker.percentileMillis(0.50));
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-002: Slow replica is hedged to a fast replica")
+    void testSlowReplicaIsHedged() throws IOException {
+        AtomicInteger slowCalls = new AtomicInteger();
+        AtomicInteger fastCalls = new AtomicInteger();
+        String slow = startReplica("slow", 2_000, slowCalls);
+        String fast = startReplica("fast", 0, fastCalls);
+        client = newClient(slow + "," + fast);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            assertEquals("fast", client.health());
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 2_000, "Hedged reads should not wait for the slow replica");
+        assertTrue(client.getHedgedCalls() > 0, "At least one read should have been hedged");
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-003: Failed replica is retried on another replica for idempotent calls")
+    void testFailedReplicaIsRetried() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        String healthy = startReplica("healthy", 0, calls);
+        client = newClient("http://localhost:1," + healthy);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("healthy", client.health());
+        }
+        assertTrue(client.getRetriedCalls() > 0, "Calls to the dead replica should be retried");
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-004: Non-idempotent calls are sent exactly once")
+    void testNonIdempotentCallIsNotRetried() {
+        client = newClient("http://localhost:1");
+
+        assertThrows(RestClientException.class, () -> client.process(
+            new TransactionRequest("4123456789012345", "1234", 10, "withdraw"), null));
+        assertEquals(0, client.getRetriedCalls());
+        assertEquals(0, client.getHedgedCalls());
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-005: A full hedge pool skips the hedge instead of queueing it")
+    void testFullHedgePoolSkipsHedge() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        String first = startReplica("slow", 300, calls);
+        String second = startReplica("slow", 300, calls);
+        client = new CoreBankClient(first + "," + second, 500, 5_000, true, 0.95, 10, 100, 64, 1,
+            "json", 9082, "", 30_000, new SimpleMeterRegistry());
+
+        // The primary holds the only thread past the 100 ms hedge delay
+        assertEquals("slow", client.health());
+
+        assertEquals(0, client.getHedgedCalls());
+        assertEquals(1, client.getUnhedgedCalls());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("TC-GW-RT-006: A 4xx answer is returned without a retry, a 5xx one is retried")
+    void testOnlyServerErrorsAreRetried() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        client = newClient(startReplica("bad", 400, 0, calls) + "," + startReplica("bad", 400, 0, calls));
+
+        assertThrows(HttpClientErrorException.class, () -> client.health());
+        assertEquals(1, calls.get());
+        assertEquals(0, client.getRetriedCalls());
+
+        client.shutdown();
+        client = newClient(startReplica("error", 503, 0, calls) + "," + startReplica("healthy", 0, calls));
+        for (int i = 0; i < 4; i++) {
+            assertEquals("healthy", client.health());
+        }
+        assertTrue(client.getRetriedCalls() > 0, "Calls answered 503 should be retried");
+    }
+
+    private CoreBankClient newClient(String urls) {
+        return new CoreBankClient(urls, 500, 5_000, true, 0.95, 10, 100, 64);
+    }
+
+    private String startReplica(String body, long delayMs, AtomicInteger calls) throws IOException {
+        return startReplica(body, 200, delayMs, calls);
+    }
+
+    private String startReplica(String body, int status, long delayMs, AtomicInteger calls) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/health", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.poc.gateway.tracing;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.TraceRecord;
+import com.bank.poc.common.tracing.Tracer;
+import com.bank.poc.gateway.service.CoreBankClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for in-process tracing and trace context propagation to System 2.
+ */
+class TracerTests {
+
+    private static final String CALLER_TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private HttpServer server;
+    private CoreBankClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("TC-GW-TR-001: Caller's trace is continued, stages nest, finished traces are buffered")
+    void testTraceContinuationAndRingBuffer() {
+        Tracer tracer = new Tracer(true, 2);
+
+        try (Span root = tracer.startTrace("POST /transaction", CALLER_TRACEPARENT)) {
+            try (Span validate = tracer.startSpan("validate")) {
+                assertSame(validate, tracer.currentSpan());
+            }
+            assertSame(root, tracer.currentSpan());
+            root.tag("outcome", "success");
+        }
+        assertFalse(tracer.currentSpan().isRecording(), "Current span must be cleared after the root ends");
+
+        TraceRecord trace = tracer.getTrace("4bf92f3577b34da6a3ce929d0e0e4736").orElseThrow();
+        assertEquals("POST /transaction", trace.name());
+        assertEquals(2, trace.spans().size());
+        TraceRecord.SpanRecord rootSpan = trace.spans().get(0);
+        TraceRecord.SpanRecord validateSpan = trace.spans().get(1);
+        assertEquals("00f067aa0ba902b7", rootSpan.parentSpanId());
+        assertEquals(rootSpan.spanId(), validateSpan.parentSpanId());
+        assertEquals("success", rootSpan.tags().get("outcome"));
+
+        // Invalid header starts a new trace; buffer keeps only the newest two
+        tracer.startTrace("second", "garbage").close();
+        tracer.startTrace("third", null).close();
+        List<TraceRecord> traces = tracer.getTraces(0, 10);
+        assertEquals(List.of("third", "second"), traces.stream().map(TraceRecord::name).toList());
+        assertNotEquals(trace.traceId(), traces.get(0).traceId());
+
+        assertFalse(new Tracer(false, 10).startTrace("off", CALLER_TRACEPARENT).isRecording());
+    }
+
+    @Test
+    @DisplayName("TC-GW-TR-002: Each System 2 attempt is a child span and is sent as traceparent")
+    void testTraceparentIsPropagated() throws IOException {
+        AtomicReference<String> received = new AtomicReference<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/process", exchange -> {
+            received.set(exchange.getRequestHeaders().getFirst(Tracer.TRACEPARENT_HEADER));
+            byte[] bytes = "{\"success\":true,\"message\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        client = new CoreBankClient("http://localhost:" + server.getAddress().getPort(),
+            500, 5_000, false, 0.95, 10, 100, 64);
+        Tracer tracer = new Tracer(true, 10);
+
+        try (Span root = tracer.startTrace("POST /transaction", null)) {
+            client.process(new TransactionRequest("4123456789012345", "1234", 10, "topup"), null, root);
+        }
+
+        TraceRecord trace = tracer.getTraces(0, 1).get(0);
+        TraceRecord.SpanRecord call = trace.spans().stream()
+            .filter(span -> span.name().equals("system2.process"))
+            .findFirst().orElseThrow();
+        assertEquals("json", call.tags().get("transport"));
+        assertEquals("00-" + trace.traceId() + "-" + call.spanId() + "-01", received.get());
+    }
+}
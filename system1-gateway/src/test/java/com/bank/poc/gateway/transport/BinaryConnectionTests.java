@@ -0,0 +1,135 @@
+package com.bank.poc.gateway.transport;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.transport.BinaryCodec;
+import com.bank.poc.gateway.service.CoreBankClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the binary transport to System 2.
+ * Uses a small in-process binary server as a stand-in System 2 replica.
+ */
+class BinaryConnectionTests {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("TC-GW-BT-001: Concurrent requests share one connection and are matched by correlation id")
+    void testMultiplexedResponsesAreMatched() throws Exception {
+        int port = startBinaryReplica();
+        BinaryConnection connection = new BinaryConnection(
+            BinaryConnection.addressFor("http://localhost:8082", port, ""), 1_000, 5_000, 30_000);
+        resources.add(connection::close);
+
+        // The stub answers the pair in reverse order, so responses arrive out of order
+        CompletableFuture<TransactionResponse> first = CompletableFuture.supplyAsync(() ->
+            connection.process(new TransactionRequest("4123456789012345", "1234", 10, "withdraw"), null));
+        CompletableFuture<TransactionResponse> second = CompletableFuture.supplyAsync(() ->
+            connection.process(new TransactionRequest("4123456789012345", "1234", 20, "topup"), "key-2"));
+
+        TransactionResponse firstResponse = first.get(5, TimeUnit.SECONDS);
+        TransactionResponse secondResponse = second.get(5, TimeUnit.SECONDS);
+
+        assertTrue(connection.isConnected());
+        assertEquals("withdraw 10.0", firstResponse.getMessage());
+        assertEquals(10.0, firstResponse.getNewBalance());
+        assertEquals("topup 20.0 key-2", secondResponse.getMessage());
+        assertEquals(20.0, secondResponse.getNewBalance());
+    }
+
+    @Test
+    @DisplayName("TC-GW-BT-002: Unreachable binary endpoint falls back to JSON")
+    void testFallsBackToJson() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/process", exchange -> {
+            byte[] bytes = "{\"success\":true,\"message\":\"json\",\"newBalance\":1.0,\"transactionId\":1}"
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        resources.add(() -> server.stop(0));
+
+        CoreBankClient client = new CoreBankClient("http://localhost:" + server.getAddress().getPort(),
+            500, 5_000, true, 0.95, 10, 100, 64, "binary", 1, "", 30_000);
+        resources.add(client::shutdown);
+
+        TransactionRequest request = new TransactionRequest("4123456789012345", "1234", 10, "withdraw");
+        assertEquals("json", client.process(request, null).getMessage());
+        assertEquals("json", client.process(request, null).getMessage());
+
+        assertEquals(0, client.getBinaryCalls());
+        assertEquals(2, client.getJsonFallbacks());
+    }
+
+    /**
+     * Accepts one connection, acknowledges HELLO, then answers PROCESS_REQUEST frames in pairs,
+     * second one first, echoing the request fields back in the message.
+     */
+    private int startBinaryReplica() throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+        resources.add(server);
+        Thread thread = new Thread(() -> {
+            try (SocketChannel channel = server.accept()) {
+                List<ByteBuffer> held = new ArrayList<>();
+                BinaryCodec.Frame frame;
+                while ((frame = BinaryCodec.readFrame(channel)) != null) {
+                    if (frame.type() == BinaryCodec.HELLO) {
+                        write(channel, BinaryCodec.encodeHello(frame.correlationId(), BinaryCodec.HELLO_ACK));
+                        continue;
+                    }
+                    BinaryCodec.ProcessRequest decoded = BinaryCodec.decodeRequest(frame.payload());
+                    TransactionRequest request = decoded.request();
+                    String message = request.getType() + " " + request.getAmount()
+                        + (decoded.idempotencyKey() == null ? "" : " " + decoded.idempotencyKey());
+                    held.add(BinaryCodec.encodeResponse(frame.correlationId(),
+                        new TransactionResponse(true, message, request.getAmount(), frame.correlationId())));
+                    if (held.size() == 2) {
+                        write(channel, held.get(1));
+                        write(channel, held.get(0));
+                        held.clear();
+                    }
+                }
+            } catch (IOException ignored) {
+                // test finished
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.bank.poc.core;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Also picks up the shared tracing, JFR and trace endpoints in banking-common
+@SpringBootApplication(scanBasePackages = {"com.bank.poc.core", "com.bank.poc.common"})
+@EnableScheduling
 public class CoreBankApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,7 @@
+package com.bank.poc.core.aggregates;
+
+/**
+ * One CardAggregate row as read for a summary (a projection, never a managed entity).
+ */
+public record AggregateTotal(String period, String type, String status, long count, double amount) {
+}
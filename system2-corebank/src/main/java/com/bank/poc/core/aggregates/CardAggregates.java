@@ -0,0 +1,157 @@
+package com.bank.poc.core.aggregates;
+
+import com.bank.poc.core.dto.CardSummaryResponse;
+import com.bank.poc.core.entity.CardAggregate;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.events.TransactionSaved;
+import com.bank.poc.core.repository.CardAggregateRepository;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.util.CryptoUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-card counts and sums of transactions by type and status, per day and per month
+ * (card_aggregates), so questions like "withdrawn this month" or "failed attempts today"
+ * are answered from at most 16 rows instead of scanning the card's transactions.
+ *
+ * - Each new transactions row (a TransactionSaved event) adds itself to its card's DAY and
+ *   MONTH rows in the same database transaction, with an UPDATE that increments in place and so keeps concurrent
+ *   transactions on the card from losing counts.
+ * - A row that does not exist yet is inserted under the card's row lock (which payments
+ *   already hold), so two transactions never insert the same row. Declines of a card known
+ *   to be locked, made without reading the card, only take its row lock when a row is missing.
+ * - Types other than withdraw, topup and hold are counted as "other", so rows stay bounded
+ *   whatever a request names. Transactions on unknown cards are not aggregated.
+ * - DAY rows older than corebank.aggregates.day-retention-days are purged; MONTH rows are kept.
+ */
+@Service
+@Slf4j
+public class CardAggregates {
+
+    static final String OTHER_TYPE = "other";
+
+    private final CardAggregateRepository aggregateRepository;
+    private final CardRepository cardRepository;
+    private final boolean enabled;
+    private final int dayRetentionDays;
+
+    public CardAggregates(CardAggregateRepository aggregateRepository,
+                          CardRepository cardRepository,
+                          @Value("${corebank.aggregates.enabled:true}") boolean enabled,
+                          @Value("${corebank.aggregates.day-retention-days:90}") int dayRetentionDays) {
+        this.aggregateRepository = aggregateRepository;
+        this.cardRepository = cardRepository;
+        this.enabled = enabled;
+        this.dayRetentionDays = dayRetentionDays;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add a just-saved transactions row to its card's aggregates, in the saving transaction.
+     */
+    @EventListener
+    public void onSaved(TransactionSaved event) {
+        switch (event.card()) {
+            case HELD -> record(event.transaction());
+            case NOT_HELD -> recordWithoutCardLock(event.transaction());
+            case NO_CARD -> { }
+        }
+    }
+
+    /**
+     * Add a just-saved transactions row to its card's aggregates, in the caller's database
+     * transaction. The caller holds the card's row lock.
+     */
+    public void record(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        String type = typeOf(transaction.getType());
+        LocalDate day = transaction.getTimestamp().toLocalDate();
+        add(transaction, CardAggregate.MONTH, day.withDayOfMonth(1), type);
+        add(transaction, CardAggregate.DAY, day, type);
+    }
+
+    /**
+     * As record, for a transaction on a card whose row lock is not held (declined from memory).
+     * The lock is only taken when a row has to be inserted, and then before any aggregate row is
+     * locked, in the same order as payments.
+     */
+    public void recordWithoutCardLock(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        LocalDate day = transaction.getTimestamp().toLocalDate();
+        // Rows are never deleted in their period, so if both exist both increments will succeed
+        if (aggregateRepository.countRows(transaction.getCardNumber(), day, day.withDayOfMonth(1),
+                typeOf(transaction.getType()), transaction.getStatus()) < 2
+                && cardRepository.findByIdForUpdate(transaction.getCardNumber()).isEmpty()) {
+            return;
+        }
+        record(transaction);
+    }
+
+    private void add(Transaction transaction, String period, LocalDate start, String type) {
+        if (aggregateRepository.increment(transaction.getCardNumber(), period, start, type,
+                transaction.getStatus(), transaction.getAmount()) == 0) {
+            aggregateRepository.save(new CardAggregate(transaction.getCardNumber(), period, start, type,
+                transaction.getStatus(), transaction.getAmount()));
+        }
+    }
+
+    /**
+     * The card's totals for the given day and its month, or empty if there is no such card.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CardSummaryResponse> summary(String cardNumber, LocalDate day) {
+        LocalDate month = day.withDayOfMonth(1);
+        List<AggregateTotal> totals = aggregateRepository.findTotals(cardNumber, day, month);
+        if (totals.isEmpty() && !cardRepository.existsById(cardNumber)) {
+            return Optional.empty();
+        }
+        List<CardSummaryResponse.Total> dayTotals = new ArrayList<>();
+        List<CardSummaryResponse.Total> monthTotals = new ArrayList<>();
+        for (AggregateTotal total : totals) {
+            (CardAggregate.DAY.equals(total.period()) ? dayTotals : monthTotals).add(
+                new CardSummaryResponse.Total(total.type(), total.status(), total.count(), total.amount()));
+        }
+        return Optional.of(new CardSummaryResponse(cardNumber, CryptoUtil.maskCardNumber(cardNumber),
+            day, month, dayTotals, monthTotals));
+    }
+
+    /**
+     * Delete DAY rows past their retention.
+     */
+    @Scheduled(cron = "${corebank.aggregates.purge-cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeOldDays() {
+        int deleted = aggregateRepository.deleteDaysBefore(LocalDate.now().minusDays(dayRetentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} daily card aggregates older than {} days", deleted, dayRetentionDays);
+        }
+    }
+
+    static String typeOf(String type) {
+        if (type == null) {
+            return OTHER_TYPE;
+        }
+        String lower = type.toLowerCase();
+        return switch (lower) {
+            case "withdraw", "topup", "hold" -> lower;
+            default -> OTHER_TYPE;
+        };
+    }
+}
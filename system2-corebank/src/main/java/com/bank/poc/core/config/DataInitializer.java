@@ -10,6 +10,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -30,11 +32,15 @@ public class DataInitializer implements CommandLineRunner {
     private final TransactionRepository transactionRepository;
     private final CardService cardService;
     private final CryptoUtil cryptoUtil;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public void run(String... args) {
-        // Check if data already exists (for production with persistent database)
-        if (cardRepository.count() > 0) {
+        // Check if data already exists (for production with persistent database).
+        // Read-write, so the check always sees the primary; each card is then saved on its own
+        // (rather than in one transaction) because the cards may live on different shards.
+        Boolean initialized = new TransactionTemplate(transactionManager).execute(status -> cardRepository.count() > 0);
+        if (Boolean.TRUE.equals(initialized)) {
             log.info("Database already has data. Skipping initialization.");
             return;
         }
@@ -0,0 +1,24 @@
+package com.bank.poc.core.config;
+
+import com.bank.poc.core.datasource.ReportingExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed dashboard responses (StreamingResponseBody, see ProcessingController) are written
+ * on the ReportingExecutor, the same bounded executor and connection pool as the dashboard
+ * queries, rather than on Spring Boot's application task executor.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ReportingExecutor reportingExecutor;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(reportingExecutor.asyncTaskExecutor());
+    }
+}
@@ -0,0 +1,34 @@
+package com.bank.poc.core.controller;
+
+import com.bank.poc.core.service.CardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Admin endpoint for cards locked after too many invalid PINs (see PinAttemptTracker).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class CardAdminController {
+
+    private final CardService cardService;
+
+    /**
+     * Unlock a card and clear its failed PIN attempts.
+     * POST /admin/cards/{cardNumber}/unlock
+     */
+    @PostMapping("/admin/cards/{cardNumber}/unlock")
+    public ResponseEntity<Map<String, Object>> unlock(@PathVariable String cardNumber) {
+        if (!cardService.unlockCard(cardNumber)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("unlocked", true));
+    }
+}
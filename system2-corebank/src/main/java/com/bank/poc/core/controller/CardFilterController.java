@@ -0,0 +1,42 @@
+package com.bank.poc.core.controller;
+
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.core.service.CardFilterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publishes the card Bloom filter snapshot to System 1 Gateway.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CardFilterController {
+
+    private final CardFilterService cardFilterService;
+
+    /**
+     * Get the current card filter snapshot.
+     * GET /cards/filter
+     *
+     * Returns 304 when the caller already has this version (If-None-Match).
+     */
+    @GetMapping("/cards/filter")
+    public ResponseEntity<CardFilterSnapshot> getCardFilter(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CardFilterSnapshot snapshot = cardFilterService.getSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        String etag = "\"" + snapshot.getVersion() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(snapshot);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.poc.core.controller;
+
+import com.bank.poc.core.events.TransactionEventStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event streams pushing dashboard updates (see TransactionEventStream).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class EventStreamController {
+
+    private final TransactionEventStream eventStream;
+
+    /**
+     * Stream a card's balance changes and new transactions (customer dashboard).
+     * GET /events/cards/{cardNumber}
+     */
+    @GetMapping("/events/cards/{cardNumber}")
+    public ResponseEntity<SseEmitter> cardEvents(@PathVariable String cardNumber) {
+        return open(() -> eventStream.subscribeToCard(cardNumber));
+    }
+
+    /**
+     * Stream the new transactions of all cards (admin dashboard).
+     * GET /events/transactions
+     */
+    @GetMapping("/events/transactions")
+    public ResponseEntity<SseEmitter> transactionEvents() {
+        return open(eventStream::subscribeToAll);
+    }
+
+    private ResponseEntity<SseEmitter> open(Supplier<SseEmitter> subscribe) {
+        if (!eventStream.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = subscribe.get();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+        }
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            // Stops nginx-style proxies from buffering the stream
+            .header("X-Accel-Buffering", "no")
+            .body(emitter);
+    }
+}
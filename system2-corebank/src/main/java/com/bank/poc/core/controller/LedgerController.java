@@ -0,0 +1,42 @@
+package com.bank.poc.core.controller;
+
+import com.bank.poc.core.ledger.LedgerRebuildService;
+import com.bank.poc.core.ledger.RebuildReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Admin endpoint for the event-sourced ledger (see LedgerRebuildService).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class LedgerController {
+
+    private final LedgerRebuildService ledgerRebuildService;
+
+    /**
+     * Replay all transactions into fresh snapshots and correct drifted balances.
+     * Returns when done, with the replay throughput.
+     * POST /admin/ledger/rebuild?partitions=4
+     */
+    @PostMapping("/admin/ledger/rebuild")
+    public ResponseEntity<?> rebuild(@RequestParam(defaultValue = "0") int partitions) {
+        if (!ledgerRebuildService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            RebuildReport report = ledgerRebuildService.rebuild(partitions);
+            return ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
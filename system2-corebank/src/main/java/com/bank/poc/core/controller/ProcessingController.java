@@ -1,17 +1,41 @@
 package com.bank.poc.core.controller;
 
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.logging.LogMarkers;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.Tracer;
+import com.bank.poc.core.aggregates.CardAggregates;
+import com.bank.poc.core.datasource.ReportingExecutor;
 import com.bank.poc.core.dto.*;
+import com.bank.poc.core.etag.CardVersions;
+import com.bank.poc.core.jfr.TransactionEvent;
+import com.bank.poc.core.metrics.CoreMetrics;
 import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for transaction processing.
  * This is the main entry point for System 2 (Core Banking).
+ *
+ * /process and /holds/** run on the servlet thread and the payment connection pool; the dashboard
+ * queries (/card/**, /transactions/**) run on the ReportingExecutor and the reporting pool.
+ * A conditional GET whose tag still matches (see CardVersions) is answered 304 after a
+ * single-value query instead of the full one.
  */
 @RestController
 @RequiredArgsConstructor
@@ -20,16 +44,60 @@ import java.util.List;
 public class ProcessingController {
 
     private final CardService cardService;
+    private final IdempotencyService idempotencyService;
+    private final CoreMetrics coreMetrics;
+    private final Tracer tracer;
+    private final ReportingExecutor reportingExecutor;
+    private final CardVersions cardVersions;
+    private final CardAggregates cardAggregates;
 
     /**
      * Process a transaction (called from System 1 Gateway).
      * POST /process
+     *
+     * An optional Idempotency-Key header makes the call safe to retry:
+     * a repeated key returns the original response without re-processing.
+     *
+     * A W3C traceparent header from the gateway makes the spans recorded here
+     * part of the gateway's trace (see GET /traces). During a JFR recording each
+     * call is also committed as a TransactionEvent.
      */
     @PostMapping("/process")
     public ResponseEntity<TransactionResponse> processTransaction(
-            @RequestBody TransactionRequest request) {
-        
-        log.info("Received transaction request: {}", request);
+            @RequestBody TransactionRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = Tracer.TRACEPARENT_HEADER, required = false) String traceparent) {
+        long start = System.nanoTime();
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try (Span span = tracer.startTrace("POST /process", traceparent)) {
+            ResponseEntity<TransactionResponse> response = handleTransaction(request, idempotencyKey);
+            TransactionResponse body = response.getBody();
+            String outcome = body != null && body.isSuccess() ? "success" : "failed";
+            span.tag("type", request.getType()).tag("outcome", outcome);
+            coreMetrics.recordTransaction(request.getType(), body,
+                !response.getStatusCode().is2xxSuccessful(), System.nanoTime() - start);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.traceId = span.getTraceId();
+                event.cardSuffix = TransactionEvent.suffixOf(request.getCardNumber());
+                event.type = request.getType();
+                event.outcome = outcome;
+                event.message = body != null ? body.getMessage() : null;
+                event.ledgerTransaction = span.stageNanos("ledger.transaction");
+                event.cardLookup = span.stageNanos("card.lookup");
+                event.pinVerify = span.stageNanos("pin.verify");
+                event.balanceUpdate = span.stageNanos("balance.update");
+                event.auditInsert = span.stageNanos("audit.insert");
+                event.commit();
+            }
+            return response;
+        }
+    }
+
+    private ResponseEntity<TransactionResponse> handleTransaction(TransactionRequest request, String idempotencyKey) {
+        log.info(LogMarkers.SAMPLED, "Received transaction request: {}", request);
         
         // Validate required fields
         if (request.getCardNumber() == null || request.getCardNumber().isBlank()) {
@@ -49,51 +117,188 @@ public class ProcessingController {
                 .body(TransactionResponse.error("Transaction type is required"));
         }
 
-        TransactionResponse response = cardService.processTransaction(request);
+        if (idempotencyKey != null && idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                .body(TransactionResponse.error("Idempotency key is too long"));
+        }
+
+        // Covers the database transaction including its commit
+        try (Span span = tracer.startSpan("ledger.transaction")) {
+            TransactionResponse response = idempotencyKey == null || idempotencyKey.isBlank()
+                ? cardService.processTransaction(request)
+                : idempotencyService.processOnce(idempotencyKey, request);
+            return ResponseEntity.ok(response);
+        }
+    }
+
+    /**
+     * Place an authorisation hold: reserve funds to capture or release later.
+     * POST /holds
+     *
+     * Declines (invalid card or PIN, insufficient funds) are 200 with success=false,
+     * as for /process.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<HoldResponse> authorize(@RequestBody HoldRequest request) {
+        if (request.getCardNumber() == null || request.getCardNumber().isBlank()) {
+            return ResponseEntity.badRequest().body(HoldResponse.error("Card number is required"));
+        }
+        if (request.getPin() == null || request.getPin().isBlank()) {
+            return ResponseEntity.badRequest().body(HoldResponse.error("PIN is required"));
+        }
+        if (request.getAmount() <= 0) {
+            return ResponseEntity.badRequest().body(HoldResponse.error("Amount must be greater than 0"));
+        }
+        return ResponseEntity.ok(cardService.authorize(request));
+    }
+
+    /**
+     * Capture a hold, debiting the held amount (or the given part of it).
+     * POST /holds/{holdId}/capture?amount=25.00
+     */
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<HoldResponse> capture(@PathVariable long holdId,
+                                                @RequestParam(required = false) Double amount) {
+        return holdResult(cardService.capture(holdId, amount));
+    }
+
+    /**
+     * Release a hold without debiting it.
+     * POST /holds/{holdId}/release
+     */
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<HoldResponse> release(@PathVariable long holdId) {
+        return holdResult(cardService.release(holdId));
+    }
+
+    private ResponseEntity<HoldResponse> holdResult(HoldResponse response) {
+        if (!response.isSuccess() && "Hold not found".equals(response.getMessage())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
     /**
      * Get card info by username (for customer login).
      * GET /card/by-username/{username}
+     *
+     * Tagged like /card/{cardNumber}.
      */
     @GetMapping("/card/by-username/{username}")
-    public ResponseEntity<CardInfoResponse> getCardByUsername(@PathVariable String username) {
-        return cardService.getCardByUsername(username)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    public CompletableFuture<ResponseEntity<CardInfoResponse>> getCardByUsername(
+            @PathVariable String username,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reportingExecutor.submit(() -> cardVersions.read(() -> {
+            String etag = cardVersions.cardTagByUsername(username);
+            if (cardVersions.notModified(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return cardService.getCardByUsername(username)
+                .map(card -> tagged(etag).body(card))
+                .orElse(ResponseEntity.notFound().build());
+        }));
     }
 
     /**
      * Get card info by card number.
      * GET /card/{cardNumber}
+     *
+     * The ETag is the card's row version (see CardVersions): a matching If-None-Match is
+     * answered 304 without loading the card.
      */
     @GetMapping("/card/{cardNumber}")
-    public ResponseEntity<CardInfoResponse> getCard(@PathVariable String cardNumber) {
-        return cardService.getCardByCardNumber(cardNumber)
+    public CompletableFuture<ResponseEntity<CardInfoResponse>> getCard(
+            @PathVariable String cardNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reportingExecutor.submit(() -> cardVersions.read(() -> {
+            String etag = cardVersions.cardTag(cardNumber);
+            if (cardVersions.notModified(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return cardService.getCardByCardNumber(cardNumber)
+                .map(card -> tagged(etag).body(card))
+                .orElse(ResponseEntity.notFound().build());
+        }));
+    }
+
+    /**
+     * Get a card's transaction counts and sums by type and status for a day (default today) and
+     * its month, from the incrementally maintained aggregates (see CardAggregates).
+     * GET /card/{cardNumber}/summary?date=2024-06-30
+     */
+    @GetMapping("/card/{cardNumber}/summary")
+    public CompletableFuture<ResponseEntity<CardSummaryResponse>> getCardSummary(
+            @PathVariable String cardNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date == null ? LocalDate.now() : date;
+        return reportingExecutor.submit(() -> cardAggregates.summary(cardNumber, day)
             .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+            .orElse(ResponseEntity.notFound().build()));
     }
 
     /**
-     * Get transaction history for a specific card.
+     * Get transaction history for a specific card: a JSON array of TransactionHistoryResponse.
      * GET /transactions/{cardNumber}
+     *
+     * Conditional on the card's newest transaction id: a matching If-None-Match is answered
+     * 304 without reading the history. The history only grows, so the body, read after the
+     * tag, holds at least the rows the tag names.
      */
     @GetMapping("/transactions/{cardNumber}")
-    public ResponseEntity<List<TransactionHistoryResponse>> getTransactionHistory(
-            @PathVariable String cardNumber) {
-        List<TransactionHistoryResponse> history = cardService.getTransactionHistory(cardNumber);
-        return ResponseEntity.ok(history);
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getTransactionHistory(
+            @PathVariable String cardNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reportingExecutor.submit(() -> cardVersions.read(() -> {
+            String etag = cardVersions.historyTag(cardNumber);
+            if (cardVersions.notModified(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return json(tagged(etag), out -> cardService.writeTransactionHistory(cardNumber, out));
+        }));
     }
 
     /**
-     * Get all transactions (for admin dashboard).
+     * Get all transactions (for admin dashboard): a JSON array of TransactionHistoryResponse.
      * GET /transactions/all
      */
     @GetMapping("/transactions/all")
-    public ResponseEntity<List<TransactionHistoryResponse>> getAllTransactions() {
-        List<TransactionHistoryResponse> allTransactions = cardService.getAllTransactions();
-        return ResponseEntity.ok(allTransactions);
+    public ResponseEntity<StreamingResponseBody> getAllTransactions() {
+        return json(ResponseEntity.ok(), cardService::writeAllTransactions);
+    }
+
+    /**
+     * History JSON written from the query cursor straight to the client (see
+     * TransactionHistoryWriter), never buffered whole. Spring MVC runs the write on the
+     * ReportingExecutor (see WebMvcConfig), inside the CardService read-only transaction,
+     * which stays open until the last row is written.
+     */
+    private static ResponseEntity<StreamingResponseBody> json(ResponseEntity.BodyBuilder response,
+                                                              StreamingResponseBody write) {
+        return response.contentType(MediaType.APPLICATION_JSON).body(write);
+    }
+
+    /**
+     * A streamed response the ReportingExecutor had no room for.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> reportingRejected() {
+        return reportingExecutor.rejected();
+    }
+
+    /**
+     * A 200 carrying the ETag, if any. no-cache lets browsers keep the body but revalidate it
+     * (If-None-Match) on every use.
+     */
+    private static ResponseEntity.BodyBuilder tagged(String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag).cacheControl(CacheControl.noCache());
+        }
+        return response;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.bank.poc.core.controller;
+
+import com.bank.poc.core.stats.TransactionRollups;
+import com.bank.poc.core.stats.TransactionRollups.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * System-wide transaction statistics for the admin dashboard (see TransactionRollups).
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // Allow CORS for React frontend
+public class StatsController {
+
+    private final TransactionRollups transactionRollups;
+
+    /**
+     * Totals and per-bucket rollups of the last minutes, hours and days, from memory.
+     * GET /stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", transactionRollups.isEnabled());
+        stats.put("instance", transactionRollups.getInstance());
+        stats.put("minutes", window(Granularity.MINUTE));
+        stats.put("hours", window(Granularity.HOUR));
+        stats.put("days", window(Granularity.DAY));
+        return ResponseEntity.ok(stats);
+    }
+
+    private Map<String, Object> window(Granularity granularity) {
+        Map<String, Object> window = new LinkedHashMap<>();
+        window.put("size", transactionRollups.getWindow(granularity));
+        window.put("total", transactionRollups.total(granularity));
+        window.put("buckets", transactionRollups.series(granularity));
+        return window;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.poc.core.datasource;
+
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically checks every read replica and decides whether reads may use it.
+ *
+ * A replica is available if a connection can be opened and its replication lag, as
+ * returned by corebank.datasource.replicas.lag-query (milliseconds, first column of the
+ * first row), is at most corebank.datasource.replicas.max-lag-ms. With no lag query the
+ * replica only has to be reachable. Unavailable replicas are skipped and reads fall back
+ * to the primary until a later check succeeds.
+ *
+ * Meters: corebank.datasource.replica.lag / .available / .reads (tag replica) and
+ * corebank.datasource.replica.fallbacks.
+ */
+@Component
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource router;
+    private final long maxLagMs;
+    private final String lagQuery;
+    private final int timeoutSeconds;
+
+    public ReplicaLagMonitor(DataSourceRoutingConfig dataSourceRoutingConfig,
+                             MeterRegistry meterRegistry,
+                             @Value("${corebank.datasource.replicas.max-lag-ms:5000}") long maxLagMs,
+                             @Value("${corebank.datasource.replicas.lag-query:}") String lagQuery,
+                             @Value("${corebank.datasource.replicas.check-timeout-seconds:2}") int timeoutSeconds) {
+        this.router = dataSourceRoutingConfig.getRouter();
+        this.maxLagMs = maxLagMs;
+        this.lagQuery = lagQuery.isBlank() ? null : lagQuery;
+        this.timeoutSeconds = timeoutSeconds;
+
+        if (router != null) {
+            for (ReplicaRoutingDataSource.Replica replica : router.getReplicas()) {
+                Gauge.builder("corebank.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagMs)
+                    .tag("replica", replica.getName()).baseUnit("milliseconds").register(meterRegistry);
+                Gauge.builder("corebank.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .tag("replica", replica.getName()).register(meterRegistry);
+                FunctionCounter.builder("corebank.datasource.replica.reads", replica, ReplicaRoutingDataSource.Replica::getReads)
+                    .tag("replica", replica.getName()).register(meterRegistry);
+            }
+            FunctionCounter.builder("corebank.datasource.replica.fallbacks", router, ReplicaRoutingDataSource::getFallbacks)
+                .description("Read-only transactions sent to the primary because no replica was available")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Check every replica once.
+     */
+    @Scheduled(fixedDelayString = "${corebank.datasource.replicas.check-interval-ms:2000}")
+    public void checkAll() {
+        if (router == null) {
+            return;
+        }
+        for (ReplicaRoutingDataSource.Replica replica : router.getReplicas()) {
+            check(replica);
+        }
+    }
+
+    private void check(ReplicaRoutingDataSource.Replica replica) {
+        boolean wasAvailable = replica.isAvailable();
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            long lagMs = 0;
+            if (lagQuery != null) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.setQueryTimeout(timeoutSeconds);
+                    try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                        lagMs = resultSet.next() ? Math.max(0, resultSet.getLong(1)) : 0;
+                    }
+                }
+            }
+            boolean available = lagMs <= maxLagMs;
+            replica.update(available, lagMs);
+            if (wasAvailable && !available) {
+                log.warn("Replica {} lags {} ms (max {} ms); reading from the primary", replica.getName(), lagMs, maxLagMs);
+            } else if (!wasAvailable && available) {
+                log.info("Replica {} available (lag {} ms)", replica.getName(), lagMs);
+            }
+        } catch (SQLException e) {
+            replica.update(false, -1);
+            if (wasAvailable) {
+                log.warn("Replica {} unreachable; reading from the primary: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.bank.poc.core.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource for read-only transactions: hands out connections from the read replicas
+ * in turn, skipping replicas that ReplicaLagMonitor has marked unavailable (unreachable
+ * or lagging more than the allowed maximum), and falls back to the primary when no
+ * replica is available.
+ *
+ * It is installed as the readOnlyDataSource of a LazyConnectionDataSourceProxy around
+ * the primary, so a transaction is sent here only once it is known to be read-only
+ * (@Transactional(readOnly = true), including Spring Data's read-only repository
+ * methods called outside a service transaction). Writes never see a replica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<Replica> list = new ArrayList<>();
+        replicaDataSources.forEach((name, dataSource) -> {
+            targets.put(name, dataSource);
+            list.add(new Replica(name, dataSource));
+        });
+        this.replicas = Collections.unmodifiableList(list);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable()) {
+                replica.reads.increment();
+                return replica.getName();
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Read-only connections served by the primary because no replica was available.
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * Close the replica pools (the primary is closed by its own bean).
+     */
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * One read replica and its last known state. A replica starts unavailable
+     * until its first successful lag check.
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean available;
+        private volatile long lagMs = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void update(boolean available, long lagMs) {
+            this.available = available;
+            this.lagMs = lagMs;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * Last measured replication lag in milliseconds, or -1 if the last check failed.
+         */
+        public long getLagMs() {
+            return lagMs;
+        }
+
+        public long getReads() {
+            return reads.sum();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.poc.core.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for the dashboard endpoints (/card/**, /transactions/**).
+ *
+ * Those requests are handed off here so they never hold a servlet thread that /process
+ * could use, and they run as Workload.REPORTING so they draw from the reporting
+ * connection pool. When all threads are busy and the queue is full, the request is
+ * answered with 503 and a Retry-After header instead of waiting.
+ *
+ * It is also Spring MVC's async executor (see WebMvcConfig), so a StreamingResponseBody
+ * returned by a dashboard endpoint is written to the client by a reporting thread, holding a
+ * reporting connection for as long as it writes.
+ *
+ * Meters: executor.* (name=reporting; executor.idle is the time spent queued) and
+ * corebank.reporting.rejected.
+ */
+@Component
+@Slf4j
+public class ReportingExecutor {
+
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+    private final Counter rejected;
+
+    public ReportingExecutor(MeterRegistry meterRegistry,
+                             @Value("${corebank.reporting.executor.threads:2}") int threads,
+                             @Value("${corebank.reporting.executor.queue-capacity:50}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "reporting-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "reporting");
+        this.rejected = Counter.builder("corebank.reporting.rejected")
+            .description("Dashboard requests rejected because the reporting executor was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run a dashboard request on the reporting executor.
+     *
+     * @return the request's response, or 503 if the executor is saturated
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> Workload.REPORTING.call(request), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(rejected());
+        }
+    }
+
+    /**
+     * The executor Spring MVC runs StreamingResponseBody writes on, as REPORTING work.
+     * When it is saturated, MVC is handed a TaskRejectedException (answered with rejected()).
+     */
+    public AsyncTaskExecutor asyncTaskExecutor() {
+        TaskExecutorAdapter adapter = new TaskExecutorAdapter(executor);
+        adapter.setTaskDecorator(task -> () -> Workload.REPORTING.call(() -> {
+            task.run();
+            return null;
+        }));
+        return adapter;
+    }
+
+    /**
+     * The 503 for a dashboard request the executor had no room for, counted.
+     */
+    public <T> ResponseEntity<T> rejected() {
+        rejected.increment();
+        log.warn("Reporting executor saturated, rejecting dashboard request");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
+    }
+}
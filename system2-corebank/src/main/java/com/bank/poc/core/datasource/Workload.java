@@ -0,0 +1,34 @@
+package com.bank.poc.core.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Which connection pool (bulkhead) the current thread's database work uses.
+ *
+ * Request threads default to PAYMENTS. Dashboard queries run on the ReportingExecutor
+ * and background scans wrap themselves in REPORTING, so that however much reporting
+ * work piles up it can only exhaust the reporting pool, never the payment pool.
+ */
+public enum Workload {
+    PAYMENTS,
+    REPORTING;
+
+    private static final ThreadLocal<Workload> CURRENT = ThreadLocal.withInitial(() -> PAYMENTS);
+
+    public static Workload current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run the given work as this workload on the current thread.
+     */
+    public <T> T call(Supplier<T> work) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
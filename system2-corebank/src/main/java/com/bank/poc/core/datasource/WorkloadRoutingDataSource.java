@@ -0,0 +1,25 @@
+package com.bank.poc.core.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out connections from the payment or the reporting pool depending on the
+ * calling thread's Workload. Both pools connect to the same (primary) database.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public WorkloadRoutingDataSource(DataSource payments, DataSource reporting) {
+        setTargetDataSources(Map.of(Workload.PAYMENTS, payments, Workload.REPORTING, reporting));
+        setDefaultTargetDataSource(payments);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.poc.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a card's transaction totals for one day and its month (GET /card/{cardNumber}/summary).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardSummaryResponse {
+
+    private String cardNumber;
+
+    private String maskedCardNumber;
+
+    private LocalDate day;
+
+    private LocalDate month;          // First day of the month
+
+    private List<Total> dayTotals;
+
+    private List<Total> monthTotals;
+
+    /**
+     * Count and sum of the transactions of one type (withdraw, topup, hold or other) and status.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Total {
+
+        private String type;
+
+        private String status;
+
+        private long count;
+
+        private double amount;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.poc.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for authorisation hold requests (reserve funds now, capture or release later).
+ * Plain text PIN is NEVER logged or stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldRequest {
+
+    private String cardNumber;
+
+    private String pin;               // PIN for authentication (will be hashed)
+
+    private double amount;            // Amount to reserve
+
+    private Long expiresInSeconds;    // Optional; defaults to corebank.holds.default-ttl-seconds
+
+    // Custom toString to prevent PIN from being logged
+    @Override
+    public String toString() {
+        return "HoldRequest{" +
+                "cardNumber='" + (cardNumber == null || cardNumber.length() < 4
+                    ? "****" : "****" + cardNumber.substring(cardNumber.length() - 4)) + '\'' +
+                ", pin='****'" +
+                ", amount=" + amount +
+                ", expiresInSeconds=" + expiresInSeconds +
+                '}';
+    }
+}
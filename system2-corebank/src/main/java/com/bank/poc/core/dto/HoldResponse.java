@@ -0,0 +1,42 @@
+package com.bank.poc.core.dto;
+
+import com.bank.poc.core.entity.Hold;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for hold, capture and release responses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+
+    private boolean success;
+
+    private String message;
+
+    private Long holdId;
+
+    private String status;                // HELD, CAPTURED, RELEASED or EXPIRED (null if failed)
+
+    private Double amount;                // Amount reserved
+
+    private LocalDateTime expiresAt;
+
+    private Double availableBalance;      // Balance minus active holds, after the operation
+
+    private Long transactionId;           // Withdrawal recorded by a capture
+
+    public static HoldResponse success(String message, Hold hold, double availableBalance) {
+        return new HoldResponse(true, message, hold.getId(), hold.getStatus(), hold.getAmount(),
+            hold.getExpiresAt(), availableBalance, hold.getTransactionId());
+    }
+
+    public static HoldResponse error(String message) {
+        return new HoldResponse(false, message, null, null, null, null, null, null);
+    }
+}
@@ -1,5 +1,7 @@
 package com.bank.poc.core.dto;
 
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.util.CryptoUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,4 +31,9 @@ public class TransactionHistoryResponse {
     private String status;
     
     private String reason;
+
+    public static TransactionHistoryResponse fromTransaction(Transaction tx) {
+        return new TransactionHistoryResponse(tx.getId(), tx.getCardNumber(), CryptoUtil.maskCardNumber(tx.getCardNumber()),
+            tx.getType(), tx.getAmount(), tx.getTimestamp(), tx.getStatus(), tx.getReason());
+    }
 }
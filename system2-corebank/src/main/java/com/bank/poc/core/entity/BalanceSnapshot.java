@@ -0,0 +1,48 @@
+package com.bank.poc.core.entity;
+
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A card's balance as of one of its transactions, for the event-sourced ledger.
+ *
+ * The balance is the card's genesis balance plus every SUCCESS transaction up to and
+ * including lastTransactionId, so only later transactions need to be replayed. The
+ * genesis snapshot (eventCount 0) holds the balance the card had when it joined the
+ * ledger and is where a full rebuild starts.
+ */
+@Entity
+@Table(name = "balance_snapshots", indexes = @Index(name = "idx_snapshot_card", columnList = "cardNumber, lastTransactionId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ShardKey
+    private String cardNumber;          // Card the snapshot is for (stored on its shard)
+
+    private double balance;             // Balance after lastTransactionId
+
+    private long lastTransactionId;     // Last transaction included (0 = none)
+
+    private long eventCount;            // Transactions applied since the genesis snapshot
+
+    private LocalDateTime createdAt;
+
+    public BalanceSnapshot(String cardNumber, double balance, long lastTransactionId, long eventCount) {
+        this(null, cardNumber, balance, lastTransactionId, eventCount, LocalDateTime.now());
+    }
+
+    public boolean isGenesis() {
+        return eventCount == 0;
+    }
+}
@@ -1,13 +1,19 @@
 package com.bank.poc.core.entity;
 
+import com.bank.poc.core.service.CardFilterListener;
+import com.bank.poc.core.sharding.ShardKey;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * Card entity representing a bank card in the system.
  * 
@@ -18,12 +24,14 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "cards")
+@EntityListeners(CardFilterListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Card {
     
     @Id
+    @ShardKey
     private String cardNumber;              // Primary key (plain for lookups)
     
     @Column(name = "card_number_encrypted")
@@ -38,7 +46,25 @@ public class Card {
     private String username;                // Login username for the customer
     
     private boolean active = true;          // Card status
+
+    private LocalDateTime lockedAt;         // Set when locked after too many invalid PINs (then inactive)
+
+    private Double heldAmount;              // Total of the card's HELD holds, changed under the row lock; null until first needed
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;                   // Bumped on every update (ETag of /card/**); rows are updated under their row lock
     
+    /**
+     * Add to (or with a negative amount, take from) the held total, kept in whole cents so it
+     * does not drift. A total not computed yet stays null.
+     */
+    public void addHeld(double amount) {
+        if (heldAmount != null) {
+            heldAmount = Math.round((heldAmount + amount) * 100) / 100.0;
+        }
+    }
+
     /**
      * Custom toString to prevent logging sensitive data.
      */
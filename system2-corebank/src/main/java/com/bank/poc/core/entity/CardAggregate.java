@@ -0,0 +1,52 @@
+package com.bank.poc.core.entity;
+
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Running totals of a card's transactions of one type and status in one day or month.
+ *
+ * Maintained incrementally by CardAggregates in the same database transaction as each
+ * transactions row, so a card's summary is read from a handful of rows instead of
+ * scanning its history.
+ */
+@Entity
+@Table(name = "card_aggregates", uniqueConstraints = @UniqueConstraint(name = "uk_card_aggregate",
+    columnNames = {"cardNumber", "period", "periodStart", "type", "status"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAggregate {
+
+    public static final String DAY = "DAY";
+    public static final String MONTH = "MONTH";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ShardKey
+    private String cardNumber;          // Card the totals are for (stored on its shard)
+
+    private String period;              // DAY or MONTH
+
+    private LocalDate periodStart;      // The day, or the first day of the month
+
+    private String type;                // withdraw, topup, hold or other
+
+    private String status;              // SUCCESS or FAILED
+
+    private long transactionCount;
+
+    private double totalAmount;
+
+    public CardAggregate(String cardNumber, String period, LocalDate periodStart, String type, String status,
+                         double amount) {
+        this(null, cardNumber, period, periodStart, type, status, 1, amount);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.poc.core.entity;
+
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An authorisation hold: funds reserved on a card until the hold is captured (debited),
+ * released, or expires. While HELD and unexpired, the amount is not available for
+ * withdrawals or further holds.
+ */
+@Entity
+@Table(name = "holds", indexes = @Index(name = "idx_hold_card", columnList = "cardNumber, status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+
+    public static final String HELD = "HELD";
+    public static final String CAPTURED = "CAPTURED";
+    public static final String RELEASED = "RELEASED";
+    public static final String EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ShardKey
+    private String cardNumber;          // Card the funds are reserved on (stored on its shard)
+
+    private double amount;              // Amount reserved
+
+    private String status;              // HELD, CAPTURED, RELEASED or EXPIRED
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;    // Released automatically after this
+
+    private LocalDateTime settledAt;    // When it left HELD
+
+    private Double capturedAmount;      // Amount debited on capture (at most amount)
+
+    private Long transactionId;         // Withdrawal recorded on capture
+
+    public Hold(String cardNumber, double amount, LocalDateTime expiresAt) {
+        this(null, cardNumber, amount, HELD, LocalDateTime.now(), expiresAt, null, null, null);
+    }
+
+    public boolean isHeld() {
+        return HELD.equals(status);
+    }
+}
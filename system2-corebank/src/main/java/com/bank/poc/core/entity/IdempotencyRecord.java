@@ -0,0 +1,71 @@
+package com.bank.poc.core.entity;
+
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a transaction submitted with an idempotency key.
+ * A retried request with the same key gets this response back instead
+ * of being processed a second time.
+ *
+ * Implements Persistable so a save always INSERTs: a concurrent duplicate
+ * must fail on the primary key rather than be merged into an UPDATE.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 128)
+    private String idempotencyKey;          // Client/gateway supplied key (primary key = dedupe constraint)
+
+    @ShardKey
+    private String cardNumber;              // Card the original request was for (stored on its shard)
+
+    private String requestFingerprint;      // Card/amount/type of the original request (never the PIN)
+
+    private boolean success;                // Original response fields
+
+    private String message;
+
+    private Double newBalance;
+
+    private Long transactionId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;        // Record is ignored and purged after this time
+
+    @Transient
+    private boolean newRecord = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRecord = false;
+    }
+}
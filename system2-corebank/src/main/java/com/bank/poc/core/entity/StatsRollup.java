@@ -0,0 +1,55 @@
+package com.bank.poc.core.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The persisted copy of one instance's system-wide rollup of a minute, hour or day.
+ *
+ * Written periodically by TransactionRollups, which serves GET /stats from memory, and read
+ * back at startup so a restart keeps the windows. Not sharded: rollups span all cards.
+ */
+@Entity
+@Table(name = "stats_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_stats_rollup",
+    columnNames = {"instance", "granularity", "bucketStart"}))
+@Data
+@NoArgsConstructor
+public class StatsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String instance;            // Instance that recorded the rollup
+
+    private String granularity;         // MINUTE, HOUR or DAY
+
+    private LocalDateTime bucketStart;
+
+    private long successful;
+
+    private long failed;
+
+    private long withdrawals;           // Successful withdrawals (including captures)
+
+    private long withdrawnCents;
+
+    private long topups;                // Successful top-ups
+
+    private long toppedUpCents;
+
+    @Column(length = 4000)
+    private String failureReasons;      // JSON object: reason -> count
+
+    @Column(length = 4000)
+    private String topCards;            // JSON object: card number -> successful volume in cents
+
+    public StatsRollup(String instance, String granularity, LocalDateTime bucketStart) {
+        this.instance = instance;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+}
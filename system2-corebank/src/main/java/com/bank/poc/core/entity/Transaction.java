@@ -1,5 +1,6 @@
 package com.bank.poc.core.entity;
 
+import com.bank.poc.core.sharding.ShardKey;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,7 +23,8 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    private String cardNumber;        // Card involved in transaction
+    @ShardKey
+    private String cardNumber;        // Card involved in transaction (stored on that card's shard)
     
     private String type;              // "withdraw" or "topup"
     
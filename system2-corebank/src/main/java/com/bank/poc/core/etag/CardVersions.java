@@ -0,0 +1,109 @@
+package com.bank.poc.core.etag;
+
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * ETags of /card/** and /transactions/{cardNumber}, derived from persisted state so every
+ * instance (and every replica it reads from) gives the same tag for the same data.
+ *
+ * - A card's info is tagged with its row version (Card.version, bumped by every update), its
+ *   history with the id of its newest transaction (transactions are append-only).
+ * - A conditional GET costs one indexed single-value query instead of the full one. The tag is
+ *   read before the response, in the same read-only transaction for card info and in an earlier
+ *   one for a streamed history, so a tag never claims a change the response does not contain.
+ *
+ * Meters: corebank.etag.not-modified.
+ */
+@Component
+public class CardVersions {
+
+    private final boolean enabled;
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter notModified;
+
+    public CardVersions(MeterRegistry meterRegistry,
+                        CardRepository cardRepository,
+                        TransactionRepository transactionRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${corebank.etag.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.notModified = Counter.builder("corebank.etag.not-modified")
+            .description("Conditional GETs answered 304 without the full query")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run a tag lookup and the response's query in one read-only transaction (one connection,
+     * so with read replicas both see the same replica).
+     */
+    public <T> T read(Supplier<T> read) {
+        return readOnlyTransaction.execute(status -> read.get());
+    }
+
+    /**
+     * The ETag for the card's info (/card/**), or null if disabled or there is no such card.
+     */
+    public String cardTag(String cardNumber) {
+        if (!enabled) {
+            return null;
+        }
+        return cardRepository.findVersion(cardNumber).map(version -> tag('c', version)).orElse(null);
+    }
+
+    /**
+     * The ETag for the info of the username's card, or null if disabled or there is no such card.
+     */
+    public String cardTagByUsername(String username) {
+        if (!enabled) {
+            return null;
+        }
+        return cardRepository.findVersionByUsername(username).map(version -> tag('c', version)).orElse(null);
+    }
+
+    /**
+     * The ETag for the card's transaction history, or null if disabled.
+     */
+    public String historyTag(String cardNumber) {
+        return enabled ? tag('h', transactionRepository.findLastId(cardNumber)) : null;
+    }
+
+    /**
+     * Whether an If-None-Match header matches the tag (weak comparison, as for GET).
+     * Counts the match, which the caller answers with 304.
+     */
+    public boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                notModified.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String tag(char kind, long version) {
+        return "\"" + kind + Long.toString(version, 36) + "\"";
+    }
+}
@@ -0,0 +1,7 @@
+package com.bank.poc.core.events;
+
+/**
+ * A card's balance after a successful transaction, as pushed to the card's event stream.
+ */
+public record BalanceUpdate(String cardNumber, double balance, Long transactionId) {
+}
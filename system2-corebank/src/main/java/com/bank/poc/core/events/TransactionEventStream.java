@@ -0,0 +1,293 @@
+package com.bank.poc.core.events;
+
+import com.bank.poc.core.dto.TransactionHistoryResponse;
+import com.bank.poc.core.util.Transactions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams for the dashboards (corebank.events.enabled), so they are
+ * pushed changes instead of re-fetching /card/** and /transactions/**:
+ *
+ * - a card's stream (GET /events/cards/{cardNumber}) gets a "balance" event after each
+ *   successful transaction and a "transaction" event for every new row of its history;
+ * - the firehose (GET /events/transactions) gets the "transaction" events of all cards.
+ *
+ * Every TransactionSaved is published once its database transaction commits, so a rolled-back
+ * payment is never shown. Each subscriber has a buffer of corebank.events.buffer-size events
+ * that the sender threads drain; publishing only enqueues, so a slow client never holds
+ * up a payment. A subscriber whose buffer overflows is evicted (its stream is closed and
+ * the browser's EventSource reconnects and re-fetches). Heartbeat comments go through
+ * the same buffers, so a client that stopped reading is evicted even when idle.
+ *
+ * Streams are per instance: with several core instances a client only sees the
+ * transactions processed by the instance it is connected to.
+ *
+ * Meters: corebank.events.subscribers (stream=card|all) and corebank.events.evicted.
+ */
+@Service
+@Slf4j
+public class TransactionEventStream {
+
+    static final String BALANCE_EVENT = "balance";
+    static final String TRANSACTION_EVENT = "transaction";
+
+    private final boolean enabled;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final ExecutorService senders;
+    private final Map<String, Set<Subscriber>> cardSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> firehoseSubscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger cardSubscriberCount = new AtomicInteger();
+    private final Counter evicted;
+
+    public TransactionEventStream(MeterRegistry meterRegistry,
+                                  @Value("${corebank.events.enabled:true}") boolean enabled,
+                                  @Value("${corebank.events.buffer-size:64}") int bufferSize,
+                                  @Value("${corebank.events.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${corebank.events.max-subscribers:1000}") int maxSubscribers,
+                                  @Value("${corebank.events.sender-threads:4}") int senderThreads) {
+        this.enabled = enabled;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), task -> {
+            Thread thread = new Thread(task, "events-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("corebank.events.subscribers", cardSubscriberCount, AtomicInteger::get)
+            .description("Open dashboard event streams")
+            .tag("stream", "card")
+            .register(meterRegistry);
+        Gauge.builder("corebank.events.subscribers", firehoseSubscribers, Set::size)
+            .description("Open dashboard event streams")
+            .tag("stream", "all")
+            .register(meterRegistry);
+        this.evicted = Counter.builder("corebank.events.evicted")
+            .description("Event streams closed because the client fell behind")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Open a stream of one card's balance and transaction events.
+     *
+     * @return the stream, or null if corebank.events.max-subscribers streams are already open
+     */
+    public SseEmitter subscribeToCard(String cardNumber) {
+        if (subscriberCount() >= maxSubscribers) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(cardNumber);
+        cardSubscribers.computeIfAbsent(cardNumber, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        cardSubscriberCount.incrementAndGet();
+        return subscriber.open();
+    }
+
+    /**
+     * Open a stream of every card's transaction events.
+     *
+     * @return the stream, or null if corebank.events.max-subscribers streams are already open
+     */
+    public SseEmitter subscribeToAll() {
+        if (subscriberCount() >= maxSubscribers) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(null);
+        firehoseSubscribers.add(subscriber);
+        return subscriber.open();
+    }
+
+    /**
+     * Whether anyone would receive events about this card.
+     */
+    public boolean hasSubscribers(String cardNumber) {
+        return !firehoseSubscribers.isEmpty() || (cardNumber != null && cardSubscribers.containsKey(cardNumber));
+    }
+
+    /**
+     * Publish a just-saved transactions row once its database transaction commits, if anyone
+     * is subscribed to it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(TransactionSaved event) {
+        if (hasSubscribers(event.transaction().getCardNumber())) {
+            publish(TransactionHistoryResponse.fromTransaction(event.transaction()), event.balance());
+        }
+    }
+
+    /**
+     * Publish a new transaction row, and the card's balance if it changed, once the current
+     * database transaction commits (immediately if there is none).
+     *
+     * @param balance the card's new balance, or null for a failed transaction
+     */
+    public void publishAfterCommit(TransactionHistoryResponse row, BalanceUpdate balance) {
+        Transactions.afterCommit(() -> publish(row, balance));
+    }
+
+    void publish(TransactionHistoryResponse row, BalanceUpdate balance) {
+        Set<Subscriber> card = row.getCardNumber() == null ? null : cardSubscribers.get(row.getCardNumber());
+        if (card != null) {
+            for (Subscriber subscriber : card) {
+                if (balance != null) {
+                    subscriber.enqueue(SseEmitter.event().name(BALANCE_EVENT).data(balance));
+                }
+                subscriber.enqueue(SseEmitter.event().name(TRANSACTION_EVENT).id(String.valueOf(row.getId())).data(row));
+            }
+        }
+        for (Subscriber subscriber : firehoseSubscribers) {
+            subscriber.enqueue(SseEmitter.event().name(TRANSACTION_EVENT).id(String.valueOf(row.getId())).data(row));
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies and find clients that stopped reading.
+     */
+    @Scheduled(fixedDelayString = "${corebank.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : cardSubscribers.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+        for (Subscriber subscriber : firehoseSubscribers) {
+            subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    int subscriberCount() {
+        return cardSubscriberCount.get() + firehoseSubscribers.size();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.cardNumber == null) {
+            firehoseSubscribers.remove(subscriber);
+            return;
+        }
+        cardSubscribers.computeIfPresent(subscriber.cardNumber, (key, subscribers) -> {
+            if (subscribers.remove(subscriber)) {
+                cardSubscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        cardSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        firehoseSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * One open stream: its buffer is drained by at most one sender thread at a time.
+     */
+    private final class Subscriber {
+
+        private final String cardNumber;
+        private final SseEmitter emitter = new SseEmitter(timeoutMs);
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean overflowed;
+
+        Subscriber(String cardNumber) {
+            this.cardNumber = cardNumber;
+        }
+
+        SseEmitter open() {
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+            // Sent right away so the response headers reach the client before the first event
+            enqueue(SseEmitter.event().reconnectTime(1_000).comment("subscribed"));
+            return emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // Completing the emitter could block on a write in progress, so leave that to the sender
+                overflowed = true;
+                if (close()) {
+                    evicted.increment();
+                    log.info("Evicting slow event stream subscriber ({} events buffered)", bufferSize);
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (overflowed && completed.compareAndSet(false, true)) {
+                    buffer.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter's callbacks may not fire until the container notices
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Catch up with events (or an eviction) that arrived while this drain was finishing
+            if (closed.get() ? overflowed && !completed.get() : !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Stop accepting events and unregister; true for the first call only.
+         */
+        private boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            remove(this);
+            return true;
+        }
+    }
+}
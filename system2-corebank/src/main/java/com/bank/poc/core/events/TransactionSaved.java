@@ -0,0 +1,26 @@
+package com.bank.poc.core.events;
+
+import com.bank.poc.core.entity.Transaction;
+
+/**
+ * Application event published by CardService for every transactions row it saves, in the
+ * database transaction that saved it.
+ *
+ * Listeners that write in that transaction (CardAggregates) use @EventListener; in-memory
+ * views that may only show committed rows (TransactionRollups, TransactionEventStream) use
+ * @TransactionalEventListener, which runs them after commit.
+ *
+ * @param balance the card's new balance, or null for a failed transaction
+ * @param card    whether the saving transaction holds the card's row lock
+ */
+public record TransactionSaved(Transaction transaction, BalanceUpdate balance, CardLock card) {
+
+    public enum CardLock {
+        /** The card was read for update. */
+        HELD,
+        /** The card was declined from memory as locked, without reading it. */
+        NOT_HELD,
+        /** There is no such card. */
+        NO_CARD
+    }
+}
@@ -0,0 +1,157 @@
+package com.bank.poc.core.history;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes transaction history JSON row by row with Jackson's streaming generator, instead of
+ * building TransactionHistoryResponse objects for the ObjectMapper to serialise reflectively.
+ *
+ * The output is the same as serialising the equivalent List<TransactionHistoryResponse>:
+ * an array of {id, cardNumber, maskedCardNumber, type, amount, timestamp, status, reason}
+ * with ISO-8601 local timestamps. Field names are pre-encoded once; the masked number and
+ * the timestamp are formatted into a reused char buffer (the masked number only when the card
+ * changes), so a row costs no allocation beyond what the query itself creates.
+ */
+@Component
+public class TransactionHistoryWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CARD_NUMBER = new SerializedString("cardNumber");
+    private static final SerializableString MASKED_CARD_NUMBER = new SerializedString("maskedCardNumber");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString REASON = new SerializedString("reason");
+
+    // "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn"
+    private static final int TIMESTAMP_LENGTH = 29;
+
+    private final JsonFactory jsonFactory;
+
+    public TransactionHistoryWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Write the rows as a JSON array, in the order given. The stream is consumed but not closed.
+     */
+    public void write(Stream<TransactionRow> rows, OutputStream out) throws IOException {
+        char[] masked = new char[8];
+        char[] timestamp = new char[TIMESTAMP_LENGTH];
+        String maskedFor = null;
+        int maskedLength = 0;
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (Iterator<TransactionRow> it = rows.iterator(); it.hasNext(); ) {
+                TransactionRow row = it.next();
+                generator.writeStartObject();
+
+                generator.writeFieldName(ID);
+                if (row.id() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(row.id());
+                }
+                generator.writeFieldName(CARD_NUMBER);
+                generator.writeString(row.cardNumber());
+
+                // As CryptoUtil.maskCardNumber, recomputed only when the card changes
+                generator.writeFieldName(MASKED_CARD_NUMBER);
+                if (maskedFor == null || !maskedFor.equals(row.cardNumber())) {
+                    maskedFor = row.cardNumber();
+                    maskedLength = mask(maskedFor, masked);
+                }
+                generator.writeString(masked, 0, maskedLength);
+
+                generator.writeFieldName(TYPE);
+                generator.writeString(row.type());
+                generator.writeFieldName(AMOUNT);
+                generator.writeNumber(row.amount());
+
+                generator.writeFieldName(TIMESTAMP);
+                if (row.timestamp() == null) {
+                    generator.writeNull();
+                } else {
+                    int length = format(row.timestamp(), timestamp);
+                    if (length < 0) {
+                        generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.timestamp()));
+                    } else {
+                        generator.writeString(timestamp, 0, length);
+                    }
+                }
+
+                generator.writeFieldName(STATUS);
+                generator.writeString(row.status());
+                generator.writeFieldName(REASON);
+                generator.writeString(row.reason());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static int mask(String cardNumber, char[] into) {
+        into[0] = into[1] = into[2] = into[3] = '*';
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return 4;
+        }
+        cardNumber.getChars(cardNumber.length() - 4, cardNumber.length(), into, 4);
+        return 8;
+    }
+
+    /**
+     * Format as DateTimeFormatter.ISO_LOCAL_DATE_TIME does (the fraction only if non-zero, without
+     * trailing zeros) and return the length, or -1 for years it would print with a sign.
+     */
+    static int format(LocalDateTime time, char[] into) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        digits(year, into, 0, 4);
+        into[4] = '-';
+        digits(time.getMonthValue(), into, 5, 2);
+        into[7] = '-';
+        digits(time.getDayOfMonth(), into, 8, 2);
+        into[10] = 'T';
+        digits(time.getHour(), into, 11, 2);
+        into[13] = ':';
+        digits(time.getMinute(), into, 14, 2);
+        into[16] = ':';
+        digits(time.getSecond(), into, 17, 2);
+        int nano = time.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        into[19] = '.';
+        digits(nano, into, 20, 9);
+        int end = TIMESTAMP_LENGTH;
+        while (into[end - 1] == '0') {
+            end--;
+        }
+        return end;
+    }
+
+    private static void digits(int value, char[] into, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            into[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bank.poc.core.history;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transactions row as read for the history endpoints (a DTO projection: no entity is loaded
+ * into the persistence context).
+ */
+public record TransactionRow(Long id, String cardNumber, String type, double amount,
+                             LocalDateTime timestamp, String status, String reason) {
+}
@@ -0,0 +1,235 @@
+package com.bank.poc.core.holds;
+
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Hold;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.HoldRepository;
+import com.bank.poc.core.util.TimingWheel;
+import com.bank.poc.core.util.Transactions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Expires authorisation holds from an in-memory TimingWheel instead of polling the holds table.
+ *
+ * Holds are scheduled when their creating transaction commits and cancelled when they are
+ * captured or released. A single "hold-expiry" thread advances the wheel every
+ * corebank.holds.tick-ms and marks the holds that came due EXPIRED in batches, card by card:
+ * each card's row is locked first (as payments do before touching its holds) and the expired
+ * amounts are taken off its held total (Card.heldAmount) in the same transaction. On startup
+ * the wheel is rebuilt from the HELD rows, so holds that expired while the service was
+ * down are expired on the first tick. Each pending hold costs about 100 bytes of heap.
+ *
+ * A hold past its deadline that the wheel has not expired yet (a late tick, or a hold whose
+ * wheel is on another instance) still counts as held until a payment it would decline, or a
+ * capture or release of it, expires it under the card's lock (see CardService), so it never
+ * keeps funds reserved too long.
+ *
+ * Meters: corebank.holds.pending and corebank.holds.expired.
+ */
+@Component
+@Slf4j
+public class HoldExpiryScheduler {
+
+    private static final int EXPIRE_BATCH_SIZE = 500;
+    private static final long RETRY_DELAY_MS = 5_000;
+
+    private final HoldRepository holdRepository;
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMs;
+    private final long defaultTtlSeconds;
+    private final long maxTtlSeconds;
+    private final TimingWheel wheel;
+    private final Map<Long, TimingWheel.Timeout> timeouts = new HashMap<>();
+    private final ScheduledExecutorService ticker;
+    private final Counter expired;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public HoldExpiryScheduler(HoldRepository holdRepository,
+                               CardRepository cardRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${corebank.holds.tick-ms:100}") long tickMs,
+                               @Value("${corebank.holds.wheel-size:256}") int wheelSize,
+                               @Value("${corebank.holds.default-ttl-seconds:604800}") long defaultTtlSeconds,
+                               @Value("${corebank.holds.max-ttl-seconds:2592000}") long maxTtlSeconds) {
+        this.holdRepository = holdRepository;
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMs = tickMs;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("corebank.holds.pending", this, HoldExpiryScheduler::pending)
+            .description("Holds waiting in the expiry wheel")
+            .register(meterRegistry);
+        this.expired = Counter.builder("corebank.holds.expired")
+            .description("Holds released automatically at their deadline")
+            .register(meterRegistry);
+    }
+
+    /**
+     * How long a hold lasts when the request does not say.
+     */
+    public long getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+
+    /**
+     * The longest a hold may be requested to last.
+     */
+    public long getMaxTtlSeconds() {
+        return maxTtlSeconds;
+    }
+
+    /**
+     * Load every HELD hold into the wheel and start ticking. Holds already in the wheel are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<PendingHold> pending = holdRepository.findPending();
+        synchronized (this) {
+            for (PendingHold hold : pending) {
+                timeouts.computeIfAbsent(hold.id(), id -> wheel.schedule(id, epochMillis(hold.expiresAt())));
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} pending hold(s) into the expiry wheel ({} levels)", pending.size(), levels());
+        }
+        if (started.compareAndSet(false, true)) {
+            ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Expire the hold at its deadline, once the current database transaction commits.
+     */
+    public void scheduleAfterCommit(long holdId, LocalDateTime expiresAt) {
+        Transactions.afterCommit(() -> schedule(holdId, epochMillis(expiresAt)));
+    }
+
+    /**
+     * Stop tracking a captured or released hold, once the current database transaction commits.
+     */
+    public void cancelAfterCommit(long holdId) {
+        Transactions.afterCommit(() -> cancel(holdId));
+    }
+
+    synchronized void schedule(long holdId, long deadlineMs) {
+        TimingWheel.Timeout previous = timeouts.put(holdId, wheel.schedule(holdId, deadlineMs));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    synchronized void cancel(long holdId) {
+        TimingWheel.Timeout timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    public synchronized int levels() {
+        return wheel.levels();
+    }
+
+    /**
+     * Advance the wheel to now and expire the holds that came due.
+     */
+    void tick() {
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), holdId -> {
+                timeouts.remove(holdId);
+                due.add(holdId);
+            });
+        }
+        for (int from = 0; from < due.size(); from += EXPIRE_BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + EXPIRE_BATCH_SIZE));
+            try {
+                expired.increment(expire(batch));
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} hold(s), retrying in {} ms: {}", batch.size(), RETRY_DELAY_MS, e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+                batch.forEach(holdId -> schedule(holdId, retryAt));
+            }
+        }
+    }
+
+    /**
+     * Expire the given holds that are still HELD and due, one transaction per card.
+     *
+     * @return how many were expired
+     */
+    private int expire(List<Long> holdIds) {
+        Map<String, List<Long>> byCard = new TreeMap<>();
+        for (Hold hold : holdRepository.findDue(holdIds, LocalDateTime.now())) {
+            byCard.computeIfAbsent(hold.getCardNumber(), cardNumber -> new ArrayList<>()).add(hold.getId());
+        }
+        int count = 0;
+        for (Map.Entry<String, List<Long>> card : byCard.entrySet()) {
+            Integer expiredHolds = transactionTemplate.execute(status -> expire(card.getKey(), card.getValue()));
+            count += expiredHolds == null ? 0 : expiredHolds;
+        }
+        return count;
+    }
+
+    private int expire(String cardNumber, List<Long> holdIds) {
+        Optional<Card> card = cardRepository.findByIdForUpdate(cardNumber);
+        // Re-read under the card's lock: a capture or release may have settled some meanwhile
+        LocalDateTime now = LocalDateTime.now();
+        List<Hold> due = holdRepository.findDue(holdIds, now);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        int count = holdRepository.expire(due.stream().map(Hold::getId).toList(), now);
+        card.ifPresent(locked -> locked.addHeld(-due.stream().mapToDouble(Hold::getAmount).sum()));
+        return count;
+    }
+
+    /**
+     * The deadline in epoch milliseconds, rounded up so the hold is past it when the wheel fires.
+     */
+    private static long epochMillis(LocalDateTime time) {
+        Instant instant = time.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.toEpochMilli() + (instant.getNano() % 1_000_000 == 0 ? 0 : 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
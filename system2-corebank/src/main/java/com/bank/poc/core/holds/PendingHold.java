@@ -0,0 +1,9 @@
+package com.bank.poc.core.holds;
+
+import java.time.LocalDateTime;
+
+/**
+ * A HELD hold's id and deadline, as loaded into the expiry wheel.
+ */
+public record PendingHold(Long id, LocalDateTime expiresAt) {
+}
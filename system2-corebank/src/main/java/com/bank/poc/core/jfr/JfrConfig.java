@@ -0,0 +1,19 @@
+package com.bank.poc.core.jfr;
+
+import com.bank.poc.common.jfr.JfrEvents;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Adds this service's TransactionEvent to the shared /admin/jfr recordings.
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public JfrEvents coreJfrEvents() {
+        return new JfrEvents(List.of(TransactionEvent.class));
+    }
+}
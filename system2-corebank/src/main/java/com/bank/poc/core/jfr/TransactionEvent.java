@@ -0,0 +1,68 @@
+package com.bank.poc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one processed transaction (POST /process or binary transport).
+ *
+ * Stage durations are taken from the request's trace spans, so they are zero
+ * when tracing is disabled.
+ */
+@Name("com.bank.poc.core.Transaction")
+@Label("Core Transaction")
+@Category({"Banking", "System 2"})
+@Description("A transaction processed by System 2 with per-stage durations")
+@StackTrace(false)
+public class TransactionEvent extends Event {
+
+    @Label("Trace Id")
+    public String traceId;
+
+    @Label("Card Suffix")
+    @Description("Last 4 digits of the card number")
+    public String cardSuffix;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Message")
+    public String message;
+
+    @Label("Ledger Transaction")
+    @Description("Database transaction including commit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long ledgerTransaction;
+
+    @Label("Card Lookup")
+    @Description("SELECT ... FOR UPDATE, including row lock wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long cardLookup;
+
+    @Label("PIN Verify")
+    @Timespan(Timespan.NANOSECONDS)
+    public long pinVerify;
+
+    @Label("Balance Update")
+    @Timespan(Timespan.NANOSECONDS)
+    public long balanceUpdate;
+
+    @Label("Audit Insert")
+    @Timespan(Timespan.NANOSECONDS)
+    public long auditInsert;
+
+    /**
+     * Last 4 digits of a card number (never the full number).
+     */
+    public static String suffixOf(String cardNumber) {
+        return cardNumber == null || cardNumber.length() < 4 ? "" : cardNumber.substring(cardNumber.length() - 4);
+    }
+}
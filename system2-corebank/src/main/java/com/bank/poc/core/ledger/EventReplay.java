@@ -0,0 +1,11 @@
+package com.bank.poc.core.ledger;
+
+/**
+ * Net effect of a card's SUCCESS transactions after a given transaction id.
+ *
+ * @param delta             top-ups minus withdrawals
+ * @param events            number of transactions replayed
+ * @param lastTransactionId id of the last one (0 if there were none)
+ */
+public record EventReplay(double delta, long events, long lastTransactionId) {
+}
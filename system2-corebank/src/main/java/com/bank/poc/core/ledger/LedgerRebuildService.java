@@ -0,0 +1,278 @@
+package com.bank.poc.core.ledger;
+
+import com.bank.poc.common.logging.MaskedCard;
+import com.bank.poc.core.datasource.Workload;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.sharding.ShardContext;
+import com.bank.poc.core.sharding.ShardResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds the ledger's derived state from the transaction stream (POST /admin/ledger/rebuild).
+ *
+ * Each shard's cards are split into contiguous card-number ranges that are replayed in
+ * parallel: a partition streams its SUCCESS transactions ordered by card and id, folds
+ * them onto each card's genesis snapshot, writes a fresh snapshot for every card with new
+ * transactions, and corrects Card.balance where the projection drifted. Corrections are
+ * made under the card's row lock and include transactions appended during the replay, so
+ * a rebuild can run while payments continue. It runs as Workload.REPORTING.
+ */
+@Service
+@Slf4j
+public class LedgerRebuildService {
+
+    private static final double EPSILON = 0.005;
+    private static final int FETCH_SIZE = 1_000;
+
+    private final LedgerService ledgerService;
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final ShardResolver shardResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPartitions;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double lastEventsPerSecond;
+
+    /**
+     * Replay state of one card within a partition.
+     */
+    private static final class CardReplay {
+        final String cardNumber;
+        final long genesisTransactionId;
+        final long latestSnapshotTransactionId;
+        double balance;
+        long events;
+        long lastTransactionId;
+
+        CardReplay(String cardNumber, double genesisBalance, long genesisTransactionId, long latestSnapshotTransactionId) {
+            this.cardNumber = cardNumber;
+            this.balance = genesisBalance;
+            this.genesisTransactionId = genesisTransactionId;
+            this.latestSnapshotTransactionId = latestSnapshotTransactionId;
+            this.lastTransactionId = genesisTransactionId;
+        }
+    }
+
+    private record PartitionResult(long cards, long events, long snapshots, long drifted) {
+    }
+
+    public LedgerRebuildService(LedgerService ledgerService,
+                                CardRepository cardRepository,
+                                TransactionRepository transactionRepository,
+                                ShardResolver shardResolver,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${corebank.ledger.rebuild.partitions:2}") int defaultPartitions) {
+        this.ledgerService = ledgerService;
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.shardResolver = shardResolver;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultPartitions = Math.max(1, defaultPartitions);
+        Gauge.builder("corebank.ledger.rebuild.events-per-second", this, service -> service.lastEventsPerSecond)
+            .description("Replay throughput of the last ledger rebuild")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return ledgerService.isEnabled();
+    }
+
+    /**
+     * Replay every shard's transactions.
+     *
+     * @param partitions card partitions replayed in parallel per shard (0 = corebank.ledger.rebuild.partitions);
+     *                   each holds a reporting connection, so keep it within the reporting pool size
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public RebuildReport rebuild(int partitions) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A ledger rebuild is already running");
+        }
+        int threads = partitions > 0 ? partitions : defaultPartitions;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "ledger-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<PartitionResult>> futures = new ArrayList<>();
+            for (int shard = 0; shard < shardResolver.getShardCount(); shard++) {
+                int target = shard;
+                List<String> cards = onShard(shard, () -> readOnlyTransaction.execute(status ->
+                    jdbcTemplate.queryForList("SELECT card_number FROM cards ORDER BY card_number", String.class)));
+                for (List<String> range : split(cards, threads)) {
+                    futures.add(CompletableFuture.supplyAsync(() -> onShard(target, () -> replay(range)), executor));
+                }
+            }
+            long cards = 0;
+            long events = 0;
+            long snapshots = 0;
+            long drifted = 0;
+            for (CompletableFuture<PartitionResult> future : futures) {
+                PartitionResult result = future.join();
+                cards += result.cards();
+                events += result.events();
+                snapshots += result.snapshots();
+                drifted += result.drifted();
+            }
+            long durationNanos = Math.max(1, System.nanoTime() - start);
+            lastEventsPerSecond = events * 1_000_000_000.0 / durationNanos;
+            RebuildReport report = new RebuildReport(shardResolver.getShardCount(), threads, cards, events,
+                snapshots, drifted, durationNanos / 1_000_000, lastEventsPerSecond);
+            log.info("Ledger rebuilt: {}", report);
+            return report;
+        } finally {
+            executor.shutdown();
+            running.set(false);
+        }
+    }
+
+    private static <T> T onShard(int shard, Supplier<T> work) {
+        return Workload.REPORTING.call(() -> ShardContext.call(shard, work));
+    }
+
+    /**
+     * Split sorted card numbers into up to n contiguous, non-empty ranges.
+     */
+    static List<List<String>> split(List<String> cards, int n) {
+        List<List<String>> ranges = new ArrayList<>();
+        int size = (cards.size() + n - 1) / Math.max(1, n);
+        for (int from = 0; from < cards.size(); from += size) {
+            ranges.add(cards.subList(from, Math.min(cards.size(), from + size)));
+        }
+        return ranges;
+    }
+
+    private PartitionResult replay(List<String> range) {
+        String first = range.get(0);
+        String last = range.get(range.size() - 1);
+
+        // Cards that never had a payment in event-sourced mode join the ledger now
+        Map<String, CardReplay> replays = loadSnapshots(first, last);
+        for (String cardNumber : range) {
+            if (!replays.containsKey(cardNumber)) {
+                transactionTemplate.executeWithoutResult(status ->
+                    cardRepository.findByIdForUpdate(cardNumber).ifPresent(ledgerService::genesis));
+            }
+        }
+        if (replays.size() < range.size()) {
+            replays = loadSnapshots(first, last);
+        }
+        Map<String, CardReplay> byCard = replays;
+
+        // Stream the partition's transactions in card and id order and fold them
+        long[] events = {0};
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+            "SELECT card_number, id, type, amount FROM transactions WHERE status = 'SUCCESS' "
+                + "AND card_number BETWEEN ? AND ? ORDER BY card_number, id",
+            row -> {
+                CardReplay card = byCard.get(row.getString(1));
+                long id = row.getLong(2);
+                if (card == null || id <= card.genesisTransactionId) {
+                    return;
+                }
+                double amount = row.getDouble(4);
+                card.balance += "topup".equals(row.getString(3)) ? amount : -amount;
+                card.events++;
+                card.lastTransactionId = id;
+                events[0]++;
+            }, first, last));
+
+        // Snapshot every card that has transactions beyond its latest snapshot
+        List<Object[]> snapshotRows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (CardReplay card : byCard.values()) {
+            if (card.lastTransactionId > card.latestSnapshotTransactionId) {
+                snapshotRows.add(new Object[]{card.cardNumber, card.balance, card.lastTransactionId, card.events, now});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+            "INSERT INTO balance_snapshots (card_number, balance, last_transaction_id, event_count, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", snapshotRows));
+
+        // Correct drifted projections
+        Map<String, Double> projections = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+            "SELECT card_number, balance FROM cards WHERE card_number BETWEEN ? AND ?",
+            row -> {
+                projections.put(row.getString(1), row.getDouble(2));
+            }, first, last));
+        long drifted = 0;
+        for (CardReplay card : byCard.values()) {
+            Double projection = projections.get(card.cardNumber);
+            if (projection != null && Math.abs(projection - card.balance) > EPSILON && correct(card)) {
+                drifted++;
+            }
+        }
+        return new PartitionResult(byCard.size(), events[0], snapshotRows.size(), drifted);
+    }
+
+    private Map<String, CardReplay> loadSnapshots(String first, String last) {
+        Map<String, CardReplay> replays = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+            "SELECT g.card_number, g.balance, g.last_transaction_id, "
+                + "(SELECT MAX(s.last_transaction_id) FROM balance_snapshots s WHERE s.card_number = g.card_number) "
+                + "FROM balance_snapshots g WHERE g.event_count = 0 AND g.card_number BETWEEN ? AND ?",
+            row -> {
+                replays.putIfAbsent(row.getString(1),
+                    new CardReplay(row.getString(1), row.getDouble(2), row.getLong(3), row.getLong(4)));
+            }, first, last));
+        return replays;
+    }
+
+    /**
+     * Set Card.balance to the replayed balance plus anything appended since, under the row lock.
+     *
+     * @return whether the projection was wrong
+     */
+    private boolean correct(CardReplay replay) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Card card = cardRepository.findByIdForUpdate(replay.cardNumber).orElse(null);
+            if (card == null) {
+                return false;
+            }
+            EventReplay since = transactionRepository.replayAfter(replay.cardNumber, replay.lastTransactionId);
+            double expected = replay.balance + since.delta();
+            if (Math.abs(card.getBalance() - expected) <= EPSILON) {
+                return false;
+            }
+            log.warn("Ledger drift corrected for card {}: projection {} -> {}",
+                MaskedCard.of(replay.cardNumber), card.getBalance(), expected);
+            card.setBalance(expected);
+            return true;
+        }));
+    }
+}
@@ -0,0 +1,106 @@
+package com.bank.poc.core.ledger;
+
+import com.bank.poc.common.logging.MaskedCard;
+import com.bank.poc.core.entity.BalanceSnapshot;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.repository.BalanceSnapshotRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event-sourced ledger (corebank.ledger.event-sourced).
+ *
+ * In this mode the SUCCESS rows of the transactions table are the source of truth: a
+ * card's balance is its latest BalanceSnapshot plus the transactions after it, and
+ * Card.balance is only a projection written in the same database transaction. A new
+ * snapshot is taken once corebank.ledger.snapshot-every transactions have accumulated
+ * since the last one, which bounds the replay on the payment path.
+ *
+ * Callers hold the card's row lock (CardService.processTransaction), so a card's
+ * transactions are appended, and its snapshots taken, one at a time.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final int snapshotEvery;
+    private final DistributionSummary replayedEvents;
+    private final LongAdder snapshots = new LongAdder();
+
+    /**
+     * A card's derived balance and the snapshot it was replayed from.
+     */
+    public record Balance(double balance, BalanceSnapshot snapshot, EventReplay replay) {
+    }
+
+    public LedgerService(BalanceSnapshotRepository snapshotRepository,
+                         TransactionRepository transactionRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${corebank.ledger.event-sourced:false}") boolean enabled,
+                         @Value("${corebank.ledger.snapshot-every:100}") int snapshotEvery) {
+        this.snapshotRepository = snapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        this.replayedEvents = DistributionSummary.builder("corebank.ledger.replay.events")
+            .description("Transactions replayed on top of the latest snapshot per payment")
+            .register(meterRegistry);
+        FunctionCounter.builder("corebank.ledger.snapshots", snapshots, LongAdder::sum)
+            .description("Balance snapshots taken on the payment path")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Derive the card's balance from its latest snapshot and the transactions after it.
+     * A card without snapshots joins the ledger here with a genesis snapshot of its
+     * current balance. The caller must hold the card's row lock.
+     */
+    public Balance balanceOf(Card card) {
+        BalanceSnapshot snapshot = snapshotRepository.findFirstByCardNumberOrderByLastTransactionIdDesc(card.getCardNumber())
+            .orElseGet(() -> genesis(card));
+        EventReplay replay = transactionRepository.replayAfter(card.getCardNumber(), snapshot.getLastTransactionId());
+        replayedEvents.record(replay.events());
+        return new Balance(snapshot.getBalance() + replay.delta(), snapshot, replay);
+    }
+
+    /**
+     * Record that a SUCCESS transaction was appended on top of the given balance,
+     * taking a new snapshot if enough transactions have accumulated.
+     */
+    public void appended(Balance before, Transaction transaction, double newBalance) {
+        long sinceSnapshot = before.replay().events() + 1;
+        if (sinceSnapshot < snapshotEvery) {
+            return;
+        }
+        snapshotRepository.save(new BalanceSnapshot(transaction.getCardNumber(), newBalance, transaction.getId(),
+            before.snapshot().getEventCount() + sinceSnapshot));
+        snapshots.increment();
+    }
+
+    /**
+     * Genesis snapshot: the card's balance so far, including every transaction it already has.
+     * The caller must hold the card's row lock.
+     */
+    BalanceSnapshot genesis(Card card) {
+        EventReplay existing = transactionRepository.replayAfter(card.getCardNumber(), 0);
+        BalanceSnapshot genesis = snapshotRepository.save(
+            new BalanceSnapshot(card.getCardNumber(), card.getBalance(), existing.lastTransactionId(), 0));
+        log.info("Card {} joined the ledger", MaskedCard.of(card.getCardNumber()));
+        return genesis;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.poc.core.ledger;
+
+/**
+ * Outcome of a ledger rebuild.
+ *
+ * @param shards          databases replayed
+ * @param partitions      card partitions replayed in parallel per shard
+ * @param cards           cards replayed
+ * @param events          transactions replayed
+ * @param snapshots       snapshots written
+ * @param drifted         cards whose Card.balance projection disagreed with the ledger (now corrected)
+ * @param durationMs      wall-clock time
+ * @param eventsPerSecond replay throughput
+ */
+public record RebuildReport(int shards, int partitions, long cards, long events, long snapshots, long drifted,
+                            long durationMs, double eventsPerSecond) {
+}
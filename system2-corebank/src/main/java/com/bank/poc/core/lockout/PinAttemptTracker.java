@@ -0,0 +1,236 @@
+package com.bank.poc.core.lockout;
+
+import com.bank.poc.common.util.ClockCache;
+import com.bank.poc.common.util.MonotonicClock;
+import com.bank.poc.core.util.Transactions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory failed-PIN counters, so that locking a card after repeated invalid PINs costs no
+ * extra queries (the FAILED audit rows are never counted).
+ *
+ * - Each card with recent failures has one AtomicLong packing its failure count (high 16 bits)
+ *   with a time (low 48 bits), updated by CAS. Failures decay: one is forgiven per
+ *   corebank.pin-lockout.decay-seconds without another, and a correct PIN clears them.
+ * - A failure is counted once the transaction that saw it commits, so a rolled-back payment
+ *   never counts towards a lock. The card's row lock serialises its transactions; only one that
+ *   checks in the instant between another's commit and its count can miss that failure.
+ * - When a failure brings the count to max-attempts, CardService sets Card.active to false and
+ *   Card.lockedAt in the same transaction; that is the only time the state reaches the database.
+ * - Once the lock commits the card is marked locked here, and CardService declines it before
+ *   locking the card row or hashing the PIN. The mark is re-checked against the database after
+ *   locked-recheck-seconds, so an unlock on another instance is picked up.
+ * - Cards are held in a ClockCache of N stripes with at most maxCards / stripes entries each;
+ *   entries that have decayed to zero are swept, and a full stripe evicts with the clock
+ *   algorithm, in amortised O(1) per new card.
+ *
+ * Meters: corebank.pin.failures, corebank.pin.lockouts, corebank.pin.locked-rejections and
+ * corebank.pin.tracked.
+ */
+@Component
+@Slf4j
+public class PinAttemptTracker {
+
+    private static final int TIME_BITS = 48;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    // Count value marking a card whose lock has committed
+    private static final long LOCKED = 0xFFFF;
+
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long decayMs;
+    private final long lockedRecheckMs;
+    private final ClockCache<AtomicLong> cards;
+    private final LongSupplier clockMs;
+    private final Counter failures;
+    private final Counter lockouts;
+    private final Counter lockedRejections;
+
+    @Autowired
+    public PinAttemptTracker(MeterRegistry meterRegistry,
+                             @Value("${corebank.pin-lockout.enabled:true}") boolean enabled,
+                             @Value("${corebank.pin-lockout.max-attempts:3}") int maxAttempts,
+                             @Value("${corebank.pin-lockout.decay-seconds:900}") long decaySeconds,
+                             @Value("${corebank.pin-lockout.locked-recheck-seconds:60}") long lockedRecheckSeconds,
+                             @Value("${corebank.pin-lockout.stripes:16}") int stripes,
+                             @Value("${corebank.pin-lockout.max-cards:100000}") int maxCards) {
+        this(meterRegistry, enabled, maxAttempts, decaySeconds * 1_000, lockedRecheckSeconds * 1_000,
+            stripes, maxCards, MonotonicClock.millis());
+    }
+
+    PinAttemptTracker(MeterRegistry meterRegistry, boolean enabled, int maxAttempts, long decayMs,
+                      long lockedRecheckMs, int stripes, int maxCards, LongSupplier clockMs) {
+        if (maxAttempts < 1 || maxAttempts >= LOCKED || decayMs <= 0) {
+            throw new IllegalArgumentException("corebank.pin-lockout.max-attempts must be between 1 and "
+                + (LOCKED - 1) + " and decay-seconds positive");
+        }
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.decayMs = decayMs;
+        this.lockedRecheckMs = lockedRecheckMs;
+        this.cards = new ClockCache<>(stripes, maxCards, evicted -> { });
+        this.clockMs = clockMs;
+
+        Gauge.builder("corebank.pin.tracked", this, PinAttemptTracker::getTrackedCount)
+            .description("Cards with failed-PIN counters or a lock mark in memory")
+            .register(meterRegistry);
+        this.failures = Counter.builder("corebank.pin.failures")
+            .description("Invalid PINs entered")
+            .register(meterRegistry);
+        this.lockouts = Counter.builder("corebank.pin.lockouts")
+            .description("Cards locked after too many invalid PINs")
+            .register(meterRegistry);
+        this.lockedRejections = Counter.builder("corebank.pin.locked-rejections")
+            .description("Transactions on locked cards declined from memory")
+            .register(meterRegistry);
+    }
+
+    /**
+     * True if the card's lock is known here and recent enough to decline without reading the card.
+     */
+    public boolean isLocked(String cardNumber) {
+        if (!enabled) {
+            return false;
+        }
+        AtomicLong state = cards.get(cardNumber);
+        if (state == null) {
+            return false;
+        }
+        long value = state.get();
+        if (count(value) != LOCKED || clockMs.getAsLong() - time(value) >= lockedRecheckMs) {
+            return false;
+        }
+        lockedRejections.increment();
+        return true;
+    }
+
+    /**
+     * Count an invalid PIN once the current database transaction commits (immediately if there is none).
+     *
+     * @return true if this failure reaches max-attempts, i.e. the card must be locked
+     */
+    public boolean recordFailureAfterCommit(String cardNumber) {
+        failures.increment();
+        if (!enabled) {
+            return false;
+        }
+        AtomicLong state = cards.get(cardNumber);
+        long counted = state == null ? 0 : count(decay(state.get(), clockMs.getAsLong()));
+        Transactions.afterCommit(() -> addFailure(cardNumber));
+        return counted + 1 >= maxAttempts;
+    }
+
+    /**
+     * A correct PIN clears the card's failures.
+     */
+    public void recordSuccess(String cardNumber) {
+        if (enabled) {
+            cards.remove(cardNumber);
+        }
+    }
+
+    /**
+     * Remember that the card is locked once the current database transaction (which locked it) commits.
+     */
+    public void lockedAfterCommit(String cardNumber) {
+        lockouts.increment();
+        Transactions.afterCommit(() -> markLocked(cardNumber));
+    }
+
+    /**
+     * Remember that the card is locked (it was read from the database as locked).
+     */
+    public void markLocked(String cardNumber) {
+        if (enabled) {
+            long now = clockMs.getAsLong();
+            stateOf(cardNumber, now).set(pack(LOCKED, now));
+        }
+    }
+
+    /**
+     * Forget the card's failures and lock, once the current database transaction (which unlocked it) commits.
+     */
+    public void resetAfterCommit(String cardNumber) {
+        Transactions.afterCommit(() -> cards.remove(cardNumber));
+    }
+
+    /**
+     * Drop counters that have decayed to zero and lock marks due for a re-check.
+     */
+    @Scheduled(fixedDelayString = "${corebank.pin-lockout.sweep-interval-ms:60000}")
+    public void evictIdleCards() {
+        long now = clockMs.getAsLong();
+        int removed = cards.removeIf(state -> isIdle(state.get(), now));
+        if (removed > 0) {
+            log.debug("Evicted {} idle failed-PIN counters", removed);
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getTrackedCount() {
+        return cards.size();
+    }
+
+    private void addFailure(String cardNumber) {
+        long now = clockMs.getAsLong();
+        AtomicLong state = stateOf(cardNumber, now);
+        while (true) {
+            long value = state.get();
+            long decayed = decay(value, now);
+            if (state.compareAndSet(value, pack(count(decayed) + 1, time(decayed)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The failures left once those forgiven by now are taken off, keeping the part of a decay
+     * period already served.
+     */
+    private long decay(long value, long now) {
+        long count = count(value);
+        long since = time(value);
+        if (count == LOCKED) {
+            // Locked here but the card was read as active (unlocked elsewhere): start again
+            return pack(0, now);
+        }
+        long forgiven = Math.min(count, (now - since) / decayMs);
+        count -= forgiven;
+        return pack(count, count == 0 ? now : since + forgiven * decayMs);
+    }
+
+    private boolean isIdle(long value, long now) {
+        long count = count(value);
+        long elapsed = now - time(value);
+        return count == LOCKED ? elapsed >= lockedRecheckMs : elapsed >= count * decayMs;
+    }
+
+    private AtomicLong stateOf(String cardNumber, long now) {
+        return cards.computeIfAbsent(cardNumber, k -> new AtomicLong(pack(0, now)));
+    }
+
+    private static long pack(long count, long timeMs) {
+        return count << TIME_BITS | (timeMs & TIME_MASK);
+    }
+
+    private static long count(long value) {
+        return value >>> TIME_BITS;
+    }
+
+    private static long time(long value) {
+        return value & TIME_MASK;
+    }
+}
@@ -0,0 +1,109 @@
+package com.bank.poc.core.metrics;
+
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.logging.CountingAsyncAppender;
+import com.bank.poc.common.logging.SamplingTurboFilter;
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for System 2, exported at /actuator/prometheus.
+ *
+ * - corebank.transactions: timer per transaction type, outcome and failure reason
+ *   (its count is the outcome counter), recorded for HTTP and binary transport calls
+ * - logging.async.*, logging.sampled-out: lines the async log appender gave up on and
+ *   success-path lines skipped by sampling (see logback-spring.xml)
+ *
+ * Spring Boot adds per-endpoint latency (http.server.requests) and per repository method
+ * latency (spring.data.repository.invocations). Connection pool saturation and wait time
+ * (hikaricp.connections.active/idle/pending/max, hikaricp.connections.acquire) are bound
+ * here for every pool, tagged pool=corebank-payments, corebank-reporting or a replica.
+ */
+@Component
+public class CoreMetrics {
+
+    public static final String TRANSACTION_TIMER = "corebank.transactions";
+
+    private static final int MAX_REASON_LENGTH = 48;
+
+    private final MeterRegistry meterRegistry;
+
+    // Keyed by type|outcome|reason; reasons come from a fixed set of messages
+    private final Map<String, Timer> transactionTimers = new ConcurrentHashMap<>();
+
+    public CoreMetrics(MeterRegistry meterRegistry, DataSourceRoutingConfig dataSourceRoutingConfig) {
+        this.meterRegistry = meterRegistry;
+
+        // Spring Boot only binds the pool behind the dataSource bean; the others are not beans
+        for (HikariDataSource pool : dataSourceRoutingConfig.getPools()) {
+            if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+        }
+
+        FunctionCounter.builder("logging.async.dropped", this, m -> CountingAsyncAppender.getDropped())
+            .description("Log lines dropped because the async queue was full").register(meterRegistry);
+        FunctionCounter.builder("logging.async.discarded", this, m -> CountingAsyncAppender.getDiscarded())
+            .description("INFO and lower lines discarded because the async queue was nearly full").register(meterRegistry);
+        FunctionCounter.builder("logging.async.blocked", this, m -> CountingAsyncAppender.getBlocked())
+            .description("WARN and ERROR lines that waited for room in the async queue").register(meterRegistry);
+        Gauge.builder("logging.async.queue-depth", this, m -> CountingAsyncAppender.getQueueDepth())
+            .register(meterRegistry);
+        FunctionCounter.builder("logging.sampled-out", this, m -> SamplingTurboFilter.getSampledOut())
+            .description("Success-path log lines skipped by sampling").register(meterRegistry);
+    }
+
+    /**
+     * Record a processed /process call.
+     *
+     * @param type     the requested transaction type (anything but withdraw/topup is tagged "other")
+     * @param rejected true if the request failed input validation and never reached the ledger
+     */
+    public void recordTransaction(String type, TransactionResponse response, boolean rejected, long elapsedNanos) {
+        String typeTag = "withdraw".equalsIgnoreCase(type) ? "withdraw"
+            : "topup".equalsIgnoreCase(type) ? "topup" : "other";
+        String outcome = rejected ? "rejected" : response.isSuccess() ? "success" : "declined";
+        String reason = response.isSuccess() ? "none" : reasonTag(response.getMessage());
+        transactionTimers.computeIfAbsent(typeTag + '|' + outcome + '|' + reason, key -> Timer.builder(TRANSACTION_TIMER)
+                .description("Transactions processed by System 2")
+                .tag("type", typeTag)
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Turn a failure message into a tag value, e.g. "Invalid PIN" -> "invalid_pin".
+     */
+    static String reasonTag(String message) {
+        if (message == null) {
+            return "unknown";
+        }
+        StringBuilder tag = new StringBuilder(Math.min(message.length(), MAX_REASON_LENGTH));
+        boolean separator = false;
+        for (int i = 0; i < message.length() && tag.length() < MAX_REASON_LENGTH; i++) {
+            char c = Character.toLowerCase(message.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (separator && tag.length() > 0) {
+                    tag.append('_');
+                }
+                tag.append(c);
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return tag.length() == 0 ? "unknown" : tag.toString();
+    }
+}
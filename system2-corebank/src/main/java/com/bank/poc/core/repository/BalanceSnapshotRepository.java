@@ -0,0 +1,26 @@
+package com.bank.poc.core.repository;
+
+import com.bank.poc.core.entity.BalanceSnapshot;
+import com.bank.poc.core.sharding.ShardKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for ledger balance snapshots.
+ */
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * The card's most recent snapshot (the one replay starts from).
+     */
+    Optional<BalanceSnapshot> findFirstByCardNumberOrderByLastTransactionIdDesc(@ShardKey String cardNumber);
+
+    /**
+     * All of the card's snapshots, oldest first.
+     */
+    List<BalanceSnapshot> findByCardNumberOrderByLastTransactionIdAsc(@ShardKey String cardNumber);
+}
@@ -0,0 +1,59 @@
+package com.bank.poc.core.repository;
+
+import com.bank.poc.core.aggregates.AggregateTotal;
+import com.bank.poc.core.entity.CardAggregate;
+import com.bank.poc.core.sharding.ShardKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for per-card transaction aggregates.
+ */
+@Repository
+public interface CardAggregateRepository extends JpaRepository<CardAggregate, Long> {
+
+    /**
+     * Add one transaction to an existing aggregate row (the row stays locked until commit).
+     *
+     * @return 1, or 0 if the row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE CardAggregate a SET a.transactionCount = a.transactionCount + 1, a.totalAmount = a.totalAmount + :amount "
+        + "WHERE a.cardNumber = :cardNumber AND a.period = :period AND a.periodStart = :periodStart "
+        + "AND a.type = :type AND a.status = :status")
+    int increment(@Param("cardNumber") @ShardKey String cardNumber, @Param("period") String period,
+                  @Param("periodStart") LocalDate periodStart, @Param("type") String type,
+                  @Param("status") String status, @Param("amount") double amount);
+
+    /**
+     * How many of the DAY and MONTH rows for one type and status exist (0 to 2).
+     */
+    @Query("SELECT COUNT(a) FROM CardAggregate a WHERE a.cardNumber = :cardNumber AND a.type = :type "
+        + "AND a.status = :status "
+        + "AND ((a.period = 'DAY' AND a.periodStart = :day) OR (a.period = 'MONTH' AND a.periodStart = :month))")
+    long countRows(@Param("cardNumber") @ShardKey String cardNumber, @Param("day") LocalDate day,
+                   @Param("month") LocalDate month, @Param("type") String type, @Param("status") String status);
+
+    /**
+     * The card's totals for one day and one month.
+     */
+    @Query("SELECT new com.bank.poc.core.aggregates.AggregateTotal(a.period, a.type, a.status, a.transactionCount, a.totalAmount) "
+        + "FROM CardAggregate a WHERE a.cardNumber = :cardNumber "
+        + "AND ((a.period = 'DAY' AND a.periodStart = :day) OR (a.period = 'MONTH' AND a.periodStart = :month)) "
+        + "ORDER BY a.type, a.status")
+    List<AggregateTotal> findTotals(@Param("cardNumber") @ShardKey String cardNumber,
+                                    @Param("day") LocalDate day, @Param("month") LocalDate month);
+
+    /**
+     * Delete DAY rows for days before the given one.
+     */
+    @Modifying
+    @Query("DELETE FROM CardAggregate a WHERE a.period = 'DAY' AND a.periodStart < :before")
+    int deleteDaysBefore(@Param("before") LocalDate before);
+}
@@ -1,10 +1,16 @@
 package com.bank.poc.core.repository;
 
 import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Card entity operations.
@@ -16,4 +22,36 @@ public interface CardRepository extends JpaRepository<Card, String> {
      * Find a card by its username (for customer login).
      */
     Optional<Card> findByUsername(String username);
+
+    /**
+     * Find a card and lock its row until the surrounding transaction ends
+     * (SELECT ... FOR UPDATE), so concurrent balance updates on the same card
+     * are serialized instead of overwriting each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.cardNumber = :cardNumber")
+    Optional<Card> findByIdForUpdate(@Param("cardNumber") @ShardKey String cardNumber);
+
+    /**
+     * The card's row version (see Card.version), without loading the card.
+     */
+    @Query("SELECT c.version FROM Card c WHERE c.cardNumber = :cardNumber")
+    Optional<Long> findVersion(@Param("cardNumber") @ShardKey String cardNumber);
+
+    /**
+     * The row version of the username's card.
+     */
+    @Query("SELECT c.version FROM Card c WHERE c.username = :username")
+    Optional<Long> findVersionByUsername(@Param("username") String username);
+
+    /**
+     * Stream the numbers of all cards, active or not (for the gateway's card filter).
+     */
+    @Query("SELECT c.cardNumber FROM Card c")
+    Stream<String> streamCardNumbers();
+
+    /**
+     * Count active cards.
+     */
+    long countByActiveTrue();
 }
@@ -0,0 +1,73 @@
+package com.bank.poc.core.repository;
+
+import com.bank.poc.core.entity.Hold;
+import com.bank.poc.core.holds.PendingHold;
+import com.bank.poc.core.sharding.ShardKey;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for authorisation holds.
+ */
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    /**
+     * Total of the card's HELD holds, to initialise Card.heldAmount (which is kept from then on).
+     */
+    @Query("SELECT COALESCE(SUM(h.amount), 0.0) FROM Hold h WHERE h.cardNumber = :cardNumber AND h.status = 'HELD'")
+    double heldTotal(@Param("cardNumber") @ShardKey String cardNumber);
+
+    /**
+     * Total of the card's HELD holds past their deadline (not expired by a timing wheel yet).
+     */
+    @Query("SELECT COALESCE(SUM(h.amount), 0.0) FROM Hold h "
+        + "WHERE h.cardNumber = :cardNumber AND h.status = 'HELD' AND h.expiresAt <= :now")
+    double overdueTotal(@Param("cardNumber") @ShardKey String cardNumber, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark the card's HELD holds past their deadline EXPIRED.
+     */
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'EXPIRED', h.settledAt = :now "
+        + "WHERE h.cardNumber = :cardNumber AND h.status = 'HELD' AND h.expiresAt <= :now")
+    int expireOverdue(@Param("cardNumber") @ShardKey String cardNumber, @Param("now") LocalDateTime now);
+
+    /**
+     * Find a hold and lock its row until the surrounding transaction ends.
+     * Callers lock the hold's card first (see CardService).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.id = :id")
+    Optional<Hold> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Ids and deadlines of every HELD hold (to rebuild the expiry wheel on startup).
+     */
+    @Query("SELECT new com.bank.poc.core.holds.PendingHold(h.id, h.expiresAt) FROM Hold h WHERE h.status = 'HELD'")
+    List<PendingHold> findPending();
+
+    /**
+     * The given holds that are still HELD and past their deadline.
+     */
+    @Query("SELECT h FROM Hold h WHERE h.id IN :ids AND h.status = 'HELD' AND h.expiresAt <= :now")
+    List<Hold> findDue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark the given holds EXPIRED if they are still HELD and past their deadline.
+     */
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'EXPIRED', h.settledAt = :now "
+        + "WHERE h.id IN :ids AND h.status = 'HELD' AND h.expiresAt <= :now")
+    int expire(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.bank.poc.core.repository;
+
+import com.bank.poc.core.entity.StatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for persisted system-wide rollups.
+ */
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long> {
+
+    Optional<StatsRollup> findByInstanceAndGranularityAndBucketStart(String instance, String granularity,
+                                                                     LocalDateTime bucketStart);
+
+    List<StatsRollup> findByInstanceAndGranularityAndBucketStartGreaterThanEqual(String instance, String granularity,
+                                                                                 LocalDateTime from);
+
+    /**
+     * Delete an instance's rollups of one granularity that started before the given time.
+     */
+    @Modifying
+    @Query("DELETE FROM StatsRollup r WHERE r.instance = :instance AND r.granularity = :granularity "
+        + "AND r.bucketStart < :before")
+    int deleteBefore(@Param("instance") String instance, @Param("granularity") String granularity,
+                     @Param("before") LocalDateTime before);
+}
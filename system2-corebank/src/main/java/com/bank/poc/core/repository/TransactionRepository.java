@@ -1,10 +1,16 @@
 package com.bank.poc.core.repository;
 
 import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.history.TransactionRow;
+import com.bank.poc.core.ledger.EventReplay;
+import com.bank.poc.core.sharding.ShardKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for Transaction entity operations.
@@ -15,10 +21,37 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     /**
      * Find all transactions for a specific card, ordered by timestamp descending.
      */
-    List<Transaction> findByCardNumberOrderByTimestampDesc(String cardNumber);
+    List<Transaction> findByCardNumberOrderByTimestampDesc(@ShardKey String cardNumber);
     
     /**
      * Find all transactions ordered by timestamp descending (for admin view).
+     * When sharded, every shard is queried and the results merged in timestamp order.
      */
     List<Transaction> findAllByOrderByTimestampDesc();
+
+    /**
+     * Stream a card's transactions as rows, newest first (for the history JSON writer).
+     * Must be read inside a transaction and closed.
+     */
+    Stream<TransactionRow> streamByCardNumberOrderByTimestampDesc(@ShardKey String cardNumber);
+
+    /**
+     * Stream all transactions as rows, newest first (merged across shards when sharded).
+     */
+    Stream<TransactionRow> streamAllByOrderByTimestampDesc();
+
+    /**
+     * The id of the card's newest transaction, 0 if it has none. Transactions are never updated
+     * or deleted, so this changes exactly when the card's history does.
+     */
+    @Query("SELECT COALESCE(MAX(t.id), 0L) FROM Transaction t WHERE t.cardNumber = :cardNumber")
+    long findLastId(@Param("cardNumber") @ShardKey String cardNumber);
+
+    /**
+     * Replay the card's SUCCESS transactions after the given id (event-sourced ledger).
+     */
+    @Query("SELECT new com.bank.poc.core.ledger.EventReplay("
+        + "COALESCE(SUM(CASE WHEN t.type = 'topup' THEN t.amount ELSE -t.amount END), 0.0), COUNT(t), COALESCE(MAX(t.id), 0L)) "
+        + "FROM Transaction t WHERE t.cardNumber = :cardNumber AND t.status = 'SUCCESS' AND t.id > :afterId")
+    EventReplay replayAfter(@Param("cardNumber") @ShardKey String cardNumber, @Param("afterId") long afterId);
 }
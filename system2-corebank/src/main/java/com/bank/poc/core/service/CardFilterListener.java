@@ -0,0 +1,29 @@
+package com.bank.poc.core.service;
+
+import com.bank.poc.core.entity.Card;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on Card that adds every newly inserted card to the card filter once its
+ * transaction commits, so a new card is not rejected by the gateway until the next rebuild.
+ */
+@Component
+public class CardFilterListener {
+
+    // Looked up lazily: the entity manager factory creates this listener before the repositories exist
+    private final ObjectProvider<CardFilterService> cardFilterService;
+
+    public CardFilterListener(ObjectProvider<CardFilterService> cardFilterService) {
+        this.cardFilterService = cardFilterService;
+    }
+
+    @PostPersist
+    public void created(Card card) {
+        CardFilterService service = cardFilterService.getIfAvailable();
+        if (service != null) {
+            service.addAfterCommit(card.getCardNumber());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.poc.core.service;
+
+import com.bank.poc.common.filter.BloomFilter;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.core.datasource.Workload;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.util.Transactions;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds and publishes a Bloom filter of all card numbers.
+ *
+ * The gateway fetches the snapshot periodically and rejects cards the filter
+ * says are definitely unknown, saving a round trip, a card lookup and a FAILED
+ * audit row per invalid-card attempt. Inactive and locked cards are included, so
+ * they still reach System 2 and are declined (and audited) with their own reason.
+ * The snapshot version is a digest of its content, so every core replica with the
+ * same cards publishes the same version.
+ *
+ * New cards are added as soon as their insert commits (see CardFilterListener); the
+ * periodic rebuild resizes the filter and drops deleted cards.
+ */
+@Service
+@Slf4j
+public class CardFilterService {
+
+    private final CardRepository cardRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double falsePositiveRate;
+    private final Object rebuildLock = new Object();
+
+    // Guarded by this
+    private BloomFilter filter;
+    private long cardCount;
+    private List<String> addedDuringRebuild;
+    private CardFilterSnapshot snapshot;
+    private boolean changed;
+
+    public CardFilterService(CardRepository cardRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${corebank.card-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.cardRepository = cardRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Build the first snapshot once sample data has been loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the filter from all cards in the database.
+     */
+    @Scheduled(fixedDelayString = "${corebank.card-filter.rebuild-interval-ms:30000}",
+               initialDelayString = "${corebank.card-filter.rebuild-interval-ms:30000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            synchronized (this) {
+                addedDuringRebuild = new ArrayList<>();
+            }
+            // A full scan of the cards table, so it uses the reporting pool rather than the payment pool
+            long[] count = {0};
+            BloomFilter rebuilt = Workload.REPORTING.call(() -> readOnlyTransaction.execute(status -> {
+                // Leave headroom so the filter stays within its false-positive target as cards are added
+                BloomFilter built = BloomFilter.create(Math.max(1_000, cardRepository.count() * 2), falsePositiveRate);
+                try (Stream<String> cardNumbers = cardRepository.streamCardNumbers()) {
+                    cardNumbers.forEach(cardNumber -> {
+                        built.put(cardNumber);
+                        count[0]++;
+                    });
+                }
+                return built;
+            }));
+
+            synchronized (this) {
+                // Cards committed while scanning may not have been read
+                for (String cardNumber : addedDuringRebuild) {
+                    if (!rebuilt.mightContain(cardNumber)) {
+                        rebuilt.put(cardNumber);
+                        count[0]++;
+                    }
+                }
+                addedDuringRebuild = null;
+                filter = rebuilt;
+                cardCount = count[0];
+                CardFilterSnapshot built = snapshotOf(rebuilt, cardCount);
+                changed = false;
+                if (snapshot != null && snapshot.getVersion().equals(built.getVersion())) {
+                    return;
+                }
+                snapshot = built;
+                log.info("Card filter rebuilt: version={}, cards={}, bits={}, hashes={} in {} ms",
+                    built.getVersion(), built.getCardCount(), built.getNumBits(), built.getNumHashes(),
+                    (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
+    /**
+     * Add a new card once the current database transaction (which inserts it) commits.
+     */
+    public void addAfterCommit(String cardNumber) {
+        Transactions.afterCommit(() -> add(cardNumber));
+    }
+
+    /**
+     * Add a card to the filter now; the next snapshot includes it.
+     */
+    public synchronized void add(String cardNumber) {
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(cardNumber);
+        }
+        if (filter != null && !filter.mightContain(cardNumber)) {
+            filter.put(cardNumber);
+            cardCount++;
+            changed = true;
+        }
+    }
+
+    /**
+     * Current snapshot, or null before the first build.
+     */
+    public synchronized CardFilterSnapshot getSnapshot() {
+        if (changed) {
+            // Serialised on demand, so issuing many cards does not copy the filter for each
+            snapshot = snapshotOf(filter, cardCount);
+            changed = false;
+        }
+        return snapshot;
+    }
+
+    private CardFilterSnapshot snapshotOf(BloomFilter filter, long cards) {
+        byte[] bits = filter.toBytes();
+        String version = DigestUtils.sha256Hex(bits).substring(0, 16)
+            + "-" + filter.getNumBits() + "-" + filter.getNumHashes();
+        return new CardFilterSnapshot(
+            version,
+            LocalDateTime.now(),
+            cards,
+            falsePositiveRate,
+            filter.getNumBits(),
+            filter.getNumHashes(),
+            Base64.getEncoder().encodeToString(bits)
+        );
+    }
+}
@@ -1,20 +1,42 @@
 package com.bank.poc.core.service;
 
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.logging.LogMarkers;
+import com.bank.poc.common.logging.MaskedCard;
+import com.bank.poc.common.tracing.Span;
+import com.bank.poc.common.tracing.Tracer;
 import com.bank.poc.core.dto.*;
 import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Hold;
 import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.events.BalanceUpdate;
+import com.bank.poc.core.events.TransactionSaved;
+import com.bank.poc.core.events.TransactionSaved.CardLock;
+import com.bank.poc.core.history.TransactionHistoryWriter;
+import com.bank.poc.core.history.TransactionRow;
+import com.bank.poc.core.holds.HoldExpiryScheduler;
+import com.bank.poc.core.ledger.LedgerService;
+import com.bank.poc.core.lockout.PinAttemptTracker;
 import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.HoldRepository;
 import com.bank.poc.core.repository.TransactionRepository;
 import com.bank.poc.core.util.CryptoUtil;
+import com.bank.poc.core.velocity.VelocityRule;
+import com.bank.poc.core.velocity.VelocityRuleEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Core service for card operations and transaction processing.
@@ -23,6 +45,29 @@ import java.util.stream.Collectors;
  * - PIN hashing using SHA-256
  * - Card number encryption using AES-256
  * - No plain-text sensitive data in logs
+ *
+ * Each stage of processTransaction (card lookup, PIN check, balance UPDATE, audit INSERT)
+ * is recorded as a span of the current trace. The dashboard queries run in read-only
+ * transactions, so they are served by a read replica when one is configured.
+ *
+ * With the event-sourced ledger enabled, the balance checked and returned is derived from the
+ * card's transactions (see LedgerService) and Card.balance is kept as a projection of it.
+ *
+ * Every transactions row saved here is published as a TransactionSaved application event, in
+ * the saving database transaction. Its listeners keep the card's daily and monthly totals
+ * (CardAggregates, in the same transaction), and after commit the system-wide rollups
+ * (TransactionRollups) and the dashboards' event streams (TransactionEventStream).
+ *
+ * Authorisation holds (authorize, then capture or release) reserve funds without debiting
+ * them: withdrawals and new holds only see the balance minus the card's active holds, kept as
+ * a running total on the card row (Card.heldAmount) so a payment does not sum the holds table.
+ * Holds that are neither captured nor released expire (see HoldExpiryScheduler).
+ *
+ * Withdrawals, top-ups and holds are checked against the per-card velocity rules, kept in
+ * memory (see VelocityRuleEngine).
+ *
+ * Invalid PINs are counted in memory; a card reaching the limit is locked (made inactive) and
+ * then declined without reading it (see PinAttemptTracker).
  */
 @Service
 @RequiredArgsConstructor
@@ -32,20 +77,28 @@ public class CardService {
     private final CardRepository cardRepository;
     private final TransactionRepository transactionRepository;
     private final CryptoUtil cryptoUtil;
+    private final Tracer tracer;
+    private final LedgerService ledgerService;
+    private final HoldRepository holdRepository;
+    private final HoldExpiryScheduler holdExpiryScheduler;
+    private final VelocityRuleEngine velocityRuleEngine;
+    private final PinAttemptTracker pinAttemptTracker;
+    private final TransactionHistoryWriter historyWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Hash a PIN using SHA-256.
+     * Hash a PIN using SHA-256 (see CryptoUtil.hashPin).
      * CRITICAL: Never log or store the plain text PIN!
      */
     public String hashPin(String pin) {
-        return DigestUtils.sha256Hex(pin);
+        return CryptoUtil.hashPin(pin);
     }
 
     /**
      * Verify if the provided PIN matches the stored hash.
      */
     public boolean verifyPin(String inputPin, String storedHash) {
-        return storedHash.equals(hashPin(inputPin));
+        return CryptoUtil.verifyPin(inputPin, storedHash);
     }
 
     /**
@@ -55,68 +108,91 @@ public class CardService {
      * Validation Flow:
      * 1. Check if card exists in database
      * 2. Validate PIN using SHA-256 hash comparison
-     * 3. Check balance for withdrawals
+     * 3. Check the card's velocity rules and, for withdrawals, its balance
      * 4. Process transaction and update balance
      */
     @Transactional
     public TransactionResponse processTransaction(TransactionRequest request) {
-        log.info("Processing transaction: {}", request); // PIN is masked in toString
+        log.info(LogMarkers.SAMPLED, "Processing transaction: {}", request); // PIN is masked in toString
 
-        // 1. Find the card - Check if card number exists in the database
-        Optional<Card> cardOpt = cardRepository.findById(request.getCardNumber());
+        // A card known to be locked is declined before its row is locked or the PIN hashed
+        if (pinAttemptTracker.isLocked(request.getCardNumber())) {
+            return saveAndReturnLockedCardError(request);
+        }
+
+        // 1. Find the card - Check if card number exists in the database.
+        // The row stays locked until commit so the balance check and update below
+        // cannot interleave with another transaction on the same card.
+        Optional<Card> cardOpt;
+        try (Span span = tracer.startSpan("card.lookup")) {
+            cardOpt = cardRepository.findByIdForUpdate(request.getCardNumber());
+        }
         if (cardOpt.isEmpty()) {
-            log.warn("Invalid card: ****{}", 
-                CryptoUtil.maskCardNumber(request.getCardNumber()));
-            return saveAndReturnError(request, "Invalid card");
+            log.warn("Invalid card: {}", MaskedCard.of(request.getCardNumber()));
+            return saveAndReturnUnknownCardError(request);
         }
 
         Card card = cardOpt.get();
         
         // Check if card is active
-        if (!card.isActive()) {
-            log.warn("Card is inactive: {}", CryptoUtil.maskCardNumber(request.getCardNumber()));
-            return saveAndReturnError(request, "Card is inactive");
+        String inactive = checkActive(card);
+        if (inactive != null) {
+            return saveAndReturnError(request, inactive);
         }
 
         // 2. Validate PIN (using SHA-256 hash comparison)
-        if (!verifyPin(request.getPin(), card.getPinHash())) {
-            log.warn("Invalid PIN attempt for card: {}", 
-                CryptoUtil.maskCardNumber(request.getCardNumber()));
+        boolean pinValid;
+        try (Span span = tracer.startSpan("pin.verify")) {
+            pinValid = verifyPin(request.getPin(), card.getPinHash());
+        }
+        if (!pinValid) {
+            log.warn("Invalid PIN attempt for card: {}", MaskedCard.of(request.getCardNumber()));
+            recordInvalidPin(card);
             return saveAndReturnError(request, "Invalid PIN");
         }
+        pinAttemptTracker.recordSuccess(card.getCardNumber());
 
         // 3. Process based on transaction type
         String type = request.getType().toLowerCase();
         double amount = request.getAmount();
+        if (!"withdraw".equals(type) && !"topup".equals(type)) {
+            return saveAndReturnError(request, "Invalid transaction type. Use 'withdraw' or 'topup'");
+        }
+
+        VelocityRule violated = velocityRuleEngine.check(card.getCardNumber(), type, amount);
+        if (violated != null) {
+            log.warn("Velocity rule {} exceeded for card: {}", violated, MaskedCard.of(request.getCardNumber()));
+            return saveAndReturnError(request, "Velocity limit exceeded");
+        }
+
+        // Event-sourced: replay the card's transactions since its latest snapshot
+        LedgerService.Balance ledgerBalance = null;
+        if (ledgerService.isEnabled()) {
+            try (Span span = tracer.startSpan("ledger.replay")) {
+                ledgerBalance = ledgerService.balanceOf(card);
+            }
+            card.setBalance(ledgerBalance.balance());
+        }
 
         if ("withdraw".equals(type)) {
-            // Check sufficient balance for withdrawal
-            if (card.getBalance() < amount) {
-                log.warn("Insufficient balance for withdrawal. Card: {}, Balance: {}, Requested: {}",
-                    CryptoUtil.maskCardNumber(request.getCardNumber()), card.getBalance(), amount);
+            // Check sufficient balance for withdrawal (funds reserved by holds are not available)
+            double available = available(card, card.getBalance(), amount);
+            if (available < amount) {
+                log.warn("Insufficient balance for withdrawal. Card: {}, Balance: {}, Available: {}, Requested: {}",
+                    MaskedCard.of(request.getCardNumber()), card.getBalance(), available, amount);
                 return saveAndReturnError(request, "Insufficient balance");
             }
             card.setBalance(card.getBalance() - amount);
-        } else if ("topup".equals(type)) {
-            card.setBalance(card.getBalance() + amount);
         } else {
-            return saveAndReturnError(request, "Invalid transaction type. Use 'withdraw' or 'topup'");
+            card.setBalance(card.getBalance() + amount);
         }
 
-        // 4. Save updated card
-        cardRepository.save(card);
+        // 4-5. Save updated card and log successful transaction
+        Transaction transaction = saveSuccess(card, type, amount, "Transaction completed successfully", ledgerBalance);
+        velocityRuleEngine.recordAfterCommit(card.getCardNumber(), type, amount);
 
-        // 5. Log successful transaction
-        Transaction transaction = new Transaction();
-        transaction.setCardNumber(request.getCardNumber());
-        transaction.setType(type);
-        transaction.setAmount(amount);
-        transaction.setStatus("SUCCESS");
-        transaction.setReason("Transaction completed successfully");
-        transactionRepository.save(transaction);
-
-        log.info("Transaction successful. Card: {}, Type: {}, Amount: {}, New Balance: {}", 
-            CryptoUtil.maskCardNumber(request.getCardNumber()), type, amount, card.getBalance());
+        log.info(LogMarkers.SAMPLED, "Transaction successful. Card: {}, Type: {}, Amount: {}, New Balance: {}",
+            MaskedCard.of(request.getCardNumber()), type, amount, card.getBalance());
 
         return TransactionResponse.success(
             type.equals("withdraw") ? "Withdrawal successful" : "Top-up successful",
@@ -126,23 +202,319 @@ public class CardService {
     }
 
     /**
-     * Save a failed transaction and return error response.
+     * Reserve funds on a card (authorisation hold). The amount stops being available for
+     * withdrawals and other holds until the hold is captured, released, or expires.
+     */
+    @Transactional
+    public HoldResponse authorize(HoldRequest request) {
+        log.info(LogMarkers.SAMPLED, "Processing hold: {}", request); // PIN is masked in toString
+        TransactionRequest audit = new TransactionRequest(request.getCardNumber(), null, request.getAmount(), "hold");
+
+        long ttlSeconds = request.getExpiresInSeconds() == null
+            ? holdExpiryScheduler.getDefaultTtlSeconds() : request.getExpiresInSeconds();
+        if (ttlSeconds <= 0 || ttlSeconds > holdExpiryScheduler.getMaxTtlSeconds()) {
+            return HoldResponse.error("Hold expiry must be between 1 and "
+                + holdExpiryScheduler.getMaxTtlSeconds() + " seconds");
+        }
+
+        if (pinAttemptTracker.isLocked(request.getCardNumber())) {
+            return HoldResponse.error(saveAndReturnLockedCardError(audit).getMessage());
+        }
+        Optional<Card> cardOpt;
+        try (Span span = tracer.startSpan("card.lookup")) {
+            cardOpt = cardRepository.findByIdForUpdate(request.getCardNumber());
+        }
+        if (cardOpt.isEmpty()) {
+            log.warn("Invalid card: {}", MaskedCard.of(request.getCardNumber()));
+            return HoldResponse.error(saveAndReturnUnknownCardError(audit).getMessage());
+        }
+        Card card = cardOpt.get();
+        String inactive = checkActive(card);
+        if (inactive != null) {
+            return HoldResponse.error(saveAndReturnError(audit, inactive).getMessage());
+        }
+        boolean pinValid;
+        try (Span span = tracer.startSpan("pin.verify")) {
+            pinValid = verifyPin(request.getPin(), card.getPinHash());
+        }
+        if (!pinValid) {
+            log.warn("Invalid PIN attempt for card: {}", MaskedCard.of(request.getCardNumber()));
+            recordInvalidPin(card);
+            return HoldResponse.error(saveAndReturnError(audit, "Invalid PIN").getMessage());
+        }
+        pinAttemptTracker.recordSuccess(card.getCardNumber());
+        VelocityRule violated = velocityRuleEngine.check(card.getCardNumber(), "hold", request.getAmount());
+        if (violated != null) {
+            log.warn("Velocity rule {} exceeded for card: {}", violated, MaskedCard.of(request.getCardNumber()));
+            return HoldResponse.error(saveAndReturnError(audit, "Velocity limit exceeded").getMessage());
+        }
+
+        double balance = ledgerService.isEnabled() ? ledgerService.balanceOf(card).balance() : card.getBalance();
+        double available = available(card, balance, request.getAmount());
+        if (available < request.getAmount()) {
+            log.warn("Insufficient balance for hold. Card: {}, Available: {}, Requested: {}",
+                MaskedCard.of(request.getCardNumber()), available, request.getAmount());
+            return HoldResponse.error(saveAndReturnError(audit, "Insufficient balance").getMessage());
+        }
+
+        Hold hold = holdRepository.save(new Hold(card.getCardNumber(), request.getAmount(),
+            LocalDateTime.now().plusSeconds(ttlSeconds)));
+        card.addHeld(request.getAmount());
+        holdExpiryScheduler.scheduleAfterCommit(hold.getId(), hold.getExpiresAt());
+        velocityRuleEngine.recordAfterCommit(card.getCardNumber(), "hold", request.getAmount());
+        log.info(LogMarkers.SAMPLED, "Hold {} placed. Card: {}, Amount: {}, Expires: {}",
+            hold.getId(), MaskedCard.of(request.getCardNumber()), request.getAmount(), hold.getExpiresAt());
+        return HoldResponse.success("Hold placed", hold, available - request.getAmount());
+    }
+
+    /**
+     * Debit a held amount (all of it, or the given part) and close the hold; any remainder
+     * becomes available again.
+     */
+    @Transactional
+    public HoldResponse capture(long holdId, Double amount) {
+        Optional<Hold> found = holdRepository.findById(holdId);
+        if (found.isEmpty()) {
+            return HoldResponse.error("Hold not found");
+        }
+        // Same lock order as payments: the card, then the hold
+        Card card;
+        try (Span span = tracer.startSpan("card.lookup")) {
+            card = cardRepository.findByIdForUpdate(found.get().getCardNumber()).orElseThrow();
+        }
+        Hold hold = holdRepository.findByIdForUpdate(holdId).orElseThrow();
+        String unavailable = checkOpen(card, hold);
+        if (unavailable != null) {
+            return HoldResponse.error(unavailable);
+        }
+        double captureAmount = amount == null ? hold.getAmount() : amount;
+        if (captureAmount <= 0 || captureAmount > hold.getAmount()) {
+            return HoldResponse.error("Capture amount must be greater than 0 and at most the held amount");
+        }
+
+        LedgerService.Balance ledgerBalance = null;
+        if (ledgerService.isEnabled()) {
+            try (Span span = tracer.startSpan("ledger.replay")) {
+                ledgerBalance = ledgerService.balanceOf(card);
+            }
+            card.setBalance(ledgerBalance.balance());
+        }
+        if (card.getBalance() < captureAmount) {
+            return HoldResponse.error("Insufficient balance");
+        }
+        card.setBalance(card.getBalance() - captureAmount);
+        Transaction transaction = saveSuccess(card, "withdraw", captureAmount, "Hold " + holdId + " captured", ledgerBalance);
+
+        unhold(card, hold);
+        hold.setStatus(Hold.CAPTURED);
+        hold.setCapturedAmount(captureAmount);
+        hold.setTransactionId(transaction.getId());
+        hold.setSettledAt(LocalDateTime.now());
+        holdExpiryScheduler.cancelAfterCommit(holdId);
+        log.info(LogMarkers.SAMPLED, "Hold {} captured. Card: {}, Amount: {}, New Balance: {}",
+            holdId, MaskedCard.of(card.getCardNumber()), captureAmount, card.getBalance());
+        return HoldResponse.success("Hold captured", hold, availableBalance(card));
+    }
+
+    /**
+     * Release a hold without debiting it.
+     */
+    @Transactional
+    public HoldResponse release(long holdId) {
+        Optional<Hold> found = holdRepository.findById(holdId);
+        if (found.isEmpty()) {
+            return HoldResponse.error("Hold not found");
+        }
+        Card card = cardRepository.findByIdForUpdate(found.get().getCardNumber()).orElseThrow();
+        Hold hold = holdRepository.findByIdForUpdate(holdId).orElseThrow();
+        String unavailable = checkOpen(card, hold);
+        if (unavailable != null) {
+            return HoldResponse.error(unavailable);
+        }
+        unhold(card, hold);
+        hold.setStatus(Hold.RELEASED);
+        hold.setSettledAt(LocalDateTime.now());
+        holdExpiryScheduler.cancelAfterCommit(holdId);
+        log.info(LogMarkers.SAMPLED, "Hold {} released. Card: {}", holdId, MaskedCard.of(card.getCardNumber()));
+        return HoldResponse.success("Hold released", hold, availableBalance(card));
+    }
+
+    /**
+     * Why the hold can no longer be captured or released, or null if it can. A hold found past
+     * its deadline before the expiry wheel got to it is expired here. The caller holds the card's
+     * row lock.
+     */
+    private String checkOpen(Card card, Hold hold) {
+        if (hold.isHeld() && !hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            unhold(card, hold);
+            hold.setStatus(Hold.EXPIRED);
+            hold.setSettledAt(LocalDateTime.now());
+            holdExpiryScheduler.cancelAfterCommit(hold.getId());
+        }
+        return hold.isHeld() ? null : "Hold is " + hold.getStatus().toLowerCase();
+    }
+
+    /**
+     * Why the card cannot be used, or null if it is active. A card found locked is remembered as
+     * such so the next attempts are declined without reading it.
+     */
+    private String checkActive(Card card) {
+        if (card.isActive()) {
+            return null;
+        }
+        if (card.getLockedAt() != null) {
+            log.warn("Card is locked: {}", MaskedCard.of(card.getCardNumber()));
+            pinAttemptTracker.markLocked(card.getCardNumber());
+            return "Card is locked";
+        }
+        log.warn("Card is inactive: {}", MaskedCard.of(card.getCardNumber()));
+        return "Card is inactive";
+    }
+
+    /**
+     * Count an invalid PIN and lock the card (under its row lock) when it reaches the limit.
+     */
+    private void recordInvalidPin(Card card) {
+        if (pinAttemptTracker.recordFailureAfterCommit(card.getCardNumber())) {
+            card.setActive(false);
+            card.setLockedAt(LocalDateTime.now());
+            cardRepository.save(card);
+            pinAttemptTracker.lockedAfterCommit(card.getCardNumber());
+            log.warn("Card locked after {} invalid PIN attempts: {}",
+                pinAttemptTracker.getMaxAttempts(), MaskedCard.of(card.getCardNumber()));
+        }
+    }
+
+    /**
+     * Make a card locked after invalid PINs usable again, and clear its failed attempts.
+     *
+     * @return false if there is no such card or it is not locked
+     */
+    @Transactional
+    public boolean unlockCard(String cardNumber) {
+        Optional<Card> found = cardRepository.findByIdForUpdate(cardNumber);
+        if (found.isEmpty() || found.get().getLockedAt() == null) {
+            return false;
+        }
+        Card card = found.get();
+        card.setActive(true);
+        card.setLockedAt(null);
+        pinAttemptTracker.resetAfterCommit(cardNumber);
+        log.info("Card unlocked: {}", MaskedCard.of(cardNumber));
+        return true;
+    }
+
+    private double availableBalance(Card card) {
+        return card.getBalance() - held(card);
+    }
+
+    /**
+     * The card's held total, computed from its HELD holds the first time it is needed (e.g. for
+     * cards created before it was kept). The caller holds the card's row lock.
+     */
+    private double held(Card card) {
+        if (card.getHeldAmount() == null) {
+            card.setHeldAmount(holdRepository.heldTotal(card.getCardNumber()));
+        }
+        return card.getHeldAmount();
+    }
+
+    /**
+     * Take a hold that is about to stop being HELD off the card's held total.
+     */
+    private void unhold(Card card, Hold hold) {
+        held(card);
+        card.addHeld(-hold.getAmount());
+    }
+
+    /**
+     * The balance minus the card's held total. Holds past their deadline still count until a
+     * timing wheel expires them, so only when they could decide a decline are they looked for,
+     * and expired here (this covers holds whose wheel is on an instance that is down).
+     */
+    private double available(Card card, double balance, double amount) {
+        double available = balance - held(card);
+        if (available < amount && card.getHeldAmount() > 0) {
+            LocalDateTime now = LocalDateTime.now();
+            double overdue = holdRepository.overdueTotal(card.getCardNumber(), now);
+            if (overdue > 0) {
+                holdRepository.expireOverdue(card.getCardNumber(), now);
+                card.addHeld(-overdue);
+                available = balance - card.getHeldAmount();
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Save the card's new balance and record the successful transaction (steps 4 and 5 of
+     * processTransaction; the caller holds the card's row lock).
+     */
+    private Transaction saveSuccess(Card card, String type, double amount, String reason,
+                                    LedgerService.Balance ledgerBalance) {
+        // Flushed here so the UPDATE is timed in its own span, not at commit
+        try (Span span = tracer.startSpan("balance.update")) {
+            cardRepository.saveAndFlush(card);
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setCardNumber(card.getCardNumber());
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setStatus("SUCCESS");
+        transaction.setReason(reason);
+        try (Span span = tracer.startSpan("audit.insert")) {
+            transactionRepository.save(transaction);
+        }
+        if (ledgerBalance != null) {
+            ledgerService.appended(ledgerBalance, transaction, card.getBalance());
+        }
+        eventPublisher.publishEvent(new TransactionSaved(transaction,
+            new BalanceUpdate(card.getCardNumber(), card.getBalance(), transaction.getId()), CardLock.HELD));
+        return transaction;
+    }
+
+    /**
+     * Save a failed transaction and return error response (the caller holds the card's row lock).
      */
     private TransactionResponse saveAndReturnError(TransactionRequest request, String reason) {
+        saveFailure(request, reason, CardLock.HELD);
+        return TransactionResponse.error(reason);
+    }
+
+    /**
+     * Save a failed transaction for a card declined from memory as locked, without its row lock.
+     */
+    private TransactionResponse saveAndReturnLockedCardError(TransactionRequest request) {
+        saveFailure(request, "Card is locked", CardLock.NOT_HELD);
+        return TransactionResponse.error("Card is locked");
+    }
+
+    /**
+     * Save a failed transaction for a card number that does not exist.
+     */
+    private TransactionResponse saveAndReturnUnknownCardError(TransactionRequest request) {
+        saveFailure(request, "Invalid card", CardLock.NO_CARD);
+        return TransactionResponse.error("Invalid card");
+    }
+
+    private void saveFailure(TransactionRequest request, String reason, CardLock card) {
         Transaction transaction = new Transaction();
         transaction.setCardNumber(request.getCardNumber());
         transaction.setType(request.getType());
         transaction.setAmount(request.getAmount());
         transaction.setStatus("FAILED");
         transaction.setReason(reason);
-        transactionRepository.save(transaction);
-
-        return TransactionResponse.error(reason);
+        try (Span span = tracer.startSpan("audit.insert")) {
+            transactionRepository.save(transaction);
+        }
+        eventPublisher.publishEvent(new TransactionSaved(transaction, null, card));
     }
 
     /**
      * Get card info by username (for customer dashboard).
      */
+    @Transactional(readOnly = true)
     public Optional<CardInfoResponse> getCardByUsername(String username) {
         return cardRepository.findByUsername(username)
             .map(card -> CardInfoResponse.fromCard(
@@ -156,26 +528,50 @@ public class CardService {
     /**
      * Get transaction history for a specific card.
      */
+    @Transactional(readOnly = true)
     public List<TransactionHistoryResponse> getTransactionHistory(String cardNumber) {
         return transactionRepository.findByCardNumberOrderByTimestampDesc(cardNumber)
             .stream()
-            .map(this::mapToHistoryResponse)
+            .map(TransactionHistoryResponse::fromTransaction)
             .collect(Collectors.toList());
     }
 
     /**
      * Get all transactions (for admin dashboard).
      */
+    @Transactional(readOnly = true)
     public List<TransactionHistoryResponse> getAllTransactions() {
         return transactionRepository.findAllByOrderByTimestampDesc()
             .stream()
-            .map(this::mapToHistoryResponse)
+            .map(TransactionHistoryResponse::fromTransaction)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Write a card's transaction history as JSON (what getTransactionHistory returns), row by row
+     * from the query cursor.
+     */
+    @Transactional(readOnly = true)
+    public void writeTransactionHistory(String cardNumber, OutputStream out) throws IOException {
+        try (Stream<TransactionRow> rows = transactionRepository.streamByCardNumberOrderByTimestampDesc(cardNumber)) {
+            historyWriter.write(rows, out);
+        }
+    }
+
+    /**
+     * Write all transactions as JSON (what getAllTransactions returns), row by row.
+     */
+    @Transactional(readOnly = true)
+    public void writeAllTransactions(OutputStream out) throws IOException {
+        try (Stream<TransactionRow> rows = transactionRepository.streamAllByOrderByTimestampDesc()) {
+            historyWriter.write(rows, out);
+        }
+    }
+
     /**
      * Get card info by card number.
      */
+    @Transactional(readOnly = true)
     public Optional<CardInfoResponse> getCardByCardNumber(String cardNumber) {
         return cardRepository.findById(cardNumber)
             .map(card -> CardInfoResponse.fromCard(
@@ -185,18 +581,4 @@ public class CardService {
                 card.getUsername()
             ));
     }
-
-    private TransactionHistoryResponse mapToHistoryResponse(Transaction tx) {
-        String masked = CryptoUtil.maskCardNumber(tx.getCardNumber());
-        return new TransactionHistoryResponse(
-            tx.getId(),
-            tx.getCardNumber(),
-            masked,
-            tx.getType(),
-            tx.getAmount(),
-            tx.getTimestamp(),
-            tx.getStatus(),
-            tx.getReason()
-        );
-    }
 }
@@ -0,0 +1,181 @@
+package com.bank.poc.core.service;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.entity.IdempotencyRecord;
+import com.bank.poc.core.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deduplicates transactions submitted with an idempotency key.
+ *
+ * Lookup order:
+ * 1. Bounded in-memory LRU cache of recent keys
+ * 2. Persisted idempotency_keys table (survives restarts, shared by all core replicas)
+ *
+ * The key is inserted in the same database transaction as the balance update,
+ * so two concurrent requests with the same key cannot both debit the card:
+ * the loser fails on the primary key, rolls back, and returns the stored response.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 128;
+
+    private final CardService cardService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Map<String, IdempotencyRecord> cache;
+
+    public IdempotencyService(CardService cardService,
+                              IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${corebank.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${corebank.idempotency.cache-size:10000}") int cacheSize) {
+        this.cardService = cardService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Process a transaction at most once per idempotency key.
+     * Duplicates get the original response without re-running the transaction.
+     */
+    public TransactionResponse processOnce(String idempotencyKey, TransactionRequest request) {
+        String fingerprint = fingerprint(request);
+
+        Optional<IdempotencyRecord> existing = lookup(idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(existing.get(), fingerprint);
+        }
+
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> {
+                Optional<IdempotencyRecord> current = idempotencyRecordRepository.findById(idempotencyKey);
+                if (current.isPresent()) {
+                    if (current.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+                        return new Outcome(current.get(), true);
+                    }
+                    // Expired but not yet purged - the key may be reused
+                    idempotencyRecordRepository.delete(current.get());
+                    idempotencyRecordRepository.flush();
+                }
+
+                TransactionResponse response = cardService.processTransaction(request);
+                IdempotencyRecord record = toRecord(idempotencyKey, request, fingerprint, response);
+                return new Outcome(idempotencyRecordRepository.saveAndFlush(record), false);
+            });
+            remember(outcome.record());
+            return outcome.duplicate() ? replay(outcome.record(), fingerprint) : toResponse(outcome.record());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first; ours was rolled back
+            log.info("Concurrent duplicate for idempotency key, returning original response");
+            return lookup(idempotencyKey)
+                .map(record -> replay(record, fingerprint))
+                .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Remove expired keys from the database and the in-memory cache.
+     */
+    @Scheduled(fixedDelayString = "${corebank.idempotency.purge-interval-ms:60000}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(record -> record.getExpiresAt().isBefore(now));
+        }
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Optional<IdempotencyRecord> lookup(String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord cached;
+        synchronized (cache) {
+            cached = cache.get(idempotencyKey);
+        }
+        if (cached != null && cached.getExpiresAt().isAfter(now)) {
+            return Optional.of(cached);
+        }
+
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(idempotencyKey)
+            .filter(record -> record.getExpiresAt().isAfter(now));
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getIdempotencyKey(), record);
+        }
+    }
+
+    private TransactionResponse replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.getRequestFingerprint().equals(fingerprint)) {
+            log.warn("Idempotency key reused with a different request");
+            return TransactionResponse.error("Idempotency key was already used for a different request");
+        }
+        log.info("Duplicate request for idempotency key, returning original response");
+        return toResponse(record);
+    }
+
+    private IdempotencyRecord toRecord(String idempotencyKey, TransactionRequest request,
+                                       String fingerprint, TransactionResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(idempotencyKey);
+        record.setCardNumber(request.getCardNumber());
+        record.setRequestFingerprint(fingerprint);
+        record.setSuccess(response.isSuccess());
+        record.setMessage(response.getMessage());
+        record.setNewBalance(response.getNewBalance());
+        record.setTransactionId(response.getTransactionId());
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        return record;
+    }
+
+    private static TransactionResponse toResponse(IdempotencyRecord record) {
+        return new TransactionResponse(
+            record.isSuccess(),
+            record.getMessage(),
+            record.getNewBalance(),
+            record.getTransactionId()
+        );
+    }
+
+    private record Outcome(IdempotencyRecord record, boolean duplicate) {
+    }
+
+    private static String fingerprint(TransactionRequest request) {
+        return request.getCardNumber() + "|" + request.getAmount() + "|"
+            + (request.getType() == null ? "" : request.getType().toLowerCase());
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.poc.core.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's database work is pinned to, or null if none.
+ *
+ * A transaction is pinned by its first repository call that names a card
+ * (see ShardedRepositoryInterceptor) and stays on that shard until it completes,
+ * because all its statements share one connection. Unpinned threads use the home shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run the given work on the given shard on the current thread.
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Pin the current transaction to the given shard until it commits or rolls back.
+     */
+    static void pinTransaction(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                restore(previous);
+            }
+        });
+    }
+
+    private static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.poc.core.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the card number that decides which shard a row lives on:
+ * on an entity field, every row of that entity is stored on its card's shard;
+ * on a repository method parameter, the query runs only on that card's shard.
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
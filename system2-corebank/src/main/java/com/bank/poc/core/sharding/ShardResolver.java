@@ -0,0 +1,48 @@
+package com.bank.poc.core.sharding;
+
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Maps a card number to its shard: CRC32 of the card number modulo the shard count.
+ *
+ * Shard 0 is the primary database (spring.datasource / DATABASE_URL); shards 1..N-1 are
+ * corebank.datasource.shards.urls. The mapping only depends on the shard count, so
+ * every core replica agrees on it, but changing the count moves cards between shards
+ * and needs the existing rows to be migrated first.
+ */
+@Component
+public class ShardResolver {
+
+    public static final int HOME_SHARD = 0;
+
+    private final int shardCount;
+
+    public ShardResolver(@Value("${corebank.datasource.shards.urls:}") String shardUrls) {
+        this.shardCount = 1 + DataSourceRoutingConfig.splitUrls(shardUrls).size();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Shard holding the given card and its transactions (the home shard for a null card number).
+     */
+    public int shardFor(String cardNumber) {
+        if (cardNumber == null || shardCount == 1) {
+            return HOME_SHARD;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(cardNumber.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.poc.core.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard the current thread is pinned to (ShardContext),
+ * or from the home shard when it is not pinned.
+ *
+ * It is wrapped in a LazyConnectionDataSourceProxy, so a transaction fetches its real
+ * connection at its first statement - after the first repository call has pinned it -
+ * rather than when the transaction begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardResolver.HOME_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard == null ? ShardResolver.HOME_SHARD : shard;
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Close the pools of shards 1..N-1 (the home shard is closed by its own bean).
+     */
+    public void close() throws Exception {
+        for (int i = 1; i < shards.size(); i++) {
+            if (shards.get(i) instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bank.poc.core.sharding;
+
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the schema of every shard in step with the entities.
+ *
+ * Hibernate only manages the home shard's schema (spring.jpa.hibernate.ddl-auto), so this
+ * runs the same schema action on shards 1..N-1 when the session factory starts. It then
+ * interleaves the generated ids of sharded tables - shard s hands out ids s, s+N, s+2N, ...
+ * (starting above the rows it already has) - so transaction ids stay unique across shards.
+ */
+@Component
+@Slf4j
+public class ShardSchemaManager implements Integrator, HibernatePropertiesCustomizer, SmartInitializingSingleton {
+
+    private static final String INTEGRATOR_PROVIDER = "hibernate.integrator_provider";
+
+    private final ShardResolver resolver;
+    private final ObjectProvider<DataSource> dataSource;
+    private Metadata metadata;
+
+    public ShardSchemaManager(ShardResolver resolver, ObjectProvider<DataSource> dataSource) {
+        this.resolver = resolver;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (resolver.isSharded()) {
+            hibernateProperties.put(INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(this));
+        }
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        ServiceRegistry serviceRegistry = bootstrapContext.getServiceRegistry();
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        for (int shard = 1; shard < resolver.getShardCount(); shard++) {
+            ShardContext.call(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, serviceRegistry, settings, action -> { });
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    /**
+     * Runs once every schema exists, including the home shard's (created by Hibernate after integrate).
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource.getObject());
+        int shardCount = resolver.getShardCount();
+        for (PersistentClass entity : metadata.getEntityBindings()) {
+            Class<?> entityClass = entity.getMappedClass();
+            if (ShardedRepositoryInterceptor.shardKeyField(entityClass) == null || !hasIdentityId(entityClass)) {
+                continue;
+            }
+            String table = entity.getTable().getName();
+            String column = entity.getIdentifier().getColumns().get(0).getName();
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                ShardContext.call(shard, () -> {
+                    interleaveIds(jdbc, table, column, target, shardCount);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static boolean hasIdentityId(Class<?> entityClass) {
+        boolean[] identity = {false};
+        ReflectionUtils.doWithFields(entityClass, field -> {
+            GeneratedValue generated = field.getAnnotation(GeneratedValue.class);
+            identity[0] |= field.isAnnotationPresent(Id.class) && generated != null
+                && generated.strategy() == GenerationType.IDENTITY;
+        });
+        return identity[0];
+    }
+
+    private void interleaveIds(JdbcTemplate jdbc, String table, String column, int shard, int shardCount) {
+        List<String> increment = jdbc.queryForList("SELECT CAST(identity_increment AS VARCHAR(20)) "
+            + "FROM information_schema.columns WHERE LOWER(table_name) = ? AND LOWER(column_name) = ?",
+            String.class, table.toLowerCase(), column.toLowerCase());
+        if (!increment.isEmpty() && String.valueOf(shardCount).equals(increment.get(0))) {
+            return;  // already interleaved
+        }
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table, Long.class);
+        long next = max + 1;
+        next += Math.floorMod(shard - next, shardCount);
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET INCREMENT BY " + shardCount);
+        log.info("Shard {}: {}.{} ids start at {} in steps of {}", shard, table, column, next, shardCount);
+    }
+}
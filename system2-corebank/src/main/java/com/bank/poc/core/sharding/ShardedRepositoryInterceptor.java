@@ -0,0 +1,565 @@
+package com.bank.poc.core.sharding;
+
+import com.bank.poc.core.datasource.Workload;
+import jakarta.persistence.Id;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spreads a repository of a sharded entity (one with a @ShardKey field) over all shards
+ * without changing its API:
+ *
+ * - Calls that name a card (a @ShardKey parameter, the id of an entity keyed by its id,
+ *   or entities to save or delete) run on that card's shard. Inside a transaction the
+ *   first such call pins the transaction to the shard; a later call for a card on another
+ *   shard fails, as a transaction cannot span databases.
+ * - Other calls on a pinned thread (and flush()) run on the pinned shard.
+ * - Other calls on an unpinned thread are scattered to every shard in parallel, each in
+ *   its own transaction, and gathered: counts are summed, Optionals and single results
+ *   take the first one found, and lists are concatenated - or k-way merged when the query
+ *   method has an OrderBy clause, so findAllByOrderByTimestampDesc stays ordered across shards.
+ * - Pages and slices are gathered the same way: each shard is asked for everything up to
+ *   the end of the requested page, and the merged rows are cut to it (Pageable's sort is
+ *   applied after the method's own OrderBy). A Page's total is the sum of the shards'.
+ * - Streams are merged lazily: each shard's stream is read on its own thread inside its
+ *   shard's transaction, a few rows ahead of the caller, until the caller's stream is
+ *   exhausted or closed.
+ */
+public class ShardedRepositoryInterceptor implements MethodInterceptor {
+
+    private final ShardResolver resolver;
+    private final RepositoryInformation repository;
+    private final Field shardKeyField;
+    private final boolean idIsShardKey;
+    private final Supplier<PlatformTransactionManager> transactionManager;
+    private final Executor executor;
+    private final Executor streamExecutor;
+    private final Map<Method, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * How a repository method is routed, worked out on its first call.
+     *
+     * @param keyParameter      index of its @ShardKey parameter, or -1
+     * @param byId              whether its only parameter is the id of an entity keyed by its id
+     * @param write             whether it modifies rows (scattered in read-write transactions)
+     * @param order             the order its results are merged in, or null to concatenate
+     * @param pageableParameter index of its Pageable parameter, or -1
+     */
+    private record Plan(int keyParameter, boolean byId, boolean write, Comparator<Object> order,
+                        int pageableParameter) {
+    }
+
+    /**
+     * @param executor       runs the per-shard queries of a scatter
+     * @param streamExecutor runs the per-shard readers of a scattered stream, each for as long
+     *                       as the caller takes to read it, so it must not be a small fixed pool
+     */
+    public ShardedRepositoryInterceptor(ShardResolver resolver, RepositoryInformation repository,
+                                        Supplier<PlatformTransactionManager> transactionManager, Executor executor,
+                                        Executor streamExecutor) {
+        this.resolver = resolver;
+        this.repository = repository;
+        this.shardKeyField = shardKeyField(repository.getDomainType());
+        if (shardKeyField == null) {
+            throw new IllegalArgumentException(repository.getDomainType().getSimpleName() + " has no @ShardKey field");
+        }
+        this.idIsShardKey = shardKeyField.isAnnotationPresent(Id.class);
+        this.transactionManager = transactionManager;
+        this.executor = executor;
+        this.streamExecutor = streamExecutor;
+    }
+
+    /**
+     * The @ShardKey field of the given entity class, or null if it is not sharded.
+     */
+    public static Field shardKeyField(Class<?> entityClass) {
+        Field[] found = new Field[1];
+        ReflectionUtils.doWithFields(entityClass, field -> found[0] = field,
+            field -> field.isAnnotationPresent(ShardKey.class));
+        if (found[0] != null) {
+            ReflectionUtils.makeAccessible(found[0]);
+        }
+        return found[0];
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Plan plan = plans.computeIfAbsent(method, this::plan);
+        Integer pinned = ShardContext.current();
+        List<Integer> shards = shardsOf(plan, invocation.getArguments());
+
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            if (pinned != null) {
+                if (pinned != shard) {
+                    throw new IllegalStateException("Card is on shard " + shard
+                        + " but the current transaction is pinned to shard " + pinned);
+                }
+                return invocation.proceed();
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                ShardContext.pinTransaction(shard);
+                return invocation.proceed();
+            }
+            return ShardContext.call(shard, () -> proceed(invocation));
+        }
+        if (shards.size() > 1) {
+            if (pinned != null || TransactionSynchronizationManager.isSynchronizationActive()) {
+                throw new IllegalStateException("Entities passed to " + method.getName()
+                    + " are on different shards and cannot be written in one transaction");
+            }
+            return splitByShard(invocation);
+        }
+        if (pinned != null || "flush".equals(method.getName())) {
+            return invocation.proceed();
+        }
+        return scatter(invocation, plan);
+    }
+
+    private Plan plan(Method method) {
+        int keyParameter = -1;
+        int pageableParameter = -1;
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    keyParameter = i;
+                }
+            }
+            if (Pageable.class.isAssignableFrom(method.getParameterTypes()[i])) {
+                pageableParameter = i;
+            }
+        }
+        boolean byId = keyParameter < 0 && idIsShardKey
+            && repository.isBaseClassMethod(method)
+            && method.getName().endsWith("ById")
+            && method.getParameterCount() == 1
+            && !Iterable.class.isAssignableFrom(method.getParameterTypes()[0]);
+        boolean write = AnnotatedElementUtils.hasAnnotation(method, Modifying.class)
+            || method.getName().startsWith("save")
+            || method.getName().startsWith("delete");
+        Comparator<Object> order = null;
+        if (repository.isQueryMethod(method) && !method.isAnnotationPresent(Query.class)
+            && method.getName().contains("OrderBy")) {
+            order = comparator(new PartTree(method.getName(), repository.getDomainType()).getSort());
+        }
+        return new Plan(keyParameter, byId, write, order, pageableParameter);
+    }
+
+    /**
+     * Shards named by the call's arguments; empty if it does not name a card.
+     */
+    private List<Integer> shardsOf(Plan plan, Object[] arguments) {
+        if (plan.keyParameter() >= 0) {
+            return List.of(resolver.shardFor((String) arguments[plan.keyParameter()]));
+        }
+        if (plan.byId() && arguments[0] instanceof String cardNumber) {
+            return List.of(resolver.shardFor(cardNumber));
+        }
+        if (arguments.length != 1) {
+            return List.of();
+        }
+        if (repository.getDomainType().isInstance(arguments[0])) {
+            return List.of(resolver.shardFor(keyOf(arguments[0])));
+        }
+        if (arguments[0] instanceof Iterable<?> items) {
+            List<Integer> shards = new ArrayList<>();
+            for (Object item : items) {
+                if (!repository.getDomainType().isInstance(item)) {
+                    return List.of();  // e.g. ids for findAllById: ask every shard
+                }
+                int shard = resolver.shardFor(keyOf(item));
+                if (!shards.contains(shard)) {
+                    shards.add(shard);
+                }
+            }
+            return shards;
+        }
+        return List.of();
+    }
+
+    private String keyOf(Object entity) {
+        return (String) ReflectionUtils.getField(shardKeyField, entity);
+    }
+
+    /**
+     * Run a batch write (saveAll, deleteAll) once per shard with that shard's entities.
+     */
+    private Object splitByShard(MethodInvocation invocation) {
+        Map<Integer, List<Object>> byShard = new LinkedHashMap<>();
+        for (Object item : (Iterable<?>) invocation.getArguments()[0]) {
+            byShard.computeIfAbsent(resolver.shardFor(keyOf(item)), shard -> new ArrayList<>()).add(item);
+        }
+        List<Object> results = new ArrayList<>();
+        byShard.forEach((shard, items) -> {
+            ProxyMethodInvocation copy = (ProxyMethodInvocation) ((ProxyMethodInvocation) invocation).invocableClone();
+            copy.setArguments(items);
+            Object result = ShardContext.call(shard, () -> proceed(copy));
+            if (result instanceof Iterable<?> saved) {
+                saved.forEach(results::add);
+            }
+        });
+        return invocation.getMethod().getReturnType() == void.class ? null : results;
+    }
+
+    private Object scatter(MethodInvocation invocation, Plan plan) {
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        TransactionTemplate template = new TransactionTemplate(transactionManager.get());
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(!plan.write() && (!TransactionSynchronizationManager.isActualTransactionActive()
+            || TransactionSynchronizationManager.isCurrentTransactionReadOnly()));
+        Workload workload = Workload.current();
+        if (returnType == Stream.class) {
+            return scatterStream(invocation, plan, template, workload);
+        }
+
+        // A page is cut from every shard's rows up to its end, so each shard is asked for those
+        Object[] arguments = invocation.getArguments().clone();
+        Pageable pageable = plan.pageableParameter() >= 0 ? (Pageable) arguments[plan.pageableParameter()] : null;
+        if (pageable != null && pageable.isPaged()) {
+            arguments[plan.pageableParameter()] = PageRequest.of(0,
+                Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), pageable.getSort());
+        }
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int shard = 0; shard < resolver.getShardCount(); shard++) {
+            int target = shard;
+            MethodInvocation copy = ((ProxyMethodInvocation) invocation).invocableClone(arguments.clone());
+            Supplier<Object> query = () -> template.execute(status -> proceed(copy));
+            futures.add(CompletableFuture.supplyAsync(
+                () -> workload.call(() -> ShardContext.call(target, query)), executor));
+        }
+        List<Object> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<Object> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (Slice.class.isAssignableFrom(returnType)) {
+            return gatherSlice(returnType, plan, pageable, results);
+        }
+        return gather(returnType, plan, results);
+    }
+
+    /**
+     * Scatter a stream query: every shard's stream is read by a ShardReader, and the returned
+     * stream concatenates or merges the readers as it is consumed. Closing it stops them.
+     */
+    private Stream<Object> scatterStream(MethodInvocation invocation, Plan plan, TransactionTemplate template,
+                                         Workload workload) {
+        List<ShardReader> readers = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < resolver.getShardCount(); shard++) {
+                int target = shard;
+                MethodInvocation copy = ((ProxyMethodInvocation) invocation).invocableClone();
+                ShardReader reader = new ShardReader();
+                readers.add(reader);
+                streamExecutor.execute(() -> reader.run(() -> workload.call(() -> ShardContext.call(target,
+                    () -> template.execute(status -> {
+                        try (Stream<?> rows = (Stream<?>) proceed(copy)) {
+                            reader.read(rows);
+                        }
+                        return null;
+                    })))));
+            }
+        } catch (RuntimeException e) {
+            readers.forEach(ShardReader::close);
+            throw e;
+        }
+        Iterator<Object> rows = plan.order() == null ? concat(readers) : merge(readers, plan.order());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+            .onClose(() -> readers.forEach(ShardReader::close));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object gather(Class<?> returnType, Plan plan, List<Object> results) {
+        if (returnType == void.class) {
+            return null;
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            return results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            return results.stream().mapToInt(result -> ((Number) result).intValue()).sum();
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (returnType == Optional.class) {
+            return results.stream()
+                .map(result -> (Optional<Object>) result)
+                .filter(Optional::isPresent)
+                .findFirst()
+                .orElse(Optional.empty());
+        }
+        if (Iterable.class.isAssignableFrom(returnType)) {
+            return rows(results, plan.order());
+        }
+        return results.stream().filter(result -> result != null).findFirst().orElse(null);
+    }
+
+    /**
+     * The requested page of the shards' merged pages, each of which runs from the first row
+     * to the end of the requested page.
+     */
+    private static Object gatherSlice(Class<?> returnType, Plan plan, Pageable pageable, List<Object> results) {
+        Comparator<Object> order = plan.order();
+        if (pageable != null && pageable.getSort().isSorted()) {
+            order = order == null ? comparator(pageable.getSort()) : order.thenComparing(comparator(pageable.getSort()));
+        }
+        List<Object> merged = rows(results, order);
+        List<Object> content = merged;
+        boolean hasNext = false;
+        if (pageable != null && pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), merged.size());
+            int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), merged.size());
+            content = new ArrayList<>(merged.subList(from, to));
+            hasNext = merged.size() > to || results.stream().anyMatch(result -> ((Slice<?>) result).hasNext());
+        }
+        Pageable request = pageable == null ? Pageable.unpaged() : pageable;
+        if (Page.class.isAssignableFrom(returnType)) {
+            long total = results.stream().mapToLong(result -> ((Page<?>) result).getTotalElements()).sum();
+            return new PageImpl<>(content, request, total);
+        }
+        return new SliceImpl<>(content, request, hasNext);
+    }
+
+    /**
+     * The shards' rows (lists, pages or other iterables) concatenated, or merged in the given order.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object> rows(List<Object> results, Comparator<Object> order) {
+        List<Iterator<Object>> perShard = new ArrayList<>();
+        for (Object result : results) {
+            perShard.add(((Iterable<Object>) result).iterator());
+        }
+        List<Object> rows = new ArrayList<>();
+        (order == null ? concat(perShard) : merge(perShard, order)).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    /**
+     * The given iterators one after the other, read lazily.
+     */
+    static <T> Iterator<T> concat(List<? extends Iterator<T>> sources) {
+        return new Iterator<>() {
+            private int source;
+
+            @Override
+            public boolean hasNext() {
+                while (source < sources.size()) {
+                    if (sources.get(source).hasNext()) {
+                        return true;
+                    }
+                    source++;
+                }
+                return false;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return sources.get(source).next();
+            }
+        };
+    }
+
+    /**
+     * K-way merge of iterators that are each already sorted by the given order, read lazily:
+     * no source is read before the first row is asked for, nor more than one row ahead.
+     */
+    static <T> Iterator<T> merge(List<? extends Iterator<T>> sorted, Comparator<? super T> order) {
+        record Head<T>(T value, int source) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+            Comparator.<Head<T>, T>comparing(Head::value, order).thenComparingInt(Head::source));
+        return new Iterator<>() {
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    started = true;
+                    for (int i = 0; i < sorted.size(); i++) {
+                        if (sorted.get(i).hasNext()) {
+                            heads.add(new Head<>(sorted.get(i).next(), i));
+                        }
+                    }
+                }
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Head<T> head = heads.poll();
+                Iterator<T> rest = sorted.get(head.source());
+                if (rest.hasNext()) {
+                    heads.add(new Head<>(rest.next(), head.source()));
+                }
+                return head.value();
+            }
+        };
+    }
+
+    /**
+     * Comparator on entity properties matching the given Sort (nulls last).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> result = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Comparable> direction = order.isAscending()
+                ? Comparator.<Comparable>naturalOrder() : Comparator.<Comparable>reverseOrder();
+            result = result.thenComparing(
+                entity -> (Comparable) new DirectFieldAccessFallbackBeanWrapper(entity).getPropertyValue(order.getProperty()),
+                Comparator.nullsLast(direction));
+        }
+        return result;
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * One shard's rows of a scattered stream, handed from the thread that reads the shard's
+     * stream (inside the shard's transaction) to the caller through a small buffer. The
+     * reading thread stops, ending the transaction, once the rows run out or close() is called.
+     */
+    static final class ShardReader implements Iterator<Object> {
+
+        private static final int BUFFER_ROWS = 256;
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(BUFFER_ROWS);
+        private volatile boolean closed;
+        private volatile RuntimeException failure;
+        private Object next;
+
+        /**
+         * Run the given read on the current thread, then mark the end of the rows.
+         */
+        void run(Runnable read) {
+            try {
+                read.run();
+            } catch (RuntimeException e) {
+                failure = e;
+            } catch (Error e) {
+                failure = new IllegalStateException("Reading a shard failed", e);
+                throw e;
+            } finally {
+                put(END);
+            }
+        }
+
+        /**
+         * Copy the rows into the buffer, waiting for the caller while it is full.
+         */
+        void read(Stream<?> rows) {
+            for (Iterator<?> it = rows.iterator(); !closed && it.hasNext(); ) {
+                put(it.next());
+            }
+        }
+
+        private void put(Object row) {
+            try {
+                while (!closed && !buffer.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    // Waiting for the caller to read, or to close the stream
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = buffer.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while reading a shard", e);
+                }
+            }
+            if (next == END && failure != null) {
+                throw failure;
+            }
+            return next != END;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object row = next;
+            next = null;
+            return row;
+        }
+
+        void close() {
+            closed = true;
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.poc.core.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * When more than one shard is configured, adds a ShardedRepositoryInterceptor in front
+ * of every repository whose entity has a @ShardKey field (cards, transactions and
+ * idempotency keys), so CardService and the other callers keep using the repositories
+ * unchanged. Scatter-gather queries run on a small pool of "shard-query" threads; the
+ * per-shard readers of a scattered stream, which live as long as the caller reads, on
+ * "shard-stream" threads started as needed.
+ */
+@Component
+@Slf4j
+public class ShardedRepositoryPostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final ObjectProvider<ShardResolver> resolver;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final int queryThreads;
+    private volatile ExecutorService executor;
+    private volatile ExecutorService streamExecutor;
+
+    public ShardedRepositoryPostProcessor(ObjectProvider<ShardResolver> resolver,
+                                          ObjectProvider<PlatformTransactionManager> transactionManager,
+                                          @Value("${corebank.datasource.shards.query-threads:8}") int queryThreads) {
+        this.resolver = resolver;
+        this.transactionManager = transactionManager;
+        this.queryThreads = queryThreads;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean && resolver.getObject().isSharded()) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                (proxyFactory, repository) -> {
+                    if (ShardedRepositoryInterceptor.shardKeyField(repository.getDomainType()) != null) {
+                        proxyFactory.addAdvice(0, new ShardedRepositoryInterceptor(resolver.getObject(),
+                            repository, transactionManager::getObject, executor(), streamExecutor()));
+                        log.info("Sharding {} over {} shards", repository.getRepositoryInterface().getSimpleName(),
+                            resolver.getObject().getShardCount());
+                    }
+                }));
+        }
+        return bean;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(queryThreads, task -> {
+                Thread thread = new Thread(task, "shard-query-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private synchronized ExecutorService streamExecutor() {
+        if (streamExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            streamExecutor = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "shard-stream-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return streamExecutor;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (streamExecutor != null) {
+            streamExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.bank.poc.core.stats;
+
+/**
+ * A card's successful transaction volume in a rollup.
+ */
+public record CardVolume(String cardNumber, String maskedCardNumber, double amount) {
+}
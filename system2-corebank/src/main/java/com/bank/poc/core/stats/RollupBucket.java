@@ -0,0 +1,68 @@
+package com.bank.poc.core.stats;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The accumulators of one minute, hour or day. Counters are LongAdders, so concurrent
+ * payments add to per-thread cells instead of contending on one value; amounts are in cents.
+ */
+final class RollupBucket {
+
+    static final String OTHER_REASON = "other";
+    private static final int MAX_REASONS = 32;
+
+    final long index;
+    final LocalDateTime start;
+    final LongAdder successful = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder withdrawals = new LongAdder();
+    final LongAdder withdrawnCents = new LongAdder();
+    final LongAdder topups = new LongAdder();
+    final LongAdder toppedUpCents = new LongAdder();
+    final Map<String, LongAdder> failureReasons = new ConcurrentHashMap<>();
+    final TopCards topCards;
+    // Transactions included in the last persisted copy (persister thread only)
+    long persistedCount;
+
+    RollupBucket(long index, LocalDateTime start, int topCardStripes, int topCardCapacity) {
+        this.index = index;
+        this.start = start;
+        this.topCards = new TopCards(topCardStripes, topCardCapacity);
+    }
+
+    void addSuccess(String type, String cardNumber, long amountCents) {
+        successful.increment();
+        if ("withdraw".equals(type)) {
+            withdrawals.increment();
+            withdrawnCents.add(amountCents);
+        } else if ("topup".equals(type)) {
+            topups.increment();
+            toppedUpCents.add(amountCents);
+        }
+        topCards.add(cardNumber, amountCents);
+    }
+
+    void addFailure(String reason) {
+        failed.increment();
+        addReason(reason, 1);
+    }
+
+    void addReason(String reason, long count) {
+        String key = reason == null ? OTHER_REASON : reason;
+        LongAdder adder = failureReasons.get(key);
+        if (adder == null) {
+            // Decline reasons are a fixed set; anything beyond the bound is "other"
+            adder = failureReasons.size() < MAX_REASONS
+                ? failureReasons.computeIfAbsent(key, k -> new LongAdder())
+                : failureReasons.computeIfAbsent(OTHER_REASON, k -> new LongAdder());
+        }
+        adder.add(count);
+    }
+
+    long count() {
+        return successful.sum() + failed.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.poc.core.stats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals of a minute, hour or day (or of a whole window of them), as served by GET /stats.
+ * Amounts are of successful transactions; topCards are the cards with the largest volume.
+ */
+public record RollupSnapshot(LocalDateTime start, long transactions, long successful, long failed,
+                             long withdrawals, double withdrawnAmount, long topups, double toppedUpAmount,
+                             Map<String, Long> failureReasons, List<CardVolume> topCards) {
+}
@@ -0,0 +1,90 @@
+package com.bank.poc.core.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate heaviest cards by volume in bounded memory: N stripes (by card hash), each a
+ * Space-Saving sketch of a few counters under its own lock. A card that does not fit its
+ * stripe replaces the stripe's smallest counter and inherits its volume, so a card with more
+ * than 1 / capacity of its stripe's volume is always held and its volume never under-stated.
+ */
+final class TopCards {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private static final class Stripe {
+        final String[] cards;
+        final long[] cents;
+        int size;
+
+        Stripe(int capacity) {
+            this.cards = new String[capacity];
+            this.cents = new long[capacity];
+        }
+
+        synchronized void add(String cardNumber, long amountCents) {
+            // One pass over a few counters: find the card, or else the smallest counter
+            int smallest = 0;
+            for (int i = 0; i < size; i++) {
+                if (cards[i].equals(cardNumber)) {
+                    cents[i] += amountCents;
+                    return;
+                }
+                if (cents[i] < cents[smallest]) {
+                    smallest = i;
+                }
+            }
+            if (size < cards.length) {
+                cards[size] = cardNumber;
+                cents[size++] = amountCents;
+            } else {
+                cards[smallest] = cardNumber;
+                cents[smallest] += amountCents;
+            }
+        }
+
+        synchronized void collect(Map<String, Long> into) {
+            for (int i = 0; i < size; i++) {
+                into.merge(cards[i], cents[i], Long::sum);
+            }
+        }
+    }
+
+    TopCards(int stripes, int capacityPerStripe) {
+        int stripeCount = 1;
+        while (stripeCount < stripes) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(Math.max(1, capacityPerStripe));
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    void add(String cardNumber, long amountCents) {
+        int hash = cardNumber.hashCode();
+        stripes[(hash ^ (hash >>> 16)) & stripeMask].add(cardNumber, amountCents);
+    }
+
+    /**
+     * Add every counter's volume (in cents) to the given map.
+     */
+    void collect(Map<String, Long> into) {
+        for (Stripe stripe : stripes) {
+            stripe.collect(into);
+        }
+    }
+
+    /**
+     * The k largest volumes of a collected map, largest first.
+     */
+    static List<Map.Entry<String, Long>> top(Map<String, Long> volumes, int k) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(volumes.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+}
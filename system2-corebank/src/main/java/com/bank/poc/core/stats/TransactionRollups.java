@@ -0,0 +1,408 @@
+package com.bank.poc.core.stats;
+
+import com.bank.poc.core.datasource.Workload;
+import com.bank.poc.core.entity.StatsRollup;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.events.TransactionSaved;
+import com.bank.poc.core.repository.StatsRollupRepository;
+import com.bank.poc.core.util.CryptoUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * System-wide per-minute, per-hour and per-day rollups of transactions (counts, successful
+ * volume, failure reasons, top cards), kept in memory so GET /stats costs the same whatever
+ * the number of transactions, instead of the admin dashboard totalling /transactions/all.
+ *
+ * - Each granularity is a ring of the last N buckets (corebank.stats.minutes/hours/days),
+ *   indexed by the transaction's timestamp. A slot whose bucket has aged out is replaced with
+ *   a compare-and-set, and every count is a LongAdder, so concurrent payments never lock or
+ *   contend on one value; only the top-cards sketch (see TopCards) locks, per stripe.
+ * - Every transactions row is added once its database transaction commits (TransactionSaved). Rows older than
+ *   their ring are counted in corebank.stats.dropped instead.
+ * - Buckets changed since they were last written are persisted to stats_rollups every
+ *   corebank.stats.persist-interval-ms, on the reporting pool, and read back at startup.
+ *   A restored bucket keeps only its persisted top cards. MINUTE and HOUR rows are deleted
+ *   once out of their ring; DAY rows are kept.
+ * - Rollups are per instance (corebank.stats.instance, the host name by default); with several
+ *   instances each serves its own traffic.
+ */
+@Component
+@Slf4j
+public class TransactionRollups {
+
+    public enum Granularity {
+        MINUTE(60),
+        HOUR(3_600),
+        DAY(86_400);
+
+        private final long seconds;
+
+        Granularity(long seconds) {
+            this.seconds = seconds;
+        }
+    }
+
+    private static final int TOP_CARD_STRIPES = 16;
+    private static final TypeReference<Map<String, Long>> COUNTS = new TypeReference<>() {
+    };
+
+    private record Retired(Granularity granularity, RollupBucket bucket) {
+    }
+
+    private final StatsRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int topCards;
+    private final int topCardCapacity;
+    private final String instance;
+    private final Clock clock;
+    private final Map<Granularity, AtomicReferenceArray<RollupBucket>> rings = new HashMap<>();
+    private final Queue<Retired> retired = new ConcurrentLinkedQueue<>();
+    private final Counter dropped;
+
+    @Autowired
+    public TransactionRollups(StatsRollupRepository rollupRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${corebank.stats.enabled:true}") boolean enabled,
+                              @Value("${corebank.stats.minutes:60}") int minutes,
+                              @Value("${corebank.stats.hours:48}") int hours,
+                              @Value("${corebank.stats.days:30}") int days,
+                              @Value("${corebank.stats.top-cards:5}") int topCards,
+                              @Value("${corebank.stats.top-card-counters:128}") int topCardCounters,
+                              @Value("${corebank.stats.instance:${HOSTNAME:local}}") String instance) {
+        this(rollupRepository, transactionManager, objectMapper, meterRegistry, enabled, minutes, hours, days,
+            topCards, topCardCounters, instance, Clock.systemDefaultZone());
+    }
+
+    TransactionRollups(StatsRollupRepository rollupRepository, PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper, MeterRegistry meterRegistry, boolean enabled,
+                       int minutes, int hours, int days, int topCards, int topCardCounters,
+                       String instance, Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.topCards = Math.max(1, topCards);
+        this.topCardCapacity = Math.max(1, topCardCounters / TOP_CARD_STRIPES);
+        this.instance = instance;
+        this.clock = clock;
+        rings.put(Granularity.MINUTE, new AtomicReferenceArray<>(Math.max(1, minutes)));
+        rings.put(Granularity.HOUR, new AtomicReferenceArray<>(Math.max(1, hours)));
+        rings.put(Granularity.DAY, new AtomicReferenceArray<>(Math.max(1, days)));
+        this.dropped = Counter.builder("corebank.stats.dropped")
+            .description("Transactions too old for the rollup windows")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    /**
+     * How many buckets of the granularity the window holds.
+     */
+    public int getWindow(Granularity granularity) {
+        return rings.get(granularity).length();
+    }
+
+    /**
+     * Add a just-saved transactions row once its database transaction commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(TransactionSaved event) {
+        record(event.transaction());
+    }
+
+    /**
+     * Add a transactions row now.
+     */
+    public void record(Transaction transaction) {
+        if (!enabled || transaction.getTimestamp() == null) {
+            return;
+        }
+        long epochSecond = transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+        boolean success = "SUCCESS".equals(transaction.getStatus());
+        long cents = Math.round(transaction.getAmount() * 100);
+        for (Granularity granularity : Granularity.values()) {
+            RollupBucket bucket = bucket(granularity, epochSecond / granularity.seconds);
+            if (bucket == null) {
+                dropped.increment();
+                continue;
+            }
+            if (success) {
+                bucket.addSuccess(transaction.getType(), transaction.getCardNumber(), cents);
+            } else {
+                bucket.addFailure(transaction.getReason());
+            }
+        }
+    }
+
+    /**
+     * The window's buckets, oldest first, ending with the current one; missing buckets are zero.
+     */
+    public List<RollupSnapshot> series(Granularity granularity) {
+        AtomicReferenceArray<RollupBucket> ring = rings.get(granularity);
+        long current = currentIndex(granularity);
+        List<RollupSnapshot> series = new ArrayList<>(ring.length());
+        for (long index = current - ring.length() + 1; index <= current; index++) {
+            Totals totals = new Totals();
+            RollupBucket bucket = held(ring, index);
+            if (bucket != null) {
+                totals.add(bucket);
+            }
+            series.add(totals.snapshot(start(granularity, index), topCards));
+        }
+        return series;
+    }
+
+    /**
+     * The totals of the whole window, starting at its oldest bucket.
+     */
+    public RollupSnapshot total(Granularity granularity) {
+        AtomicReferenceArray<RollupBucket> ring = rings.get(granularity);
+        long current = currentIndex(granularity);
+        Totals totals = new Totals();
+        for (long index = current - ring.length() + 1; index <= current; index++) {
+            RollupBucket bucket = held(ring, index);
+            if (bucket != null) {
+                totals.add(bucket);
+            }
+        }
+        return totals.snapshot(start(granularity, current - ring.length() + 1), topCards);
+    }
+
+    /**
+     * Write the buckets changed since they were last persisted, and delete rows out of their window.
+     */
+    @Scheduled(fixedDelayString = "${corebank.stats.persist-interval-ms:60000}",
+               initialDelayString = "${corebank.stats.persist-interval-ms:60000}")
+    public void persist() {
+        if (!enabled) {
+            return;
+        }
+        List<Retired> changed = new ArrayList<>();
+        for (Retired bucket; (bucket = retired.poll()) != null; ) {
+            if (bucket.bucket().count() != bucket.bucket().persistedCount) {
+                changed.add(bucket);
+            }
+        }
+        rings.forEach((granularity, ring) -> {
+            for (int slot = 0; slot < ring.length(); slot++) {
+                RollupBucket bucket = ring.get(slot);
+                if (bucket != null && bucket.count() != bucket.persistedCount) {
+                    changed.add(new Retired(granularity, bucket));
+                }
+            }
+        });
+        long[] counts = new long[changed.size()];
+        Workload.REPORTING.call(() -> transactionTemplate.execute(status -> {
+            for (int i = 0; i < changed.size(); i++) {
+                counts[i] = write(changed.get(i).granularity(), changed.get(i).bucket());
+            }
+            for (Granularity granularity : List.of(Granularity.MINUTE, Granularity.HOUR)) {
+                long oldest = currentIndex(granularity) - rings.get(granularity).length() + 1;
+                rollupRepository.deleteBefore(instance, granularity.name(), start(granularity, oldest));
+            }
+            return null;
+        }));
+        for (int i = 0; i < changed.size(); i++) {
+            changed.get(i).bucket().persistedCount = counts[i];
+        }
+        log.debug("Persisted {} rollup bucket(s)", changed.size());
+    }
+
+    /**
+     * Load this instance's persisted buckets that are still within their windows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        int restored = 0;
+        try {
+            for (Granularity granularity : Granularity.values()) {
+                long oldest = currentIndex(granularity) - rings.get(granularity).length() + 1;
+                List<StatsRollup> rows = Workload.REPORTING.call(() -> rollupRepository
+                    .findByInstanceAndGranularityAndBucketStartGreaterThanEqual(instance, granularity.name(),
+                        start(granularity, oldest)));
+                for (StatsRollup row : rows) {
+                    RollupBucket bucket = bucket(granularity,
+                        row.getBucketStart().toEpochSecond(ZoneOffset.UTC) / granularity.seconds);
+                    if (bucket != null) {
+                        restore(bucket, row);
+                        restored++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // The windows only start empty; payments must not depend on them
+            log.warn("Could not restore transaction rollups: {}", e.getMessage());
+        }
+        if (restored > 0) {
+            log.info("Restored {} transaction rollup bucket(s) for instance {}", restored, instance);
+        }
+    }
+
+    private long write(Granularity granularity, RollupBucket bucket) {
+        long count = bucket.count();
+        StatsRollup row = rollupRepository
+            .findByInstanceAndGranularityAndBucketStart(instance, granularity.name(), bucket.start)
+            .orElseGet(() -> new StatsRollup(instance, granularity.name(), bucket.start));
+        row.setSuccessful(bucket.successful.sum());
+        row.setFailed(bucket.failed.sum());
+        row.setWithdrawals(bucket.withdrawals.sum());
+        row.setWithdrawnCents(bucket.withdrawnCents.sum());
+        row.setTopups(bucket.topups.sum());
+        row.setToppedUpCents(bucket.toppedUpCents.sum());
+        Map<String, Long> reasons = new TreeMap<>();
+        bucket.failureReasons.forEach((reason, adder) -> reasons.put(reason, adder.sum()));
+        Map<String, Long> volumes = new HashMap<>();
+        bucket.topCards.collect(volumes);
+        Map<String, Long> top = new TreeMap<>();
+        TopCards.top(volumes, topCards).forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        row.setFailureReasons(toJson(reasons));
+        row.setTopCards(toJson(top));
+        rollupRepository.save(row);
+        return count;
+    }
+
+    private void restore(RollupBucket bucket, StatsRollup row) {
+        bucket.successful.add(row.getSuccessful());
+        bucket.failed.add(row.getFailed());
+        bucket.withdrawals.add(row.getWithdrawals());
+        bucket.withdrawnCents.add(row.getWithdrawnCents());
+        bucket.topups.add(row.getTopups());
+        bucket.toppedUpCents.add(row.getToppedUpCents());
+        fromJson(row.getFailureReasons()).forEach(bucket::addReason);
+        fromJson(row.getTopCards()).forEach(bucket.topCards::add);
+        bucket.persistedCount = bucket.count();
+    }
+
+    /**
+     * The bucket for the index, replacing the slot's older bucket; null if the slot already
+     * holds a newer one (the index is out of the window).
+     */
+    private RollupBucket bucket(Granularity granularity, long index) {
+        AtomicReferenceArray<RollupBucket> ring = rings.get(granularity);
+        int slot = (int) Math.floorMod(index, (long) ring.length());
+        while (true) {
+            RollupBucket held = ring.get(slot);
+            if (held != null && held.index == index) {
+                return held;
+            }
+            if (held != null && held.index > index) {
+                return null;
+            }
+            RollupBucket fresh = new RollupBucket(index, start(granularity, index), TOP_CARD_STRIPES, topCardCapacity);
+            if (ring.compareAndSet(slot, held, fresh)) {
+                if (held != null) {
+                    retired.add(new Retired(granularity, held));
+                }
+                return fresh;
+            }
+        }
+    }
+
+    private static RollupBucket held(AtomicReferenceArray<RollupBucket> ring, long index) {
+        RollupBucket bucket = ring.get((int) Math.floorMod(index, (long) ring.length()));
+        return bucket != null && bucket.index == index ? bucket : null;
+    }
+
+    private long currentIndex(Granularity granularity) {
+        return LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC) / granularity.seconds;
+    }
+
+    private static LocalDateTime start(Granularity granularity, long index) {
+        return LocalDateTime.ofEpochSecond(index * granularity.seconds, 0, ZoneOffset.UTC);
+    }
+
+    private String toJson(Map<String, Long> counts) {
+        try {
+            return objectMapper.writeValueAsString(counts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise rollup counts", e);
+        }
+    }
+
+    private Map<String, Long> fromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, COUNTS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read rollup counts", e);
+        }
+    }
+
+    /**
+     * Sums of one or more buckets, read at one point (concurrent additions may or may not be included).
+     */
+    private static final class Totals {
+        long successful;
+        long failed;
+        long withdrawals;
+        long withdrawnCents;
+        long topups;
+        long toppedUpCents;
+        final Map<String, Long> failureReasons = new TreeMap<>();
+        final Map<String, Long> cardCents = new HashMap<>();
+
+        void add(RollupBucket bucket) {
+            successful += bucket.successful.sum();
+            failed += bucket.failed.sum();
+            withdrawals += bucket.withdrawals.sum();
+            withdrawnCents += bucket.withdrawnCents.sum();
+            topups += bucket.topups.sum();
+            toppedUpCents += bucket.toppedUpCents.sum();
+            for (Map.Entry<String, LongAdder> reason : bucket.failureReasons.entrySet()) {
+                failureReasons.merge(reason.getKey(), reason.getValue().sum(), Long::sum);
+            }
+            bucket.topCards.collect(cardCents);
+        }
+
+        RollupSnapshot snapshot(LocalDateTime start, int topCards) {
+            List<CardVolume> top = new ArrayList<>();
+            for (Map.Entry<String, Long> card : TopCards.top(cardCents, topCards)) {
+                top.add(new CardVolume(card.getKey(), CryptoUtil.maskCardNumber(card.getKey()), card.getValue() / 100.0));
+            }
+            return new RollupSnapshot(start, successful + failed, successful, failed,
+                withdrawals, withdrawnCents / 100.0, topups, toppedUpCents / 100.0, failureReasons, top);
+        }
+    }
+}
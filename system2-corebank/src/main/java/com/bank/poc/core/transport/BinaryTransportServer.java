@@ -0,0 +1,249 @@
+package com.bank.poc.core.transport;
+
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.transport.BinaryCodec;
+import com.bank.poc.core.controller.ProcessingController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional binary endpoint for System 1 Gateway (see BinaryCodec for the wire format).
+ *
+ * - Listens on TCP (corebank.binary.port) or, when corebank.binary.socket-path is set,
+ *   on a Unix domain socket.
+ * - Connections are persistent and multiplexed: each connection has one reader thread,
+ *   requests run on a shared worker pool, and responses are written back as they
+ *   complete, matched to their request by correlation id.
+ * - The pool's queue is bounded (corebank.binary.queue-capacity): when it is full a request
+ *   is answered at once with an ERROR frame ("Server busy"), which the gateway handles like
+ *   any other failed call, instead of piling up behind the workers.
+ * - Requests go through the same validation and idempotency handling as POST /process.
+ * - Meters: corebank.binary.connections (open connections), corebank.binary.rejected.
+ */
+@Component
+@Slf4j
+public class BinaryTransportServer {
+
+    private final ProcessingController processingController;
+    private final boolean enabled;
+    private final int port;
+    private final String socketPath;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final Counter rejected;
+
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    private volatile ServerSocketChannel serverChannel;
+    private volatile ExecutorService workers;
+    private volatile boolean running;
+
+    public BinaryTransportServer(ProcessingController processingController,
+                                 @Value("${corebank.binary.enabled:false}") boolean enabled,
+                                 @Value("${corebank.binary.port:9082}") int port,
+                                 @Value("${corebank.binary.socket-path:}") String socketPath,
+                                 @Value("${corebank.binary.worker-threads:16}") int workerThreads,
+                                 @Value("${corebank.binary.queue-capacity:256}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        this.processingController = processingController;
+        this.enabled = enabled;
+        this.port = port;
+        this.socketPath = socketPath;
+        this.workerThreads = workerThreads;
+        this.queueCapacity = queueCapacity;
+        Gauge.builder("corebank.binary.connections", connections, Set::size).register(meterRegistry);
+        this.rejected = Counter.builder("corebank.binary.rejected")
+            .description("Binary requests answered with an error because the worker queue was full")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled || running) {
+            return;
+        }
+        if (socketPath.isBlank()) {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+        } else {
+            Path path = Path.of(socketPath);
+            Files.deleteIfExists(path);
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            serverChannel.bind(UnixDomainSocketAddress.of(path));
+        }
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> daemon(runnable, "binary-worker-"));
+        running = true;
+        daemon(this::acceptLoop, "binary-acceptor-").start();
+        log.info("Binary transport listening on {}", serverChannel.getLocalAddress());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            log.debug("Error closing binary listener: {}", e.getMessage());
+        }
+        connections.forEach(this::closeQuietly);
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (!socketPath.isBlank()) {
+            try {
+                Files.deleteIfExists(Path.of(socketPath));
+            } catch (IOException e) {
+                log.debug("Error removing socket file: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Bound TCP port (useful when configured with port 0), or -1 when not listening on TCP.
+     */
+    public int getLocalPort() throws IOException {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null || !(channel.getLocalAddress() instanceof InetSocketAddress address)) {
+            return -1;
+        }
+        return address.getPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+                    channel.socket().setTcpNoDelay(true);
+                }
+                connections.add(channel);
+                daemon(() -> serve(channel), "binary-conn-").start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Binary transport accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try {
+            BinaryCodec.Frame frame;
+            while ((frame = BinaryCodec.readFrame(channel)) != null) {
+                dispatch(channel, frame);
+            }
+        } catch (IOException e) {
+            log.debug("Binary connection closed: {}", e.getMessage());
+        } finally {
+            connections.remove(channel);
+            closeQuietly(channel);
+        }
+    }
+
+    private void dispatch(SocketChannel channel, BinaryCodec.Frame frame) throws IOException {
+        long correlationId = frame.correlationId();
+        switch (frame.type()) {
+            case BinaryCodec.HELLO -> {
+                short version = BinaryCodec.decodeVersion(frame.payload());
+                if (version != BinaryCodec.PROTOCOL_VERSION) {
+                    write(channel, BinaryCodec.encodeError(correlationId,
+                        "Unsupported protocol version " + version));
+                    throw new IOException("Client protocol version " + version + " not supported");
+                }
+                write(channel, BinaryCodec.encodeHello(correlationId, BinaryCodec.HELLO_ACK));
+            }
+            case BinaryCodec.PROCESS_REQUEST -> {
+                BinaryCodec.ProcessRequest decoded = BinaryCodec.decodeRequest(frame.payload());
+                try {
+                    workers.execute(() -> process(channel, correlationId, decoded));
+                } catch (RejectedExecutionException e) {
+                    if (!running) {
+                        write(channel, BinaryCodec.encodeError(correlationId, "Server shutting down"));
+                    } else {
+                        rejected.increment();
+                        write(channel, BinaryCodec.encodeError(correlationId, "Server busy"));
+                    }
+                }
+            }
+            default -> write(channel, BinaryCodec.encodeError(correlationId, "Unknown frame type " + frame.type()));
+        }
+    }
+
+    private void process(SocketChannel channel, long correlationId, BinaryCodec.ProcessRequest decoded) {
+        ByteBuffer reply;
+        try {
+            TransactionResponse response = processingController
+                .processTransaction(decoded.request(), decoded.idempotencyKey(), decoded.traceparent())
+                .getBody();
+            reply = BinaryCodec.encodeResponse(correlationId, response);
+        } catch (RuntimeException e) {
+            log.error("Binary transaction failed", e);
+            reply = BinaryCodec.encodeError(correlationId, "Internal error");
+        }
+        try {
+            write(channel, reply);
+        } catch (IOException e) {
+            log.debug("Could not write binary response: {}", e.getMessage());
+            closeQuietly(channel);
+        }
+    }
+
+    private void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        // One writer at a time per connection; reads proceed concurrently on the reader thread
+        synchronized (channel) {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+    }
+
+    private void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already closing
+        }
+    }
+
+    private Thread daemon(Runnable runnable, String prefix) {
+        Thread thread = new Thread(runnable, prefix + threadIds.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
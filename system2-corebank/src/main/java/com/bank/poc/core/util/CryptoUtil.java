@@ -1,5 +1,6 @@
 package com.bank.poc.core.util;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -62,6 +63,21 @@ public class CryptoUtil {
         }
     }
 
+    /**
+     * Hash a PIN using SHA-256.
+     * CRITICAL: Never log or store the plain text PIN!
+     */
+    public static String hashPin(String pin) {
+        return DigestUtils.sha256Hex(pin);
+    }
+
+    /**
+     * Verify if the provided PIN matches the stored hash.
+     */
+    public static boolean verifyPin(String inputPin, String storedHash) {
+        return storedHash.equals(hashPin(inputPin));
+    }
+
     /**
      * Mask a card number for display purposes.
      * Shows only the last 4 digits.
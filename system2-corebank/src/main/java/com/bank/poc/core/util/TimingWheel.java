@@ -0,0 +1,224 @@
+package com.bank.poc.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of timeouts keyed by a long (e.g. a hold id).
+ *
+ * Level 0 has wheelSize buckets of tickMs each; every further level has wheelSize buckets
+ * as wide as the whole level below, and is added when a deadline is beyond the existing
+ * levels. Scheduling links the timeout into the bucket covering its deadline and cancelling
+ * unlinks it. advance() only visits buckets whose time has come, taken from a priority queue
+ * of at most levels x wheelSize buckets: a level-0 bucket fires its timeouts once its tick is
+ * over, a higher bucket is re-scheduled into the finer levels when its span begins. Timeouts
+ * never fire early and at most one tick late.
+ *
+ * Costs, with B = levels x wheelSize (independent of the number of pending timeouts):
+ * cancel is O(1); schedule is O(levels), plus O(log B) when it is the first timeout of its
+ * bucket's current tick (the bucket is queued); advance is O(log B) per due bucket plus O(1)
+ * per timeout fired, and O(levels) per timeout cascaded to a finer level.
+ *
+ * Times are in milliseconds on the caller's clock. Not thread-safe: callers synchronize.
+ */
+public class TimingWheel {
+
+    private final int wheelSize;
+    private final List<Level> levels = new ArrayList<>();
+    private final PriorityQueue<Bucket> dueBuckets =
+        new PriorityQueue<>((a, b) -> Long.compare(a.expiration, b.expiration));
+    private int size;
+
+    /**
+     * A scheduled timeout; cancel() removes it from the wheel.
+     */
+    public final class Timeout {
+        private final long key;
+        private final long deadlineMs;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(long key, long deadlineMs) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+        }
+
+        public long key() {
+            return key;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        /**
+         * @return false if the timeout already fired or was cancelled
+         */
+        public boolean cancel() {
+            if (bucket == null) {
+                return false;
+            }
+            bucket.remove(this);
+            size--;
+            return true;
+        }
+    }
+
+    private final class Level {
+        final long tickMs;
+        final long intervalMs;
+        final Bucket[] buckets;
+        long currentTime;
+
+        Level(long tickMs, long startMs) {
+            this.tickMs = tickMs;
+            this.intervalMs = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - startMs % tickMs;
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - timeMs % tickMs;
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts due in the same tick of one level.
+     */
+    private static final class Bucket {
+        Timeout first;
+        long expiration = -1;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = first;
+            if (first != null) {
+                first.previous = timeout;
+            }
+            first = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                first = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        /**
+         * @return true if the expiration changed, i.e. the bucket must be (re)queued
+         */
+        boolean setExpiration(long expirationMs) {
+            if (expiration == expirationMs) {
+                return false;
+            }
+            expiration = expirationMs;
+            return true;
+        }
+    }
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.wheelSize = wheelSize;
+        levels.add(new Level(tickMs, startMs));
+    }
+
+    /**
+     * Schedule a timeout. A deadline that has already passed fires within a tick.
+     */
+    public Timeout schedule(long key, long deadlineMs) {
+        Timeout timeout = new Timeout(key, deadlineMs);
+        add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Move the wheel's clock to nowMs, passing the key of every timeout that is due to expired.
+     */
+    public void advance(long nowMs, LongConsumer expired) {
+        Bucket bucket;
+        while ((bucket = dueBuckets.peek()) != null && bucket.expiration <= nowMs) {
+            dueBuckets.poll();
+            advanceClock(bucket.expiration);
+            bucket.expiration = -1;
+            Timeout timeout = bucket.first;
+            bucket.first = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.bucket = null;
+                timeout.previous = null;
+                timeout.next = null;
+                if (timeout.deadlineMs <= nowMs) {
+                    size--;
+                    expired.accept(timeout.key);
+                } else {
+                    add(timeout);
+                }
+                timeout = next;
+            }
+        }
+        advanceClock(nowMs);
+    }
+
+    /**
+     * Number of pending timeouts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of levels in use; grows with the furthest deadline scheduled.
+     */
+    public int levels() {
+        return levels.size();
+    }
+
+    private void add(Timeout timeout) {
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level below = levels.get(i - 1);
+                levels.add(new Level(below.intervalMs, below.currentTime));
+            }
+            Level level = levels.get(i);
+            // Overdue timeouts go in the current tick's bucket
+            long deadline = Math.max(timeout.deadlineMs, level.currentTime);
+            if (deadline < level.currentTime + level.intervalMs) {
+                long virtualId = deadline / level.tickMs;
+                Bucket bucket = level.buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                // Level 0 fires at the end of the tick, higher levels cascade at the start of theirs
+                long expiration = (i == 0 ? virtualId + 1 : virtualId) * level.tickMs;
+                if (bucket.setExpiration(expiration)) {
+                    dueBuckets.offer(bucket);
+                }
+                return;
+            }
+        }
+    }
+
+    private void advanceClock(long timeMs) {
+        for (Level level : levels) {
+            level.advanceClock(timeMs);
+        }
+    }
+}
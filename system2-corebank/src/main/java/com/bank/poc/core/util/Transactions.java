@@ -0,0 +1,30 @@
+package com.bank.poc.core.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for keeping in-memory state in step with the database transaction that changed it.
+ */
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Run the action once the current database transaction commits (never if it rolls back),
+     * or immediately if there is no transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
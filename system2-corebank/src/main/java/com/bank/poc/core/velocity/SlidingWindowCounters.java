@@ -0,0 +1,66 @@
+package com.bank.poc.core.velocity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One card's sliding-window counters: a ring of time buckets per window, all in one array.
+ *
+ * Each slot packs the bucket's epoch (the time divided by the bucket width, low 24 bits) with
+ * the value counted in it (low 40 bits), so adding is a single CAS that also resets a slot left
+ * over from an earlier lap of the ring. A window's total is the sum of the slots whose epoch is
+ * one of the last buckets-per-window epochs; older slots read as empty without being cleared.
+ */
+final class SlidingWindowCounters {
+
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+    private final AtomicLongArray slots;
+    private final int buckets;
+    private volatile long lastSeenMs;
+
+    SlidingWindowCounters(int windows, int buckets, long nowMs) {
+        this.slots = new AtomicLongArray(windows * buckets);
+        this.buckets = buckets;
+        this.lastSeenMs = nowMs;
+    }
+
+    /**
+     * Total of the window over the buckets up to and including epoch.
+     */
+    long sum(int window, long epoch) {
+        int base = window * buckets;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long slot = slots.get(base + i);
+            if (((epoch - (slot >>> VALUE_BITS)) & EPOCH_MASK) < buckets) {
+                total += slot & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Add delta to the window's bucket for epoch (values saturate rather than overflow).
+     */
+    void add(int window, long epoch, long delta) {
+        int index = window * buckets + (int) (epoch % buckets);
+        long tag = (epoch & EPOCH_MASK) << VALUE_BITS;
+        while (true) {
+            long slot = slots.get(index);
+            long value = (slot & ~VALUE_MASK) == tag ? slot & VALUE_MASK : 0;
+            if (slots.compareAndSet(index, slot, tag | Math.min(VALUE_MASK, value + delta))) {
+                return;
+            }
+        }
+    }
+
+    void touch(long nowMs) {
+        lastSeenMs = nowMs;
+    }
+
+    long lastSeenMs() {
+        return lastSeenMs;
+    }
+}
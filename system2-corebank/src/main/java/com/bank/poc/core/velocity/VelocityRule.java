@@ -0,0 +1,86 @@
+package com.bank.poc.core.velocity;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One velocity rule: at most limit transactions (COUNT) or limit in total (AMOUNT) of a
+ * transaction type per card within a sliding window.
+ *
+ * Written as type:metric:limit:window, e.g. "withdraw:count:10:1m" or "withdraw:amount:2000:1h".
+ * The type is withdraw, topup, hold or * (all three); the window is a duration such as 30s, 1m or 1h.
+ */
+public record VelocityRule(String type, Metric metric, long limit, Duration window) {
+
+    public static final String ANY_TYPE = "*";
+
+    private static final Set<String> TYPES = Set.of("withdraw", "topup", "hold", ANY_TYPE);
+
+    public enum Metric {
+        COUNT,
+        AMOUNT
+    }
+
+    public VelocityRule {
+        if (!TYPES.contains(type)) {
+            throw new IllegalArgumentException("Velocity rule type must be one of " + TYPES + ": " + type);
+        }
+        if (limit <= 0 || window.toMillis() <= 0) {
+            throw new IllegalArgumentException("Velocity rule limit and window must be positive");
+        }
+    }
+
+    /**
+     * Parse a comma-separated list of rules; blank means none.
+     */
+    public static List<VelocityRule> parseAll(String rules) {
+        List<VelocityRule> parsed = new ArrayList<>();
+        if (rules == null) {
+            return parsed;
+        }
+        for (String rule : rules.split(",")) {
+            if (!rule.isBlank()) {
+                parsed.add(parse(rule.trim()));
+            }
+        }
+        return parsed;
+    }
+
+    public static VelocityRule parse(String rule) {
+        String[] parts = rule.split(":");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Velocity rule must be type:metric:limit:window: " + rule);
+        }
+        Metric metric = Metric.valueOf(parts[1].trim().toUpperCase());
+        // Amount limits are kept in cents, like the amounts they are compared with
+        long limit = metric == Metric.COUNT
+            ? Long.parseLong(parts[2].trim())
+            : Math.round(Double.parseDouble(parts[2].trim()) * 100);
+        return new VelocityRule(parts[0].trim().toLowerCase(), metric, limit, DurationStyle.detectAndParse(parts[3].trim()));
+    }
+
+    /**
+     * The rule as written in the configuration, used as its metric tag.
+     */
+    @Override
+    public String toString() {
+        String limitText = metric == Metric.COUNT ? Long.toString(limit)
+            : limit % 100 == 0 ? Long.toString(limit / 100) : String.format("%d.%02d", limit / 100, limit % 100);
+        return type + ':' + metric.name().toLowerCase() + ':' + limitText + ':' + formatWindow(window);
+    }
+
+    private static String formatWindow(Duration window) {
+        long millis = window.toMillis();
+        if (millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        }
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        return millis % 1_000 == 0 ? millis / 1_000 + "s" : millis + "ms";
+    }
+}
@@ -0,0 +1,188 @@
+package com.bank.poc.core.velocity;
+
+import com.bank.poc.common.util.ClockCache;
+import com.bank.poc.common.util.MonotonicClock;
+import com.bank.poc.core.util.Transactions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-card velocity rules (corebank.velocity.rules, see VelocityRule), evaluated inline in
+ * CardService from in-memory sliding-window counters, without database queries.
+ *
+ * - check() runs after the PIN check, under the card's row lock, and returns the first rule the
+ *   transaction would break; recordAfterCommit() adds a successful transaction to the card's
+ *   windows once it commits, so a rolled-back transaction is never counted. The row lock
+ *   serialises the checks for a card; only a transaction that checks in the instant between
+ *   another's commit and its record can overshoot a limit, by that one transaction.
+ * - Each window is a ring of corebank.velocity.buckets time buckets of window / (buckets - 1),
+ *   summed over the current bucket and the ones before it: the window looked at is up to one
+ *   bucket longer than configured, never shorter.
+ * - Cards are held in a ClockCache of N stripes with at most maxCards / stripes cards each.
+ *   Cards idle for longer than the longest window are swept (their counts have all expired);
+ *   a full stripe evicts with the clock algorithm, in amortised O(1) per new card.
+ *
+ * Counters are per instance and start empty after a restart.
+ *
+ * Meters: corebank.velocity.hits (tagged rule), corebank.velocity.cards and corebank.velocity.evicted.
+ */
+@Component
+@Slf4j
+public class VelocityRuleEngine {
+
+    private final List<VelocityRule> rules;
+    private final Map<String, ActiveRule[]> rulesByType = new HashMap<>();
+    private final ClockCache<SlidingWindowCounters> cards;
+    private final int buckets;
+    private final long idleEvictionMs;
+    private final LongSupplier clockMs;
+    private final Counter evicted;
+
+    /**
+     * A configured rule with its window's position in a card's counters.
+     */
+    private record ActiveRule(VelocityRule rule, int window, long bucketMs, Counter hits) {
+    }
+
+    @Autowired
+    public VelocityRuleEngine(MeterRegistry meterRegistry,
+                              @Value("${corebank.velocity.enabled:true}") boolean enabled,
+                              @Value("${corebank.velocity.rules:}") String rules,
+                              @Value("${corebank.velocity.buckets:16}") int buckets,
+                              @Value("${corebank.velocity.stripes:16}") int stripes,
+                              @Value("${corebank.velocity.max-cards:100000}") int maxCards) {
+        this(meterRegistry, enabled ? VelocityRule.parseAll(rules) : List.of(), buckets, stripes, maxCards,
+            MonotonicClock.millis());
+    }
+
+    VelocityRuleEngine(MeterRegistry meterRegistry, List<VelocityRule> rules, int buckets, int stripes,
+                       int maxCards, LongSupplier clockMs) {
+        if (buckets < 2) {
+            throw new IllegalArgumentException("corebank.velocity.buckets must be at least 2");
+        }
+        this.rules = List.copyOf(rules);
+        this.buckets = buckets;
+        this.clockMs = clockMs;
+
+        Map<String, List<ActiveRule>> byType = new HashMap<>();
+        long longestMs = 0;
+        for (int i = 0; i < this.rules.size(); i++) {
+            VelocityRule rule = this.rules.get(i);
+            long windowMs = rule.window().toMillis();
+            long bucketMs = Math.max(1, (windowMs + buckets - 2) / (buckets - 1));
+            longestMs = Math.max(longestMs, bucketMs * buckets);
+            Counter hits = Counter.builder("corebank.velocity.hits")
+                .description("Transactions declined by a velocity rule")
+                .tag("rule", rule.toString())
+                .register(meterRegistry);
+            ActiveRule active = new ActiveRule(rule, i, bucketMs, hits);
+            for (String type : VelocityRule.ANY_TYPE.equals(rule.type())
+                    ? List.of("withdraw", "topup", "hold") : List.of(rule.type())) {
+                byType.computeIfAbsent(type, t -> new ArrayList<>()).add(active);
+            }
+        }
+        byType.forEach((type, active) -> rulesByType.put(type, active.toArray(new ActiveRule[0])));
+        this.idleEvictionMs = longestMs;
+
+        Gauge.builder("corebank.velocity.cards", this, VelocityRuleEngine::getCardCount)
+            .description("Cards with velocity counters in memory")
+            .register(meterRegistry);
+        this.evicted = Counter.builder("corebank.velocity.evicted")
+            .description("Cards whose velocity counters were dropped")
+            .register(meterRegistry);
+        this.cards = new ClockCache<>(stripes, maxCards, evicted::increment);
+        if (!this.rules.isEmpty()) {
+            log.info("Velocity rules: {}", this.rules);
+        }
+    }
+
+    /**
+     * @param type lower-case transaction type (withdraw, topup or hold)
+     * @return the first rule the transaction would break, or null if it is within all of them
+     */
+    public VelocityRule check(String cardNumber, String type, double amount) {
+        ActiveRule[] active = rulesByType.get(type);
+        if (active == null) {
+            return null;
+        }
+        long now = clockMs.getAsLong();
+        SlidingWindowCounters counters = cards.get(cardNumber);
+        long cents = toCents(amount);
+        for (ActiveRule rule : active) {
+            long used = counters == null ? 0 : counters.sum(rule.window(), now / rule.bucketMs());
+            long adding = rule.rule().metric() == VelocityRule.Metric.COUNT ? 1 : cents;
+            if (used + adding > rule.rule().limit()) {
+                rule.hits().increment();
+                return rule.rule();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count a successful transaction in the card's windows, once the current database
+     * transaction commits.
+     */
+    public void recordAfterCommit(String cardNumber, String type, double amount) {
+        Transactions.afterCommit(() -> record(cardNumber, type, amount));
+    }
+
+    /**
+     * Count a successful transaction in the card's windows.
+     */
+    public void record(String cardNumber, String type, double amount) {
+        ActiveRule[] active = rulesByType.get(type);
+        if (active == null) {
+            return;
+        }
+        long now = clockMs.getAsLong();
+        SlidingWindowCounters counters = cards.computeIfAbsent(cardNumber,
+            k -> new SlidingWindowCounters(rules.size(), buckets, now));
+        long cents = toCents(amount);
+        for (ActiveRule rule : active) {
+            long delta = rule.rule().metric() == VelocityRule.Metric.COUNT ? 1 : cents;
+            counters.add(rule.window(), now / rule.bucketMs(), delta);
+        }
+        counters.touch(now);
+    }
+
+    /**
+     * Drop the counters of cards idle for longer than the longest window; they are all zero.
+     */
+    @Scheduled(fixedDelayString = "${corebank.velocity.sweep-interval-ms:60000}")
+    public void evictIdleCards() {
+        long cutoff = clockMs.getAsLong() - idleEvictionMs;
+        int removed = cards.removeIf(counters -> counters.lastSeenMs() < cutoff);
+        if (removed > 0) {
+            log.debug("Evicted {} idle velocity counters", removed);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !rules.isEmpty();
+    }
+
+    public List<VelocityRule> getRules() {
+        return rules;
+    }
+
+    public int getCardCount() {
+        return cards.size();
+    }
+
+    private static long toCents(double amount) {
+        return Math.max(0, Math.round(amount * 100));
+    }
+}
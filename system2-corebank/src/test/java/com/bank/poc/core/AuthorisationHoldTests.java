@@ -0,0 +1,230 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.dto.HoldRequest;
+import com.bank.poc.core.dto.HoldResponse;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Hold;
+import com.bank.poc.core.holds.HoldExpiryScheduler;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.HoldRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import com.bank.poc.core.util.TimingWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Authorisation holds: available balance, capture and release, expiry driven by the timing
+ * wheel (with a 20 ms tick), recovery of pending holds, and the wheel itself.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:holdsdb",
+    "corebank.holds.tick-ms=20",
+    "logging.level.com.bank.poc=WARN"
+})
+class AuthorisationHoldTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("TC-HOLD-001: Holds reduce the available balance until captured or released")
+    void testHoldCaptureRelease() {
+        String cardNumber = createCard("4777000000000001", 100.00);
+
+        // Hold 60 of 100: only 40 left for withdrawals and further holds
+        HoldResponse hold = cardService.authorize(new HoldRequest(cardNumber, PIN, 60.00, null));
+        assertTrue(hold.isSuccess(), hold.getMessage());
+        assertEquals(Hold.HELD, hold.getStatus());
+        assertEquals(40.00, hold.getAvailableBalance(), 0.001);
+        assertEquals("Insufficient balance",
+            cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 50.00, "withdraw")).getMessage());
+        assertFalse(cardService.authorize(new HoldRequest(cardNumber, PIN, 50.00, null)).isSuccess());
+        assertEquals(100.00, balanceOf(cardNumber), 0.001, "A hold does not debit the card");
+
+        // Capture part of it: 45 debited, the other 15 available again
+        HoldResponse captured = cardService.capture(hold.getHoldId(), 45.00);
+        assertTrue(captured.isSuccess(), captured.getMessage());
+        assertEquals(Hold.CAPTURED, captured.getStatus());
+        assertNotNull(captured.getTransactionId());
+        assertEquals(55.00, balanceOf(cardNumber), 0.001);
+        assertEquals(55.00, captured.getAvailableBalance(), 0.001);
+        assertEquals("Hold is captured", cardService.capture(hold.getHoldId(), null).getMessage());
+
+        // A released hold frees its funds without a debit
+        HoldResponse second = cardService.authorize(new HoldRequest(cardNumber, PIN, 30.00, null));
+        assertEquals(25.00, second.getAvailableBalance(), 0.001);
+        HoldResponse released = cardService.release(second.getHoldId());
+        assertEquals(Hold.RELEASED, released.getStatus());
+        assertEquals(55.00, released.getAvailableBalance(), 0.001);
+        assertEquals(55.00, balanceOf(cardNumber), 0.001);
+        assertEquals("Hold is released", cardService.capture(second.getHoldId(), null).getMessage());
+
+        // Declines and bad requests
+        assertEquals("Invalid PIN", cardService.authorize(new HoldRequest(cardNumber, "9999", 1.00, null)).getMessage());
+        assertFalse(cardService.authorize(new HoldRequest(cardNumber, PIN, 1.00, 0L)).isSuccess());
+        HoldResponse third = cardService.authorize(new HoldRequest(cardNumber, PIN, 10.00, null));
+        assertFalse(cardService.capture(third.getHoldId(), 10.01).isSuccess(), "Cannot capture more than held");
+        assertEquals("Hold not found", cardService.release(999_999L).getMessage());
+        TransactionResponse withdrawal = cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 45.00, "withdraw"));
+        assertTrue(withdrawal.isSuccess(), "Exactly the available balance can be withdrawn");
+    }
+
+    @Test
+    @DisplayName("TC-HOLD-002: Uncaptured holds expire from the timing wheel and recover after a restart")
+    void testExpiryAndRecovery() throws Exception {
+        String cardNumber = createCard("4777000000000002", 100.00);
+        double expiredBefore = meterRegistry.get("corebank.holds.expired").counter().count();
+
+        // Act: a one-second hold, and one already overdue that the wheel has never seen (as after a restart)
+        HoldResponse hold = cardService.authorize(new HoldRequest(cardNumber, PIN, 70.00, 1L));
+        assertEquals(30.00, hold.getAvailableBalance(), 0.001);
+        Hold overdue = new Hold(cardNumber, 20.00, LocalDateTime.now().minusMinutes(5));
+        overdue = holdRepository.save(overdue);
+        addHeld(cardNumber, 20.00);  // as authorize does
+        assertEquals(90.00, heldOf(cardNumber), 0.001);
+        holdExpiryScheduler.recover();
+
+        // Assert: both end up EXPIRED and their funds are available again
+        waitForStatus(overdue.getId(), Hold.EXPIRED);
+        waitForStatus(hold.getHoldId(), Hold.EXPIRED);
+        Hold expired = holdRepository.findById(hold.getHoldId()).orElseThrow();
+        assertFalse(expired.getSettledAt().isBefore(expired.getExpiresAt()), "A hold never expires before its deadline");
+        assertEquals(expiredBefore + 2, meterRegistry.get("corebank.holds.expired").counter().count());
+        assertEquals(0.00, heldOf(cardNumber), 0.001, "Expired holds are taken off the held total");
+        assertEquals("Hold is expired", cardService.capture(hold.getHoldId(), null).getMessage());
+        assertTrue(cardService.authorize(new HoldRequest(cardNumber, PIN, 100.00, null)).isSuccess());
+    }
+
+    @Test
+    @DisplayName("TC-HOLD-004: Holds are kept as a running total; overdue holds no wheel expires stop counting when needed")
+    void testHeldTotal() {
+        String cardNumber = createCard("4777000000000004", 100.00);
+
+        // A card whose held total was never computed picks up its existing holds
+        Hold orphan = holdRepository.save(new Hold(cardNumber, 30.00, LocalDateTime.now().minusMinutes(1)));
+        assertNull(cardRepository.findById(cardNumber).orElseThrow().getHeldAmount());
+        HoldResponse hold = cardService.authorize(new HoldRequest(cardNumber, PIN, 0.10, null));
+        assertEquals(69.90, hold.getAvailableBalance(), 0.001, "An overdue hold counts until it matters");
+        assertEquals(30.10, heldOf(cardNumber), 0.001);
+        cardService.release(hold.getHoldId());
+        assertEquals(30.00, heldOf(cardNumber), 0.001, "No drift after adding and taking off 0.10");
+
+        // The overdue hold (never in a wheel) would decline this withdrawal: it is expired instead
+        TransactionResponse withdrawal = cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 100.00, "withdraw"));
+        assertTrue(withdrawal.isSuccess(), withdrawal.getMessage());
+        assertEquals(Hold.EXPIRED, holdRepository.findById(orphan.getId()).orElseThrow().getStatus());
+        assertEquals(0.00, heldOf(cardNumber), 0.001);
+    }
+
+    @Test
+    @DisplayName("TC-HOLD-003: Timing wheel fires each of a million timeouts once, never early, and cancels in O(1)")
+    void testTimingWheel() {
+        long start = 1_000_000L;
+        TimingWheel wheel = new TimingWheel(10, 64, start);
+        Random random = new Random(42);
+        int count = 1_000_000;
+        long[] deadlines = new long[count];
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>(count);
+        long scheduleStart = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // From overdue to ~11 days out, so several levels are needed
+            deadlines[i] = start - 1_000 + (long) (random.nextDouble() * random.nextDouble() * TimeUnit.DAYS.toMillis(11));
+            timeouts.add(wheel.schedule(i, deadlines[i]));
+        }
+        long scheduleNanos = System.nanoTime() - scheduleStart;
+        assertEquals(count, wheel.size());
+        assertTrue(wheel.levels() >= 4, "Deadlines beyond a level's span should add levels: " + wheel.levels());
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+        }
+        assertFalse(timeouts.get(0).cancel(), "Cancelling twice is a no-op");
+        assertEquals(count / 2, wheel.size());
+
+        // Advance in uneven steps past the last deadline
+        int[] fired = new int[count];
+        long now = start;
+        long end = start + TimeUnit.DAYS.toMillis(11) + 1_000;
+        while (now < end) {
+            now += 1 + random.nextInt(120_000);
+            long at = now;
+            wheel.advance(now, key -> {
+                int i = (int) key;
+                fired[i]++;
+                assertTrue(deadlines[i] <= at, "Fired early");
+                assertTrue(deadlines[i] > at - 120_000 - 10 || deadlines[i] < start, "Fired late");
+            });
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? 0 : 1, fired[i], "Timeout " + i);
+        }
+        assertEquals(0, wheel.size());
+        assertTrue(scheduleNanos < TimeUnit.SECONDS.toNanos(5), "Scheduling took " + scheduleNanos / 1_000_000 + " ms");
+    }
+
+    private String createCard(String cardNumber, double balance) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(balance);
+        card.setCustomerName("Hold Test");
+        card.setUsername("hold-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+
+    private double heldOf(String cardNumber) {
+        return cardRepository.findById(cardNumber).orElseThrow().getHeldAmount();
+    }
+
+    private void addHeld(String cardNumber, double amount) {
+        Card card = cardRepository.findById(cardNumber).orElseThrow();
+        card.addHeld(amount);
+        cardRepository.save(card);
+    }
+
+    private double balanceOf(String cardNumber) {
+        return cardRepository.findById(cardNumber).orElseThrow().getBalance();
+    }
+
+    private void waitForStatus(long holdId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!status.equals(holdRepository.findById(holdId).orElseThrow().getStatus())
+            && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(status, holdRepository.findById(holdId).orElseThrow().getStatus());
+    }
+}
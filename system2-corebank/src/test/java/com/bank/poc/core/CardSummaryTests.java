@@ -0,0 +1,182 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.core.controller.ProcessingController;
+import com.bank.poc.core.dto.CardSummaryResponse;
+import com.bank.poc.core.dto.HoldRequest;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-card aggregates: the summary always equals a scan of the card's transactions rows,
+ * including declines made without the card's row lock and concurrent first-of-day inserts.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:aggregatedb",
+    "corebank.pin-lockout.max-attempts=3",
+    "logging.level.com.bank.poc=WARN"
+})
+class CardSummaryTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private ProcessingController processingController;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Test
+    @DisplayName("TC-AGG-001: Summary counts and sums by type and status match the card's transactions")
+    void testSummaryMatchesTransactions() throws Exception {
+        String cardNumber = createCard("4666000000000001", 500.00);
+
+        assertTrue(process(cardNumber, PIN, 100.00, "withdraw"));
+        assertTrue(process(cardNumber, PIN, 25.50, "topup"));
+        assertFalse(process(cardNumber, PIN, 1_000.00, "withdraw"));
+        assertFalse(process(cardNumber, PIN, 5.00, "transfer"));
+        long holdId = cardService.authorize(new HoldRequest(cardNumber, PIN, 40.00, null)).getHoldId();
+        assertTrue(cardService.capture(holdId, 30.00).isSuccess());
+        assertFalse(cardService.authorize(new HoldRequest(cardNumber, PIN, 10_000.00, null)).isSuccess());
+        // Three invalid PINs lock the card; the next attempt is declined from memory
+        for (int i = 0; i < 4; i++) {
+            assertFalse(process(cardNumber, "0000", 1.00, "withdraw"));
+        }
+        assertFalse(process("4666000000000999", PIN, 1.00, "withdraw"));
+
+        CardSummaryResponse summary = summary(cardNumber, null).getBody();
+        assertNotNull(summary);
+        assertEquals(LocalDate.now(), summary.getDay());
+        assertEquals(LocalDate.now().withDayOfMonth(1), summary.getMonth());
+        Map<String, String> expected = scan(cardNumber);
+        assertEquals(expected, totals(summary.getDayTotals()));
+        assertEquals(expected, totals(summary.getMonthTotals()));
+        assertEquals("2/130.00", expected.get("withdraw/SUCCESS"), "The capture counts as a withdrawal");
+        assertEquals("5/1004.00", expected.get("withdraw/FAILED"), "Insufficient balance, invalid PINs and the locked decline");
+        assertEquals("1/5.00", expected.get("other/FAILED"));
+
+        // Another month has no totals; unknown cards are 404
+        CardSummaryResponse lastYear = summary(cardNumber, LocalDate.now().minusYears(1)).getBody();
+        assertTrue(lastYear.getDayTotals().isEmpty());
+        assertTrue(lastYear.getMonthTotals().isEmpty());
+        assertEquals(HttpStatus.NOT_FOUND, summary("4666000000000999", null).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("TC-AGG-002: Concurrent transactions and locked-card declines lose no counts")
+    void testConcurrentAggregation() throws Exception {
+        String cardNumber = createCard("4666000000000002", 10_000.00);
+        String lockedCard = createCard("4666000000000003", 10_000.00);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(process(lockedCard, "0000", 1.00, "withdraw"));
+        }
+
+        int threads = 8;
+        int perThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    process(cardNumber, PIN, 1.00, thread % 2 == 0 ? "withdraw" : "topup");
+                    // Top-up declines on the locked card: their rows do not exist yet
+                    process(lockedCard, PIN, 2.00, "topup");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Map<String, String> totals = totals(summary(cardNumber, null).getBody().getDayTotals());
+        assertEquals(Map.of("topup/SUCCESS", "100/100.00", "withdraw/SUCCESS", "100/100.00"), totals);
+        assertEquals(scan(cardNumber), totals);
+        Map<String, String> lockedTotals = totals(summary(lockedCard, null).getBody().getMonthTotals());
+        assertEquals("200/400.00", lockedTotals.get("topup/FAILED"));
+        assertEquals(scan(lockedCard), lockedTotals);
+    }
+
+    private boolean process(String cardNumber, String pin, double amount, String type) {
+        return cardService.processTransaction(new TransactionRequest(cardNumber, pin, amount, type)).isSuccess();
+    }
+
+    private ResponseEntity<CardSummaryResponse> summary(String cardNumber, LocalDate date) throws Exception {
+        return processingController.getCardSummary(cardNumber, date).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * "type/STATUS" -> "count/amount" computed from the card's transactions rows.
+     */
+    private Map<String, String> scan(String cardNumber) {
+        Map<String, long[]> counts = new TreeMap<>();
+        Map<String, Double> amounts = new TreeMap<>();
+        for (Transaction tx : transactionRepository.findByCardNumberOrderByTimestampDesc(cardNumber)) {
+            String type = List.of("withdraw", "topup", "hold").contains(tx.getType()) ? tx.getType() : "other";
+            String key = type + "/" + tx.getStatus();
+            counts.computeIfAbsent(key, k -> new long[1])[0]++;
+            amounts.merge(key, tx.getAmount(), Double::sum);
+        }
+        Map<String, String> totals = new TreeMap<>();
+        counts.forEach((key, count) -> totals.put(key, String.format("%d/%.2f", count[0], amounts.get(key))));
+        return totals;
+    }
+
+    private static Map<String, String> totals(List<CardSummaryResponse.Total> rows) {
+        Map<String, String> totals = new TreeMap<>();
+        for (CardSummaryResponse.Total row : rows) {
+            totals.put(row.getType() + "/" + row.getStatus(), String.format("%d/%.2f", row.getCount(), row.getAmount()));
+        }
+        return totals;
+    }
+
+    private String createCard(String cardNumber, double balance) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(balance);
+        card.setCustomerName("Aggregate Test");
+        card.setUsername("aggregate-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+}
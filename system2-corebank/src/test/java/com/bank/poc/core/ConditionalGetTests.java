@@ -0,0 +1,207 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.core.controller.ProcessingController;
+import com.bank.poc.core.dto.CardInfoResponse;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.etag.CardVersions;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conditional GETs on the dashboard endpoints: 304 while the card's row version (or newest
+ * transaction) is unchanged, a new ETag once a change commits, whichever instance made it.
+ * The streamed history is also fetched over HTTP.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:etagdb",
+        "logging.level.com.bank.poc=WARN"
+    })
+class ConditionalGetTests {
+
+    private static final String PIN = "1234";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Autowired
+    private ProcessingController processingController;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CardVersions cardVersions;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("TC-ETAG-003: Unchanged cards and histories are 304 until a transaction commits")
+    void testConditionalGets() throws Exception {
+        String cardNumber = createCard("4777000000000001", "etag-user");
+        double notModifiedBefore = meterRegistry.get("corebank.etag.not-modified").counter().count();
+
+        ResponseEntity<CardInfoResponse> card = get(processingController.getCard(cardNumber, null));
+        ResponseEntity<StreamingResponseBody> history = get(processingController.getTransactionHistory(cardNumber, null));
+        ResponseEntity<CardInfoResponse> byUsername = get(processingController.getCardByUsername("etag-user", null));
+        String cardTag = card.getHeaders().getETag();
+        String historyTag = history.getHeaders().getETag();
+        assertNotNull(cardTag);
+        assertNotNull(historyTag);
+        assertEquals(cardTag, byUsername.getHeaders().getETag());
+        assertEquals("no-cache", card.getHeaders().getCacheControl());
+
+        ResponseEntity<CardInfoResponse> notModified = get(processingController.getCard(cardNumber, cardTag));
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(cardTag, notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED,
+            get(processingController.getCardByUsername("etag-user", cardTag)).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED,
+            processingController.getTransactionHistory(cardNumber, historyTag).get().getStatusCode());
+        assertEquals(notModifiedBefore + 3, meterRegistry.get("corebank.etag.not-modified").counter().count());
+
+        // A declined transaction adds a history row: its tag changes and the new history is served
+        assertFalse(cardService.processTransaction(new TransactionRequest(cardNumber, "9999", 10.00, "withdraw")).isSuccess());
+        ResponseEntity<StreamingResponseBody> changedHistory = get(processingController.getTransactionHistory(cardNumber, historyTag));
+        assertEquals(HttpStatus.OK, changedHistory.getStatusCode());
+        assertNotEquals(historyTag, changedHistory.getHeaders().getETag());
+        assertTrue(body(changedHistory).contains("Invalid PIN"));
+
+        assertTrue(cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 10.00, "withdraw")).isSuccess());
+        ResponseEntity<CardInfoResponse> changedCard = get(processingController.getCardByUsername("etag-user", cardTag));
+        assertEquals(HttpStatus.OK, changedCard.getStatusCode());
+        assertEquals(90.00, changedCard.getBody().getBalance(), 0.001);
+        String newTag = changedCard.getHeaders().getETag();
+        assertNotEquals(cardTag, newTag);
+        assertEquals(HttpStatus.NOT_MODIFIED, get(processingController.getCard(cardNumber, newTag)).getStatusCode());
+
+        // Unknown cards are still 404
+        assertEquals(HttpStatus.NOT_FOUND, get(processingController.getCard("4777000000000999", null)).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("TC-ETAG-004: A change committed by another instance changes the tag every instance gives")
+    void testChangeFromAnotherInstance() throws Exception {
+        String cardNumber = createCard("4777000000000002", "etag-other");
+        ResponseEntity<CardInfoResponse> card = get(processingController.getCard(cardNumber, null));
+        String cardTag = card.getHeaders().getETag();
+
+        // Another instance keeps nothing of its own: it reads the same tags from the database
+        CardVersions otherInstance = new CardVersions(new SimpleMeterRegistry(), cardRepository,
+            transactionRepository, transactionManager, true);
+        assertEquals(cardTag, otherInstance.read(() -> otherInstance.cardTag(cardNumber)));
+        assertEquals(cardVersions.read(() -> cardVersions.historyTag(cardNumber)),
+            otherInstance.read(() -> otherInstance.historyTag(cardNumber)));
+
+        // The card is updated the way another instance would, without going through this one
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Card row = cardRepository.findByIdForUpdate(cardNumber).orElseThrow();
+            row.setBalance(250.00);
+        });
+
+        ResponseEntity<CardInfoResponse> changed = get(processingController.getCard(cardNumber, cardTag));
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals(250.00, changed.getBody().getBalance(), 0.001);
+        assertNotEquals(cardTag, changed.getHeaders().getETag());
+        assertEquals(changed.getHeaders().getETag(), otherInstance.read(() -> otherInstance.cardTag(cardNumber)));
+    }
+
+    @Test
+    @DisplayName("TC-ETAG-005: Over HTTP the history is streamed with its ETag and revalidated with 304")
+    void testStreamedHistoryOverHttp() throws Exception {
+        String cardNumber = createCard("4777000000000003", "etag-http");
+        assertTrue(cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 10.00, "withdraw")).isSuccess());
+        String expected = body(get(processingController.getTransactionHistory(cardNumber, null)));
+
+        HttpResponse<String> history = http("/transactions/" + cardNumber, null);
+        assertEquals(200, history.statusCode());
+        assertEquals(expected, history.body());
+        assertTrue(history.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        // Written as it is read: no Content-Length, so not buffered first
+        assertTrue(history.headers().firstValue("Content-Length").isEmpty());
+        String etag = history.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> notModified = http("/transactions/" + cardNumber, etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+
+        HttpResponse<String> all = http("/transactions/all", null);
+        assertEquals(200, all.statusCode());
+        assertTrue(all.body().startsWith("[") && all.body().contains(cardNumber));
+    }
+
+    private HttpResponse<String> http(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static <T> ResponseEntity<T> get(CompletableFuture<ResponseEntity<T>> response) throws Exception {
+        return response.get(5, TimeUnit.SECONDS);
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String createCard(String cardNumber, String username) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(100.00);
+        card.setCustomerName("ETag Test");
+        card.setUsername(username);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+}
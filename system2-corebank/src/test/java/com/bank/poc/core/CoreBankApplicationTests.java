@@ -1,18 +1,73 @@
 package com.bank.poc.core;
 
-import com.bank.poc.core.dto.TransactionRequest;
-import com.bank.poc.core.dto.TransactionResponse;
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.filter.BloomFilter;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.common.jfr.JfrRecordingService;
+import com.bank.poc.common.logging.CountingAsyncAppender;
+import com.bank.poc.common.tracing.TraceRecord;
+import com.bank.poc.common.tracing.Tracer;
+import com.bank.poc.common.transport.BinaryCodec;
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import com.bank.poc.core.controller.ProcessingController;
+import com.bank.poc.core.datasource.ReportingExecutor;
+import com.bank.poc.core.datasource.Workload;
+import com.bank.poc.core.dto.CardInfoResponse;
+import com.bank.poc.core.dto.TransactionHistoryResponse;
 import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.history.TransactionHistoryWriter;
+import com.bank.poc.core.history.TransactionRow;
+import com.bank.poc.core.metrics.CoreMetrics;
 import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.service.CardFilterService;
 import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.service.IdempotencyService;
 import com.bank.poc.core.util.CryptoUtil;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,8 +82,18 @@ import static org.junit.jupiter.api.Assertions.*;
  * 5. Decline for insufficient balance (withdrawal)
  * 6. PIN hashing verification
  * 7. Card encryption verification
+ * 8. Idempotent processing of retried requests
+ * 9. Card filter snapshot for the gateway
+ * 10. Binary transport encoding
+ * 11. Transaction and repository metrics
+ * 12. Request tracing
+ * 13. JFR transaction events
+ * 14. Asynchronous, masked transaction logging
+ * 15. Payment and reporting connection pool bulkheads
+ * 16. Streaming transaction history JSON
  */
 @SpringBootTest
+@AutoConfigureMockMvc
 @Transactional
 class CoreBankApplicationTests {
 
@@ -41,6 +106,45 @@ class CoreBankApplicationTests {
     @Autowired
     private CryptoUtil cryptoUtil;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CardFilterService cardFilterService;
+
+    @Autowired
+    private ProcessingController processingController;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private JfrRecordingService jfrRecordingService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DataSourceRoutingConfig dataSourceRoutingConfig;
+
+    @Autowired
+    private ReportingExecutor reportingExecutor;
+
+    @Autowired
+    private TransactionHistoryWriter historyWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
     private static final String VALID_CARD_NUMBER = "4111111111111111";
     private static final String VALID_PIN = "1234";
     private static final double INITIAL_BALANCE = 1000.00;
@@ -59,6 +163,20 @@ class CoreBankApplicationTests {
         cardRepository.save(testCard);
     }
 
+    /**
+     * POST /process through the MVC stack, with an Idempotency-Key header.
+     */
+    private ResponseEntity<TransactionResponse> process(TransactionRequest request, String idempotencyKey)
+            throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.HEADER, idempotencyKey)
+                .content(objectMapper.writeValueAsString(request)))
+            .andReturn().getResponse();
+        return ResponseEntity.status(response.getStatus())
+            .body(objectMapper.readValue(response.getContentAsByteArray(), TransactionResponse.class));
+    }
+
     @Nested
     @DisplayName("Successful Transaction Tests")
     class SuccessfulTransactionTests {
@@ -346,4 +464,417 @@ class CoreBankApplicationTests {
             assertEquals(1001000.00, response.getNewBalance(), 0.01);
         }
     }
+
+    @Nested
+    @DisplayName("Idempotency Tests")
+    class IdempotencyTests {
+
+        @Test
+        @DisplayName("TC015: Retried withdrawal with the same idempotency key debits once")
+        void testDuplicateWithdrawalIsNotReprocessed() {
+            // Arrange
+            TransactionRequest request = new TransactionRequest();
+            request.setCardNumber(VALID_CARD_NUMBER);
+            request.setPin(VALID_PIN);
+            request.setAmount(100.00);
+            request.setType("withdraw");
+
+            // Act
+            TransactionResponse first = idempotencyService.processOnce("tc015-key", request);
+            TransactionResponse retry = idempotencyService.processOnce("tc015-key", request);
+
+            // Assert
+            assertTrue(first.isSuccess());
+            assertTrue(retry.isSuccess());
+            assertEquals(first.getTransactionId(), retry.getTransactionId());
+            assertEquals(900.00, retry.getNewBalance(), 0.01);
+            assertEquals(900.00, cardRepository.findById(VALID_CARD_NUMBER).orElseThrow().getBalance(), 0.01);
+        }
+
+        @Test
+        @DisplayName("TC016: Reusing an idempotency key for a different request is declined")
+        void testKeyReuseWithDifferentRequest() {
+            // Arrange
+            TransactionRequest request = new TransactionRequest();
+            request.setCardNumber(VALID_CARD_NUMBER);
+            request.setPin(VALID_PIN);
+            request.setAmount(100.00);
+            request.setType("withdraw");
+            idempotencyService.processOnce("tc016-key", request);
+
+            TransactionRequest different = new TransactionRequest();
+            different.setCardNumber(VALID_CARD_NUMBER);
+            different.setPin(VALID_PIN);
+            different.setAmount(500.00);
+            different.setType("withdraw");
+
+            // Act
+            TransactionResponse response = idempotencyService.processOnce("tc016-key", different);
+
+            // Assert
+            assertFalse(response.isSuccess());
+            assertTrue(response.getMessage().contains("Idempotency key was already used"));
+            assertEquals(900.00, cardRepository.findById(VALID_CARD_NUMBER).orElseThrow().getBalance(), 0.01);
+        }
+    }
+
+    @Nested
+    @DisplayName("Card Filter Tests")
+    class CardFilterTests {
+
+        @Test
+        @DisplayName("TC017: Card filter snapshot contains every card, active or not")
+        void testCardFilterSnapshot() {
+            // Arrange
+            Card inactiveCard = new Card();
+            inactiveCard.setCardNumber("4222222222222222");
+            inactiveCard.setCardNumberEncrypted(cryptoUtil.encrypt("4222222222222222"));
+            inactiveCard.setPinHash(cardService.hashPin(VALID_PIN));
+            inactiveCard.setBalance(INITIAL_BALANCE);
+            inactiveCard.setActive(false);
+            cardRepository.save(inactiveCard);
+
+            // Act
+            cardFilterService.rebuild();
+            CardFilterSnapshot snapshot = cardFilterService.getSnapshot();
+            BloomFilter filter = BloomFilter.fromBytes(
+                Base64.getDecoder().decode(snapshot.getBits()), snapshot.getNumBits(), snapshot.getNumHashes());
+
+            // Assert
+            assertNotNull(snapshot.getVersion());
+            assertTrue(filter.mightContain(VALID_CARD_NUMBER));
+            assertTrue(filter.mightContain("4222222222222222"), "Inactive cards are declined by System 2, not the gateway");
+            assertFalse(filter.mightContain("4999999999999999"), "Unknown cards should not match");
+
+            // Cards added between rebuilds are in the next snapshot
+            String version = snapshot.getVersion();
+            cardFilterService.add("4333333333333333");
+            CardFilterSnapshot added = cardFilterService.getSnapshot();
+            assertNotEquals(version, added.getVersion());
+            assertEquals(snapshot.getCardCount() + 1, added.getCardCount());
+            assertTrue(BloomFilter.fromBytes(Base64.getDecoder().decode(added.getBits()), added.getNumBits(),
+                added.getNumHashes()).mightContain("4333333333333333"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Binary Transport Tests")
+    class BinaryTransportTests {
+
+        @Test
+        @DisplayName("TC018: Binary frames round-trip request and response fields")
+        void testBinaryCodecRoundTrip() throws Exception {
+            // Arrange
+            TransactionRequest request = new TransactionRequest();
+            request.setCardNumber(VALID_CARD_NUMBER);
+            request.setPin(VALID_PIN);
+            request.setAmount(123.45);
+            request.setType("TOPUP");
+
+            // Act
+            BinaryCodec.Frame requestFrame = readFrame(BinaryCodec.encodeRequest(42L, request, "tc018-key"));
+            BinaryCodec.ProcessRequest decoded = BinaryCodec.decodeRequest(requestFrame.payload());
+            BinaryCodec.Frame responseFrame = readFrame(BinaryCodec.encodeResponse(42L,
+                TransactionResponse.success("Top-up successful", 1123.45, 7L)));
+            TransactionResponse response = BinaryCodec.decodeResponse(responseFrame.payload());
+            TransactionResponse error = BinaryCodec.decodeResponse(
+                readFrame(BinaryCodec.encodeResponse(43L, TransactionResponse.error("Invalid PIN"))).payload());
+
+            // Assert
+            assertEquals(42L, requestFrame.correlationId());
+            assertEquals(BinaryCodec.PROCESS_REQUEST, requestFrame.type());
+            assertEquals(VALID_CARD_NUMBER, decoded.request().getCardNumber());
+            assertEquals(VALID_PIN, decoded.request().getPin());
+            assertEquals(123.45, decoded.request().getAmount());
+            assertEquals("topup", decoded.request().getType());
+            assertEquals("tc018-key", decoded.idempotencyKey());
+
+            assertEquals(BinaryCodec.PROCESS_RESPONSE, responseFrame.type());
+            assertTrue(response.isSuccess());
+            assertEquals(1123.45, response.getNewBalance());
+            assertEquals(7L, response.getTransactionId());
+            assertEquals("Top-up successful", response.getMessage());
+
+            assertFalse(error.isSuccess());
+            assertNull(error.getNewBalance());
+            assertNull(error.getTransactionId());
+            assertEquals("Invalid PIN", error.getMessage());
+        }
+
+        private BinaryCodec.Frame readFrame(ByteBuffer encoded) throws Exception {
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            return BinaryCodec.readFrame(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("TC019: Transactions are timed by outcome and reason, repository calls are timed per method")
+        void testTransactionAndRepositoryMetrics() throws Exception {
+            // Arrange
+            double successBefore = transactionCount("success", "none");
+            double invalidPinBefore = transactionCount("declined", "invalid_pin");
+            TransactionRequest valid = new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 10.00, "withdraw");
+            TransactionRequest wrongPin = new TransactionRequest(VALID_CARD_NUMBER, "9999", 10.00, "withdraw");
+
+            // Act
+            assertTrue(process(valid, "tc019-valid").getBody().isSuccess());
+            assertFalse(process(wrongPin, "tc019-wrong-pin").getBody().isSuccess());
+
+            // Assert
+            assertEquals(successBefore + 1, transactionCount("success", "none"));
+            assertEquals(invalidPinBefore + 1, transactionCount("declined", "invalid_pin"));
+            assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "CardRepository", "method", "findByIdForUpdate")
+                .timer().count() > 0);
+        }
+
+        private double transactionCount(String outcome, String reason) {
+            var timer = meterRegistry.find(CoreMetrics.TRANSACTION_TIMER)
+                .tags("type", "withdraw", "outcome", outcome, "reason", reason)
+                .timer();
+            return timer == null ? 0 : timer.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tracing Tests")
+    class TracingTests {
+
+        @Test
+        @DisplayName("TC020: Gateway trace context is continued and each processing stage is a span")
+        void testProcessingStagesAreTraced() {
+            // Arrange
+            String traceId = "0af7651916cd43dd8448eb211c80319c";
+            String traceparent = "00-" + traceId + "-b7ad6b7169203331-01";
+            TransactionRequest request = new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 25.00, "withdraw");
+
+            // Act
+            processingController.processTransaction(request, null, traceparent);
+            BinaryCodec.ProcessRequest decoded = BinaryCodec.decodeRequest(
+                frame(BinaryCodec.encodeRequest(1L, request, null, traceparent)));
+
+            // Assert
+            TraceRecord trace = tracer.getTrace(traceId).orElseThrow();
+            assertEquals("POST /process", trace.name());
+            assertEquals("b7ad6b7169203331", trace.spans().get(0).parentSpanId());
+            assertEquals(List.of("POST /process", "ledger.transaction", "card.lookup",
+                    "pin.verify", "balance.update", "audit.insert"),
+                trace.spans().stream().map(TraceRecord.SpanRecord::name).toList());
+            assertEquals("success", trace.spans().get(0).tags().get("outcome"));
+            assertEquals(traceparent, decoded.traceparent());
+        }
+
+        private ByteBuffer frame(ByteBuffer encoded) {
+            // Skip length, correlation id and frame type
+            encoded.position(Integer.BYTES + Long.BYTES + 1);
+            return encoded;
+        }
+    }
+
+    @Nested
+    @DisplayName("Flight Recorder Tests")
+    class FlightRecorderTests {
+
+        @Test
+        @DisplayName("TC021: Transactions are recorded as JFR events with card suffix and stage durations")
+        void testTransactionEventsAreRecorded() throws Exception {
+            // Arrange
+            jfrRecordingService.start("default", 60);
+            TransactionRequest request = new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 5.00, "topup");
+
+            // Act
+            process(request, "tc021-key");
+            jfrRecordingService.stop();
+            Path file = jfrRecordingService.dump();
+
+            // Assert
+            try {
+                List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+                RecordedEvent transaction = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("com.bank.poc.core.Transaction"))
+                    .findFirst().orElseThrow();
+                assertEquals("1111", transaction.getString("cardSuffix"));
+                assertEquals("success", transaction.getString("outcome"));
+                assertTrue(transaction.getDuration("cardLookup").toNanos() > 0);
+                assertTrue(transaction.getDuration("ledgerTransaction").compareTo(
+                    transaction.getDuration("balanceUpdate")) >= 0);
+                assertTrue(events.stream().anyMatch(event ->
+                    event.getEventType().getName().equals("com.bank.poc.Span")
+                        && "card.lookup".equals(event.getString("name"))));
+            } finally {
+                Files.deleteIfExists(file);
+                jfrRecordingService.closeRecording();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Logging Tests")
+    class LoggingTests {
+
+        @Test
+        @DisplayName("TC022: Transaction lines go through the async appender, masked and tagged with the trace id")
+        void testTransactionLinesAreLoggedAsynchronously() throws Exception {
+            // Arrange
+            Logger appLogger = (Logger) LoggerFactory.getLogger("com.bank.poc");
+            CountingAsyncAppender async = (CountingAsyncAppender) appLogger.getAppender("ASYNC");
+            assertNotNull(async, "com.bank.poc must log through the async appender");
+            assertFalse(appLogger.isAdditive());
+            // AsyncAppender takes a single downstream appender, so capture in front of it
+            Appender<ILoggingEvent> console = async.iteratorForAppenders().next();
+            List<ILoggingEvent> captured = new CopyOnWriteArrayList<>();
+            List<String> writerThreads = new CopyOnWriteArrayList<>();
+            Filter<ILoggingEvent> capture = new Filter<>() {
+                @Override
+                public FilterReply decide(ILoggingEvent event) {
+                    captured.add(event);
+                    writerThreads.add(Thread.currentThread().getName());
+                    return FilterReply.NEUTRAL;
+                }
+            };
+            console.addFilter(capture);
+            String traceId = "5b8efff798038103d269b633813fc60c";
+            TransactionRequest request = new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 5.00, "topup");
+
+            try {
+                // Act
+                processingController.processTransaction(request, null, "00-" + traceId + "-eee19b7ec3c1b174-01");
+
+                // Assert
+                ILoggingEvent success = null;
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (success == null && System.currentTimeMillis() < deadline) {
+                    success = captured.stream()
+                        .filter(event -> event.getMessage().startsWith("Transaction successful"))
+                        .findFirst().orElse(null);
+                    Thread.sleep(10);
+                }
+                assertNotNull(success, "Success line should reach the appender");
+                assertTrue(success.getFormattedMessage().contains("Card: ****1111"));
+                assertFalse(success.getFormattedMessage().contains(VALID_CARD_NUMBER));
+                assertEquals(traceId, success.getMDCPropertyMap().get(Tracer.TRACE_ID_MDC_KEY));
+                assertEquals(Thread.currentThread().getName(), success.getThreadName());
+                assertTrue(writerThreads.get(captured.indexOf(success)).startsWith("AsyncAppender-Worker"),
+                    "Line should be written by the async worker, not the request thread");
+            } finally {
+                console.clearAllFilters();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Connection Pool Bulkhead Tests")
+    class BulkheadTests {
+
+        @Test
+        @DisplayName("TC023: Exhausting the reporting pool does not block payments")
+        void testReportingCannotStarvePayments() throws Exception {
+            // Arrange: dashboard work holds every reporting connection
+            HikariDataSource reportingPool = dataSourceRoutingConfig.getReportingPool();
+            assertNotNull(reportingPool, "Bulkheads should be enabled by default");
+            List<Connection> held = new ArrayList<>();
+            try {
+                for (int i = 0; i < reportingPool.getMaximumPoolSize(); i++) {
+                    held.add(Workload.REPORTING.call(() -> {
+                        try {
+                            return dataSource.getConnection();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+                }
+                assertEquals(reportingPool.getMaximumPoolSize(),
+                    reportingPool.getHikariPoolMXBean().getActiveConnections());
+
+                // Act
+                TransactionResponse response = cardService.processTransaction(
+                    new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 10.00, "withdraw"));
+
+                // Assert
+                assertTrue(response.isSuccess(), "Payments use their own pool");
+                assertTrue(meterRegistry.find("hikaricp.connections.acquire")
+                    .tag("pool", DataSourceRoutingConfig.REPORTING_POOL).timer().count() > 0);
+            } finally {
+                for (Connection connection : held) {
+                    connection.close();
+                }
+            }
+
+            // Dashboard requests run on the reporting executor as the reporting workload
+            ResponseEntity<Workload> workload = reportingExecutor
+                .submit(() -> ResponseEntity.ok(Workload.current()))
+                .get(5, TimeUnit.SECONDS);
+            assertEquals(Workload.REPORTING, workload.getBody());
+            ResponseEntity<CardInfoResponse> missing = processingController.getCard("4000000000000000", null)
+                .get(5, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("History JSON Tests")
+    class HistoryJsonTests {
+
+        @Test
+        @DisplayName("TC024: Streamed history JSON is identical to serialising the history DTOs")
+        void testStreamedHistoryMatchesObjectMapper() throws Exception {
+            // Arrange: rows covering null and escaped values and every timestamp precision
+            List<TransactionRow> rows = List.of(
+                new TransactionRow(3L, VALID_CARD_NUMBER, "withdraw", 12.5,
+                    LocalDateTime.of(2024, 2, 29, 23, 59, 0), "FAILED", "Quote \" and \u00e9 \n"),
+                new TransactionRow(2L, VALID_CARD_NUMBER, "topup", 100.0,
+                    LocalDateTime.of(2024, 1, 1, 0, 0, 5, 120_000_000), "SUCCESS", null),
+                new TransactionRow(1L, "123", "topup", 0.01,
+                    LocalDateTime.of(999, 12, 31, 9, 8, 7, 123_456_789), "SUCCESS", "ok"),
+                new TransactionRow(null, null, "withdraw", 1e7, null, "SUCCESS", "ok"),
+                new TransactionRow(4L, "4000000000000002", "topup", 3.0,
+                    LocalDateTime.of(10_000, 1, 1, 0, 0, 0, 1_000), "SUCCESS", "ok"));
+            List<TransactionHistoryResponse> dtos = rows.stream()
+                .map(row -> new TransactionHistoryResponse(row.id(), row.cardNumber(),
+                    CryptoUtil.maskCardNumber(row.cardNumber()), row.type(), row.amount(), row.timestamp(),
+                    row.status(), row.reason()))
+                .toList();
+
+            // Act
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            historyWriter.write(rows.stream(), streamed);
+
+            // Assert
+            assertEquals(objectMapper.writeValueAsString(dtos), streamed.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("TC025: Card history is written straight from the query as the DTO list would be")
+        void testCardHistoryJson() throws Exception {
+            // Arrange
+            cardService.processTransaction(new TransactionRequest(VALID_CARD_NUMBER, VALID_PIN, 10.00, "withdraw"));
+            cardService.processTransaction(new TransactionRequest(VALID_CARD_NUMBER, "9999", 10.00, "withdraw"));
+            // Read the stored rows (timestamps at database precision) on both paths
+            entityManager.flush();
+            entityManager.clear();
+
+            // Act
+            ByteArrayOutputStream card = new ByteArrayOutputStream();
+            cardService.writeTransactionHistory(VALID_CARD_NUMBER, card);
+            ByteArrayOutputStream all = new ByteArrayOutputStream();
+            cardService.writeAllTransactions(all);
+
+            // Assert
+            assertEquals(objectMapper.writeValueAsString(cardService.getTransactionHistory(VALID_CARD_NUMBER)),
+                card.toString(StandardCharsets.UTF_8));
+            assertEquals(objectMapper.writeValueAsString(cardService.getAllTransactions()),
+                all.toString(StandardCharsets.UTF_8));
+            ResponseEntity<StreamingResponseBody> response = processingController.getTransactionHistory("4000000000000000", null)
+                .get(5, TimeUnit.SECONDS);
+            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+            ByteArrayOutputStream empty = new ByteArrayOutputStream();
+            response.getBody().writeTo(empty);
+            assertEquals("[]", empty.toString(StandardCharsets.UTF_8));
+        }
+    }
 }
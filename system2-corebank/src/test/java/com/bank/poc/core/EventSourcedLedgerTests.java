@@ -0,0 +1,151 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.entity.BalanceSnapshot;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.ledger.LedgerRebuildService;
+import com.bank.poc.core.ledger.RebuildReport;
+import com.bank.poc.core.repository.BalanceSnapshotRepository;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Event-sourced ledger: balances derived from the transactions table, snapshots every
+ * five transactions, and a parallel rebuild over a large generated transaction stream.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ledgerdb",
+    "corebank.ledger.event-sourced=true",
+    "corebank.ledger.snapshot-every=5",
+    "logging.level.com.bank.poc=WARN"
+})
+class EventSourcedLedgerTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LedgerRebuildService ledgerRebuildService;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("TC-LEDGER-001: Balance is derived from transactions, not from Card.balance")
+    void testDerivedBalanceAndSnapshots() {
+        String cardNumber = "4600000000000001";
+        createCard(cardNumber, 1000.00);
+
+        // 12 top-ups: genesis snapshot, then one every 5 transactions
+        for (int i = 0; i < 12; i++) {
+            TransactionResponse response = cardService.processTransaction(
+                new TransactionRequest(cardNumber, PIN, 10.00, "topup"));
+            assertTrue(response.isSuccess());
+            assertEquals(1010.00 + i * 10, response.getNewBalance(), 0.001);
+        }
+        List<BalanceSnapshot> snapshots = snapshotRepository.findByCardNumberOrderByLastTransactionIdAsc(cardNumber);
+        assertEquals(3, snapshots.size());
+        assertTrue(snapshots.get(0).isGenesis());
+        assertEquals(1000.00, snapshots.get(0).getBalance(), 0.001);
+        assertEquals(5, snapshots.get(1).getEventCount());
+        assertEquals(1050.00, snapshots.get(1).getBalance(), 0.001);
+        assertEquals(10, snapshots.get(2).getEventCount());
+        assertEquals(1100.00, snapshots.get(2).getBalance(), 0.001);
+
+        // A corrupted projection does not change what the card can spend
+        jdbcTemplate.update("UPDATE cards SET balance = 1000000 WHERE card_number = ?", cardNumber);
+        TransactionResponse tooMuch = cardService.processTransaction(
+            new TransactionRequest(cardNumber, PIN, 5000.00, "withdraw"));
+        assertFalse(tooMuch.isSuccess());
+        assertEquals("Insufficient balance", tooMuch.getMessage());
+
+        TransactionResponse withdrawal = cardService.processTransaction(
+            new TransactionRequest(cardNumber, PIN, 20.00, "withdraw"));
+        assertTrue(withdrawal.isSuccess());
+        assertEquals(1100.00, withdrawal.getNewBalance(), 0.001);
+        assertEquals(1100.00, cardRepository.findById(cardNumber).orElseThrow().getBalance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("TC-LEDGER-002: Rebuild replays a large transaction stream in parallel and fixes drifted balances")
+    void testRebuild() {
+        int cards = 40;
+        int eventsPerCard = 2_500;
+        List<String> cardNumbers = new ArrayList<>();
+        for (int i = 0; i < cards; i++) {
+            String cardNumber = "47000000000" + String.format("%05d", i);
+            cardNumbers.add(cardNumber);
+            createCard(cardNumber, 500.00);
+        }
+        // Cards join the ledger (genesis snapshot of 500.00) before their history is written
+        ledgerRebuildService.rebuild(2);
+
+        // Append transactions directly, leaving Card.balance stale: +3 then -1, repeated
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String cardNumber : cardNumbers) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < eventsPerCard; i++) {
+                boolean topup = i % 2 == 0;
+                rows.add(new Object[]{cardNumber, topup ? "topup" : "withdraw", topup ? 3.00 : 1.00, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO transactions (card_number, type, amount, timestamp, status, reason) "
+                + "VALUES (?, ?, ?, ?, 'SUCCESS', 'generated')", rows);
+        }
+
+        RebuildReport report = ledgerRebuildService.rebuild(2);
+        assertEquals(2, report.partitions());
+        assertTrue(report.events() >= (long) cards * eventsPerCard);
+        assertTrue(report.drifted() >= cards);
+        assertTrue(report.snapshots() >= cards);
+        assertTrue(report.eventsPerSecond() > 0);
+
+        double expected = 500.00 + (eventsPerCard / 2) * 2.00;
+        for (String cardNumber : cardNumbers) {
+            assertEquals(expected, cardRepository.findById(cardNumber).orElseThrow().getBalance(), 0.001);
+        }
+        // The new snapshots let the next payment replay only what came after them
+        TransactionResponse response = cardService.processTransaction(
+            new TransactionRequest(cardNumbers.get(0), PIN, 1.00, "withdraw"));
+        assertEquals(expected - 1.00, response.getNewBalance(), 0.001);
+
+        // Nothing left to fix
+        assertEquals(0, ledgerRebuildService.rebuild(2).drifted());
+    }
+
+    private void createCard(String cardNumber, double balance) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(balance);
+        card.setCustomerName("Ledger Test");
+        card.setUsername("ledger-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+    }
+}
@@ -0,0 +1,179 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.dto.TransactionHistoryResponse;
+import com.bank.poc.core.events.TransactionEventStream;
+import com.bank.poc.core.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Server-sent event streams: a card's stream and the admin firehose over HTTP, and eviction
+ * of a client that stops reading.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:eventsdb",
+        "corebank.events.buffer-size=8",
+        "logging.level.com.bank.poc=WARN"
+    })
+class EventStreamTests {
+
+    private static final String CARD_NUMBER = "4123456789012345";
+    private static final String PIN = "1234";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransactionEventStream eventStream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // HTTP/1.1: an HTTP/2 upgrade attempt on the first, still open stream can stall the second
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    @DisplayName("TC-EVENTS-001: Committed transactions are pushed to the card's stream and the firehose")
+    void testCardStreamAndFirehose() throws Exception {
+        BlockingQueue<String> cardLines = new LinkedBlockingQueue<>();
+        BlockingQueue<String> firehoseLines = new LinkedBlockingQueue<>();
+        try (Stream<String> card = open("/events/cards/" + CARD_NUMBER, cardLines);
+             Stream<String> firehose = open("/events/transactions", firehoseLines)) {
+            // Act
+            TransactionResponse topup = cardService.processTransaction(
+                new TransactionRequest(CARD_NUMBER, PIN, 25.00, "topup"));
+            TransactionResponse declined = cardService.processTransaction(
+                new TransactionRequest(CARD_NUMBER, "9999", 10.00, "withdraw"));
+
+            // Assert: the card's stream gets the new balance, then both history rows
+            assertTrue(topup.isSuccess());
+            assertFalse(declined.isSuccess());
+            String balance = nextData(cardLines, "balance");
+            assertTrue(balance.contains("\"balance\":" + topup.getNewBalance()), balance);
+            String successRow = nextData(cardLines, "transaction");
+            assertTrue(successRow.contains("\"status\":\"SUCCESS\""), successRow);
+            assertTrue(successRow.contains("\"id\":" + topup.getTransactionId()), successRow);
+            String failedRow = nextData(cardLines, "transaction");
+            assertTrue(failedRow.contains("\"reason\":\"Invalid PIN\""), failedRow);
+
+            // The firehose gets the rows but no balances
+            assertTrue(nextData(firehoseLines, "transaction").contains("\"status\":\"SUCCESS\""));
+            assertTrue(nextData(firehoseLines, "transaction").contains("\"status\":\"FAILED\""));
+            assertTrue(firehoseLines.stream().noneMatch(line -> line.equals("event:balance")));
+            assertEquals(1.0, meterRegistry.get("corebank.events.subscribers").tag("stream", "card").gauge().value());
+        }
+    }
+
+    @Test
+    @DisplayName("TC-EVENTS-002: A subscriber that stops reading is evicted without blocking publishers")
+    void testSlowSubscriberIsEvicted() throws Exception {
+        double evictedBefore = meterRegistry.get("corebank.events.evicted").counter().count();
+        TransactionHistoryResponse row = new TransactionHistoryResponse(1L, "4000000000000002", "****0002",
+            "topup", 1.0, LocalDateTime.now(), "SUCCESS", "x".repeat(64 * 1024));
+
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /events/transactions HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            // Streams closed by other tests may still be registered until their next write fails
+            double firehoseBefore = firehoseSubscribers();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (firehoseSubscribers() <= firehoseBefore && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(firehoseSubscribers() > firehoseBefore, "The firehose subscription should be open");
+
+            // Act: publish until the socket buffers and then the subscriber's buffer are full
+            int published = 0;
+            while (meterRegistry.get("corebank.events.evicted").counter().count() == evictedBefore
+                && published < 2_000) {
+                eventStream.publishAfterCommit(row, null);
+                published++;
+            }
+
+            // Assert: evicted, and the server ends the response (a read timeout fails the test)
+            assertTrue(meterRegistry.get("corebank.events.evicted").counter().count() > evictedBefore,
+                "Subscriber should have been evicted after " + published + " events");
+            socket.setSoTimeout(10_000);
+            InputStream in = socket.getInputStream();
+            byte[] chunk = new byte[64 * 1024];
+            while (in.read(chunk) != -1) {
+                // Drain what was sent before the eviction
+            }
+        }
+    }
+
+    private double firehoseSubscribers() {
+        return meterRegistry.get("corebank.events.subscribers").tag("stream", "all").gauge().value();
+    }
+
+    private Stream<String> open(String path, BlockingQueue<String> lines) throws Exception {
+        HttpResponse<Stream<String>> response = httpClient.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(10))
+                .build(),
+            HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        Stream<String> body = response.body();
+        Thread reader = new Thread(() -> {
+            try {
+                body.forEach(lines::add);
+            } catch (RuntimeException e) {
+                // Stream closed by the test
+            }
+        }, "sse-reader");
+        reader.setDaemon(true);
+        reader.start();
+        // The first event confirms the subscription is registered
+        assertNotNull(lines.poll(10, TimeUnit.SECONDS), "No response from " + path);
+        return body;
+    }
+
+    /**
+     * The data of the next event with the given name.
+     */
+    private static String nextData(BlockingQueue<String> lines, String eventName) throws InterruptedException {
+        boolean named = false;
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertNotNull(line, "No " + eventName + " event received");
+            if (line.equals("event:" + eventName)) {
+                named = true;
+            } else if (named && line.startsWith("data:")) {
+                return line.substring("data:".length());
+            } else if (line.isEmpty()) {
+                named = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency stress test for the core ledger (CardService.processTransaction).
+ *
+ * Concurrent withdrawals and top-ups hit a few hot cards; afterwards:
+ * 1. Each final balance equals the initial balance plus the SUCCESS rows in transactions
+ *    (no lost updates, no unrecorded changes)
+ * 2. Replaying each card's SUCCESS rows in commit (id) order never goes negative,
+ *    and no response reported a negative balance
+ * 3. Every SUCCESS response has exactly one SUCCESS row
+ *
+ * The request mix comes from a fixed seed (stress.seed) and is checked to force some
+ * declines; only the interleaving differs between runs. The default run is sized for
+ * correctness, not throughput. For use as a regression gate, raise the size and set a
+ * minimum throughput:
+ *   -Dstress.requests=20000 -Dstress.threads=32 -Dstress.min-tps=200
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ledgerstress;LOCK_TIMEOUT=30000",
+    "logging.level.com.bank.poc=WARN"
+})
+class LedgerConcurrencyStressTests {
+
+    private static final String PIN = "1234";
+    private static final List<String> HOT_CARDS = List.of(
+        "4300000000000001", "4300000000000002", "4300000000000003", "4300000000000004");
+    // Well below the withdrawals a card gets (checked per run), so some must be declined
+    private static final double INITIAL_BALANCE = 100.00;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @BeforeEach
+    void setUp() {
+        for (String cardNumber : HOT_CARDS) {
+            Card card = new Card();
+            card.setCardNumber(cardNumber);
+            card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+            card.setPinHash(cardService.hashPin(PIN));
+            card.setBalance(INITIAL_BALANCE);
+            card.setCustomerName("Stress Test");
+            card.setUsername("stress" + cardNumber.substring(12));
+            card.setActive(true);
+            cardRepository.save(card);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findAll().stream()
+            .filter(transaction -> HOT_CARDS.contains(transaction.getCardNumber()))
+            .toList());
+        cardRepository.deleteAllById(HOT_CARDS);
+    }
+
+    @Test
+    @DisplayName("TC-STRESS-001: Concurrent withdrawals and top-ups on hot cards keep the ledger consistent")
+    void testConcurrentTransactionsKeepLedgerConsistent() throws Exception {
+        int requests = Integer.getInteger("stress.requests", 400);
+        int threads = Integer.getInteger("stress.threads", 32);
+        double minTps = Double.parseDouble(System.getProperty("stress.min-tps", "0"));
+        long seed = Long.getLong("stress.seed", 42);
+
+        // A fixed request mix: only the interleaving varies between runs
+        Random random = new Random(seed);
+        List<TransactionRequest> mix = new ArrayList<>(requests);
+        Map<String, Double> withdrawn = new HashMap<>();
+        Map<String, Double> toppedUp = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            String cardNumber = HOT_CARDS.get(random.nextInt(HOT_CARDS.size()));
+            // Whole amounts keep the double arithmetic exact for the balance comparison
+            double amount = 1 + random.nextInt(50);
+            String type = random.nextInt(100) < 60 ? "withdraw" : "topup";
+            (type.equals("withdraw") ? withdrawn : toppedUp).merge(cardNumber, amount, Double::sum);
+            mix.add(new TransactionRequest(cardNumber, PIN, amount, type));
+        }
+        // Declines are certain in any order when a card's withdrawals exceed all it could hold
+        assertTrue(HOT_CARDS.stream().anyMatch(cardNumber -> withdrawn.getOrDefault(cardNumber, 0.0)
+                > INITIAL_BALANCE + toppedUp.getOrDefault(cardNumber, 0.0)),
+            "Request mix cannot force a decline; use more requests or another stress.seed");
+
+        ConcurrentLinkedQueue<TransactionResponse> responses = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        responses.add(cardService.processTransaction(mix.get(i)));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES), "Stress run did not finish");
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double tps = requests / seconds;
+
+        assertTrue(failures.isEmpty(), () -> "Transactions threw: " + failures.peek());
+        assertEquals(requests, responses.size());
+        long successes = responses.stream().filter(TransactionResponse::isSuccess).count();
+        assertTrue(successes > 0 && successes < requests, "Expected both successes and declines, got "
+            + successes + " of " + requests + " succeeded");
+
+        // Invariant 3: one SUCCESS row per SUCCESS response
+        List<Transaction> successRows = transactionRepository.findAll().stream()
+            .filter(transaction -> HOT_CARDS.contains(transaction.getCardNumber()))
+            .filter(transaction -> "SUCCESS".equals(transaction.getStatus()))
+            .sorted(Comparator.comparing(Transaction::getId))
+            .toList();
+        assertEquals(successes, successRows.size(), "SUCCESS responses and SUCCESS rows differ");
+
+        // Invariant 2: no response and no replayed intermediate balance is negative
+        responses.stream()
+            .filter(TransactionResponse::isSuccess)
+            .forEach(response -> assertTrue(response.getNewBalance() >= 0,
+                "Response reported a negative balance: " + response.getNewBalance()));
+        Map<String, Double> replayed = new HashMap<>();
+        HOT_CARDS.forEach(cardNumber -> replayed.put(cardNumber, INITIAL_BALANCE));
+        List<String> negative = new ArrayList<>();
+        for (Transaction row : successRows) {
+            double delta = "withdraw".equals(row.getType()) ? -row.getAmount() : row.getAmount();
+            double balance = replayed.merge(row.getCardNumber(), delta, Double::sum);
+            if (balance < 0) {
+                negative.add(row.getCardNumber() + " after transaction " + row.getId() + ": " + balance);
+            }
+        }
+        assertTrue(negative.isEmpty(), () -> "Balance went negative: " + negative);
+
+        // Invariant 1: final balance == initial + SUCCESS deltas
+        for (String cardNumber : HOT_CARDS) {
+            double actual = cardRepository.findById(cardNumber).orElseThrow().getBalance();
+            assertEquals(replayed.get(cardNumber), actual, 0.001,
+                "Lost or unrecorded update on card " + CryptoUtil.maskCardNumber(cardNumber));
+        }
+
+        assertTrue(tps >= minTps, String.format("Throughput %.0f tx/s (%d requests in %.2f s) below gate %.0f tx/s",
+            tps, requests, seconds, minTps));
+    }
+}
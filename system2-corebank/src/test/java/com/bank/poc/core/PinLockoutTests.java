@@ -0,0 +1,143 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.filter.BloomFilter;
+import com.bank.poc.common.filter.CardFilterSnapshot;
+import com.bank.poc.core.dto.HoldRequest;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.service.CardFilterService;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Failed-PIN lockout: the card is made inactive at the threshold, then declined from memory
+ * until an admin unlocks it.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:pinlockdb",
+    "corebank.pin-lockout.max-attempts=3",
+    "logging.level.com.bank.poc=WARN"
+})
+class PinLockoutTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CardFilterService cardFilterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("TC-PIN-003: Three invalid PINs in a row lock the card until it is unlocked")
+    void testLockoutAndUnlock() {
+        String cardNumber = createCard("4999000000000001");
+        double rejectedBefore = meterRegistry.get("corebank.pin.locked-rejections").counter().count();
+
+        // A correct PIN in between clears the failures
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertEquals("Top-up successful", message(cardNumber, PIN));
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertTrue(cardRepository.findById(cardNumber).orElseThrow().isActive());
+
+        // The third in a row locks it; the correct PIN no longer works, for holds either
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        Card locked = cardRepository.findById(cardNumber).orElseThrow();
+        assertFalse(locked.isActive());
+        assertNotNull(locked.getLockedAt());
+        assertEquals("Card is locked", message(cardNumber, PIN));
+        assertEquals("Card is locked", cardService.authorize(new HoldRequest(cardNumber, PIN, 1.00, null)).getMessage());
+        assertEquals(rejectedBefore + 2, meterRegistry.get("corebank.pin.locked-rejections").counter().count(),
+            "Declined from memory, before the card row is read");
+
+        // Unlocked: usable again with a fresh count
+        assertTrue(cardService.unlockCard(cardNumber));
+        assertFalse(cardService.unlockCard(cardNumber), "Not locked any more");
+        assertEquals("Top-up successful", message(cardNumber, PIN));
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertTrue(cardRepository.findById(cardNumber).orElseThrow().isActive());
+        assertEquals(110.00, cardRepository.findById(cardNumber).orElseThrow().getBalance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("TC-PIN-004: New cards are in the card filter once inserted, and stay in it while locked")
+    void testCardFilterKeepsLockedCards() {
+        String cardNumber = createCard("4999000000000002");
+        assertTrue(inCardFilter(cardNumber), "Added when its insert commits, not at the next rebuild");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        }
+        cardFilterService.rebuild();
+        assertTrue(inCardFilter(cardNumber), "The gateway passes locked cards on to be declined as locked");
+    }
+
+    @Test
+    @DisplayName("TC-PIN-006: An invalid PIN whose database transaction rolls back does not count")
+    void testRolledBackNotCounted() {
+        String cardNumber = createCard("4999000000000003");
+
+        for (int i = 0; i < 3; i++) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertEquals("Invalid PIN", message(cardNumber, "0000"));
+                status.setRollbackOnly();
+            });
+        }
+
+        assertTrue(cardRepository.findById(cardNumber).orElseThrow().isActive());
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertTrue(cardRepository.findById(cardNumber).orElseThrow().isActive(), "Only two failures committed");
+        assertEquals("Invalid PIN", message(cardNumber, "0000"));
+        assertFalse(cardRepository.findById(cardNumber).orElseThrow().isActive());
+    }
+
+    private boolean inCardFilter(String cardNumber) {
+        CardFilterSnapshot snapshot = cardFilterService.getSnapshot();
+        return BloomFilter.fromBytes(Base64.getDecoder().decode(snapshot.getBits()), snapshot.getNumBits(),
+            snapshot.getNumHashes()).mightContain(cardNumber);
+    }
+
+    private String message(String cardNumber, String pin) {
+        return cardService.processTransaction(new TransactionRequest(cardNumber, pin, 5.00, "topup")).getMessage();
+    }
+
+    private String createCard(String cardNumber) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(100.00);
+        card.setCustomerName("Lockout Test");
+        card.setUsername("lockout-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+}
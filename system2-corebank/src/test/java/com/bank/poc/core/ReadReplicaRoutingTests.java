@@ -0,0 +1,136 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import com.bank.poc.core.datasource.ReplicaLagMonitor;
+import com.bank.poc.core.datasource.ReplicaRoutingDataSource;
+import com.bank.poc.core.dto.CardInfoResponse;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Read/write split against two local H2 databases: a primary (managed by Hibernate) and
+ * a "replica" prepared here with the same tables but different data, so every read shows
+ * which database served it. The replica reports its lag through a replica_status table.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:rwprimary",
+    "corebank.datasource.replicas.urls=" + ReadReplicaRoutingTests.REPLICA_URL,
+    "corebank.datasource.replicas.lag-query=SELECT lag_ms FROM replica_status",
+    "corebank.datasource.replicas.max-lag-ms=1000",
+    "corebank.datasource.replicas.check-interval-ms=600000",
+    "logging.level.com.bank.poc=WARN"
+})
+class ReadReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:rwreplica;DB_CLOSE_DELAY=-1";
+
+    private static final String CARD_NUMBER = "4999000000000001";
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private DataSourceRoutingConfig dataSourceRoutingConfig;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        replicaSql(
+            "CREATE TABLE cards (card_number VARCHAR(255) PRIMARY KEY, card_number_encrypted VARCHAR(255), "
+                + "pin_hash VARCHAR(255), balance DOUBLE PRECISION NOT NULL, customer_name VARCHAR(255), "
+                + "username VARCHAR(255), active BOOLEAN NOT NULL, locked_at TIMESTAMP, held_amount DOUBLE PRECISION, "
+                + "version BIGINT DEFAULT 0 NOT NULL)",
+            "INSERT INTO cards VALUES ('" + CARD_NUMBER + "', NULL, NULL, 111.0, 'Replica Copy', 'replica', TRUE, NULL, NULL, 0)",
+            "CREATE TABLE transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY, card_number VARCHAR(255), "
+                + "type VARCHAR(255), amount DOUBLE PRECISION NOT NULL, timestamp TIMESTAMP, status VARCHAR(255), "
+                + "reason VARCHAR(255))",
+            "CREATE TABLE replica_status (lag_ms BIGINT)",
+            "INSERT INTO replica_status VALUES (0)");
+    }
+
+    @AfterAll
+    static void dropReplica() throws SQLException {
+        replicaSql("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("TC-REPLICA-001: Read-only work goes to an in-sync replica, writes and lagging reads to the primary")
+    void testReadWriteSplit() throws SQLException {
+        // Arrange: the primary holds the authoritative row
+        Card card = new Card();
+        card.setCardNumber(CARD_NUMBER);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(CARD_NUMBER));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(1000.00);
+        card.setCustomerName("Primary Copy");
+        card.setUsername("primary");
+        card.setActive(true);
+        cardRepository.save(card);
+        ReplicaRoutingDataSource router = dataSourceRoutingConfig.getRouter();
+        ReplicaRoutingDataSource.Replica replica = router.getReplicas().get(0);
+
+        // In sync: reads are served by the replica
+        replicaLagMonitor.checkAll();
+        assertTrue(replica.isAvailable());
+        assertEquals(0, replica.getLagMs());
+        CardInfoResponse fromReplica = cardService.getCardByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(111.0, fromReplica.getBalance(), 0.001);
+        assertTrue(replica.getReads() > 0);
+
+        // Writes always use the primary
+        TransactionResponse topup = cardService.processTransaction(
+            new TransactionRequest(CARD_NUMBER, PIN, 50.00, "topup"));
+        assertTrue(topup.isSuccess());
+        assertEquals(1050.00, topup.getNewBalance(), 0.001);
+
+        // Lagging beyond the limit: reads fall back to the primary
+        replicaSql("UPDATE replica_status SET lag_ms = 60000");
+        replicaLagMonitor.checkAll();
+        assertFalse(replica.isAvailable());
+        long fallbacks = router.getFallbacks();
+        CardInfoResponse fromPrimary = cardService.getCardByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(1050.00, fromPrimary.getBalance(), 0.001);
+        assertEquals(fallbacks + 1, router.getFallbacks());
+
+        // Caught up again
+        replicaSql("UPDATE replica_status SET lag_ms = 200");
+        replicaLagMonitor.checkAll();
+        assertTrue(replica.isAvailable());
+        assertEquals(111.0, cardService.getCardByCardNumber(CARD_NUMBER).orElseThrow().getBalance(), 0.001);
+    }
+
+    private static void replicaSql(String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
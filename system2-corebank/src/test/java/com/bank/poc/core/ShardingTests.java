@@ -0,0 +1,189 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.core.config.DataSourceRoutingConfig;
+import com.bank.poc.core.dto.TransactionHistoryResponse;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.history.TransactionRow;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.sharding.ShardResolver;
+import com.bank.poc.core.util.CryptoUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cards and transactions spread over three local H2 databases (the primary is shard 0).
+ * Each shard is checked directly over JDBC to see where rows were written.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard0",
+    "corebank.datasource.shards.urls=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+    "logging.level.com.bank.poc=WARN"
+})
+class ShardingTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private ShardResolver shardResolver;
+
+    @Autowired
+    private DataSourceRoutingConfig dataSourceRoutingConfig;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("TC-SHARD-001: Cards and their transactions live on one shard; admin queries merge all shards")
+    void testShardedReadsAndWrites() {
+        // Arrange: enough cards to land on every shard
+        Set<Integer> usedShards = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            String cardNumber = "45000000000000" + (10 + i);
+            createCard(cardNumber, "shard-user-" + i);
+            usedShards.add(shardResolver.shardFor(cardNumber));
+        }
+        assertEquals(3, shardResolver.getShardCount());
+        assertEquals(3, usedShards.size());
+
+        for (int i = 0; i < 9; i++) {
+            String cardNumber = "45000000000000" + (10 + i);
+            int shard = shardResolver.shardFor(cardNumber);
+
+            // Each card is stored on exactly its own shard
+            for (int other = 0; other < 3; other++) {
+                assertEquals(other == shard ? 1 : 0,
+                    countOn(other, "SELECT COUNT(*) FROM cards WHERE card_number = ?", cardNumber));
+            }
+
+            // Writes go to the card's shard, together with its audit rows
+            TransactionResponse response = cardService.processTransaction(
+                new TransactionRequest(cardNumber, PIN, 10.00 + i, "withdraw"));
+            assertTrue(response.isSuccess());
+            assertEquals(990.00 - i, response.getNewBalance(), 0.001);
+            assertEquals(shard, Math.floorMod(response.getTransactionId(), 3));
+            assertEquals(1, countOn(shard, "SELECT COUNT(*) FROM transactions WHERE card_number = ?", cardNumber));
+
+            // Lookups by card or by username find it wherever it is
+            assertEquals(990.00 - i, cardService.getCardByCardNumber(cardNumber).orElseThrow().getBalance(), 0.001);
+            assertEquals(cardNumber, cardService.getCardByUsername("shard-user-" + i).orElseThrow().getCardNumber());
+            List<TransactionHistoryResponse> history = cardService.getTransactionHistory(cardNumber);
+            assertEquals(1, history.size());
+        }
+
+        // Admin view: every shard's transactions, merged newest first, with unique ids
+        long total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            total += countOn(shard, "SELECT COUNT(*) FROM transactions");
+        }
+        List<TransactionHistoryResponse> all = cardService.getAllTransactions();
+        assertEquals(total, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).getTimestamp().isAfter(all.get(i - 1).getTimestamp()),
+                "transactions must be ordered by timestamp descending");
+        }
+        assertEquals(all.size(), all.stream().map(TransactionHistoryResponse::getId).distinct().count());
+        assertEquals(cardRepository.countByActiveTrue(), cardRepository.count());
+    }
+
+    @Test
+    @DisplayName("TC-SHARD-002: A transaction cannot write cards on two shards")
+    void testCrossShardTransactionRejected() {
+        String first = "4500000000000100";
+        String second = first;
+        for (int i = 101; shardResolver.shardFor(second) == shardResolver.shardFor(first); i++) {
+            second = "4500000000000" + i;
+        }
+        String other = second;
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            createCard(first, "cross-1");
+            createCard(other, "cross-2");
+        }));
+
+        // Rolled back on the first shard, never written on the second
+        assertTrue(cardRepository.findById(first).isEmpty());
+        assertTrue(cardRepository.findById(other).isEmpty());
+    }
+
+    @Test
+    @DisplayName("TC-SHARD-003: Pages and streams that name no card are merged across shards")
+    void testScatteredPagesAndStreams() {
+        for (int i = 0; i < 9; i++) {
+            String cardNumber = "45000000000002" + (10 + i);
+            createCard(cardNumber, "page-user-" + i);
+            assertTrue(cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 1.00, "topup")).isSuccess());
+        }
+        List<String> cardNumbers = cardRepository.findAll().stream().map(Card::getCardNumber).sorted().toList();
+
+        // Pages cut from the merged order, with the total over every shard
+        Page<Card> second = cardRepository.findAll(PageRequest.of(1, 4, Sort.by("cardNumber")));
+        assertEquals(cardNumbers.subList(4, 8), second.getContent().stream().map(Card::getCardNumber).toList());
+        assertEquals(cardNumbers.size(), second.getTotalElements());
+        int lastPage = (cardNumbers.size() - 1) / 4;
+        Page<Card> last = cardRepository.findAll(PageRequest.of(lastPage, 4, Sort.by("cardNumber").descending()));
+        assertEquals(cardNumbers.size() - lastPage * 4, last.getNumberOfElements());
+        assertEquals(cardNumbers.get(0), last.getContent().get(last.getNumberOfElements() - 1).getCardNumber());
+        assertFalse(last.hasNext());
+
+        // Streams are merged in order as they are read, and can be left early
+        List<Long> newestFirst = transactionRepository.findAllByOrderByTimestampDesc().stream()
+            .map(Transaction::getId).toList();
+        try (Stream<TransactionRow> rows = transactionRepository.streamAllByOrderByTimestampDesc()) {
+            assertEquals(newestFirst.get(0), rows.findFirst().orElseThrow().id());
+        }
+        try (Stream<TransactionRow> rows = transactionRepository.streamAllByOrderByTimestampDesc()) {
+            assertEquals(newestFirst, rows.map(TransactionRow::id).toList());
+        }
+    }
+
+    private void createCard(String cardNumber, String username) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(1000.00);
+        card.setCustomerName("Shard Test " + username);
+        card.setUsername(username);
+        card.setActive(true);
+        cardRepository.save(card);
+    }
+
+    private long countOn(int shard, String sql, Object... args) {
+        DataSource dataSource = dataSourceRoutingConfig.getShardRouter().getShards().get(shard);
+        return new JdbcTemplate(dataSource).queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,131 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.core.controller.StatsController;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.StatsRollupRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.stats.RollupSnapshot;
+import com.bank.poc.core.stats.TransactionRollups;
+import com.bank.poc.core.stats.TransactionRollups.Granularity;
+import com.bank.poc.core.util.CryptoUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * System-wide rollups: committed transactions show up in GET /stats, and a new instance
+ * restores the windows from their persisted copies.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:statsdb",
+    "corebank.stats.instance=stats-test",
+    "logging.level.com.bank.poc=WARN"
+})
+class StatsTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private StatsController statsController;
+
+    @Autowired
+    private TransactionRollups transactionRollups;
+
+    @Autowired
+    private StatsRollupRepository rollupRepository;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("TC-STATS-004: Committed transactions are served by /stats and survive a restart through stats_rollups")
+    @SuppressWarnings("unchecked")
+    void testStatsEndpointAndRestore() {
+        String cardNumber = createCard("4888000000000001");
+        String otherCard = createCard("4888000000000002");
+        assertTrue(process(cardNumber, PIN, 100.00, "withdraw"));
+        assertTrue(process(cardNumber, PIN, 40.00, "topup"));
+        assertTrue(process(otherCard, PIN, 10.00, "withdraw"));
+        assertFalse(process(otherCard, "0000", 5.00, "withdraw"));
+        assertFalse(process(otherCard, PIN, 5_000.00, "withdraw"));
+
+        Map<String, Object> stats = statsController.stats().getBody();
+        assertEquals(true, stats.get("enabled"));
+        assertEquals("stats-test", stats.get("instance"));
+        Map<String, Object> minutes = (Map<String, Object>) stats.get("minutes");
+        assertEquals(60, minutes.get("size"));
+        assertEquals(60, ((List<RollupSnapshot>) minutes.get("buckets")).size());
+        RollupSnapshot lastHour = (RollupSnapshot) minutes.get("total");
+        assertEquals(5, lastHour.transactions());
+        assertEquals(3, lastHour.successful());
+        assertEquals(110.00, lastHour.withdrawnAmount(), 0.001);
+        assertEquals(40.00, lastHour.toppedUpAmount(), 0.001);
+        assertEquals(Map.of("Invalid PIN", 1L, "Insufficient balance", 1L), lastHour.failureReasons());
+        assertEquals(cardNumber, lastHour.topCards().get(0).cardNumber());
+        assertEquals(140.00, lastHour.topCards().get(0).amount(), 0.001);
+
+        transactionRollups.persist();
+        for (Granularity granularity : Granularity.values()) {
+            long persisted = rollupRepository.findAll().stream()
+                .filter(row -> row.getInstance().equals("stats-test") && row.getGranularity().equals(granularity.name()))
+                .mapToLong(row -> row.getSuccessful() + row.getFailed())
+                .sum();
+            assertEquals(5, persisted, granularity.name());
+        }
+
+        // A new instance with the same name reads the windows back
+        TransactionRollups restarted = new TransactionRollups(rollupRepository, transactionManager, objectMapper,
+            meterRegistry, true, 60, 48, 30, 5, 128, "stats-test");
+        restarted.restore();
+        for (Granularity granularity : Granularity.values()) {
+            assertEquals(transactionRollups.total(granularity), restarted.total(granularity), granularity.name());
+        }
+        TransactionRollups otherInstance = new TransactionRollups(rollupRepository, transactionManager, objectMapper,
+            meterRegistry, true, 60, 48, 30, 5, 128, "other");
+        otherInstance.restore();
+        assertEquals(0, otherInstance.total(Granularity.DAY).transactions());
+    }
+
+    private boolean process(String cardNumber, String pin, double amount, String type) {
+        return cardService.processTransaction(new TransactionRequest(cardNumber, pin, amount, type)).isSuccess();
+    }
+
+    private String createCard(String cardNumber) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(500.00);
+        card.setCustomerName("Stats Test");
+        card.setUsername("stats-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+}
@@ -0,0 +1,122 @@
+package com.bank.poc.core;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.core.dto.HoldRequest;
+import com.bank.poc.core.entity.Card;
+import com.bank.poc.core.repository.CardRepository;
+import com.bank.poc.core.repository.TransactionRepository;
+import com.bank.poc.core.service.CardService;
+import com.bank.poc.core.util.CryptoUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Velocity rules on the authorisation path: declines are audited and counted, and only
+ * successful transactions count towards a card's limits.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:velocitydb",
+    "corebank.velocity.rules=withdraw:count:3:1m,withdraw:amount:100:1h,hold:count:1:1m",
+    "logging.level.com.bank.poc=WARN"
+})
+class VelocityCheckTests {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CryptoUtil cryptoUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("TC-VEL-005: Withdrawals and holds beyond a card's velocity rules are declined")
+    void testVelocityRulesDecline() {
+        String cardNumber = createCard("4888000000000001", 1_000.00);
+        String otherCard = createCard("4888000000000002", 1_000.00);
+
+        // Declined transactions do not count
+        assertFalse(withdraw(cardNumber, "9999", 10.00));
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+
+        // The fourth withdrawal in a minute is declined and audited; top-ups have no rule
+        assertEquals("Velocity limit exceeded", cardService.processTransaction(
+            new TransactionRequest(cardNumber, PIN, 10.00, "withdraw")).getMessage());
+        assertTrue(cardService.processTransaction(new TransactionRequest(cardNumber, PIN, 10.00, "topup")).isSuccess());
+        assertEquals(980.00, cardRepository.findById(cardNumber).orElseThrow().getBalance(), 0.001);
+        assertTrue(transactionRepository.findByCardNumberOrderByTimestampDesc(cardNumber).stream()
+            .anyMatch(row -> "FAILED".equals(row.getStatus()) && "Velocity limit exceeded".equals(row.getReason())));
+        assertEquals(1.0, meterRegistry.get("corebank.velocity.hits").tag("rule", "withdraw:count:3:1m").counter().count());
+
+        // Amount per hour, on another card
+        assertTrue(withdraw(otherCard, PIN, 60.00));
+        assertFalse(withdraw(otherCard, PIN, 40.01));
+        assertTrue(withdraw(otherCard, PIN, 40.00));
+        assertEquals(1.0, meterRegistry.get("corebank.velocity.hits").tag("rule", "withdraw:amount:100:1h").counter().count());
+
+        // One hold a minute; an unknown type is rejected as such, not checked against the hold rule
+        assertTrue(cardService.authorize(new HoldRequest(otherCard, PIN, 1.00, null)).isSuccess());
+        assertEquals("Velocity limit exceeded",
+            cardService.authorize(new HoldRequest(otherCard, PIN, 1.00, null)).getMessage());
+        assertEquals("Invalid transaction type. Use 'withdraw' or 'topup'", cardService.processTransaction(
+            new TransactionRequest(otherCard, PIN, 1.00, "hold")).getMessage());
+        assertEquals(1.0, meterRegistry.get("corebank.velocity.hits").tag("rule", "hold:count:1:1m").counter().count());
+    }
+
+    @Test
+    @DisplayName("TC-VEL-006: A withdrawal whose database transaction rolls back does not count")
+    void testRolledBackNotCounted() {
+        String cardNumber = createCard("4888000000000003", 1_000.00);
+
+        for (int i = 0; i < 3; i++) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertTrue(withdraw(cardNumber, PIN, 10.00));
+                status.setRollbackOnly();
+            });
+        }
+
+        assertEquals(1_000.00, cardRepository.findById(cardNumber).orElseThrow().getBalance(), 0.001);
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+        assertTrue(withdraw(cardNumber, PIN, 10.00));
+        assertFalse(withdraw(cardNumber, PIN, 10.00));
+    }
+
+    private boolean withdraw(String cardNumber, String pin, double amount) {
+        return cardService.processTransaction(new TransactionRequest(cardNumber, pin, amount, "withdraw")).isSuccess();
+    }
+
+    private String createCard(String cardNumber, double balance) {
+        Card card = new Card();
+        card.setCardNumber(cardNumber);
+        card.setCardNumberEncrypted(cryptoUtil.encrypt(cardNumber));
+        card.setPinHash(cardService.hashPin(PIN));
+        card.setBalance(balance);
+        card.setCustomerName("Velocity Test");
+        card.setUsername("velocity-" + cardNumber);
+        card.setActive(true);
+        cardRepository.save(card);
+        return cardNumber;
+    }
+}
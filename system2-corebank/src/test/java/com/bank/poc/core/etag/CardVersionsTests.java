@@ -0,0 +1,40 @@
+package com.bank.poc.core.etag;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for matching If-None-Match against the dashboard ETags.
+ * The tags themselves come from the database (see ConditionalGetTests).
+ */
+class CardVersionsTests {
+
+    private static final String CARD = "4123456789012345";
+
+    @Test
+    @DisplayName("TC-ETAG-001: If-None-Match lists match a tag, and a disabled CardVersions gives no tags")
+    void testNotModified() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CardVersions versions = new CardVersions(registry, null, null, null, true);
+        String current = CardVersions.tag('c', 42);
+
+        assertEquals("\"c16\"", current);
+        assertNotEquals(current, CardVersions.tag('h', 42), "Card info and history are tagged apart");
+        assertTrue(versions.notModified(current, current));
+        assertTrue(versions.notModified("\"x\", W/" + current, current));
+        assertTrue(versions.notModified("*", current));
+        assertFalse(versions.notModified(CardVersions.tag('c', 41), current));
+        assertFalse(versions.notModified(null, current));
+        assertFalse(versions.notModified("*", null));
+        assertEquals(3, registry.get("corebank.etag.not-modified").counter().count());
+
+        // Disabled: the repositories are never asked
+        CardVersions disabled = new CardVersions(new SimpleMeterRegistry(), null, null, null, false);
+        assertNull(disabled.cardTag(CARD));
+        assertNull(disabled.cardTagByUsername("user"));
+        assertNull(disabled.historyTag(CARD));
+    }
+}
@@ -0,0 +1,97 @@
+package com.bank.poc.core.lockout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the in-memory failed-PIN counters.
+ * Uses a manual clock so decay is deterministic.
+ */
+class PinAttemptTrackerTests {
+
+    private static final String CARD = "4123456789012345";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private PinAttemptTracker newTracker(int maxCards) {
+        // 3 attempts, one forgiven per 60 s, lock marks re-checked after 30 s
+        return new PinAttemptTracker(new SimpleMeterRegistry(), true, 3, 60_000, 30_000, 4, maxCards, clock::get);
+    }
+
+    @Test
+    @DisplayName("TC-PIN-001: Failures decay over time and a correct PIN clears them")
+    void testDecayAndReset() {
+        PinAttemptTracker tracker = newTracker(1_000);
+
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        assertTrue(tracker.recordFailureAfterCommit(CARD), "The third failure in a row locks");
+
+        tracker.recordSuccess(CARD);
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        // One failure forgiven after 60 s (and 50 s served towards the next): back to two
+        clock.addAndGet(110_000);
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        clock.addAndGet(9_999);
+        assertTrue(tracker.recordFailureAfterCommit(CARD), "Only one failure forgiven so far");
+
+        tracker.recordSuccess(CARD);
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        clock.addAndGet(120_000);
+        assertFalse(tracker.recordFailureAfterCommit(CARD));
+        assertFalse(tracker.recordFailureAfterCommit(CARD), "Both earlier failures forgiven");
+    }
+
+    @Test
+    @DisplayName("TC-PIN-002: Lock marks decline until re-checked; memory is bounded")
+    void testLockMarksAndEviction() {
+        PinAttemptTracker tracker = newTracker(8);
+
+        // No transaction is active, so the mark is set at once
+        tracker.lockedAfterCommit(CARD);
+        assertTrue(tracker.isLocked(CARD));
+        assertFalse(tracker.isLocked("4000000000000002"));
+        clock.addAndGet(30_000);
+        assertFalse(tracker.isLocked(CARD), "Due for a re-check against the database");
+        tracker.markLocked(CARD);
+        assertTrue(tracker.isLocked(CARD));
+        tracker.resetAfterCommit(CARD);
+        assertFalse(tracker.isLocked(CARD));
+
+        for (int i = 0; i < 100; i++) {
+            tracker.recordFailureAfterCommit(String.format("4000%012d", i));
+            clock.incrementAndGet();
+        }
+        assertTrue(tracker.getTrackedCount() <= 8, "Cards held: " + tracker.getTrackedCount());
+        clock.addAndGet(59_000);
+        tracker.evictIdleCards();
+        assertTrue(tracker.getTrackedCount() > 0, "Failures not yet forgiven are kept");
+        clock.addAndGet(1_000);
+        tracker.evictIdleCards();
+        assertEquals(0, tracker.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("TC-PIN-005: A flood of one-off failures evicts its own counters before a card in use")
+    void testSecondChanceEviction() {
+        PinAttemptTracker tracker = newTracker(16);
+        tracker.recordFailureAfterCommit(CARD);
+        tracker.recordFailureAfterCommit(CARD);
+
+        for (int i = 0; i < 100; i++) {
+            tracker.recordFailureAfterCommit(String.format("4000%012d", i));
+            assertFalse(tracker.isLocked(CARD));
+            clock.incrementAndGet();
+        }
+
+        assertTrue(tracker.getTrackedCount() <= 16, "Cards held: " + tracker.getTrackedCount());
+        assertTrue(tracker.recordFailureAfterCommit(CARD), "The card's failures must survive the flood");
+    }
+}
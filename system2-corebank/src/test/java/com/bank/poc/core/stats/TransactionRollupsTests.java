@@ -0,0 +1,195 @@
+package com.bank.poc.core.stats;
+
+import com.bank.poc.core.entity.Transaction;
+import com.bank.poc.core.stats.TransactionRollups.Granularity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the in-memory system-wide rollups behind GET /stats.
+ * Uses a manual clock so windows and ring wrap-around are deterministic.
+ */
+class TransactionRollupsTests {
+
+    private static final String CARD = "4123456789012345";
+    private static final String OTHER_CARD = "4000000000000002";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 10, 30, 15);
+
+    private final ManualClock clock = new ManualClock(NOW);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionRollups newRollups() {
+        return new TransactionRollups(null, null, null, meterRegistry, true, 60, 48, 30, 5, 128, "test", clock);
+    }
+
+    @Test
+    @DisplayName("TC-STATS-001: Windows add up counts, volume, failure reasons and top cards, and old buckets roll off")
+    void testWindows() {
+        TransactionRollups rollups = newRollups();
+        rollups.record(tx(CARD, "withdraw", 100.00, NOW.withSecond(0), null));
+        rollups.record(tx(OTHER_CARD, "topup", 25.50, NOW.withSecond(5), null));
+        rollups.record(tx(CARD, "withdraw", 900.00, NOW.minusMinutes(1), "Insufficient balance"));
+        rollups.record(tx(OTHER_CARD, "withdraw", 10.00, NOW.minusMinutes(90), "Invalid PIN"));
+        rollups.record(tx(OTHER_CARD, "withdraw", 10.00, NOW.minusMinutes(90), "Invalid PIN"));
+
+        List<RollupSnapshot> minutes = rollups.series(Granularity.MINUTE);
+        assertEquals(60, minutes.size());
+        RollupSnapshot current = minutes.get(59);
+        assertEquals(LocalDateTime.of(2024, 6, 1, 10, 30), current.start());
+        assertEquals(2, current.transactions());
+        assertEquals(100.00, current.withdrawnAmount(), 0.001);
+        assertEquals(25.50, current.toppedUpAmount(), 0.001);
+        assertEquals(Map.of("Insufficient balance", 1L), minutes.get(58).failureReasons());
+        assertEquals(0, minutes.get(0).transactions());
+
+        // The last hour excludes the declines 90 minutes ago; the hours and days include them
+        assertEquals(3, rollups.total(Granularity.MINUTE).transactions());
+        RollupSnapshot day = rollups.total(Granularity.DAY);
+        assertEquals(5, day.transactions());
+        assertEquals(2, day.successful());
+        assertEquals(3, day.failed());
+        assertEquals(1, day.withdrawals());
+        assertEquals(1, day.topups());
+        assertEquals(Map.of("Insufficient balance", 1L, "Invalid PIN", 2L), day.failureReasons());
+        assertEquals(List.of(new CardVolume(CARD, "****2345", 100.00),
+            new CardVolume(OTHER_CARD, "****0002", 25.50)), day.topCards());
+        RollupSnapshot hours = rollups.total(Granularity.HOUR);
+        assertEquals(LocalDateTime.of(2024, 5, 30, 11, 0), hours.start());
+        assertEquals(day.failureReasons(), hours.failureReasons());
+        assertEquals(day.topCards(), hours.topCards());
+
+        // Two hours later the 10:30 minute's slot is reused, and a row from then no longer fits it
+        clock.set(NOW.plusHours(2));
+        rollups.record(tx(CARD, "topup", 1.00, NOW.plusHours(2), null));
+        rollups.record(tx(CARD, "topup", 1.00, NOW, null));
+        assertEquals(1, rollups.total(Granularity.MINUTE).transactions());
+        assertEquals(1.0, meterRegistry.get("corebank.stats.dropped").counter().count());
+        assertEquals(7, rollups.total(Granularity.HOUR).transactions());
+
+        // Days before the window are not counted
+        clock.set(NOW.plusDays(30));
+        assertEquals(0, rollups.total(Granularity.DAY).transactions());
+    }
+
+    @Test
+    @DisplayName("TC-STATS-002: Concurrent recording loses no counts and keeps the heaviest cards exact")
+    void testConcurrentRecording() throws Exception {
+        TransactionRollups rollups = newRollups();
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String card = String.format("4000%012d", (thread * perThread + i) % 40);
+                    rollups.record(tx(card, i % 2 == 0 ? "withdraw" : "topup", 1.25,
+                        NOW.minusSeconds(i % 120), i % 10 == 0 ? "Invalid PIN" : null));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long total = (long) threads * perThread;
+        RollupSnapshot hour = rollups.total(Granularity.MINUTE);
+        assertEquals(total, hour.transactions());
+        assertEquals(total / 10, hour.failed());
+        assertEquals(Map.of("Invalid PIN", total / 10), hour.failureReasons());
+        assertEquals((total / 2 - total / 10) * 1.25, hour.withdrawnAmount(), 0.001);
+        assertEquals(total / 2 * 1.25, hour.toppedUpAmount(), 0.001);
+        assertEquals(total, rollups.total(Granularity.DAY).transactions());
+
+        // 40 cards fit in the sketch, so their volumes are exact
+        Map<String, Double> expected = new HashMap<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                if (i % 10 != 0) {
+                    expected.merge(String.format("4000%012d", (t * perThread + i) % 40), 1.25, Double::sum);
+                }
+            }
+        }
+        assertEquals(5, hour.topCards().size());
+        for (CardVolume card : hour.topCards()) {
+            assertEquals(expected.get(card.cardNumber()), card.amount(), 0.001);
+        }
+    }
+
+    @Test
+    @DisplayName("TC-STATS-003: The top-cards sketch keeps heavy cards among many small ones")
+    void testTopCardsSketch() {
+        TopCards sketch = new TopCards(4, 4);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(String.format("4000%012d", i), 100);
+            if (i % 100 == 0) {
+                sketch.add(CARD, 100_000);
+                sketch.add(OTHER_CARD, 50_000);
+            }
+        }
+        Map<String, Long> volumes = new HashMap<>();
+        sketch.collect(volumes);
+        assertTrue(volumes.size() <= 16, "Counters held: " + volumes.size());
+        List<Map.Entry<String, Long>> top = TopCards.top(volumes, 2);
+        assertEquals(CARD, top.get(0).getKey());
+        assertEquals(OTHER_CARD, top.get(1).getKey());
+        assertTrue(top.get(0).getValue() >= 100 * 100_000L, "Volumes are never under-stated");
+    }
+
+    private static Transaction tx(String cardNumber, String type, double amount, LocalDateTime timestamp, String failure) {
+        return new Transaction(null, cardNumber, type, amount, timestamp, failure == null ? "SUCCESS" : "FAILED",
+            failure == null ? "Transaction completed successfully" : failure);
+    }
+
+    private static final class ManualClock extends Clock {
+        private volatile Instant instant;
+
+        ManualClock(LocalDateTime now) {
+            set(now);
+        }
+
+        void set(LocalDateTime now) {
+            instant = now.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.poc.core.transport;
+
+import com.bank.poc.common.dto.TransactionRequest;
+import com.bank.poc.common.dto.TransactionResponse;
+import com.bank.poc.common.transport.BinaryCodec;
+import com.bank.poc.core.controller.ProcessingController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the binary transport's worker pool.
+ */
+class BinaryTransportServerTests {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Holds every request on its worker until released
+    private final ProcessingController controller = new ProcessingController(null, null, null, null, null, null, null) {
+        @Override
+        public ResponseEntity<TransactionResponse> processTransaction(TransactionRequest request,
+                                                                      String idempotencyKey, String traceparent) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok(TransactionResponse.success("ok", 1.0, 1L));
+        }
+    };
+
+    // 1 worker, 1 queued request
+    private final BinaryTransportServer server = new BinaryTransportServer(controller, true, 0, "", 1, 1, registry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("TC-BIN-001: A request beyond the worker queue is answered \"Server busy\" at once")
+    void testFullQueueRejects() throws Exception {
+        server.start();
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getLocalPort()))) {
+            TransactionRequest request = new TransactionRequest("4123456789012345", "1234", 1.00, "topup");
+            write(channel, BinaryCodec.encodeRequest(1, request, null));
+            assertTrue(started.await(5, TimeUnit.SECONDS), "First request occupies the only worker");
+            write(channel, BinaryCodec.encodeRequest(2, request, null));  // queued
+            write(channel, BinaryCodec.encodeRequest(3, request, null));  // rejected
+
+            BinaryCodec.Frame busy = BinaryCodec.readFrame(channel);
+            assertEquals(3, busy.correlationId());
+            assertEquals(BinaryCodec.ERROR, busy.type());
+            assertEquals("Server busy", BinaryCodec.decodeError(busy.payload()));
+            assertEquals(1, registry.get("corebank.binary.rejected").counter().count());
+
+            // The accepted requests still complete, in order on the single worker
+            release.countDown();
+            for (long expected : new long[]{1, 2}) {
+                BinaryCodec.Frame reply = BinaryCodec.readFrame(channel);
+                assertEquals(expected, reply.correlationId());
+                assertEquals(BinaryCodec.PROCESS_RESPONSE, reply.type());
+                assertTrue(BinaryCodec.decodeResponse(reply.payload()).isSuccess());
+            }
+        }
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bank.poc.core.velocity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the in-memory velocity rules.
+ * Uses a manual clock so windows slide deterministically.
+ */
+class VelocityRuleEngineTests {
+
+    private static final String CARD = "4123456789012345";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VelocityRuleEngine newEngine(String rules, int maxCards) {
+        return new VelocityRuleEngine(meterRegistry, VelocityRule.parseAll(rules), 7, 4, maxCards, clock::get);
+    }
+
+    @Test
+    @DisplayName("TC-VEL-001: Rules parse from the configuration format and reject bad input")
+    void testParse() {
+        List<VelocityRule> rules = VelocityRule.parseAll(" withdraw:count:10:1m, withdraw:amount:2000.50:1h ,*:count:5:30s");
+
+        assertEquals(3, rules.size());
+        assertEquals(new VelocityRule("withdraw", VelocityRule.Metric.AMOUNT, 200_050, Duration.ofHours(1)),
+            rules.get(1));
+        assertEquals("withdraw:count:10:1m", rules.get(0).toString());
+        assertEquals("withdraw:amount:2000.50:1h", rules.get(1).toString());
+        assertEquals("*:count:5:30s", rules.get(2).toString());
+        assertTrue(VelocityRule.parseAll("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> VelocityRule.parse("transfer:count:1:1m"));
+        assertThrows(IllegalArgumentException.class, () -> VelocityRule.parse("withdraw:count:0:1m"));
+        assertThrows(IllegalArgumentException.class, () -> VelocityRule.parse("withdraw:count:1"));
+    }
+
+    @Test
+    @DisplayName("TC-VEL-002: Count and amount limits apply per type over a sliding window")
+    void testSlidingWindow() {
+        VelocityRuleEngine engine = newEngine("withdraw:count:3:60s,*:amount:100:60s", 1_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(engine.check(CARD, "withdraw", 10.00));
+            engine.record(CARD, "withdraw", 10.00);
+            clock.addAndGet(10_000);
+        }
+        assertEquals("withdraw:count:3:1m", engine.check(CARD, "withdraw", 10.00).toString());
+        assertNull(engine.check("4000000000000002", "withdraw", 10.00), "Other cards have their own windows");
+        assertEquals("*:amount:100:1m", engine.check(CARD, "topup", 70.01).toString(), "30 already counted");
+        assertNull(engine.check(CARD, "topup", 70.00));
+        assertEquals(2, meterRegistry.get("corebank.velocity.hits").counters().stream()
+            .mapToDouble(counter -> counter.count()).sum());
+
+        // The first withdrawal is 50 s old: still in the window
+        clock.addAndGet(20_000);
+        assertNotNull(engine.check(CARD, "withdraw", 10.00));
+        // The window slides past it within one bucket (10 s) of it turning 60 s old, never before
+        clock.addAndGet(20_000);
+        assertNull(engine.check(CARD, "withdraw", 10.00));
+        engine.record(CARD, "withdraw", 10.00);
+        assertNotNull(engine.check(CARD, "withdraw", 10.00));
+
+        // A whole lap of the ring later every bucket is stale
+        clock.addAndGet(70_000);
+        assertNull(engine.check(CARD, "topup", 100.00));
+        assertNotNull(engine.check(CARD, "topup", 100.01), "A single amount over the limit is always declined");
+    }
+
+    @Test
+    @DisplayName("TC-VEL-003: Memory is bounded by idle eviction and a per-stripe cap")
+    void testEviction() {
+        VelocityRuleEngine engine = newEngine("withdraw:count:1:60s", 8);
+
+        for (int i = 0; i < 100; i++) {
+            engine.record(String.format("4000%012d", i), "withdraw", 1.00);
+            clock.incrementAndGet();
+        }
+        assertTrue(engine.getCardCount() <= 8, "Cards held: " + engine.getCardCount());
+        engine.record(CARD, "topup", 1.00);
+        assertTrue(engine.getCardCount() <= 8, "Types without rules are not tracked");
+
+        // Idle for longer than the window: swept, and nothing is forgotten that still counted
+        engine.record(CARD, "withdraw", 1.00);
+        clock.addAndGet(30_000);
+        engine.evictIdleCards();
+        assertNotNull(engine.check(CARD, "withdraw", 1.00), "Still inside the window");
+        clock.addAndGet(60_000);
+        engine.evictIdleCards();
+        assertEquals(0, engine.getCardCount());
+        assertTrue(meterRegistry.get("corebank.velocity.evicted").counter().count() >= 92);
+    }
+
+    @Test
+    @DisplayName("TC-VEL-004: Concurrent records on one card are all counted")
+    void testConcurrentRecords() throws Exception {
+        VelocityRuleEngine engine = newEngine("withdraw:count:80001:60s,withdraw:amount:1000:60s", 1_000);
+        int threads = 8;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        engine.record(CARD, "withdraw", 0.01);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // 80,000 withdrawals of 0.01 leave room for exactly one more, of at most 200.00
+        assertNull(engine.check(CARD, "withdraw", 200.00));
+        assertNotNull(engine.check(CARD, "withdraw", 200.01));
+    }
+
+    @Test
+    @DisplayName("TC-VEL-007: A flood of new cards evicts its own counters before a card in use")
+    void testSecondChanceEviction() {
+        VelocityRuleEngine engine = newEngine("withdraw:count:3:60s", 16);
+        for (int i = 0; i < 3; i++) {
+            engine.record(CARD, "withdraw", 1.00);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            engine.record(String.format("4000%012d", i), "withdraw", 1.00);
+            assertNotNull(engine.check(CARD, "withdraw", 1.00));
+            clock.incrementAndGet();
+        }
+
+        assertTrue(engine.getCardCount() <= 16, "Cards held: " + engine.getCardCount());
+        assertNotNull(engine.check(CARD, "withdraw", 1.00),
+            "The card's counters must survive the flood instead of being recreated empty");
+    }
+}